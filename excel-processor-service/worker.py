@@ -95,15 +95,30 @@ def process_excel_file(file_path: str, file_name: str):
 # URL de l'API Java (à configurer proprement dans un fichier de config en production)
 JAVA_API_BASE_URL = "http://localhost:8080" 
 
+def generate_ndjson_frames(data: dict):
+    """
+    Découpe les données traitées en trames NDJSON ("sheet", "row", "end").
+    Chaque trame est produite à la demande : requests les envoie en transfert fragmenté
+    sans construire le document JSON complet en mémoire.
+    """
+    for sheet in data["sheets"]:
+        header = {"type": "sheet", "sheet_name": sheet["sheet_name"],
+                  "schema": sheet["schema"], "total_rows": sheet["total_rows"]}
+        yield (json.dumps(header, default=str) + "\n").encode("utf-8")
+        for row in sheet["data"]:
+            yield (json.dumps({"type": "row", "data": row}, default=str) + "\n").encode("utf-8")
+    yield b'{"type": "end"}\n'
+
 def submit_data_to_java(file_id: int, data: dict):
     """
-    Soumet les données traitées à l'API Java.
+    Soumet les données traitées à l'API Java, en flux NDJSON.
     """
-    url = f"{JAVA_API_BASE_URL}/api/internal/files/{file_id}/processed-data"
+    url = f"{JAVA_API_BASE_URL}/api/internal/files/{file_id}/processed-data/stream"
     try:
         # NOTE: Il faudrait passer le token JWT ici pour sécuriser l'API interne
         # headers = {'Authorization': 'Bearer <token_service_interne>'}
-        response = requests.post(url, json=data)
+        response = requests.post(url, data=generate_ndjson_frames(data),
+                                 headers={"Content-Type": "application/x-ndjson"})
         response.raise_for_status()  # Lève une exception si le statut est 4xx ou 5xx
         print(f" [ok] Données pour le fichier {file_id} soumises avec succès à Java.")
         return True
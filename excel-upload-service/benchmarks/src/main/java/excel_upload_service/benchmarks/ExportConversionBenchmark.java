@@ -0,0 +1,134 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/ExportConversionBenchmark.java
+package excel_upload_service.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.benchmarks.support.BenchmarkContext;
+import excel_upload_service.benchmarks.support.WorkbookGenerator;
+import excel_upload_service.dto.python.SheetData;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.service.export.SheetExportContext;
+import excel_upload_service.service.export.SheetExportWriter;
+import excel_upload_service.service.export.SheetExporter;
+import excel_upload_service.service.storage.RowDecoder;
+import excel_upload_service.service.storage.TypedSheetTable;
+import excel_upload_service.service.storage.TypedSheetTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion des lignes d'une feuille vers chaque format d'export (ExcelDownloadServiceImpl, via SheetExportPipeline) :
+ * décodage de data_json par projection sur les en-têtes ("json") ou valeurs déjà typées lues dans la table de la
+ * feuille ("typed"), puis écriture par le {@link SheetExporter} dans un flux qui ignore les octets.
+ *
+ * Les lignes sont chargées en mémoire avant la mesure : la lecture en flux depuis la base (fetch size MySQL)
+ * n'est pas reproductible sous H2 et n'est pas mesurée ici.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+// Exigence d'Arrow sur JDK 17 (voir ArrowSheetExporter)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+public class ExportConversionBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"10"})
+    public int columns;
+
+    @Param({"xlsx", "csv", "ndjson", "arrow"})
+    public String format;
+
+    @Param({"json", "typed"})
+    public String source;
+
+    @Param({"1000"})
+    public int batchRows;
+
+    private BenchmarkContext context;
+    private RowDecoder rowDecoder;
+    private SheetExporter exporter;
+    private SheetExportContext exportContext;
+    private long fileId;
+    private List<String> dataJson;
+    private List<List<Object>> typedRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        rowDecoder = context.bean(RowDecoder.class);
+        exporter = context.exporter(format);
+
+        fileId = context.nextFileId();
+        SheetEntity sheet = context.ingest(fileId, WorkbookGenerator.workbook("benchmark.xlsx", 1, rows, columns)).get(0);
+        TypedSheetTable table = context.bean(TypedSheetTables.class).find(sheet).orElseThrow();
+        exportContext = new SheetExportContext(sheet.getSheetName(), table.headers(), table.dataTypes(), batchRows);
+
+        if ("json".equals(source)) {
+            SheetData sheetData = WorkbookGenerator.sheet(sheet.getSheetName(), rows, columns, 42L);
+            dataJson = WorkbookGenerator.dataJson(sheetData, context.bean(ObjectMapper.class));
+        } else {
+            int columnCount = table.columns().size();
+            typedRows = context.bean(JdbcTemplate.class).query(
+                    "SELECT " + table.selectList("r") + " FROM " + table.tableName() + " r ORDER BY r.id",
+                    (rs, rowNum) -> {
+                        List<Object> values = new ArrayList<>(columnCount);
+                        for (int i = 1; i <= columnCount; i++) {
+                            Object value = rs.getObject(i);
+                            // Connector/J renvoie les DATETIME en LocalDateTime ; H2 en Timestamp
+                            values.add(value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : value);
+                        }
+                        return values;
+                    });
+        }
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        long written = 0;
+        try (SheetExportWriter writer = exporter.open(OutputStream.nullOutputStream(), exportContext)) {
+            if (dataJson != null) {
+                // Même conversion que SheetExportPipeline : une projection par export
+                RowDecoder.Projection projection = rowDecoder.projection(exportContext.headers());
+                for (String json : dataJson) {
+                    writer.writeRow(Arrays.asList(rowDecoder.decode(json, projection)));
+                    written++;
+                }
+            } else {
+                for (List<Object> values : typedRows) {
+                    writer.writeRow(values);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.dropTables(fileId);
+        context.close();
+    }
+}
@@ -0,0 +1,97 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/GraphBenchmark.java
+package excel_upload_service.benchmarks;
+
+import excel_upload_service.benchmarks.support.BenchmarkContext;
+import excel_upload_service.benchmarks.support.WorkbookGenerator;
+import excel_upload_service.dto.GraphRequestDto;
+import excel_upload_service.service.GraphService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GraphServiceImpl.generateChartData sur une feuille en table typée, cache des graphiques désactivé :
+ * camembert (comptage par catégorie), barres SUM sur deux mesures et barres groupées (deux catégories).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"10"})
+    public int columns;
+
+    private BenchmarkContext context;
+    private GraphService graphService;
+    private long fileId;
+    private Long sheetId;
+    private GraphRequestDto pieRequest;
+    private GraphRequestDto sumRequest;
+    private GraphRequestDto groupedRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        graphService = context.bean(GraphService.class);
+        fileId = context.nextFileId();
+        sheetId = context.ingest(fileId, WorkbookGenerator.workbook("benchmark.xlsx", 1, rows, columns)).get(0).getId();
+
+        pieRequest = request("pie", WorkbookGenerator.CATEGORY, null, null, null);
+        sumRequest = request("bar", WorkbookGenerator.REGION,
+                List.of(WorkbookGenerator.QUANTITY, WorkbookGenerator.AMOUNT), "SUM", null);
+        groupedRequest = request("bar", WorkbookGenerator.REGION, null, null, WorkbookGenerator.CATEGORY);
+    }
+
+    private static GraphRequestDto request(String chartType, String categoryColumn, List<String> valueColumns,
+                                           String aggregationType, String groupingColumn) {
+        GraphRequestDto request = new GraphRequestDto();
+        request.setChartType(chartType);
+        request.setCategoryColumn(categoryColumn);
+        request.setValueColumns(valueColumns);
+        request.setAggregationType(aggregationType);
+        request.setGroupingColumn(groupingColumn);
+        return request;
+    }
+
+    @Benchmark
+    public Map<String, Object> pieCategoryCounts() throws IOException {
+        return graphService.generateChartData(sheetId, pieRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> barSumMeasures() throws IOException {
+        return graphService.generateChartData(sheetId, sumRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> groupedBarCounts() throws IOException {
+        return graphService.generateChartData(sheetId, groupedRequest);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.dropTables(fileId);
+        context.close();
+    }
+}
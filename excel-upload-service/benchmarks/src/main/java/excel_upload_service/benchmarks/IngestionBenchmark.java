@@ -0,0 +1,81 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/IngestionBenchmark.java
+package excel_upload_service.benchmarks;
+
+import excel_upload_service.benchmarks.support.BenchmarkContext;
+import excel_upload_service.benchmarks.support.WorkbookGenerator;
+import excel_upload_service.dto.python.ExcelProcessingResponse;
+import excel_upload_service.service.DataPersistenceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataPersistenceServiceImpl.saveProcessedData : création des tables typées, enregistrement des feuilles
+ * et insertion par lots pipelinés (JdbcBatchWriter), sur un classeur synthétique.
+ *
+ * Temps par classeur ; débit en lignes/s = sheets * rows / temps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"10", "30"})
+    public int columns;
+
+    @Param({"1"})
+    public int sheets;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private BenchmarkContext context;
+    private DataPersistenceService dataPersistenceService;
+    private ExcelProcessingResponse workbook;
+    private long fileId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext(Map.of("ingestion.batch-size", batchSize));
+        dataPersistenceService = context.bean(DataPersistenceService.class);
+        workbook = WorkbookGenerator.workbook("benchmark.xlsx", sheets, rows, columns);
+    }
+
+    @Benchmark
+    public long saveProcessedData() {
+        fileId = context.nextFileId();
+        dataPersistenceService.saveProcessedData(fileId, workbook);
+        return fileId;
+    }
+
+    @TearDown(Level.Invocation)
+    public void dropTables() {
+        if (fileId > 0) {
+            context.dropTables(fileId);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,126 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/RowDecodingBenchmark.java
+package excel_upload_service.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import excel_upload_service.service.storage.RowDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Décodage d'une ligne row_entities.data_json : chemin historique (readValue + TypeReference à chaque ligne),
+ * lecteur pré-construit (Map complète) et projection sur quelques clés (export, graphiques).
+ *
+ * Les lignes imitent celles d'un classeur : texte, entiers, décimaux, dates ISO et cellules vides.
+ * Mesurer aussi les allocations : java -jar target/benchmarks.jar RowDecodingBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowDecodingBenchmark {
+
+    private static final int ROWS = 1024;
+
+    @Param({"10", "50"})
+    public int columns;
+
+    @Param({"2", "5"})
+    public int projectedKeys;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader cachedReader;
+    private RowDecoder rowDecoder;
+    private RowDecoder.Projection projection;
+    private String[] rows;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        cachedReader = objectMapper.readerFor(new TypeReference<LinkedHashMap<String, Object>>() {});
+        rowDecoder = new RowDecoder(objectMapper);
+
+        List<String> headers = new ArrayList<>(columns);
+        for (int c = 0; c < columns; c++) {
+            headers.add("Colonne " + c);
+        }
+        // Clés réparties sur la ligne : la projection ne peut pas s'arrêter aux premières colonnes
+        List<String> keys = new ArrayList<>(projectedKeys);
+        for (int k = 0; k < projectedKeys; k++) {
+            keys.add(headers.get((int) ((long) k * (columns - 1) / Math.max(1, projectedKeys - 1))));
+        }
+        projection = rowDecoder.projection(keys);
+
+        Random random = new Random(42);
+        rows = new String[ROWS];
+        for (int r = 0; r < ROWS; r++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int c = 0; c < columns; c++) {
+                row.put(headers.get(c), cellValue(c, r, random));
+            }
+            rows[r] = objectMapper.writeValueAsString(row);
+        }
+    }
+
+    private static Object cellValue(int column, int row, Random random) {
+        return switch (column % 5) {
+            case 0 -> "Client " + random.nextInt(10_000);
+            case 1 -> random.nextInt(1_000_000);
+            case 2 -> Math.round(random.nextDouble() * 100_000) / 100.0;
+            case 3 -> "2024-" + String.format("%02d-%02d", 1 + row % 12, 1 + row % 28) + "T00:00:00";
+            default -> random.nextInt(4) == 0 ? null : "Catégorie " + random.nextInt(20);
+        };
+    }
+
+    private String nextRow() {
+        String row = rows[next];
+        next = (next + 1) & (ROWS - 1);
+        return row;
+    }
+
+    @Benchmark
+    public Map<String, Object> typeReferencePerRow() throws Exception {
+        return objectMapper.readValue(nextRow(), new TypeReference<Map<String, Object>>() {});
+    }
+
+    @Benchmark
+    public Map<String, Object> cachedReaderFullMap() {
+        return rowDecoder.decode(nextRow());
+    }
+
+    @Benchmark
+    public void cachedReaderThenPick(Blackhole blackhole) throws Exception {
+        // Chemin de l'export avant projection : Map complète puis lecture des colonnes voulues
+        Map<String, Object> row = cachedReader.readValue(nextRow());
+        for (String key : projection.keys()) {
+            blackhole.consume(row.get(key));
+        }
+    }
+
+    @Benchmark
+    public Object[] projectedKeys() {
+        return rowDecoder.decode(nextRow(), projection);
+    }
+}
@@ -0,0 +1,124 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/SearchBenchmark.java
+package excel_upload_service.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.benchmarks.support.BenchmarkContext;
+import excel_upload_service.benchmarks.support.InMemoryRepositories;
+import excel_upload_service.benchmarks.support.WorkbookGenerator;
+import excel_upload_service.dto.RowEntityDto;
+import excel_upload_service.dto.python.SheetData;
+import excel_upload_service.model.RowEntity;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.service.RowEntityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RowEntityServiceImpl.searchBySheetId sur une feuille en table typée : première page, page profonde (OFFSET),
+ * mot-clé, filtre par colonne et tri sur une colonne ("data.Montant", fait par la base).
+ * jsonFirstPage mesure le décodage des lignes row_entities en DTO (anciennes feuilles), la requête JPA étant simulée.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"10"})
+    public int columns;
+
+    @Param({"50"})
+    public int pageSize;
+
+    private BenchmarkContext context;
+    private RowEntityService rowEntityService;
+    private long fileId;
+    private Long typedSheetId;
+    private Long jsonSheetId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        rowEntityService = context.bean(RowEntityService.class);
+
+        fileId = context.nextFileId();
+        SheetData sheet = WorkbookGenerator.sheet("Ventes", rows, columns, 42L);
+        typedSheetId = context.ingest(fileId, WorkbookGenerator.workbook("benchmark.xlsx", 1, rows, columns)).get(0).getId();
+
+        // Même contenu stocké en JSON, comme une feuille ingérée avant les tables typées
+        InMemoryRepositories repositories = context.bean(InMemoryRepositories.class);
+        SheetEntity jsonSheet = repositories.newSheetEntity();
+        jsonSheet.setSheetName("Ventes JSON");
+        List<RowEntity> jsonRows = new ArrayList<>(rows);
+        List<String> dataJson = WorkbookGenerator.dataJson(sheet, context.bean(ObjectMapper.class));
+        for (int i = 0; i < dataJson.size(); i++) {
+            RowEntity row = new RowEntity(dataJson.get(i), jsonSheet);
+            row.setId((long) i + 1);
+            jsonRows.add(row);
+        }
+        repositories.putJsonRows(jsonSheet, jsonRows);
+        jsonSheetId = jsonSheet.getId();
+    }
+
+    @Benchmark
+    public Page<RowEntityDto> typedFirstPage() {
+        return rowEntityService.searchBySheetId(typedSheetId, null, Map.of(), PageRequest.of(0, pageSize));
+    }
+
+    @Benchmark
+    public Page<RowEntityDto> typedDeepPage() {
+        return rowEntityService.searchBySheetId(typedSheetId, null, Map.of(), PageRequest.of(rows / pageSize / 2, pageSize));
+    }
+
+    @Benchmark
+    public Page<RowEntityDto> typedKeyword() {
+        return rowEntityService.searchBySheetId(typedSheetId, "Valeur 4242", Map.of(), PageRequest.of(0, pageSize));
+    }
+
+    @Benchmark
+    public Page<RowEntityDto> typedFilter() {
+        return rowEntityService.searchBySheetId(typedSheetId, null, Map.of(WorkbookGenerator.REGION, "Region 3"),
+                PageRequest.of(0, pageSize));
+    }
+
+    @Benchmark
+    public Page<RowEntityDto> typedSortedByColumn() {
+        return rowEntityService.searchBySheetId(typedSheetId, null, Map.of(),
+                PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "data." + WorkbookGenerator.AMOUNT)));
+    }
+
+    @Benchmark
+    public Page<RowEntityDto> jsonFirstPage() {
+        return rowEntityService.searchBySheetId(jsonSheetId, null, Map.of(), PageRequest.of(0, pageSize));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.dropTables(fileId);
+        context.close();
+    }
+}
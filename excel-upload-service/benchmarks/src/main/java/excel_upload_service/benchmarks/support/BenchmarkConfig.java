@@ -0,0 +1,143 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/support/BenchmarkConfig.java
+package excel_upload_service.benchmarks.support;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import excel_upload_service.config.IndexingConfig;
+import excel_upload_service.config.IngestionExecutorConfig;
+import excel_upload_service.repository.FileEntityRepository;
+import excel_upload_service.repository.RowEntityRepository;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.AggregateService;
+import excel_upload_service.service.JsonIndexService;
+import excel_upload_service.service.ModificationHistoryService;
+import excel_upload_service.service.bulk.BulkRowMutations;
+import excel_upload_service.service.export.ArrowSheetExporter;
+import excel_upload_service.service.export.CsvGzipSheetExporter;
+import excel_upload_service.service.export.NdjsonSheetExporter;
+import excel_upload_service.service.export.XlsxSheetExporter;
+import excel_upload_service.service.graph.GraphResultCache;
+import excel_upload_service.service.graph.IndexedGraphQueries;
+import excel_upload_service.service.impl.DataPersistenceServiceImpl;
+import excel_upload_service.service.impl.GraphServiceImpl;
+import excel_upload_service.service.impl.RowEntityServiceImpl;
+import excel_upload_service.service.impl.SchemaManagerServiceImpl;
+import excel_upload_service.service.ingestion.BatchWriterMetrics;
+import excel_upload_service.service.ingestion.JdbcBatchWriterFactory;
+import excel_upload_service.service.ingestion.SheetPersistenceCoordinator;
+import excel_upload_service.service.observability.PipelineObservations;
+import excel_upload_service.service.search.FullTextSearchSupport;
+import excel_upload_service.service.search.RowSearchQuery;
+import excel_upload_service.service.storage.RowDecoder;
+import excel_upload_service.service.storage.TypedColumnIndexes;
+import excel_upload_service.service.storage.TypedRowQueries;
+import excel_upload_service.service.storage.TypedSheetTables;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Contexte Spring réduit aux services mesurés, branchés sur H2 en mode MySQL à la place du serveur MySQL.
+ *
+ * Les composants du service sont les vrais (ingestion, tables typées, recherche, graphiques, exports) ; les dépôts JPA
+ * sont remplacés par {@link InMemoryRepositories}. Le schéma H2 porte le nom de la base, pour que les requêtes
+ * sur information_schema filtrées par DATABASE() trouvent les tables typées comme sous MySQL ; VALUE, mot réservé
+ * sous H2, reste utilisable comme alias (requêtes de graphiques groupés).
+ */
+@Configuration
+@Import({IngestionExecutorConfig.class, IndexingConfig.class, BatchWriterMetrics.class, JdbcBatchWriterFactory.class,
+        SheetPersistenceCoordinator.class, SchemaManagerServiceImpl.class, DataPersistenceServiceImpl.class,
+        GraphResultCache.class, IndexedGraphQueries.class, GraphServiceImpl.class,
+        TypedSheetTables.class, TypedColumnIndexes.class, TypedRowQueries.class, RowDecoder.class,
+        FullTextSearchSupport.class, RowSearchQuery.class, BulkRowMutations.class, RowEntityServiceImpl.class, PipelineObservations.class,
+        XlsxSheetExporter.class, CsvGzipSheetExporter.class, NdjsonSheetExporter.class, ArrowSheetExporter.class})
+public class BenchmarkConfig {
+
+    public static final String DATABASE = "bench";
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + DATABASE + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1"
+                + ";INIT=CREATE SCHEMA IF NOT EXISTS " + DATABASE + "\\;SET SCHEMA " + DATABASE);
+        config.setUsername("sa");
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(DataSource dataSource) {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        // Mêmes réglages que l'ObjectMapper de Spring Boot pour la lecture des lignes
+        return new ObjectMapper().findAndRegisterModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    // Observations sans effet : l'instrumentation n'entre pas dans les mesures
+    @Bean
+    public ObservationRegistry observationRegistry() {
+        return ObservationRegistry.NOOP;
+    }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public InMemoryRepositories inMemoryRepositories() {
+        return new InMemoryRepositories();
+    }
+
+    @Bean
+    public FileEntityRepository fileEntityRepository(InMemoryRepositories repositories) {
+        return repositories.fileRepository();
+    }
+
+    @Bean
+    public SheetEntityRepository sheetEntityRepository(InMemoryRepositories repositories) {
+        return repositories.sheetRepository();
+    }
+
+    @Bean
+    public RowEntityRepository rowEntityRepository(InMemoryRepositories repositories) {
+        return repositories.rowRepository();
+    }
+
+    // Non sollicité par les chemins mesurés (lectures) : tout appel est une erreur du benchmark
+    @Bean
+    public ModificationHistoryService modificationHistoryService() {
+        return InMemoryRepositories.unsupported(ModificationHistoryService.class);
+    }
+
+    // Graphiques des tables typées : aucun agrégat défini, calcul sur les lignes
+    @Bean
+    public AggregateService aggregateService() {
+        return InMemoryRepositories.noAggregates();
+    }
+
+    @Bean
+    public JsonIndexService jsonIndexService() {
+        return InMemoryRepositories.unsupported(JsonIndexService.class);
+    }
+}
@@ -0,0 +1,86 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/support/BenchmarkContext.java
+package excel_upload_service.benchmarks.support;
+
+import excel_upload_service.dto.python.ExcelProcessingResponse;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.DataPersistenceService;
+import excel_upload_service.service.export.SheetExporter;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Démarre {@link BenchmarkConfig} avec les propriétés de application.yml utiles aux benchmarks
+ * (surchargeables), et prépare des feuilles ingérées par le vrai chemin d'ingestion.
+ */
+public class BenchmarkContext implements AutoCloseable {
+
+    private final AnnotationConfigApplicationContext context;
+    private final AtomicLong fileIds = new AtomicLong();
+
+    public BenchmarkContext(Map<String, Object> properties) {
+        Map<String, Object> effective = new HashMap<>();
+        effective.put("ingestion.batch-size", 1000);
+        // LOAD DATA LOCAL INFILE n'existe pas sous H2 : INSERT par lots uniquement
+        effective.put("ingestion.bulk-load.row-threshold", 0);
+        // Les benchmarks de graphiques mesurent le calcul, pas le cache
+        effective.put("graph.cache.max-entries", 0);
+        effective.put("search.fulltext.enabled", false);
+        effective.putAll(properties);
+
+        this.context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", effective));
+        context.register(BenchmarkConfig.class);
+        context.refresh();
+    }
+
+    public BenchmarkContext() {
+        this(Map.of());
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long nextFileId() {
+        return fileIds.incrementAndGet();
+    }
+
+    /**
+     * Ingère le classeur comme un résultat du worker Python et renvoie ses feuilles (tables typées).
+     */
+    public List<SheetEntity> ingest(long fileId, ExcelProcessingResponse workbook) {
+        bean(DataPersistenceService.class).saveProcessedData(fileId, workbook);
+        return bean(SheetEntityRepository.class).findByFileIdOrderBySheetIndexAsc(fileId);
+    }
+
+    /**
+     * Supprime les tables typées et les feuilles du fichier, pour que la base en mémoire ne grossisse pas entre les itérations.
+     */
+    public void dropTables(long fileId) {
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME LIKE ?",
+                String.class, BenchmarkConfig.DATABASE, "dynamic_table_f" + fileId + "\\_%");
+        tables.forEach(table -> jdbcTemplate.execute("DROP TABLE IF EXISTS " + table));
+        bean(InMemoryRepositories.class).removeFile(fileId);
+    }
+
+    public SheetExporter exporter(String format) {
+        return context.getBeansOfType(SheetExporter.class).values().stream()
+                .filter(exporter -> exporter.getFormat().equals(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Format d'export inconnu : " + format));
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
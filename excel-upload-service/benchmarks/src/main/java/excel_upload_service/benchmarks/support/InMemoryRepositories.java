@@ -0,0 +1,154 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/support/InMemoryRepositories.java
+package excel_upload_service.benchmarks.support;
+
+import excel_upload_service.model.FileEntity;
+import excel_upload_service.model.RowEntity;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.repository.FileEntityRepository;
+import excel_upload_service.repository.RowEntityRepository;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.AggregateService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dépôts JPA remplacés par des maps : les benchmarks mesurent les services et le SQL des tables typées,
+ * pas Hibernate. Seules les méthodes utilisées par les chemins mesurés sont implémentées ;
+ * les autres lèvent UnsupportedOperationException.
+ */
+public class InMemoryRepositories {
+
+    private final Map<Long, SheetEntity> sheets = new ConcurrentHashMap<>();
+    private final Map<Long, List<RowEntity>> jsonRows = new ConcurrentHashMap<>();
+    private final AtomicLong sheetIds = new AtomicLong();
+
+    /**
+     * Lignes row_entities (stockage JSON des anciennes feuilles) renvoyées pour la feuille.
+     */
+    public void putJsonRows(SheetEntity sheet, List<RowEntity> rows) {
+        sheets.put(sheet.getId(), sheet);
+        jsonRows.put(sheet.getId(), rows);
+    }
+
+    public void removeFile(Long fileId) {
+        sheetsOf(fileId).forEach(sheet -> {
+            sheets.remove(sheet.getId());
+            jsonRows.remove(sheet.getId());
+        });
+    }
+
+    public SheetEntity newSheetEntity() {
+        SheetEntity sheet = new SheetEntity();
+        sheet.setId(sheetIds.incrementAndGet());
+        return sheet;
+    }
+
+    public FileEntityRepository fileRepository() {
+        return proxy(FileEntityRepository.class, (name, args) -> switch (name) {
+            case "findById" -> Optional.of(file((Long) args[0]));
+            case "getReferenceById" -> file((Long) args[0]);
+            case "updateStatus", "markFailed" -> 1;
+            default -> unsupported(FileEntityRepository.class, name);
+        });
+    }
+
+    public SheetEntityRepository sheetRepository() {
+        return proxy(SheetEntityRepository.class, (name, args) -> switch (name) {
+            case "save" -> save((SheetEntity) args[0]);
+            case "findById" -> Optional.ofNullable(sheets.get((Long) args[0]));
+            case "countByFileId" -> sheetsOf((Long) args[0]).size();
+            case "findByFileIdOrderBySheetIndexAsc" -> sheetsOf((Long) args[0]);
+            case "incrementDataVersion" -> 1;
+            default -> unsupported(SheetEntityRepository.class, name);
+        });
+    }
+
+    public RowEntityRepository rowRepository() {
+        return proxy(RowEntityRepository.class, (name, args) -> switch (name) {
+            case "searchBySheetIdAndKeyword" -> page(jsonRows.getOrDefault((Long) args[0], List.of()), (Pageable) args[2]);
+            default -> unsupported(RowEntityRepository.class, name);
+        });
+    }
+
+    /**
+     * Agrégats matérialisés sans aucune définition : les graphiques sont calculés sur les lignes, les deltas
+     * des modifications de lignes ne font rien.
+     */
+    public static AggregateService noAggregates() {
+        return proxy(AggregateService.class, (name, args) -> switch (name) {
+            case "findCategoryCounts", "findCategoryMeasures" -> Optional.empty();
+            case "applyRowChange", "applyRowChanges", "applyTypedRowChanges" -> null;
+            default -> unsupported(AggregateService.class, name);
+        });
+    }
+
+    /**
+     * Service sans implémentation dans les benchmarks : tout appel lève UnsupportedOperationException.
+     */
+    public static <T> T unsupported(Class<T> type) {
+        return proxy(type, (name, args) -> unsupported(type, name));
+    }
+
+    private SheetEntity save(SheetEntity sheet) {
+        if (sheet.getId() == null) {
+            sheet.setId(sheetIds.incrementAndGet());
+        }
+        sheets.put(sheet.getId(), sheet);
+        return sheet;
+    }
+
+    private List<SheetEntity> sheetsOf(Long fileId) {
+        List<SheetEntity> result = new ArrayList<>();
+        for (SheetEntity sheet : sheets.values()) {
+            if (sheet.getFile() != null && fileId.equals(sheet.getFile().getId())) {
+                result.add(sheet);
+            }
+        }
+        result.sort(Comparator.comparingInt(SheetEntity::getSheetIndex));
+        return result;
+    }
+
+    private static FileEntity file(Long fileId) {
+        FileEntity file = new FileEntity();
+        file.setId(fileId);
+        file.setFileName("benchmark-" + fileId + ".xlsx");
+        file.setUploadTimestamp(LocalDateTime.now());
+        return file;
+    }
+
+    private static Page<RowEntity> page(List<RowEntity> rows, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), rows.size());
+        int to = Math.min(from + pageable.getPageSize(), rows.size());
+        return new PageImpl<>(rows.subList(from, to), pageable, rows.size());
+    }
+
+    private static Object unsupported(Class<?> type, String method) {
+        throw new UnsupportedOperationException(type.getSimpleName() + "." + method + " n'est pas disponible dans les benchmarks");
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> switch (method.getName()) {
+            case "toString" -> "InMemory" + type.getSimpleName();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> handler.invoke(method.getName(), args == null ? new Object[0] : args);
+        });
+    }
+}
@@ -0,0 +1,115 @@
+// CHEMIN : excel-upload-service/benchmarks/src/main/java/excel_upload_service/benchmarks/support/WorkbookGenerator.java
+package excel_upload_service.benchmarks.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.dto.python.ColumnSchema;
+import excel_upload_service.dto.python.ExcelProcessingResponse;
+import excel_upload_service.dto.python.SheetData;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Classeurs synthétiques au format produit par le worker Python (schéma + lignes), reproductibles (graine fixe).
+ *
+ * Colonnes : Region (12 valeurs), Categorie (40 valeurs), Quantite (INTEGER), Montant (DECIMAL(18, 4)),
+ * Date (DATETIME), puis des colonnes texte "Texte N" jusqu'au nombre de colonnes demandé.
+ * Une cellule texte sur dix est vide, comme dans les exports réels.
+ */
+public final class WorkbookGenerator {
+
+    public static final String REGION = "Region";
+    public static final String CATEGORY = "Categorie";
+    public static final String QUANTITY = "Quantite";
+    public static final String AMOUNT = "Montant";
+    public static final String DATE = "Date";
+
+    private static final int FIXED_COLUMNS = 5;
+
+    private WorkbookGenerator() {
+    }
+
+    public static ExcelProcessingResponse workbook(String fileName, int sheets, int rows, int columns) {
+        ExcelProcessingResponse response = new ExcelProcessingResponse();
+        response.setFileName(fileName);
+        List<SheetData> sheetData = new ArrayList<>(sheets);
+        for (int s = 0; s < sheets; s++) {
+            sheetData.add(sheet("Feuille" + (s + 1), rows, columns, 42L + s));
+        }
+        response.setSheets(sheetData);
+        return response;
+    }
+
+    public static SheetData sheet(String sheetName, int rows, int columns, long seed) {
+        List<ColumnSchema> schema = schema(columns);
+        Random random = new Random(seed);
+        List<Map<String, Object>> data = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int c = 0; c < schema.size(); c++) {
+                row.put(schema.get(c).getName(), cellValue(c, r, random));
+            }
+            data.add(row);
+        }
+        SheetData sheet = new SheetData();
+        sheet.setSheetName(sheetName);
+        sheet.setSchema(schema);
+        sheet.setData(data);
+        sheet.setTotalRows(rows);
+        return sheet;
+    }
+
+    public static List<ColumnSchema> schema(int columns) {
+        List<ColumnSchema> schema = new ArrayList<>();
+        schema.add(column(REGION, "VARCHAR(255)"));
+        schema.add(column(CATEGORY, "VARCHAR(255)"));
+        schema.add(column(QUANTITY, "INTEGER"));
+        schema.add(column(AMOUNT, "DECIMAL(18, 4)"));
+        schema.add(column(DATE, "DATETIME"));
+        for (int c = FIXED_COLUMNS; c < columns; c++) {
+            schema.add(column("Texte " + (c - FIXED_COLUMNS + 1), "VARCHAR(255)"));
+        }
+        return schema;
+    }
+
+    public static List<String> headers(int columns) {
+        return schema(columns).stream().map(ColumnSchema::getName).toList();
+    }
+
+    /**
+     * Lignes sérialisées comme dans row_entities.data_json.
+     */
+    public static List<String> dataJson(SheetData sheet, ObjectMapper objectMapper) {
+        List<String> rows = new ArrayList<>(sheet.getData().size());
+        try {
+            for (Map<String, Object> row : sheet.getData()) {
+                rows.add(objectMapper.writeValueAsString(row));
+            }
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error during JSON serialization", e);
+        }
+        return rows;
+    }
+
+    private static ColumnSchema column(String name, String type) {
+        ColumnSchema column = new ColumnSchema();
+        column.setName(name);
+        column.setType(type);
+        return column;
+    }
+
+    private static Object cellValue(int column, int row, Random random) {
+        return switch (column) {
+            case 0 -> "Region " + random.nextInt(12);
+            case 1 -> "Categorie " + random.nextInt(40);
+            case 2 -> random.nextInt(10_000);
+            case 3 -> Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            case 4 -> String.format("2024-%02d-%02d %02d:00:00", 1 + row % 12, 1 + row % 28, row % 24);
+            default -> random.nextInt(10) == 0 ? null : "Valeur " + random.nextInt(100_000);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+// CHEMIN : excel-upload-service/load-test/src/main/java/excel_upload_service/loadtest/LatencyStats.java
+package excel_upload_service.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Centiles d'une série de durées (en millisecondes), par la méthode du rang le plus proche.
+ */
+public final class LatencyStats {
+
+    private final long[] sorted;
+
+    public LatencyStats(List<Long> valuesMillis) {
+        this.sorted = valuesMillis.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+    }
+
+    public int count() {
+        return sorted.length;
+    }
+
+    public long percentile(double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    public long max() {
+        return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+    }
+
+    public String summary() {
+        if (sorted.length == 0) {
+            return "aucune mesure";
+        }
+        return String.format("p50=%d ms  p90=%d ms  p95=%d ms  p99=%d ms  max=%d ms  (n=%d)",
+                percentile(50), percentile(90), percentile(95), percentile(99), max(), sorted.length);
+    }
+}
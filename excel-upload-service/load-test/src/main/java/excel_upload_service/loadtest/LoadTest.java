@@ -0,0 +1,213 @@
+// CHEMIN : excel-upload-service/load-test/src/main/java/excel_upload_service/loadtest/LoadTest.java
+package excel_upload_service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de charge de bout en bout de l'ingestion : téléversement de classeurs synthétiques puis suivi de leur statut
+ * jusqu'à la persistance complète (COMPLETED) ou l'échec (FAILED).
+ *
+ * Mesures rapportées : débit (fichiers/min, lignes/s), latence du téléversement, délai observé par le client entre
+ * l'envoi et la persistance, et durée de traitement côté serveur (processedAt - uploadTimestamp), en centiles.
+ *
+ * Exemple : java -jar target/load-test.jar --token=$JWT --files=50 --concurrency=8 --rows=20000 --sheets=2
+ */
+public final class LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Options : voir la documentation de " + LoadTestOptions.class.getName());
+            System.exit(2);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ServiceClient client = new ServiceClient(options.baseUrl(), options.token(), objectMapper);
+
+        // Classeurs générés avant la mesure : la génération ne doit pas ralentir la cadence de téléversement
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Map<String, SyntheticWorkbook> workbooks = new LinkedHashMap<>();
+        List<FileRun> runs = new ArrayList<>();
+        for (int n = 0; n < options.files(); n++) {
+            String fileName = "loadtest-" + runId + "-" + n + ".xlsx";
+            SyntheticWorkbook workbook = new SyntheticWorkbook(options.workbook(), n);
+            workbooks.put(fileName, workbook);
+            runs.add(new FileRun(fileName, workbook.toXlsx()));
+        }
+        logger.info("{} classeurs générés ({} feuille(s) x {} lignes).", runs.size(), options.workbook().sheets(), options.workbook().rows());
+
+        WorkerStandIn standIn = options.standInWorker()
+                ? new WorkerStandIn(options, Map.copyOf(workbooks), client, objectMapper)
+                : null;
+        try {
+            long started = System.nanoTime();
+            upload(options, client, runs, started);
+            awaitProcessing(options, client, runs);
+            long elapsed = System.nanoTime() - started;
+            report(options, runs, elapsed);
+            if (options.output() != null) {
+                writeCsv(options, runs);
+            }
+        } finally {
+            if (standIn != null) {
+                standIn.close();
+            }
+        }
+    }
+
+    private static void upload(LoadTestOptions options, ServiceClient client, List<FileRun> runs, long started)
+            throws InterruptedException {
+        long intervalNanos = options.ratePerMinute() > 0 ? (long) (60_000_000_000L / options.ratePerMinute()) : 0;
+        ExecutorService uploaders = Executors.newFixedThreadPool(options.concurrency());
+        for (int n = 0; n < runs.size(); n++) {
+            FileRun run = runs.get(n);
+            long slot = started + n * intervalNanos;
+            uploaders.execute(() -> {
+                try {
+                    long wait = slot - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    run.uploadStarted = System.nanoTime();
+                    run.fileId = client.upload(run.fileName, run.content);
+                    run.uploadFinished = System.nanoTime();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    run.fail("téléversement : " + e);
+                }
+                run.content = null;
+            });
+        }
+        uploaders.shutdown();
+        uploaders.awaitTermination(1, TimeUnit.DAYS);
+    }
+
+    private static void awaitProcessing(LoadTestOptions options, ServiceClient client, List<FileRun> runs)
+            throws InterruptedException {
+        long timeoutNanos = options.timeout().toNanos();
+        List<FileRun> pending = new ArrayList<>(runs.stream().filter(run -> run.outcome == null).toList());
+        while (!pending.isEmpty()) {
+            for (var iterator = pending.iterator(); iterator.hasNext(); ) {
+                FileRun run = iterator.next();
+                try {
+                    ServiceClient.FileStatus status = client.status(run.fileId);
+                    if (status.isDone()) {
+                        run.observed = System.nanoTime();
+                        run.outcome = status.status();
+                        if (status.uploadedAt() != null && status.processedAt() != null) {
+                            run.serverMillis = Duration.between(status.uploadedAt(), status.processedAt()).toMillis();
+                        }
+                        iterator.remove();
+                    } else if (System.nanoTime() - run.uploadFinished > timeoutNanos) {
+                        run.fail("délai dépassé (statut " + status.status() + ")");
+                        iterator.remove();
+                    }
+                } catch (IOException e) {
+                    logger.warn("Statut du fichier {} indisponible : {}", run.fileId, e.getMessage());
+                }
+            }
+            if (!pending.isEmpty()) {
+                Thread.sleep(options.pollInterval().toMillis());
+            }
+        }
+    }
+
+    private static void report(LoadTestOptions options, List<FileRun> runs, long elapsedNanos) {
+        List<FileRun> completed = runs.stream().filter(run -> "COMPLETED".equals(run.outcome)).toList();
+        double minutes = elapsedNanos / 60e9;
+        long rows = completed.size() * options.workbook().totalRows();
+
+        List<Long> uploadMillis = new ArrayList<>();
+        List<Long> persistedMillis = new ArrayList<>();
+        List<Long> serverMillis = new ArrayList<>();
+        for (FileRun run : completed) {
+            uploadMillis.add(TimeUnit.NANOSECONDS.toMillis(run.uploadFinished - run.uploadStarted));
+            persistedMillis.add(TimeUnit.NANOSECONDS.toMillis(run.observed - run.uploadStarted));
+            if (run.serverMillis >= 0) {
+                serverMillis.add(run.serverMillis);
+            }
+        }
+
+        System.out.println();
+        System.out.printf("Fichiers : %d téléversés, %d persistés, %d en échec%n",
+                runs.stream().filter(run -> run.fileId > 0).count(), completed.size(), runs.size() - completed.size());
+        System.out.printf("Durée : %.1f s  Débit : %.1f fichiers/min, %.0f lignes/s%n",
+                elapsedNanos / 1e9, completed.size() / minutes, rows / (minutes * 60));
+        System.out.println("Téléversement          : " + new LatencyStats(uploadMillis).summary());
+        System.out.println("Envoi -> persistance   : " + new LatencyStats(persistedMillis).summary());
+        System.out.println("Traitement (serveur)   : " + new LatencyStats(serverMillis).summary());
+        runs.stream().filter(run -> run.error != null).limit(10)
+                .forEach(run -> System.out.println("  échec " + run.fileName + " : " + run.error));
+    }
+
+    private static void writeCsv(LoadTestOptions options, List<FileRun> runs) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(options.output(), StandardCharsets.UTF_8))) {
+            writer.println("file_name,file_id,outcome,upload_ms,persisted_ms,server_ms,error");
+            for (FileRun run : runs) {
+                boolean uploaded = run.uploadFinished > 0;
+                writer.printf("%s,%d,%s,%s,%s,%s,%s%n",
+                        run.fileName,
+                        run.fileId,
+                        run.outcome,
+                        uploaded ? TimeUnit.NANOSECONDS.toMillis(run.uploadFinished - run.uploadStarted) : "",
+                        run.observed > 0 ? TimeUnit.NANOSECONDS.toMillis(run.observed - run.uploadStarted) : "",
+                        run.serverMillis >= 0 ? run.serverMillis : "",
+                        run.error == null ? "" : "\"" + run.error.replace("\"", "\"\"") + "\"");
+            }
+        }
+        logger.info("Résultats par fichier écrits dans {}.", options.output());
+    }
+
+    /**
+     * Suivi d'un fichier ; les champs sont écrits par un seul thread à la fois (téléversement, puis suivi).
+     */
+    private static final class FileRun {
+
+        final String fileName;
+        volatile byte[] content;
+        volatile long fileId;
+        volatile long uploadStarted;
+        volatile long uploadFinished;
+        volatile long observed;
+        volatile long serverMillis = -1;
+        volatile String outcome;
+        volatile String error;
+
+        FileRun(String fileName, byte[] content) {
+            this.fileName = fileName;
+            this.content = content;
+        }
+
+        void fail(String reason) {
+            outcome = "ERROR";
+            error = reason;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+// CHEMIN : excel-upload-service/load-test/src/main/java/excel_upload_service/loadtest/LoadTestOptions.java
+package excel_upload_service.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Options de la ligne de commande, au format --nom=valeur :
+ * <pre>
+ * --base-url=http://localhost:8080   service excel-upload-service
+ * --token=...                        JWT envoyé en Bearer (à défaut : variable LOADTEST_TOKEN)
+ * --files=20                         nombre de fichiers téléversés
+ * --concurrency=4                    téléversements simultanés au plus
+ * --rate-per-minute=0                cadence de téléversement (0 = au plus vite, limité par concurrency)
+ * --sheets=1 --rows=1000             taille de chaque classeur
+ * --column-types=category,text,integer,decimal,date
+ * --header-offset=0                  lignes vides au-dessus des en-têtes
+ * --merge-every=0                    fusion des cellules de la première colonne "category" par blocs de N lignes
+ * --stand-in-worker=false            consommer la file à la place du worker Python
+ * --stand-in-threads=2               traitements simultanés du remplaçant
+ * --rabbit-host=localhost --rabbit-port=5672 --rabbit-user=user --rabbit-password=password
+ * --storage-dir=                     file-storage du service : le remplaçant y supprime les fichiers traités
+ * --poll-interval-ms=250             suivi de /api/files/{id}/status
+ * --timeout-seconds=600              délai maximal par fichier après son téléversement
+ * --output=                          CSV des résultats par fichier (facultatif)
+ * </pre>
+ */
+public record LoadTestOptions(String baseUrl, String token, int files, int concurrency, double ratePerMinute,
+                              WorkbookSpec workbook, boolean standInWorker, int standInThreads,
+                              String rabbitHost, int rabbitPort, String rabbitUser, String rabbitPassword,
+                              Path storageDir, Duration pollInterval, Duration timeout, Path output) {
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Option invalide (attendu --nom=valeur) : " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            values.put(name, separator < 0 ? "true" : arg.substring(separator + 1));
+        }
+        Options options = new Options(values);
+
+        List<WorkbookSpec.ColumnType> columnTypes = new ArrayList<>();
+        for (String type : options.string("column-types", "category,text,integer,decimal,date").split(",")) {
+            columnTypes.add(WorkbookSpec.ColumnType.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+        }
+        WorkbookSpec workbook = new WorkbookSpec(options.integer("sheets", 1), options.integer("rows", 1000),
+                List.copyOf(columnTypes), options.integer("header-offset", 0), options.integer("merge-every", 0));
+
+        String token = options.string("token", System.getenv("LOADTEST_TOKEN"));
+        String storageDir = options.string("storage-dir", null);
+        String output = options.string("output", null);
+        LoadTestOptions parsed = new LoadTestOptions(
+                stripTrailingSlash(options.string("base-url", "http://localhost:8080")),
+                token,
+                options.integer("files", 20),
+                options.integer("concurrency", 4),
+                Double.parseDouble(options.string("rate-per-minute", "0")),
+                workbook,
+                Boolean.parseBoolean(options.string("stand-in-worker", "false")),
+                options.integer("stand-in-threads", 2),
+                options.string("rabbit-host", "localhost"),
+                options.integer("rabbit-port", 5672),
+                options.string("rabbit-user", "user"),
+                options.string("rabbit-password", "password"),
+                storageDir == null || storageDir.isBlank() ? null : Path.of(storageDir),
+                Duration.ofMillis(options.integer("poll-interval-ms", 250)),
+                Duration.ofSeconds(options.integer("timeout-seconds", 600)),
+                output == null || output.isBlank() ? null : Path.of(output));
+        options.rejectUnknown();
+        parsed.validate();
+        return parsed;
+    }
+
+    private void validate() {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Un JWT est requis : --token=... ou variable LOADTEST_TOKEN.");
+        }
+        if (files < 1 || concurrency < 1 || standInThreads < 1) {
+            throw new IllegalArgumentException("files, concurrency et stand-in-threads doivent être positifs.");
+        }
+        workbook.validate();
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Lecture des valeurs avec défaut ; les options non lues sont signalées comme inconnues.
+     */
+    private static final class Options {
+
+        private final Map<String, String> values;
+
+        Options(Map<String, String> values) {
+            this.values = new HashMap<>(values);
+        }
+
+        String string(String name, String defaultValue) {
+            String value = values.remove(name);
+            return value != null ? value : defaultValue;
+        }
+
+        int integer(String name, int defaultValue) {
+            String value = values.remove(name);
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        }
+
+        void rejectUnknown() {
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Options inconnues : " + values.keySet());
+            }
+        }
+    }
+}
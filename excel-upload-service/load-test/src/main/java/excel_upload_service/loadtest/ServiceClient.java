@@ -0,0 +1,114 @@
+// CHEMIN : excel-upload-service/load-test/src/main/java/excel_upload_service/loadtest/ServiceClient.java
+package excel_upload_service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Appels HTTP au service : téléversement (/api/excel/upload), suivi du traitement (/api/files/{id}/status)
+ * et, pour le remplaçant du worker, envoi des données traitées (/api/internal/files/{id}/processed-data/stream).
+ */
+public class ServiceClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String authorization;
+
+    public ServiceClient(String baseUrl, String token, ObjectMapper objectMapper) {
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.authorization = "Bearer " + token;
+    }
+
+    /**
+     * @return l'id du fichier créé
+     */
+    public long upload(String fileName, byte[] content) throws IOException, InterruptedException {
+        String boundary = "----loadtest" + UUID.randomUUID().toString().replace("-", "");
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 512);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/vnd.openxmlformats-officedocument.spreadsheetml.sheet\r\n\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/excel/upload"))
+                .header("Authorization", authorization)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        JsonNode response = readJson(send(request, "téléversement de " + fileName));
+        JsonNode fileId = response.get("fileId");
+        if (fileId == null || fileId.isNull()) {
+            throw new IOException("Réponse de téléversement sans fileId (service antérieur au suivi du statut ?) : " + response);
+        }
+        return fileId.asLong();
+    }
+
+    public FileStatus status(long fileId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/files/" + fileId + "/status"))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+        JsonNode status = readJson(send(request, "statut du fichier " + fileId));
+        return new FileStatus(text(status, "status"), dateTime(status, "uploadTimestamp"), dateTime(status, "processedAt"));
+    }
+
+    public void submitFrames(long fileId, byte[] ndjson) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/internal/files/" + fileId + "/processed-data/stream"))
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(ndjson))
+                .build();
+        send(request, "données traitées du fichier " + fileId);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request, String description) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("HTTP " + response.statusCode() + " pour " + description + " : "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return response;
+    }
+
+    private JsonNode readJson(HttpResponse<byte[]> response) throws IOException {
+        return objectMapper.readTree(response.body());
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static LocalDateTime dateTime(JsonNode node, String field) {
+        String value = text(node, field);
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    /**
+     * @param status      PENDING, COMPLETED ou FAILED
+     * @param uploadedAt  horodatage serveur du téléversement
+     * @param processedAt horodatage serveur de la fin du traitement (null tant qu'il n'est pas terminé)
+     */
+    public record FileStatus(String status, LocalDateTime uploadedAt, LocalDateTime processedAt) {
+
+        public boolean isDone() {
+            return "COMPLETED".equals(status) || "FAILED".equals(status);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+// CHEMIN : excel-upload-service/load-test/src/main/java/excel_upload_service/loadtest/SyntheticWorkbook.java
+package excel_upload_service.loadtest;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.merge.LoopMergeStrategy;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Classeur synthétique reproductible (même graine, mêmes valeurs) : écrit en XLSX pour le téléversement,
+ * ou directement sous forme de trames NDJSON telles que le worker Python les enverrait après lecture du fichier
+ * (en-têtes détectés, cellules fusionnées propagées, types inférés).
+ *
+ * Aucune cellule de données n'est vide en dehors des cellules fusionnées : le worker propage toute valeur
+ * vers le bas (ffill), une cellule vide ne resterait donc pas vide après traitement.
+ */
+public class SyntheticWorkbook {
+
+    private static final DateTimeFormatter PYTHON_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BATCH_ROWS = 1000;
+
+    private final WorkbookSpec spec;
+    private final long seed;
+    private final List<String> headers;
+
+    public SyntheticWorkbook(WorkbookSpec spec, long seed) {
+        this.spec = spec;
+        this.seed = seed;
+        this.headers = headers(spec.columnTypes());
+    }
+
+    public WorkbookSpec spec() {
+        return spec;
+    }
+
+    public byte[] toXlsx() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelWriter writer = EasyExcel.write(out).build();
+        try {
+            List<List<String>> head = headers.stream().map(List::of).toList();
+            int mergedColumn = spec.mergedColumn();
+            for (int s = 0; s < spec.sheets(); s++) {
+                var sheetBuilder = EasyExcel.writerSheet(s, sheetName(s)).head(head).relativeHeadRowIndex(spec.headerOffset());
+                if (mergedColumn >= 0) {
+                    sheetBuilder.registerWriteHandler(new LoopMergeStrategy(spec.mergeEvery(), mergedColumn));
+                }
+                WriteSheet sheet = sheetBuilder.build();
+                RowGenerator rows = new RowGenerator(s);
+                List<List<Object>> batch = new ArrayList<>(BATCH_ROWS);
+                for (int r = 0; r < spec.rows(); r++) {
+                    List<Object> values = rows.next();
+                    if (mergedColumn >= 0 && r % spec.mergeEvery() != 0) {
+                        // Seule la première cellule d'une zone fusionnée porte la valeur
+                        values.set(mergedColumn, null);
+                    }
+                    batch.add(values);
+                    if (batch.size() == BATCH_ROWS) {
+                        writer.write(batch, sheet);
+                        batch.clear();
+                    }
+                }
+                writer.write(batch, sheet);
+            }
+        } finally {
+            writer.finish();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Trames "sheet", "row" puis "end" attendues par /api/internal/files/{id}/processed-data/stream.
+     */
+    public void writeFrames(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        for (int s = 0; s < spec.sheets(); s++) {
+            List<Map<String, String>> schema = new ArrayList<>(headers.size());
+            for (int c = 0; c < headers.size(); c++) {
+                schema.add(Map.of("name", headers.get(c), "type", spec.columnTypes().get(c).sqlType()));
+            }
+            Map<String, Object> sheetFrame = new LinkedHashMap<>();
+            sheetFrame.put("type", "sheet");
+            sheetFrame.put("sheet_name", sheetName(s));
+            sheetFrame.put("sheet_index", s);
+            sheetFrame.put("schema", schema);
+            sheetFrame.put("total_rows", spec.rows());
+            writeFrame(out, objectMapper, sheetFrame);
+
+            RowGenerator rows = new RowGenerator(s);
+            for (int r = 0; r < spec.rows(); r++) {
+                List<Object> values = rows.next();
+                Map<String, Object> data = new LinkedHashMap<>();
+                for (int c = 0; c < headers.size(); c++) {
+                    Object value = values.get(c);
+                    // Les dates arrivent du worker sous la forme str(Timestamp)
+                    data.put(headers.get(c), value instanceof LocalDateTime date ? date.format(PYTHON_DATE_TIME) : value);
+                }
+                writeFrame(out, objectMapper, Map.of("type", "row", "data", data));
+            }
+        }
+        writeFrame(out, objectMapper, Map.of("type", "end"));
+    }
+
+    private static void writeFrame(OutputStream out, ObjectMapper objectMapper, Map<String, Object> frame) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(frame));
+        out.write('\n');
+    }
+
+    private static String sheetName(int sheetIndex) {
+        return "Feuille" + (sheetIndex + 1);
+    }
+
+    /**
+     * En-têtes numérotés par type ("Categorie 1", "Montant 2"...), distincts une fois nettoyés en noms de colonnes.
+     */
+    private static List<String> headers(List<WorkbookSpec.ColumnType> columnTypes) {
+        Map<WorkbookSpec.ColumnType, Integer> counters = new EnumMap<>(WorkbookSpec.ColumnType.class);
+        List<String> headers = new ArrayList<>(columnTypes.size());
+        for (WorkbookSpec.ColumnType type : columnTypes) {
+            int n = counters.merge(type, 1, Integer::sum);
+            String label = switch (type) {
+                case CATEGORY -> "Categorie";
+                case TEXT -> "Libelle";
+                case INTEGER -> "Quantite";
+                case DECIMAL -> "Montant";
+                case DATE -> "Date";
+            };
+            headers.add(label + " " + n);
+        }
+        return headers;
+    }
+
+    /**
+     * Valeurs logiques des lignes d'une feuille, dans l'ordre : identiques pour le XLSX et pour les trames.
+     */
+    private final class RowGenerator {
+
+        private final Random random;
+        private int row;
+
+        RowGenerator(int sheetIndex) {
+            this.random = new Random(seed * 31 + sheetIndex);
+        }
+
+        List<Object> next() {
+            List<WorkbookSpec.ColumnType> types = spec.columnTypes();
+            int mergedColumn = spec.mergedColumn();
+            List<Object> values = new ArrayList<>(types.size());
+            for (int c = 0; c < types.size(); c++) {
+                values.add(switch (types.get(c)) {
+                    // Une valeur par bloc fusionné, pour que la propagation du worker retrouve la même
+                    case CATEGORY -> "Categorie " + (c == mergedColumn ? (row / spec.mergeEvery()) % 20 : random.nextInt(20));
+                    case TEXT -> "Libelle " + random.nextInt(1_000_000);
+                    case INTEGER -> random.nextInt(100_000);
+                    // Toujours une partie décimale : une colonne de décimaux entiers serait inférée INTEGER
+                    case DECIMAL -> (random.nextInt(1_000_000) * 10 + 5) / 1000.0;
+                    case DATE -> LocalDateTime.of(2024, 1 + row % 12, 1 + row % 28, 0, 0);
+                });
+            }
+            row++;
+            return values;
+        }
+    }
+}
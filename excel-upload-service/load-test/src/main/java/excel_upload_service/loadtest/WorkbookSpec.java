@@ -0,0 +1,62 @@
+// CHEMIN : excel-upload-service/load-test/src/main/java/excel_upload_service/loadtest/WorkbookSpec.java
+package excel_upload_service.loadtest;
+
+import java.util.List;
+
+/**
+ * Forme des classeurs générés.
+ *
+ * @param sheets       nombre de feuilles
+ * @param rows         lignes de données par feuille
+ * @param columnTypes  types des colonnes, dans l'ordre
+ * @param headerOffset lignes vides au-dessus de la ligne d'en-têtes (le worker recherche la ligne d'en-têtes)
+ * @param mergeEvery   taille des blocs de cellules fusionnées dans la première colonne CATEGORY (0 = aucune fusion) ;
+ *                     seule la première cellule d'un bloc porte la valeur, le worker la propage vers le bas
+ */
+public record WorkbookSpec(int sheets, int rows, List<ColumnType> columnTypes, int headerOffset, int mergeEvery) {
+
+    /**
+     * Types de colonnes et type SQL inféré par le worker Python (infer_data_type).
+     */
+    public enum ColumnType {
+        CATEGORY("VARCHAR(255)"),
+        TEXT("VARCHAR(255)"),
+        INTEGER("INTEGER"),
+        DECIMAL("DECIMAL(18, 4)"),
+        DATE("DATETIME");
+
+        private final String sqlType;
+
+        ColumnType(String sqlType) {
+            this.sqlType = sqlType;
+        }
+
+        public String sqlType() {
+            return sqlType;
+        }
+    }
+
+    /**
+     * Index de la colonne fusionnée, ou -1.
+     */
+    public int mergedColumn() {
+        return mergeEvery > 1 ? columnTypes.indexOf(ColumnType.CATEGORY) : -1;
+    }
+
+    public long totalRows() {
+        return (long) sheets * rows;
+    }
+
+    void validate() {
+        if (sheets < 1 || rows < 1 || columnTypes.isEmpty()) {
+            throw new IllegalArgumentException("Un classeur doit avoir au moins une feuille, une ligne et une colonne.");
+        }
+        // Le worker retient la ligne qui a le plus de cellules non vides, et au moins deux
+        if (columnTypes.size() < 2) {
+            throw new IllegalArgumentException("Au moins deux colonnes sont nécessaires à la détection des en-têtes.");
+        }
+        if (headerOffset < 0 || mergeEvery < 0) {
+            throw new IllegalArgumentException("header-offset et merge-every ne peuvent pas être négatifs.");
+        }
+    }
+}
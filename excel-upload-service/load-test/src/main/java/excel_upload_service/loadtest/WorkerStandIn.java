@@ -0,0 +1,112 @@
+// CHEMIN : excel-upload-service/load-test/src/main/java/excel_upload_service/loadtest/WorkerStandIn.java
+package excel_upload_service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.DefaultConsumer;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.AMQP;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Remplaçant du worker Python pour les environnements de test sans lui : consomme la file excel-processing-queue
+ * et envoie au service les trames NDJSON que le worker produirait pour le classeur téléversé.
+ *
+ * Le classeur est retrouvé par son nom d'origine parmi ceux générés par le test ; les messages étrangers au test
+ * sont rejetés sans remise en file. Le coût de lecture du XLSX par le worker n'est donc pas mesuré, seul le chemin
+ * côté service (file, persistance, statut) l'est.
+ */
+public class WorkerStandIn implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerStandIn.class);
+    private static final String QUEUE_NAME = "excel-processing-queue";
+
+    private final Connection connection;
+    private final List<Channel> channels = new ArrayList<>();
+    private final Map<String, SyntheticWorkbook> workbooksByName;
+    private final ServiceClient serviceClient;
+    private final ObjectMapper objectMapper;
+    private final Path storageDir;
+
+    public WorkerStandIn(LoadTestOptions options, Map<String, SyntheticWorkbook> workbooksByName,
+                         ServiceClient serviceClient, ObjectMapper objectMapper) throws IOException, TimeoutException {
+        ConnectionFactory factory = new ConnectionFactory();
+        factory.setHost(options.rabbitHost());
+        factory.setPort(options.rabbitPort());
+        factory.setUsername(options.rabbitUser());
+        factory.setPassword(options.rabbitPassword());
+        this.connection = factory.newConnection("excel-load-test-worker");
+        this.workbooksByName = workbooksByName;
+        this.serviceClient = serviceClient;
+        this.objectMapper = objectMapper;
+        this.storageDir = options.storageDir();
+
+        // Un canal par traitement simultané : chaque canal ne reçoit qu'un message non acquitté à la fois
+        for (int i = 0; i < options.standInThreads(); i++) {
+            Channel channel = connection.createChannel();
+            channel.queueDeclare(QUEUE_NAME, true, false, false, null);
+            channel.basicQos(1);
+            channel.basicConsume(QUEUE_NAME, false, new TaskConsumer(channel));
+            channels.add(channel);
+        }
+        logger.info("Remplaçant du worker à l'écoute de {} ({} canaux).", QUEUE_NAME, channels.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        connection.close();
+    }
+
+    private void process(JsonNode task) throws IOException, InterruptedException {
+        long fileId = task.get("fileId").asLong();
+        String originalFilename = task.get("originalFilename").asText();
+        SyntheticWorkbook workbook = workbooksByName.get(originalFilename);
+        if (workbook == null) {
+            throw new IllegalArgumentException("Fichier étranger au test : " + originalFilename);
+        }
+
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        workbook.writeFrames(frames, objectMapper);
+        serviceClient.submitFrames(fileId, frames.toByteArray());
+
+        // Comme le worker : le fichier stocké est supprimé une fois traité
+        if (storageDir != null) {
+            Files.deleteIfExists(storageDir.resolve(task.get("storedFilename").asText()));
+        }
+    }
+
+    private final class TaskConsumer extends DefaultConsumer {
+
+        TaskConsumer(Channel channel) {
+            super(channel);
+        }
+
+        @Override
+        public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body)
+                throws IOException {
+            try {
+                process(objectMapper.readTree(body));
+                getChannel().basicAck(envelope.getDeliveryTag(), false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                getChannel().basicNack(envelope.getDeliveryTag(), false, true);
+            } catch (Exception e) {
+                logger.warn("Message ignoré par le remplaçant du worker : {}", e.getMessage());
+                getChannel().basicNack(envelope.getDeliveryTag(), false, false);
+            }
+        }
+    }
+}
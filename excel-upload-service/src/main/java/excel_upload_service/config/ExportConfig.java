@@ -0,0 +1,29 @@
+// CHEMIN: excel-upload-service/src/main/java/excel_upload_service/config/ExportConfig.java
+package excel_upload_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExportConfig {
+
+    /**
+     * Pool des tâches d'export. Chaque export garde une connexion ouverte pendant toute la lecture en flux :
+     * le nombre de threads reste petit pour ne pas priver les requêtes HTTP du pool de connexions.
+     * Une demande refusée (file pleine) est marquée en échec plutôt que d'être exécutée par l'appelant.
+     */
+    @Bean(name = "exportExecutor")
+    public ThreadPoolTaskExecutor exportExecutor(
+            @Value("${export.jobs.workers:2}") int workers,
+            @Value("${export.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,27 @@
+// CHEMIN: excel-upload-service/src/main/java/excel_upload_service/config/FileDeletionConfig.java
+package excel_upload_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class FileDeletionConfig {
+
+    /**
+     * Pool des suppressions de fichiers. Un seul thread par défaut : les suppressions s'enchaînent
+     * au lieu de se disputer les verrous et les entrées-sorties avec le trafic normal.
+     * La file n'est pas bornée (une entrée par fichier) ; une suppression interrompue par un arrêt
+     * est relancée au démarrage suivant (statut DELETING).
+     */
+    @Bean(name = "fileDeletionExecutor")
+    public ThreadPoolTaskExecutor fileDeletionExecutor(@Value("${files.deletion.workers:1}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("file-delete-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,39 @@
+// CHEMIN: excel-upload-service/src/main/java/excel_upload_service/config/IndexingConfig.java
+package excel_upload_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class IndexingConfig {
+
+    /**
+     * Thread unique pour les DDL d'indexation déclenchées par l'usage : un ALTER TABLE à la fois
+     * sur row_entities, hors du thread de la requête HTTP.
+     */
+    @Bean(name = "jsonIndexExecutor")
+    public ThreadPoolTaskExecutor jsonIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("json-index-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Thread unique pour la construction des agrégats matérialisés demandés par les graphiques.
+     */
+    @Bean(name = "aggregateBuildExecutor")
+    public ThreadPoolTaskExecutor aggregateBuildExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("aggregate-build-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,60 @@
+// CHEMIN: excel-upload-service/src/main/java/excel_upload_service/config/IngestionExecutorConfig.java
+package excel_upload_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class IngestionExecutorConfig {
+
+    /**
+     * Pool borné utilisé pour persister les feuilles d'un classeur en parallèle.
+     * Par défaut (workers = 0), la taille suit le nombre de cœurs sans dépasser le pool de connexions
+     * (on en laisse deux aux requêtes HTTP). Quand la file est pleine, le thread appelant
+     * exécute lui-même la feuille : la soumission ralentit au lieu d'échouer.
+     */
+    @Bean(name = "sheetPersistenceExecutor")
+    public ThreadPoolTaskExecutor sheetPersistenceExecutor(
+            @Value("${ingestion.parallel-sheets.workers:0}") int workers,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxPoolSize) {
+        int poolSize = workers > 0
+                ? workers
+                : Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), maxPoolSize - 2));
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 4);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("sheet-persist-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool qui exécute les lots des {@link excel_upload_service.service.ingestion.JdbcBatchWriter}.
+     * Un écrivain n'a jamais plus d'un lot en vol : il faut au moins un thread par écriture concurrente
+     * (feuilles parallèles, flux et moteur Java) pour que l'exécution ne se fasse pas attendre.
+     * File bornée : au-delà, l'écrivain exécute son lot lui-même (il attendrait ce lot de toute façon),
+     * ce qui freine la lecture au lieu d'accumuler des lots en mémoire.
+     */
+    @Bean(name = "batchWriterExecutor")
+    public ThreadPoolTaskExecutor batchWriterExecutor(
+            @Value("${ingestion.batch-writer.threads:8}") int threads,
+            @Value("${ingestion.batch-writer.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("batch-writer-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+// CHEMIN: excel-upload-service/src/main/java/excel_upload_service/config/rabbitmq/QueueDepthMetrics.java
+package excel_upload_service.config.rabbitmq;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Profondeur de la file de traitement (messages en attente) et nombre de consommateurs (workers connectés).
+ *
+ * Le courtier est interrogé au plus une fois toutes les 5 secondes, quelle que soit la fréquence de collecte ;
+ * s'il est injoignable, les jauges valent NaN.
+ */
+@Component
+public class QueueDepthMetrics implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueDepthMetrics.class);
+    private static final long REFRESH_NANOS = 5_000_000_000L;
+
+    private final AmqpAdmin amqpAdmin;
+
+    private volatile long refreshedAt = System.nanoTime() - REFRESH_NANOS;
+    private volatile double messageCount = Double.NaN;
+    private volatile double consumerCount = Double.NaN;
+
+    public QueueDepthMetrics(AmqpAdmin amqpAdmin) {
+        this.amqpAdmin = amqpAdmin;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("excel.queue.depth", this, metrics -> metrics.refresh().messageCount)
+                .description("Messages en attente dans la file de traitement")
+                .tag("queue", RabbitMQConfig.QUEUE_NAME)
+                .baseUnit("messages")
+                .register(registry);
+        Gauge.builder("excel.queue.consumers", this, metrics -> metrics.refresh().consumerCount)
+                .description("Consommateurs connectés à la file de traitement")
+                .tag("queue", RabbitMQConfig.QUEUE_NAME)
+                .register(registry);
+    }
+
+    private synchronized QueueDepthMetrics refresh() {
+        long now = System.nanoTime();
+        if (now - refreshedAt < REFRESH_NANOS) {
+            return this;
+        }
+        refreshedAt = now;
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(RabbitMQConfig.QUEUE_NAME);
+            messageCount = info != null ? info.getMessageCount() : Double.NaN;
+            consumerCount = info != null ? info.getConsumerCount() : Double.NaN;
+        } catch (Exception e) {
+            logger.debug("Profondeur de la file {} indisponible : {}", RabbitMQConfig.QUEUE_NAME, e.getMessage());
+            messageCount = Double.NaN;
+            consumerCount = Double.NaN;
+        }
+        return this;
+    }
+}
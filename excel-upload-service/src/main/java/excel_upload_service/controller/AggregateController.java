@@ -0,0 +1,41 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/controller/AggregateController.java
+package excel_upload_service.controller;
+
+import excel_upload_service.model.AggregateDefinition;
+import excel_upload_service.service.AggregateService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/aggregates")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AggregateController {
+
+    private final AggregateService aggregateService;
+
+    public AggregateController(AggregateService aggregateService) {
+        this.aggregateService = aggregateService;
+    }
+
+    @GetMapping("/sheet/{sheetId}")
+    public ResponseEntity<List<AggregateDefinition>> listForSheet(@PathVariable Long sheetId) {
+        return ResponseEntity.ok(aggregateService.listForSheet(sheetId));
+    }
+
+    // Sans valueKey : nombre de lignes par catégorie ; avec : nombre et somme de la colonne par catégorie
+    @PostMapping("/sheet/{sheetId}")
+    public ResponseEntity<AggregateDefinition> register(
+            @PathVariable Long sheetId,
+            @RequestParam String categoryKey,
+            @RequestParam(required = false) String valueKey) {
+        return ResponseEntity.ok(aggregateService.register(sheetId, categoryKey, valueKey));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> drop(@PathVariable Long id) {
+        aggregateService.drop(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,26 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/controller/ApiExceptionHandler.java
+package excel_upload_service.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Traduction des erreurs de saisie en réponses HTTP : les services signalent une requête invalide
+ * (curseur, tri, format...) par une IllegalArgumentException, renvoyée au client en 400 avec son message.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        logger.debug("Requête invalide : {}", e.getMessage());
+        return ResponseEntity.badRequest().body(Map.of("message", String.valueOf(e.getMessage())));
+    }
+}
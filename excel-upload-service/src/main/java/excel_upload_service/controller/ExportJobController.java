@@ -0,0 +1,82 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/controller/ExportJobController.java
+package excel_upload_service.controller;
+
+import excel_upload_service.model.ExportJob;
+import excel_upload_service.service.ExportJobService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    public ExportJobController(ExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    // Formats : xlsx (par défaut), csv (CSV gzip), ndjson, arrow. Un export identique déjà produit est réutilisé.
+    @PostMapping("/sheet/{sheetId}")
+    public ResponseEntity<ExportJob> submit(
+            @PathVariable Long sheetId,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "xlsx") String format) {
+        ExportJob job = exportJobService.submit(sheetId, keyword, format);
+        HttpStatus status = job.getStatus() == ExportJob.Status.COMPLETED ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    @GetMapping("/sheet/{sheetId}")
+    public ResponseEntity<List<ExportJob>> listForSheet(@PathVariable Long sheetId) {
+        return ResponseEntity.ok(exportJobService.listForSheet(sheetId));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportJob> getJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(exportJobService.getJob(jobId));
+    }
+
+    /**
+     * Téléchargement du fichier produit. Les en-têtes Range / If-Range sont gérés par Spring pour une ressource :
+     * un téléchargement interrompu reprend là où il s'est arrêté (réponse 206).
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> download(@PathVariable Long jobId) {
+        ExportJob job = exportJobService.getJob(jobId);
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        Path file = exportJobService.resolveFile(job);
+        if (!Files.exists(file)) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(job.getFileName(), StandardCharsets.UTF_8).build().toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(job.getFingerprint())
+                .lastModified(job.getCompletedAt().atZone(ZoneId.systemDefault()))
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> delete(@PathVariable Long jobId) {
+        exportJobService.delete(jobId);
+        return ResponseEntity.noContent().build();
+    }
+}
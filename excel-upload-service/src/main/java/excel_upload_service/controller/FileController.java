@@ -9,7 +9,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -30,10 +32,14 @@ public class FileController {
         return fileService.getFiles(search, pageable);
     }
 
+    /**
+     * Suppression en arrière-plan : 202 immédiatement, le fichier passe au statut DELETING
+     * (visible sur /{id}/status) jusqu'à la fin de la suppression.
+     */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteFile(@PathVariable Long id) {
         fileService.deleteFile(id);
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.accepted().build();
     }
 
     @GetMapping("/{id}")
@@ -42,6 +48,22 @@ public class FileController {
         return ResponseEntity.ok(file);
     }
 
+    /**
+     * Avancement du traitement, sans charger les feuilles : PENDING, COMPLETED, FAILED ou DELETING
+     * (null pour les fichiers antérieurs au suivi du statut).
+     */
+    @GetMapping("/{id}/status")
+    public ResponseEntity<Map<String, Object>> getFileStatus(@PathVariable Long id) {
+        FileEntity file = fileService.findById(id);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", file.getId());
+        status.put("fileName", file.getFileName());
+        status.put("status", file.getStatus());
+        status.put("uploadTimestamp", file.getUploadTimestamp());
+        status.put("processedAt", file.getProcessedAt());
+        return ResponseEntity.ok(status);
+    }
+
     // NOUVEL ENDPOINT pour lister les feuilles d'un fichier
     @GetMapping("/{id}/sheets")
     public ResponseEntity<List<SheetEntity>> getSheetsForFile(@PathVariable Long id) {
@@ -3,6 +3,7 @@ package excel_upload_service.controller;
 
 import excel_upload_service.dto.GraphRequestDto;
 import excel_upload_service.service.GraphService;
+import excel_upload_service.service.graph.GraphResultCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,9 +16,11 @@ import java.util.Map;
 public class GraphController {
 
     private final GraphService graphService;
+    private final GraphResultCache graphResultCache;
 
-    public GraphController(GraphService graphService) {
+    public GraphController(GraphService graphService, GraphResultCache graphResultCache) {
         this.graphService = graphService;
+        this.graphResultCache = graphResultCache;
     }
 
     // CORRECTION : L'endpoint utilise maintenant {sheetId}
@@ -29,4 +32,10 @@ public class GraphController {
         Map<String, Object> graphData = graphService.generateChartData(sheetId, request);
         return ResponseEntity.ok(graphData);
     }
-}
\ No newline at end of file
+
+    // Compteurs du cache des graphiques (hits, misses, évictions, invalidations)
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(graphResultCache.getStats());
+    }
+}
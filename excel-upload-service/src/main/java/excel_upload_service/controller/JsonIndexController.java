@@ -0,0 +1,50 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/controller/JsonIndexController.java
+package excel_upload_service.controller;
+
+import excel_upload_service.model.JsonKeyIndex;
+import excel_upload_service.service.JsonIndexService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/indexes/json-keys")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class JsonIndexController {
+
+    private final JsonIndexService jsonIndexService;
+
+    public JsonIndexController(JsonIndexService jsonIndexService) {
+        this.jsonIndexService = jsonIndexService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<JsonKeyIndex>> listIndexes() {
+        return ResponseEntity.ok(jsonIndexService.listIndexes());
+    }
+
+    // Clés utilisées par les graphiques sans index, avec leur nombre d'utilisations
+    @GetMapping("/observed")
+    public ResponseEntity<Map<String, Integer>> getObservedKeys() {
+        return ResponseEntity.ok(jsonIndexService.getObservedKeys());
+    }
+
+    @PostMapping
+    public ResponseEntity<JsonKeyIndex> createIndex(@RequestParam String key) {
+        return ResponseEntity.ok(jsonIndexService.createIndex(key, "MANUAL", null));
+    }
+
+    // Indexe tous les en-têtes d'une feuille
+    @PostMapping("/sheet/{sheetId}")
+    public ResponseEntity<List<JsonKeyIndex>> indexSheetHeaders(@PathVariable Long sheetId) {
+        return ResponseEntity.ok(jsonIndexService.indexSheetHeaders(sheetId));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> dropIndex(@PathVariable Long id) {
+        jsonIndexService.dropIndex(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,7 @@
 // CHEMIN : excel-upload-service/src/main/java/excel_upload_service/controller/ModificationHistoryController.java
 package excel_upload_service.controller;
 
+import excel_upload_service.dto.RowVersion;
 import excel_upload_service.model.ModificationHistory;
 import excel_upload_service.service.ModificationHistoryService;
 import org.springframework.data.domain.Page;
@@ -21,9 +22,18 @@ public class ModificationHistoryController {
         this.historyService = historyService;
     }
 
+    // sheetId obligatoire, comme sur les routes des lignes : les ids de ligne d'une table typée sont propres à la feuille
     @GetMapping("/row/{rowId}")
-    public List<ModificationHistory> getHistoryForRow(@PathVariable Long rowId) {
-        return historyService.getHistoryForRow(rowId);
+    public List<ModificationHistory> getHistoryForRow(@PathVariable Long rowId,
+                                                      @RequestParam Long sheetId) {
+        return historyService.getHistoryForRow(sheetId, rowId);
+    }
+    
+    // Version de la ligne après une entrée de son historique (pour une suppression : le contenu supprimé)
+    @GetMapping("/row/{rowId}/versions/{historyId}")
+    public RowVersion getRowVersion(@PathVariable Long rowId, @PathVariable Long historyId,
+                                    @RequestParam Long sheetId) {
+        return historyService.getRowVersion(sheetId, rowId, historyId);
     }
     
     // NOUVEL ENDPOINT
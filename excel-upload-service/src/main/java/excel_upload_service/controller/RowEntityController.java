@@ -1,6 +1,9 @@
 // CHEMIN : excel-upload-service/src/main/java/excel_upload_service/controller/RowEntityController.java
 package excel_upload_service.controller;
 
+import excel_upload_service.dto.BulkRowRequest;
+import excel_upload_service.dto.BulkRowResult;
+import excel_upload_service.dto.RowCursorPage;
 import excel_upload_service.dto.RowEntityDto;
 import excel_upload_service.service.ExcelDownloadService;
 import excel_upload_service.service.RowEntityService;
@@ -10,12 +13,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/rows")
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class RowEntityController {
 
+    private static final String FILTER_PREFIX = "filter.";
+
     private final RowEntityService service;
     private final ExcelDownloadService downloadService;
 
@@ -25,17 +32,37 @@ public class RowEntityController {
     }
 
     // L'endpoint principal pour lister les lignes est maintenant basé sur sheetId
+    // Filtres par colonne : paramètres "filter.<colonne>=valeur" (ou "valeur*" pour un préfixe)
     @GetMapping("/sheet/{sheetId}")
     public Page<RowEntityDto> getRowsForSheet(
             @PathVariable Long sheetId,
             @RequestParam(required = false) String keyword,
+            @RequestParam Map<String, String> params,
             Pageable pageable) {
-        return service.searchBySheetId(sheetId, keyword, pageable);
+        Map<String, String> filters = new LinkedHashMap<>();
+        params.forEach((name, value) -> {
+            if (name.startsWith(FILTER_PREFIX) && value != null && !value.isEmpty()) {
+                filters.put(name.substring(FILTER_PREFIX.length()), value);
+            }
+        });
+        return service.searchBySheetId(sheetId, keyword, filters, pageable);
     }
 
+    // Pagination par curseur : passer le nextCursor de la réponse précédente pour obtenir la page suivante
+    @GetMapping("/sheet/{sheetId}/cursor")
+    public RowCursorPage browseRowsForSheet(
+            @PathVariable Long sheetId,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "asc") String direction) {
+        return service.browseBySheetId(sheetId, keyword, cursor, size, "desc".equalsIgnoreCase(direction));
+    }
+
+    // sheetId obligatoire : les ids de ligne des feuilles stockées en table typée sont propres à la feuille
     @GetMapping("/{id}")
-    public RowEntityDto getById(@PathVariable Long id) {
-        return service.getById(id);
+    public RowEntityDto getById(@PathVariable Long id, @RequestParam Long sheetId) {
+        return service.getInSheet(sheetId, id);
     }
 
     // La création d'une ligne se fait maintenant dans le contexte d'une feuille
@@ -45,22 +72,31 @@ public class RowEntityController {
     }
 
     @PutMapping("/{id}")
-    public RowEntityDto update(@PathVariable Long id, @RequestBody RowEntityDto dto) {
-        return service.update(id, dto);
+    public RowEntityDto update(@PathVariable Long id, @RequestParam Long sheetId, @RequestBody RowEntityDto dto) {
+        return service.updateInSheet(sheetId, id, dto);
     }
 
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable Long id) {
-        service.delete(id);
+    public void delete(@PathVariable Long id, @RequestParam Long sheetId) {
+        service.deleteInSheet(sheetId, id);
+    }
+
+    // Modifications en masse (collage dans la grille) : créations, remplacements puis suppressions,
+    // en une seule transaction ; chaque entrée a son statut dans la réponse
+    @PostMapping("/sheet/{sheetId}/bulk")
+    public BulkRowResult applyBulk(@PathVariable Long sheetId, @RequestBody BulkRowRequest request) {
+        return service.applyBulk(sheetId, request);
     }
 
     // L'endpoint de téléchargement est aussi basé sur sheetId
+    // Formats : xlsx (par défaut), csv (CSV gzip), ndjson, arrow (Arrow IPC stream)
     @GetMapping("/sheet/{sheetId}/download")
     public void downloadExcel(
             @PathVariable Long sheetId,
             @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "xlsx") String format,
             HttpServletResponse response) throws IOException {
-        downloadService.downloadSheetData(sheetId, keyword, response);
+        downloadService.downloadSheetData(sheetId, keyword, format, response);
     }
 
     
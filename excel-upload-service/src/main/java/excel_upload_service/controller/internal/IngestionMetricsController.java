@@ -0,0 +1,29 @@
+// CHEMIN: excel-upload-service/src/main/java/excel_upload_service/controller/internal/IngestionMetricsController.java
+package excel_upload_service.controller.internal;
+
+import excel_upload_service.service.ingestion.BatchWriterMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/internal/ingestion")
+public class IngestionMetricsController {
+
+    private final BatchWriterMetrics batchWriterMetrics;
+
+    public IngestionMetricsController(BatchWriterMetrics batchWriterMetrics) {
+        this.batchWriterMetrics = batchWriterMetrics;
+    }
+
+    /**
+     * Métriques cumulées de l'écriture par lots : lignes, lots, débit (lignes/s) et latence des lots.
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getBatchWriterMetrics() {
+        return ResponseEntity.ok(batchWriterMetrics.snapshot());
+    }
+}
@@ -3,6 +3,7 @@ package excel_upload_service.controller.internal;
 
 import excel_upload_service.dto.python.ExcelProcessingResponse;
 import excel_upload_service.service.DataPersistenceService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -38,4 +39,28 @@ public class InternalProcessingController {
             return ResponseEntity.internalServerError().body("Erreur lors de la sauvegarde des données pour le fichier " + fileId + ": " + e.getMessage());
         }
     }
+
+    /**
+     * Variante en flux de {@link #receiveProcessedData} : le worker envoie des trames NDJSON
+     * ("sheet", "row", "end") en transfert fragmenté, lues et insérées au fil de l'eau.
+     * La mémoire utilisée reste constante quelle que soit la taille du fichier.
+     *
+     * @param fileId L'ID du fichier correspondant dans la base de données.
+     * @param request La requête HTTP dont le corps est lu directement, sans désérialisation globale.
+     * @return Une réponse de succès ou d'échec.
+     */
+    @PostMapping(value = "/{fileId}/processed-data/stream", consumes = "application/x-ndjson")
+    public ResponseEntity<String> receiveProcessedDataStream(
+            @PathVariable Long fileId,
+            HttpServletRequest request
+    ) {
+        try {
+            long rows = dataPersistenceService.saveProcessedDataStream(fileId, request.getInputStream());
+            return ResponseEntity.ok("Données pour le fichier " + fileId + " sauvegardées avec succès (" + rows + " lignes).");
+        } catch (Exception e) {
+            // La transaction du flux est annulée : l'échec est enregistré à part
+            dataPersistenceService.markFailed(fileId);
+            return ResponseEntity.internalServerError().body("Erreur lors de la sauvegarde des données pour le fichier " + fileId + ": " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
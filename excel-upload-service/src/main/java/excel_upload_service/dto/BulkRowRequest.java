@@ -0,0 +1,41 @@
+package excel_upload_service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modifications en masse des lignes d'une feuille, appliquées dans une seule transaction
+ * et dans cet ordre : créations, remplacements, suppressions.
+ */
+public class BulkRowRequest {
+    // Lignes à créer : seul data est lu
+    private List<RowEntityDto> creates = new ArrayList<>();
+    // Lignes à remplacer : id et data
+    private List<RowEntityDto> updates = new ArrayList<>();
+    // Ids des lignes à supprimer
+    private List<Long> deletes = new ArrayList<>();
+
+    public BulkRowRequest() {
+    }
+
+    public BulkRowRequest(List<RowEntityDto> creates, List<RowEntityDto> updates, List<Long> deletes) {
+        this.creates = creates;
+        this.updates = updates;
+        this.deletes = deletes;
+    }
+
+    public int size() {
+        return sizeOf(creates) + sizeOf(updates) + sizeOf(deletes);
+    }
+
+    private static int sizeOf(List<?> items) {
+        return items == null ? 0 : items.size();
+    }
+
+    public List<RowEntityDto> getCreates() { return creates; }
+    public void setCreates(List<RowEntityDto> creates) { this.creates = creates; }
+    public List<RowEntityDto> getUpdates() { return updates; }
+    public void setUpdates(List<RowEntityDto> updates) { this.updates = updates; }
+    public List<Long> getDeletes() { return deletes; }
+    public void setDeletes(List<Long> deletes) { this.deletes = deletes; }
+}
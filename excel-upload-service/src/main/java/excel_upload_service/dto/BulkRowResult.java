@@ -0,0 +1,72 @@
+package excel_upload_service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat d'une modification en masse : un élément par entrée de la requête, dans l'ordre
+ * créations, remplacements, suppressions. Une entrée en échec (ligne absente, entrée invalide)
+ * n'empêche pas l'application des autres.
+ */
+public class BulkRowResult {
+
+    public static final String OK = "OK";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID = "INVALID";
+
+    private int created;
+    private int updated;
+    private int deleted;
+    private int failed;
+    private List<Item> items = new ArrayList<>();
+
+    public void add(Item item) {
+        items.add(item);
+        if (!OK.equals(item.getStatus())) {
+            failed++;
+            return;
+        }
+        switch (item.getOperation()) {
+            case "CREATE" -> created++;
+            case "UPDATE" -> updated++;
+            default -> deleted++;
+        }
+    }
+
+    public int getCreated() { return created; }
+    public int getUpdated() { return updated; }
+    public int getDeleted() { return deleted; }
+    public int getFailed() { return failed; }
+    public List<Item> getItems() { return items; }
+
+    public static class Item {
+        private String operation; // CREATE, UPDATE, DELETE
+        // Position de l'entrée dans sa liste de la requête (creates, updates ou deletes)
+        private int index;
+        private Long id;
+        private String status;
+        private String message;
+
+        public Item() {
+        }
+
+        public Item(String operation, int index, Long id, String status, String message) {
+            this.operation = operation;
+            this.index = index;
+            this.id = id;
+            this.status = status;
+            this.message = message;
+        }
+
+        public String getOperation() { return operation; }
+        public void setOperation(String operation) { this.operation = operation; }
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,34 @@
+package excel_upload_service.dto;
+
+import java.util.List;
+
+/**
+ * Page de lignes en pagination par curseur : nextCursor est à renvoyer tel quel pour obtenir
+ * la page suivante (null sur la dernière page).
+ */
+public class RowCursorPage {
+    private List<RowEntityDto> content;
+    private String nextCursor;
+    private boolean hasNext;
+    // Nombre de lignes de la feuille, tel qu'enregistré sur la feuille (première page uniquement)
+    private Long approximateTotal;
+
+    public RowCursorPage() {
+    }
+
+    public RowCursorPage(List<RowEntityDto> content, String nextCursor, boolean hasNext, Long approximateTotal) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+        this.approximateTotal = approximateTotal;
+    }
+
+    public List<RowEntityDto> getContent() { return content; }
+    public void setContent(List<RowEntityDto> content) { this.content = content; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+    public Long getApproximateTotal() { return approximateTotal; }
+    public void setApproximateTotal(Long approximateTotal) { this.approximateTotal = approximateTotal; }
+}
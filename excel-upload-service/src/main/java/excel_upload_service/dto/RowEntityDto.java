@@ -4,14 +4,17 @@ import java.util.Map;
 
 public class RowEntityDto {
     private Long id;
+    // Feuille de la ligne : avec l'id, identifie la ligne (ids propres à la feuille pour les tables typées)
+    private Long sheetId;
     private int sheetIndex;
     private Map<String, Object> data;
 
     public RowEntityDto() {
     }
 
-    public RowEntityDto(Long id, int sheetIndex, Map<String, Object> data) {
+    public RowEntityDto(Long id, Long sheetId, int sheetIndex, Map<String, Object> data) {
         this.id = id;
+        this.sheetId = sheetId;
         this.sheetIndex = sheetIndex;
         this.data = data;
     }
@@ -24,6 +27,14 @@ public class RowEntityDto {
         this.id = id;
     }
 
+    public Long getSheetId() {
+        return sheetId;
+    }
+
+    public void setSheetId(Long sheetId) {
+        this.sheetId = sheetId;
+    }
+
     public int getSheetIndex() {
         return sheetIndex;
     }
@@ -44,6 +55,7 @@ public class RowEntityDto {
     public String toString() {
         return "RowEntityDto{" +
                 "id=" + id +
+                ", sheetId=" + sheetId +
                 ", sheetIndex=" + sheetIndex +
                 ", data=" + data +
                 '}';
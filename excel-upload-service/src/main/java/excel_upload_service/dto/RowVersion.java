@@ -0,0 +1,44 @@
+package excel_upload_service.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Contenu d'une ligne tel qu'il était après une entrée de son historique, reconstruit depuis
+ * l'instantané le plus proche et les deltas qui le suivent. Pour une suppression, data est
+ * le contenu de la ligne au moment où elle a été supprimée.
+ */
+public class RowVersion {
+    private Long rowEntityId;
+    private Long historyId;
+    private String operationType;
+    private LocalDateTime timestamp;
+    private boolean deleted;
+    private Map<String, Object> data;
+
+    public RowVersion() {
+    }
+
+    public RowVersion(Long rowEntityId, Long historyId, String operationType, LocalDateTime timestamp,
+                      boolean deleted, Map<String, Object> data) {
+        this.rowEntityId = rowEntityId;
+        this.historyId = historyId;
+        this.operationType = operationType;
+        this.timestamp = timestamp;
+        this.deleted = deleted;
+        this.data = data;
+    }
+
+    public Long getRowEntityId() { return rowEntityId; }
+    public void setRowEntityId(Long rowEntityId) { this.rowEntityId = rowEntityId; }
+    public Long getHistoryId() { return historyId; }
+    public void setHistoryId(Long historyId) { this.historyId = historyId; }
+    public String getOperationType() { return operationType; }
+    public void setOperationType(String operationType) { this.operationType = operationType; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+    public Map<String, Object> getData() { return data; }
+    public void setData(Map<String, Object> data) { this.data = data; }
+}
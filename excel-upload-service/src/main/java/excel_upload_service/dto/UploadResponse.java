@@ -8,6 +8,8 @@ public class UploadResponse {
     private String message;
     private List<String> errors;
     private int processedRows;
+    // Fichier créé : son avancement se suit sur /api/files/{id}/status
+    private Long fileId;
 
     public UploadResponse() {}
 
@@ -30,4 +32,7 @@ public class UploadResponse {
 
     public int getProcessedRows() { return processedRows; }
     public void setProcessedRows(int processedRows) { this.processedRows = processedRows; }
+
+    public Long getFileId() { return fileId; }
+    public void setFileId(Long fileId) { this.fileId = fileId; }
 }
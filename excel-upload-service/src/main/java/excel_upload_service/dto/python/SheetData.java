@@ -18,6 +18,10 @@ public class SheetData {
     @JsonProperty("total_rows")
     private int totalRows;
 
+    // Position de la feuille dans le classeur (facultatif : à défaut, ordre d'arrivée des feuilles)
+    @JsonProperty("sheet_index")
+    private Integer sheetIndex;
+
     // Getters et Setters
     public String getSheetName() { return sheetName; }
     public void setSheetName(String sheetName) { this.sheetName = sheetName; }
@@ -27,4 +31,6 @@ public class SheetData {
     public void setData(List<Map<String, Object>> data) { this.data = data; }
     public int getTotalRows() { return totalRows; }
     public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+    public Integer getSheetIndex() { return sheetIndex; }
+    public void setSheetIndex(Integer sheetIndex) { this.sheetIndex = sheetIndex; }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/model/AggregateDefinition.java
+package excel_upload_service.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Agrégat matérialisé d'une feuille : nombre de lignes par catégorie (valueKey vide),
+ * ou nombre de valeurs et somme d'une colonne numérique par catégorie.
+ * Les valeurs sont stockées dans la table aggregate_values.
+ */
+@Entity
+@Table(name = "aggregate_definitions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_aggregate_definition", columnNames = {"sheetId", "categoryKey", "valueKey"}),
+        indexes = @Index(name = "idx_aggregate_sheet_id", columnList = "sheetId"))
+public class AggregateDefinition {
+
+    public static final String COUNT_KEY = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long sheetId;
+
+    @Column(nullable = false)
+    private String categoryKey;
+
+    @Column(nullable = false)
+    private String valueKey = COUNT_KEY;
+
+    @Column(nullable = false)
+    private LocalDateTime builtAt;
+
+    @PrePersist
+    protected void onCreate() {
+        builtAt = LocalDateTime.now();
+    }
+
+    public AggregateDefinition() {
+    }
+
+    public AggregateDefinition(Long sheetId, String categoryKey, String valueKey) {
+        this.sheetId = sheetId;
+        this.categoryKey = categoryKey;
+        this.valueKey = valueKey == null ? COUNT_KEY : valueKey;
+    }
+
+    public boolean isCount() {
+        return COUNT_KEY.equals(valueKey);
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getSheetId() { return sheetId; }
+    public void setSheetId(Long sheetId) { this.sheetId = sheetId; }
+    public String getCategoryKey() { return categoryKey; }
+    public void setCategoryKey(String categoryKey) { this.categoryKey = categoryKey; }
+    public String getValueKey() { return valueKey; }
+    public void setValueKey(String valueKey) { this.valueKey = valueKey; }
+    public LocalDateTime getBuiltAt() { return builtAt; }
+    public void setBuiltAt(LocalDateTime builtAt) { this.builtAt = builtAt; }
+}
@@ -0,0 +1,189 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/model/ExportJob.java
+package excel_upload_service.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Tâche d'export d'une feuille produite en arrière-plan dans le stockage local (file-storage/exports).
+ * L'empreinte (feuille, version des données, format, mot-clé) permet de réutiliser un export déjà produit
+ * tant que les lignes de la feuille n'ont pas changé.
+ */
+@Entity
+@Table(name = "export_jobs",
+        indexes = {
+                @Index(name = "idx_export_job_fingerprint", columnList = "fingerprint"),
+                @Index(name = "idx_export_job_sheet_id", columnList = "sheetId")
+        })
+public class ExportJob {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long sheetId;
+
+    @Column(nullable = false, length = 16)
+    private String format;
+
+    private String keyword;
+
+    // Version des données de la feuille au moment de la demande (SheetEntity.dataVersion)
+    @Column(nullable = false)
+    private long sheetDataVersion;
+
+    @JsonIgnore
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    // Nom proposé au téléchargement (nom de la feuille + extension du format)
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    // Nom du fichier produit dans le dossier des exports
+    @JsonIgnore
+    private String storedFilename;
+
+    private Long rowCount;
+
+    private Long sizeBytes;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public ExportJob() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getSheetId() {
+        return sheetId;
+    }
+
+    public void setSheetId(Long sheetId) {
+        this.sheetId = sheetId;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public long getSheetDataVersion() {
+        return sheetDataVersion;
+    }
+
+    public void setSheetDataVersion(long sheetDataVersion) {
+        this.sheetDataVersion = sheetDataVersion;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getStoredFilename() {
+        return storedFilename;
+    }
+
+    public void setStoredFilename(String storedFilename) {
+        this.storedFilename = storedFilename;
+    }
+
+    public Long getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(Long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
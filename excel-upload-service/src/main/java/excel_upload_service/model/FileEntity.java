@@ -3,6 +3,8 @@ package excel_upload_service.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -10,6 +12,10 @@ import java.util.List;
 @Table(name = "files")
 public class FileEntity {
 
+    // Avancement du traitement ; null pour les fichiers téléversés avant l'ajout du statut (traités).
+    // DELETING : suppression en cours en arrière-plan, le fichier n'apparaît plus dans la liste
+    public enum Status { PENDING, COMPLETED, FAILED, DELETING }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -20,6 +26,15 @@ public class FileEntity {
     @Column(nullable = false)
     private LocalDateTime uploadTimestamp;
 
+    // VARCHAR plutôt que le type ENUM natif de MySQL : ajouter un statut ne demande pas d'ALTER TABLE
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(length = 16)
+    private Status status;
+
+    // Fin du traitement (données persistées ou échec)
+    private LocalDateTime processedAt;
+
     // La relation est maintenant avec les feuilles, pas directement avec les lignes.
     @OneToMany(mappedBy = "file", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @JsonManagedReference // Permet la sérialisation des feuilles depuis le fichier
@@ -56,6 +71,22 @@ public class FileEntity {
     public void setUploadTimestamp(LocalDateTime uploadTimestamp) {
         this.uploadTimestamp = uploadTimestamp;
     }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
     
     // Nouveaux getters/setters pour les feuilles
     public List<SheetEntity> getSheets() {
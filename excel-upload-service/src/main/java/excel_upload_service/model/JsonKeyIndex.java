@@ -0,0 +1,66 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/model/JsonKeyIndex.java
+package excel_upload_service.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Registre des clés JSON matérialisées sur row_entities sous forme de colonne générée virtuelle
+ * indexée avec sheet_id.
+ */
+@Entity
+@Table(name = "json_key_indexes")
+public class JsonKeyIndex {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String jsonKey;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String columnName;
+
+    @Column(nullable = false, length = 64)
+    private String indexName;
+
+    private String source; // HEADERS, OBSERVED, MANUAL
+
+    // Feuille à l'origine de la création (null pour une création manuelle)
+    private Long sheetId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public JsonKeyIndex() {
+    }
+
+    public JsonKeyIndex(String jsonKey, String columnName, String indexName, String source, Long sheetId) {
+        this.jsonKey = jsonKey;
+        this.columnName = columnName;
+        this.indexName = indexName;
+        this.source = source;
+        this.sheetId = sheetId;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getJsonKey() { return jsonKey; }
+    public void setJsonKey(String jsonKey) { this.jsonKey = jsonKey; }
+    public String getColumnName() { return columnName; }
+    public void setColumnName(String columnName) { this.columnName = columnName; }
+    public String getIndexName() { return indexName; }
+    public void setIndexName(String indexName) { this.indexName = indexName; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public Long getSheetId() { return sheetId; }
+    public void setSheetId(Long sheetId) { this.sheetId = sheetId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
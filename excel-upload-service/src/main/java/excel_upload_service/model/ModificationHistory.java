@@ -4,7 +4,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "modification_history")
+// Index sur la ligne : historique d'une ligne et suppression de l'historique par jointure avec row_entities ;
+// lignes en table typée : historique d'une ligne et suppression par feuille
+@Table(name = "modification_history",
+        indexes = {
+                @Index(name = "idx_history_row_entity_id", columnList = "rowEntityId"),
+                @Index(name = "idx_history_typed_row", columnList = "typedSheetId, rowEntityId")
+        })
 public class ModificationHistory {
 
     @Id
@@ -13,6 +19,10 @@ public class ModificationHistory {
 
     private Long rowEntityId;
 
+    // Feuille de la ligne quand elle est stockée en table typée (ids de ligne propres à la feuille) ;
+    // null pour une ligne de row_entities
+    private Long typedSheetId;
+
     private String operationType; // CREATE, UPDATE, DELETE
 
     @Lob
@@ -23,6 +33,17 @@ public class ModificationHistory {
     @Column(columnDefinition = "LONGTEXT")
     private String newData;
 
+    // UPDATE enregistré en delta : JSON Patch (RFC 6902) depuis la version précédente, oldData et newData restant nuls
+    // (voir HistoryEncoder). Les entrées de base (CREATE, instantanés, entrées antérieures) gardent les données complètes.
+    @Lob
+    @Column(columnDefinition = "LONGTEXT")
+    private String patch;
+
+    // Empreinte MD5 de la version de la ligne après l'entrée (null pour une suppression) : HistoryEncoder vérifie
+    // que l'entrée suivante part bien de cette version avant de l'écrire en delta
+    @Column(length = 32)
+    private String versionHash;
+
     private LocalDateTime timestamp;
 
     public ModificationHistory() {
@@ -53,6 +74,14 @@ public class ModificationHistory {
         this.rowEntityId = rowEntityId;
     }
 
+    public Long getTypedSheetId() {
+        return typedSheetId;
+    }
+
+    public void setTypedSheetId(Long typedSheetId) {
+        this.typedSheetId = typedSheetId;
+    }
+
     public String getOperationType() {
         return operationType;
     }
@@ -77,6 +106,22 @@ public class ModificationHistory {
         this.newData = newData;
     }
 
+    public String getPatch() {
+        return patch;
+    }
+
+    public void setPatch(String patch) {
+        this.patch = patch;
+    }
+
+    public String getVersionHash() {
+        return versionHash;
+    }
+
+    public void setVersionHash(String versionHash) {
+        this.versionHash = versionHash;
+    }
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -90,9 +135,12 @@ public class ModificationHistory {
         return "ModificationHistory{" +
                 "id=" + id +
                 ", rowEntityId=" + rowEntityId +
+                ", typedSheetId=" + typedSheetId +
                 ", operationType='" + operationType + '\'' +
                 ", oldData='" + oldData + '\'' +
                 ", newData='" + newData + '\'' +
+                ", patch='" + patch + '\'' +
+                ", versionHash='" + versionHash + '\'' +
                 ", timestamp=" + timestamp +
                 '}';
     }
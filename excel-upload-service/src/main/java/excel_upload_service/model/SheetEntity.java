@@ -27,6 +27,14 @@ public class SheetEntity implements Serializable {
     @Column(nullable = false)
     private long totalRows = 0;
 
+    // Table typée (dynamic_table_*) qui contient les lignes ; null pour les feuilles stockées en JSON dans row_entities
+    @Column(length = 64)
+    private String storageTable;
+
+    // Incrémenté à chaque modification des lignes : sert à reconnaître un export déjà produit pour les mêmes données
+    @Column(nullable = false)
+    private long dataVersion = 0;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "file_id", nullable = false)
     @JsonBackReference
@@ -80,6 +88,22 @@ public class SheetEntity implements Serializable {
         this.totalRows = totalRows;
     }
 
+    public String getStorageTable() {
+        return storageTable;
+    }
+
+    public void setStorageTable(String storageTable) {
+        this.storageTable = storageTable;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public void setDataVersion(long dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
     public FileEntity getFile() {
         return file;
     }
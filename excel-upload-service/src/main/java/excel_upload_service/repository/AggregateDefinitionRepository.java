@@ -0,0 +1,17 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/repository/AggregateDefinitionRepository.java
+package excel_upload_service.repository;
+
+import excel_upload_service.model.AggregateDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AggregateDefinitionRepository extends JpaRepository<AggregateDefinition, Long> {
+
+    List<AggregateDefinition> findBySheetId(Long sheetId);
+
+    Optional<AggregateDefinition> findBySheetIdAndCategoryKeyAndValueKey(Long sheetId, String categoryKey, String valueKey);
+}
@@ -0,0 +1,24 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/repository/ExportJobRepository.java
+package excel_upload_service.repository;
+
+import excel_upload_service.model.ExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    List<ExportJob> findByFingerprintAndStatusInOrderByIdDesc(String fingerprint, Collection<ExportJob.Status> statuses);
+
+    List<ExportJob> findBySheetIdOrderByIdDesc(Long sheetId);
+
+    List<ExportJob> findBySheetIdIn(Collection<Long> sheetIds);
+
+    List<ExportJob> findByStatusIn(Collection<ExportJob.Status> statuses);
+
+    List<ExportJob> findByCreatedAtBefore(LocalDateTime createdAt);
+}
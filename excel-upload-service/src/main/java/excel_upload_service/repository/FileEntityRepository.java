@@ -2,12 +2,57 @@ package excel_upload_service.repository;
 
 import excel_upload_service.model.FileEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface FileEntityRepository extends JpaRepository<FileEntity, Long> {
     Page<FileEntity> findByFileNameContainingIgnoreCase(String fileName, Pageable pageable);
-}
\ No newline at end of file
+
+    // Liste des fichiers hors suppressions en cours
+    @Query("SELECT f FROM FileEntity f WHERE f.status IS NULL OR f.status <> excel_upload_service.model.FileEntity.Status.DELETING")
+    Page<FileEntity> findVisible(Pageable pageable);
+
+    @Query("SELECT f FROM FileEntity f WHERE LOWER(f.fileName) LIKE LOWER(CONCAT('%', :fileName, '%')) " +
+           "AND (f.status IS NULL OR f.status <> excel_upload_service.model.FileEntity.Status.DELETING)")
+    Page<FileEntity> findVisibleByFileName(@Param("fileName") String fileName, Pageable pageable);
+
+    List<FileEntity> findByStatus(FileEntity.Status status);
+
+    /**
+     * Passe le fichier en DELETING ; 0 s'il n'existe pas ou si sa suppression est déjà en cours,
+     * ce qui évite de lancer deux suppressions du même fichier.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileEntity f SET f.status = excel_upload_service.model.FileEntity.Status.DELETING " +
+           "WHERE f.id = :fileId AND (f.status IS NULL OR f.status <> excel_upload_service.model.FileEntity.Status.DELETING)")
+    int markDeleting(@Param("fileId") Long fileId);
+
+    /**
+     * Met à jour le statut dans la transaction en cours : validé avec les données du fichier.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileEntity f SET f.status = :status, f.processedAt = :processedAt WHERE f.id = :fileId")
+    int updateStatus(@Param("fileId") Long fileId, @Param("status") FileEntity.Status status,
+                     @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Dans sa propre transaction : l'échec reste enregistré même si la transaction de persistance est annulée.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE FileEntity f SET f.status = excel_upload_service.model.FileEntity.Status.FAILED, f.processedAt = :processedAt WHERE f.id = :fileId")
+    int markFailed(@Param("fileId") Long fileId, @Param("processedAt") LocalDateTime processedAt);
+}
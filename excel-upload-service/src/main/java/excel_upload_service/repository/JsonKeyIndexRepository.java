@@ -0,0 +1,13 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/repository/JsonKeyIndexRepository.java
+package excel_upload_service.repository;
+
+import excel_upload_service.model.JsonKeyIndex;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JsonKeyIndexRepository extends JpaRepository<JsonKeyIndex, Long> {
+    Optional<JsonKeyIndex> findByJsonKey(String jsonKey);
+}
@@ -14,16 +14,33 @@ import java.util.List;
 
 public interface ModificationHistoryRepository extends JpaRepository<ModificationHistory, Long> {
 
-    List<ModificationHistory> findByRowEntityIdOrderByTimestampDesc(Long rowEntityId);
+    // Ligne de row_entities (typedSheetId null) ou ligne de la table typée de la feuille typedSheetId
+    @Query("SELECT mh FROM ModificationHistory mh WHERE mh.rowEntityId = :rowId AND " +
+           "(mh.typedSheetId = :typedSheetId OR (:typedSheetId IS NULL AND mh.typedSheetId IS NULL)) " +
+           "ORDER BY mh.timestamp DESC")
+    List<ModificationHistory> findRowHistory(@Param("typedSheetId") Long typedSheetId, @Param("rowId") Long rowId);
     
     List<ModificationHistory> findAllByOrderByTimestampDesc();
 
-    // NOUVELLE MÉTHODE : Récupère l'historique paginé pour une feuille donnée
-    @Query("SELECT mh FROM ModificationHistory mh WHERE mh.rowEntityId IN " +
-           "(SELECT r.id FROM RowEntity r WHERE r.sheet.id = :sheetId) " +
+    // NOUVELLE MÉTHODE : Récupère l'historique paginé pour une feuille donnée (lignes JSON ou lignes de sa table typée)
+    @Query("SELECT mh FROM ModificationHistory mh WHERE mh.typedSheetId = :sheetId OR (mh.typedSheetId IS NULL AND " +
+           "mh.rowEntityId IN (SELECT r.id FROM RowEntity r WHERE r.sheet.id = :sheetId)) " +
            "ORDER BY mh.timestamp DESC")
     Page<ModificationHistory> findHistoryForSheet(@Param("sheetId") Long sheetId, Pageable pageable);
 
+    // Chaîne d'une ligne (voir HistoryEncoder) : de la dernière entrée de base d'id <= baseAtOrBefore
+    // (ou du début de l'historique) jusqu'à l'entrée upTo incluse, dans l'ordre des id
+    @Query("SELECT mh FROM ModificationHistory mh WHERE mh.rowEntityId = :rowId AND mh.id <= :upTo " +
+           "AND (mh.typedSheetId = :typedSheetId OR (:typedSheetId IS NULL AND mh.typedSheetId IS NULL)) AND mh.id >= " +
+           "(SELECT COALESCE(MAX(b.id), 0) FROM ModificationHistory b WHERE b.rowEntityId = :rowId " +
+           "AND (b.typedSheetId = :typedSheetId OR (:typedSheetId IS NULL AND b.typedSheetId IS NULL)) " +
+           "AND b.id <= :baseAtOrBefore AND (b.newData IS NOT NULL OR b.oldData IS NOT NULL)) " +
+           "ORDER BY mh.id")
+    List<ModificationHistory> findChain(@Param("typedSheetId") Long typedSheetId,
+                                        @Param("rowId") Long rowId,
+                                        @Param("baseAtOrBefore") Long baseAtOrBefore,
+                                        @Param("upTo") Long upTo);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM ModificationHistory")
@@ -31,6 +48,6 @@ public interface ModificationHistoryRepository extends JpaRepository<Modificatio
 
     @Modifying
     @Transactional
-    @Query("DELETE FROM ModificationHistory mh WHERE mh.rowEntityId IN :rowIds")
+    @Query("DELETE FROM ModificationHistory mh WHERE mh.typedSheetId IS NULL AND mh.rowEntityId IN :rowIds")
     void deleteByRowEntityIds(@Param("rowIds") List<Long> rowIds);
 }
\ No newline at end of file
@@ -40,50 +40,50 @@ public interface RowEntityRepository extends JpaRepository<RowEntity, Long> {
             @Param("keyword") String keyword,
             Pageable pageable);
             
-    @Query("SELECT r FROM RowEntity r JOIN r.sheet s JOIN s.file f WHERE " +
-           "(:fileName IS NULL OR f.fileName LIKE %:fileName%) AND " +
-           "(:keyword IS NULL OR r.dataJson LIKE %:keyword%)")
-    Page<RowEntity> searchWithFileAndKeyword(
-            @Param("fileName") String fileName,
+    // Pagination par clé : idx_sheet_id porte implicitement (sheet_id, id), chaque page est un parcours
+    // d'intervalle de l'index, sans OFFSET ni COUNT(*). Le Pageable ne sert qu'à fixer la limite.
+    @Query("SELECT r FROM RowEntity r WHERE r.sheet.id = :sheetId AND r.id > :afterId AND " +
+           "(:keyword IS NULL OR r.dataJson LIKE %:keyword%) ORDER BY r.id ASC")
+    List<RowEntity> findSheetRowsAfter(
+            @Param("sheetId") Long sheetId,
+            @Param("afterId") Long afterId,
             @Param("keyword") String keyword,
-            Pageable pageable);
-    
-    // ... Les requêtes de graphiques restent les mêmes que dans la version précédente ...
+            Pageable limit);
+
+    @Query("SELECT r FROM RowEntity r WHERE r.sheet.id = :sheetId AND r.id < :beforeId AND " +
+           "(:keyword IS NULL OR r.dataJson LIKE %:keyword%) ORDER BY r.id DESC")
+    List<RowEntity> findSheetRowsBefore(
+            @Param("sheetId") Long sheetId,
+            @Param("beforeId") Long beforeId,
+            @Param("keyword") String keyword,
+            Pageable limit);
+
+    // Catégories tronquées à JsonKeyPaths.CATEGORY_LENGTH, comme les colonnes indexées et les agrégats
     @Query(value = "SELECT " +
-                   "JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :jsonPath)) as category, " +
+                   "LEFT(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :jsonPath)), 255) as category, " +
                    "COUNT(*) as count " +
                    "FROM row_entities r JOIN sheets s ON r.sheet_id = s.id " +
-                   "WHERE s.id = :sheetId AND JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :jsonPath)) IS NOT NULL " +
+                   "WHERE s.id = :sheetId AND LEFT(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :jsonPath)), 255) IS NOT NULL " +
                    "GROUP BY category " +
                    "ORDER BY count DESC LIMIT :limit",
            nativeQuery = true)
     List<GraphResult> getCategoryCountsForGraph(@Param("sheetId") Long sheetId, @Param("jsonPath") String jsonPath, @Param("limit") Integer limit);
 
     @Query(value = "WITH TopPrimaryCategories AS (" +
-                   "  SELECT JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :primaryCategoryPath)) as p_category, COUNT(*) as total_count " +
+                   "  SELECT LEFT(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :primaryCategoryPath)), 255) as p_category, COUNT(*) as total_count " +
                    "  FROM row_entities r JOIN sheets s ON r.sheet_id = s.id WHERE s.id = :sheetId GROUP BY p_category ORDER BY total_count DESC LIMIT :limit" +
                    ") " +
                    "SELECT " +
-                   "  JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :primaryCategoryPath)) as primaryCategory, " +
-                   "  JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :secondaryCategoryPath)) as secondaryCategory, " +
+                   "  LEFT(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :primaryCategoryPath)), 255) as primaryCategory, " +
+                   "  LEFT(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :secondaryCategoryPath)), 255) as secondaryCategory, " +
                    "  COUNT(*) as value " +
                    "FROM row_entities r " +
-                   "JOIN TopPrimaryCategories tpc ON JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :primaryCategoryPath)) = tpc.p_category " +
+                   "JOIN TopPrimaryCategories tpc ON LEFT(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :primaryCategoryPath)), 255) = tpc.p_category " +
                    "JOIN sheets s ON r.sheet_id = s.id " +
                    "WHERE s.id = :sheetId " +
-                   "AND JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :secondaryCategoryPath)) IS NOT NULL " +
+                   "AND LEFT(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :secondaryCategoryPath)), 255) IS NOT NULL " +
                    "GROUP BY primaryCategory, secondaryCategory " +
                    "ORDER BY primaryCategory, secondaryCategory",
            nativeQuery = true)
     List<GroupedGraphResult> getGroupedCategoryCounts(@Param("sheetId") Long sheetId, @Param("primaryCategoryPath") String primaryCategoryPath, @Param("secondaryCategoryPath") String secondaryCategoryPath, @Param("limit") Integer limit);
-
-    @Query(value = "SELECT " +
-                   "JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :jsonPath)) as category, " +
-                   "SUM(CAST(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :valueJsonPath)) AS DECIMAL(18, 4))) as count " +
-                   "FROM row_entities r JOIN sheets s ON r.sheet_id = s.id " +
-                   "WHERE s.id = :sheetId AND JSON_UNQUOTE(JSON_EXTRACT(r.data_json, :jsonPath)) IS NOT NULL " +
-                   "GROUP BY category " +
-                   "ORDER BY count DESC LIMIT :limit",
-           nativeQuery = true)
-    List<GraphResult> getCategorySumsForGraph(@Param("sheetId") Long sheetId, @Param("jsonPath") String jsonPath, @Param("valueJsonPath") String valueJsonPath, @Param("limit") Integer limit);
 }
\ No newline at end of file
@@ -3,6 +3,9 @@ package excel_upload_service.repository;
 
 import excel_upload_service.model.SheetEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,15 @@ import java.util.List;
 @Repository
 public interface SheetEntityRepository extends JpaRepository<SheetEntity, Long> {
     List<SheetEntity> findByFileIdOrderBySheetIndexAsc(Long fileId);
+
+    long countByFileId(Long fileId);
+
+    boolean existsByStorageTable(String storageTable);
+
+    @Modifying
+    @Query("UPDATE SheetEntity s SET s.dataVersion = s.dataVersion + 1 WHERE s.id = :sheetId")
+    int incrementDataVersion(@Param("sheetId") Long sheetId);
+
+    @Query("SELECT s.dataVersion FROM SheetEntity s WHERE s.id = :sheetId")
+    Long findDataVersion(@Param("sheetId") Long sheetId);
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/AggregateService.java
+package excel_upload_service.service;
+
+import excel_upload_service.dto.GraphResult;
+import excel_upload_service.model.AggregateDefinition;
+import excel_upload_service.service.graph.CategoryMeasures;
+import excel_upload_service.service.storage.TypedSheetTable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AggregateService {
+
+    /**
+     * Applique à tous les agrégats de la feuille le delta d'une ligne modifiée.
+     * oldJson est null pour une création, newJson est null pour une suppression.
+     * Doit être appelé dans la transaction de la modification, après son écriture en base.
+     */
+    void applyRowChange(Long sheetId, String oldJson, String newJson);
+
+    /**
+     * Même chose pour plusieurs lignes de la feuille (modification en masse) : définitions lues une fois,
+     * deltas appliqués en un seul lot.
+     */
+    void applyRowChanges(Long sheetId, List<RowChange> changes);
+
+    /**
+     * Lignes d'une feuille en table typée, relues dans la table : sign = -1 juste avant leur remplacement ou leur
+     * suppression, +1 juste après leur création ou leur remplacement. Dans la transaction de la modification.
+     */
+    void applyTypedRowChanges(TypedSheetTable table, Collection<Long> rowIds, int sign);
+
+    /**
+     * Nombre de lignes par catégorie depuis l'agrégat, s'il existe. Sinon, programme éventuellement
+     * sa construction et renvoie Optional.empty() : l'appelant calcule sur les lignes.
+     */
+    Optional<List<GraphResult>> findCategoryCounts(Long sheetId, String categoryKey, int limit);
+
+    /**
+     * Mesures SUM ou AVG par catégorie depuis les agrégats, s'ils existent tous (même règle que ci-dessus).
+     */
+    Optional<List<CategoryMeasures>> findCategoryMeasures(Long sheetId, String categoryKey, List<String> valueKeys,
+                                                          String function, int limit);
+
+    AggregateDefinition register(Long sheetId, String categoryKey, String valueKey);
+
+    List<AggregateDefinition> listForSheet(Long sheetId);
+
+    void drop(Long definitionId);
+
+    void dropForSheets(List<Long> sheetIds);
+
+    void dropAll();
+
+    // Ligne avant (null pour une création) et après (null pour une suppression)
+    record RowChange(String oldJson, String newJson) {
+    }
+}
@@ -2,6 +2,9 @@
 package excel_upload_service.service;
 
 import excel_upload_service.dto.python.ExcelProcessingResponse;
+import excel_upload_service.dto.python.SheetData;
+
+import java.io.InputStream;
 
 public interface DataPersistenceService {
     /**
@@ -10,4 +13,32 @@ public interface DataPersistenceService {
      * @param processedData Les données structurées à sauvegarder.
      */
     void saveProcessedData(Long fileId, ExcelProcessingResponse processedData);
-}
\ No newline at end of file
+
+    /**
+     * Sauvegarde les données traitées reçues sous forme de flux NDJSON (une trame JSON par ligne).
+     * Les lignes sont lues et insérées au fil de l'eau : la mémoire utilisée ne dépend pas de la taille du fichier.
+     * @param fileId L'ID de l'entité fichier parente.
+     * @param ndjsonStream Le flux de trames "sheet", "row" puis "end".
+     * @return Le nombre total de lignes insérées.
+     */
+    long saveProcessedDataStream(Long fileId, InputStream ndjsonStream);
+
+    /**
+     * Crée la table dynamique de la feuille et retourne un écrivain qui y insère les lignes par lots.
+     * @param fileId L'ID de l'entité fichier parente.
+     * @param sheetData Le descripteur de la feuille (nom et schéma) ; ses données ne sont pas lues.
+     */
+    SheetRowWriter openSheetWriter(Long fileId, SheetData sheetData);
+
+    /**
+     * Marque le fichier comme traité (FileEntity.Status.COMPLETED), dans la transaction en cours s'il y en a une.
+     * @param fileId L'ID de l'entité fichier.
+     */
+    void markCompleted(Long fileId);
+
+    /**
+     * Marque le fichier en échec (FileEntity.Status.FAILED), indépendamment de la transaction en cours.
+     * @param fileId L'ID de l'entité fichier.
+     */
+    void markFailed(Long fileId);
+}
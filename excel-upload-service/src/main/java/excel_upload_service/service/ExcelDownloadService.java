@@ -7,10 +7,12 @@ import java.io.IOException;
 public interface ExcelDownloadService {
 
     /**
-     * Télécharge les données d'une feuille spécifique, potentiellement filtrées par un mot-clé.
+     * Télécharge les données d'une feuille spécifique, potentiellement filtrées par un mot-clé,
+     * dans le format demandé (xlsx, csv, ndjson ou arrow).
      */
     void downloadSheetData(
             Long sheetId,
             String keyword,
+            String format,
             HttpServletResponse response) throws IOException;
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ExportJobService.java
+package excel_upload_service.service;
+
+import excel_upload_service.model.ExportJob;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+public interface ExportJobService {
+
+    /**
+     * Demande l'export d'une feuille. Si un export identique (même feuille, même version des données,
+     * même format et même mot-clé) est en cours ou déjà produit, c'est cette tâche qui est renvoyée.
+     */
+    ExportJob submit(Long sheetId, String keyword, String format);
+
+    ExportJob getJob(Long jobId);
+
+    List<ExportJob> listForSheet(Long sheetId);
+
+    /**
+     * Chemin du fichier produit par une tâche terminée ; IllegalStateException si la tâche n'est pas terminée.
+     */
+    Path resolveFile(ExportJob job);
+
+    void delete(Long jobId);
+
+    /**
+     * Supprime les tâches et fichiers d'export des feuilles données (suppression d'un fichier Excel).
+     */
+    void deleteForSheets(Collection<Long> sheetIds);
+
+    void deleteAll();
+}
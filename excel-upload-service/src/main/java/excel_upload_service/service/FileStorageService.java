@@ -10,4 +10,11 @@ public interface FileStorageService {
      * @return Le chemin relatif unique du fichier stocké.
      */
     String store(MultipartFile file);
+
+    /**
+     * Résout le chemin d'un fichier précédemment stocké.
+     * @param storedFilename Le nom unique retourné par {@link #store(MultipartFile)}.
+     * @return Le chemin absolu du fichier.
+     */
+    Path load(String storedFilename);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+// CHEMIN: excel-upload-service/src/main/java/excel_upload_service/service/JavaExcelProcessorService.java
+package excel_upload_service.service;
+
+import java.nio.file.Path;
+
+public interface JavaExcelProcessorService {
+    /**
+     * Traite un fichier Excel stocké localement, sans passer par le worker Python :
+     * détection de l'en-tête, propagation des cellules fusionnées et inférence des types,
+     * puis insertion des lignes au fil de la lecture dans les tables dynamiques.
+     *
+     * @param fileId L'ID de l'entité fichier parente.
+     * @param file Le chemin du fichier Excel stocké.
+     * @return Le nombre total de lignes insérées.
+     */
+    long processStoredFile(Long fileId, Path file);
+}
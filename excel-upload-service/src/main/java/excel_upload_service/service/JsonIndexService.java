@@ -0,0 +1,30 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/JsonIndexService.java
+package excel_upload_service.service;
+
+import excel_upload_service.model.JsonKeyIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface JsonIndexService {
+
+    /**
+     * Colonne générée indexée pour cette clé, si elle existe. Chaque appel compte comme une
+     * utilisation observée : au-delà du seuil configuré, l'index est créé en arrière-plan.
+     */
+    Optional<String> resolveColumn(Long sheetId, String jsonKey);
+
+    JsonKeyIndex createIndex(String jsonKey, String source, Long sheetId);
+
+    /**
+     * Indexe chaque en-tête de la feuille (SheetEntity.headersJson), dans la limite configurée.
+     */
+    List<JsonKeyIndex> indexSheetHeaders(Long sheetId);
+
+    List<JsonKeyIndex> listIndexes();
+
+    void dropIndex(Long id);
+
+    Map<String, Integer> getObservedKeys();
+}
@@ -1,6 +1,7 @@
 // CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ModificationHistoryService.java
 package excel_upload_service.service;
 
+import excel_upload_service.dto.RowVersion;
 import excel_upload_service.model.ModificationHistory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,9 +10,20 @@ import java.util.List;
 
 public interface ModificationHistoryService {
     void saveHistory(Long rowId, String operationType, String oldData, String newData);
-    List<ModificationHistory> getHistoryForRow(Long rowId);
+
+    // Ligne stockée dans la table typée de la feuille sheetId
+    void saveTypedRowHistory(Long sheetId, Long rowId, String operationType, String oldData, String newData);
+
+    // Entrées d'une modification en masse, écrites en un seul lot
+    void saveHistories(List<ModificationHistory> entries);
+
+    // sheetId désigne la feuille de la ligne : sa table typée, ou row_entities pour une feuille JSON
+    List<ModificationHistory> getHistoryForRow(Long sheetId, Long rowId);
     List<ModificationHistory> getAllHistories();
 
     // NOUVELLE MÉTHODE
     Page<ModificationHistory> getHistoryForSheet(Long sheetId, Pageable pageable);
+
+    // Contenu de la ligne après l'entrée historyId, reconstruit depuis l'instantané le plus proche et les deltas
+    RowVersion getRowVersion(Long sheetId, Long rowId, Long historyId);
 }
\ No newline at end of file
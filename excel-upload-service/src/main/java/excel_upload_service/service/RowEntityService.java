@@ -1,24 +1,37 @@
 // CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/RowEntityService.java
 package excel_upload_service.service;
 
+import excel_upload_service.dto.BulkRowRequest;
+import excel_upload_service.dto.BulkRowResult;
+import excel_upload_service.dto.RowCursorPage;
 import excel_upload_service.dto.RowEntityDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Map;
+
 public interface RowEntityService {
     
     // La recherche se fait maintenant par ID de feuille
-    Page<RowEntityDto> searchBySheetId(Long sheetId, String keyword, Pageable pageable);
+    // filters : clé JSON -> valeur exacte, ou préfixe si la valeur se termine par "*"
+    Page<RowEntityDto> searchBySheetId(Long sheetId, String keyword, Map<String, String> filters, Pageable pageable);
 
-    RowEntityDto getById(Long id);
+    // Pagination par curseur (keyset) : coût constant quelle que soit la profondeur de la page
+    RowCursorPage browseBySheetId(Long sheetId, String keyword, String cursor, int size, boolean descending);
 
     // La création se fait maintenant dans le contexte d'une feuille
     RowEntityDto create(Long sheetId, RowEntityDto dto);
 
-    RowEntityDto update(Long id, RowEntityDto dto);
+    // Toujours rattachées à une feuille : les ids de ligne des feuilles stockées en table typée sont propres à la feuille
+    RowEntityDto getInSheet(Long sheetId, Long id);
+
+    RowEntityDto updateInSheet(Long sheetId, Long id, RowEntityDto dto);
+
+    void deleteInSheet(Long sheetId, Long id);
 
-    void delete(Long id);
+    // Créations, remplacements et suppressions d'une feuille en une seule transaction, avec un résultat par entrée
+    BulkRowResult applyBulk(Long sheetId, BulkRowRequest request);
     
-    // Cette méthode de recherche globale peut être conservée si vous avez un tableau de bord global
+    // Recherche globale (lignes JSON et tables typées) ; chaque ligne renvoyée porte sa feuille (sheetId)
     Page<RowEntityDto> search(String fileName, String keyword, Pageable pageable);
 }
\ No newline at end of file
@@ -33,4 +33,36 @@ public interface SchemaManagerService {
 
     String createTableFromSchema(Long fileId, SheetData sheetData) ;
 
+    /**
+     * Types SQL (DATA_TYPE d'information_schema, en minuscules) des colonnes de la table dynamique
+     * d'une feuille antérieure aux tables typées (storageTable null, table nommée sans index de feuille),
+     * indexés par nom de colonne en minuscules. Vide si la table n'existe pas.
+     */
+    Map<String, String> getColumnTypes(Long fileId, String sheetName);
+
+    /**
+     * Même chose, à partir du nom de la table (SheetEntity.storageTable).
+     */
+    Map<String, String> getColumnTypes(String tableName);
+
+    /**
+     * Colonnes (noms SQL, dans l'ordre de l'index) de l'index FULLTEXT d'une table dynamique, créé avec la table
+     * sur ses colonnes texte. Vide si la table n'en a pas (table plus ancienne, trop de colonnes texte,
+     * search.fulltext.enabled=false).
+     */
+    List<String> getFullTextColumns(String tableName);
+
+    /**
+     * Tables dynamiques existantes d'un fichier (dynamic_table_f{fileId}_s{sheetIndex}_*, ou dynamic_table_f{fileId}_*
+     * pour les plus anciennes), enregistrées ou non sur une feuille.
+     */
+    List<String> findTablesForFile(Long fileId);
+
+    /**
+     * Toutes les tables dynamiques existantes, quel que soit le fichier.
+     */
+    List<String> findAllDynamicTables();
+
+    void dropTable(String tableName);
+
 }
\ No newline at end of file
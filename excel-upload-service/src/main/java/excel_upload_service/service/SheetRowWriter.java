@@ -0,0 +1,28 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/SheetRowWriter.java
+package excel_upload_service.service;
+
+import java.util.Map;
+
+/**
+ * Écrivain de lignes pour une feuille dont la table dynamique a déjà été créée.
+ * Les lignes sont poussées une à une et envoyées à la base par lots de taille bornée,
+ * ce qui permet d'ingérer une feuille sans jamais la matérialiser entièrement en mémoire.
+ */
+public interface SheetRowWriter extends AutoCloseable {
+
+    /**
+     * Ajoute une ligne (nom de colonne d'origine -> valeur) au lot courant.
+     */
+    void write(Map<String, Object> row);
+
+    /**
+     * @return Le nombre de lignes effectivement envoyées à la base jusqu'ici.
+     */
+    long getWrittenRows();
+
+    /**
+     * Envoie le dernier lot partiel. Doit être appelé pour que toutes les lignes soient persistées.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,361 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/bulk/BulkRowMutations.java
+package excel_upload_service.service.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.dto.BulkRowRequest;
+import excel_upload_service.dto.BulkRowResult;
+import excel_upload_service.dto.RowEntityDto;
+import excel_upload_service.model.ModificationHistory;
+import excel_upload_service.service.AggregateService;
+import excel_upload_service.service.AggregateService.RowChange;
+import excel_upload_service.service.ModificationHistoryService;
+import excel_upload_service.service.storage.TypedRowQueries;
+import excel_upload_service.service.storage.TypedSheetTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Application d'une modification en masse (BulkRowRequest) aux lignes d'une feuille, par lots JDBC :
+ * un INSERT, un UPDATE et un DELETE par lot au lieu d'un aller-retour par ligne.
+ *
+ * Doit être appelé dans une transaction (voir RowEntityServiceImpl.applyBulk). Les lignes à remplacer ou
+ * supprimer sont d'abord lues et verrouillées (FOR UPDATE) en une requête par tranche d'ids : une ligne
+ * absente de la feuille donne un élément NOT_FOUND, sans annuler le reste.
+ *
+ * L'historique de toutes les entrées est enregistré en un seul lot. Lignes JSON (row_entities) : les agrégats
+ * matérialisés reçoivent tous les changements en un appel, qui extrait les deltas par tranches de JSON.
+ * Lignes en table typée : les agrégats relisent les lignes touchées avant l'écriture (retrait) puis après
+ * (ajout), en une requête par tranche d'ids à chaque fois.
+ */
+@Component
+public class BulkRowMutations {
+
+    private static final String CREATE = "CREATE";
+    private static final String UPDATE = "UPDATE";
+    private static final String DELETE = "DELETE";
+    // Nombre d'ids par clause IN
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TypedRowQueries typedRowQueries;
+    private final ModificationHistoryService modificationHistoryService;
+    private final AggregateService aggregateService;
+
+    @Value("${rows.bulk.max-items:10000}")
+    private int maxItems;
+
+    public BulkRowMutations(JdbcTemplate jdbcTemplate,
+                            ObjectMapper objectMapper,
+                            TypedRowQueries typedRowQueries,
+                            ModificationHistoryService modificationHistoryService,
+                            AggregateService aggregateService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.typedRowQueries = typedRowQueries;
+        this.modificationHistoryService = modificationHistoryService;
+        this.aggregateService = aggregateService;
+    }
+
+    public void validate(BulkRowRequest request) {
+        if (request == null || request.size() == 0) {
+            throw new IllegalArgumentException("La modification en masse ne contient aucune entrée.");
+        }
+        if (request.size() > maxItems) {
+            throw new IllegalArgumentException("Trop d'entrées dans la modification en masse : "
+                    + request.size() + " (maximum " + maxItems + ").");
+        }
+    }
+
+    public BulkRowResult applyToJsonRows(Long sheetId, BulkRowRequest request) {
+        BulkRowResult result = new BulkRowResult();
+        List<ModificationHistory> histories = new ArrayList<>();
+        List<RowChange> changes = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. Créations
+        List<Integer> createIndexes = new ArrayList<>();
+        List<String> createJsons = new ArrayList<>();
+        List<BulkRowResult.Item> createItems = new ArrayList<>();
+        forEach(request.getCreates(), (index, dto) -> {
+            if (dto == null || dto.getData() == null) {
+                createItems.add(invalid(CREATE, index, null, "data est obligatoire."));
+                return;
+            }
+            createIndexes.add(index);
+            createJsons.add(toJson(dto.getData()));
+            createItems.add(null);
+        });
+        List<Long> createdIds = insertJsonRows(sheetId, createJsons, now);
+        for (int i = 0, created = 0; i < createItems.size(); i++) {
+            if (createItems.get(i) != null) {
+                result.add(createItems.get(i));
+                continue;
+            }
+            Long id = createdIds.get(created);
+            String json = createJsons.get(created);
+            histories.add(new ModificationHistory(null, id, CREATE, null, json, now));
+            changes.add(new RowChange(null, json));
+            result.add(new BulkRowResult.Item(CREATE, createIndexes.get(created), id, BulkRowResult.OK, null));
+            created++;
+        }
+
+        // 2. Lecture verrouillée des lignes à remplacer ou supprimer ; current suit leur contenu au fil des entrées
+        Map<Long, String> current = lockJsonRows(sheetId, targetIds(request));
+
+        // 3. Remplacements
+        List<Object[]> updateArgs = new ArrayList<>();
+        forEach(request.getUpdates(), (index, dto) -> {
+            if (dto == null || dto.getId() == null || dto.getData() == null) {
+                result.add(invalid(UPDATE, index, dto == null ? null : dto.getId(), "id et data sont obligatoires."));
+                return;
+            }
+            String oldJson = current.get(dto.getId());
+            if (oldJson == null) {
+                result.add(notFound(UPDATE, index, dto.getId(), sheetId));
+                return;
+            }
+            String newJson = toJson(dto.getData());
+            current.put(dto.getId(), newJson);
+            updateArgs.add(new Object[]{newJson, dto.getId()});
+            histories.add(new ModificationHistory(null, dto.getId(), UPDATE, oldJson, newJson, now));
+            changes.add(new RowChange(oldJson, newJson));
+            result.add(new BulkRowResult.Item(UPDATE, index, dto.getId(), BulkRowResult.OK, null));
+        });
+        if (!updateArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE row_entities SET data_json = ? WHERE id = ?", updateArgs);
+        }
+
+        // 4. Suppressions
+        List<Object[]> deleteArgs = new ArrayList<>();
+        forEach(request.getDeletes(), (index, id) -> {
+            if (id == null) {
+                result.add(invalid(DELETE, index, null, "id est obligatoire."));
+                return;
+            }
+            String oldJson = current.remove(id);
+            if (oldJson == null) {
+                result.add(notFound(DELETE, index, id, sheetId));
+                return;
+            }
+            deleteArgs.add(new Object[]{id});
+            histories.add(new ModificationHistory(null, id, DELETE, oldJson, null, now));
+            changes.add(new RowChange(oldJson, null));
+            result.add(new BulkRowResult.Item(DELETE, index, id, BulkRowResult.OK, null));
+        });
+        if (!deleteArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM row_entities WHERE id = ?", deleteArgs);
+        }
+
+        modificationHistoryService.saveHistories(histories);
+        aggregateService.applyRowChanges(sheetId, changes);
+        return result;
+    }
+
+    public BulkRowResult applyToTypedRows(TypedSheetTable table, BulkRowRequest request) {
+        BulkRowResult result = new BulkRowResult();
+        List<ModificationHistory> histories = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. Créations
+        List<Integer> createIndexes = new ArrayList<>();
+        List<Map<String, Object>> createRows = new ArrayList<>();
+        List<BulkRowResult.Item> createItems = new ArrayList<>();
+        forEach(request.getCreates(), (index, dto) -> {
+            if (dto == null || dto.getData() == null) {
+                createItems.add(invalid(CREATE, index, null, "data est obligatoire."));
+                return;
+            }
+            createIndexes.add(index);
+            createRows.add(dto.getData());
+            createItems.add(null);
+        });
+        List<Long> createdIds = typedRowQueries.insertRows(table, createRows);
+        aggregateService.applyTypedRowChanges(table, createdIds, 1);
+        // Relues après l'écriture : l'historique garde les valeurs converties par la base
+        Map<Long, RowEntityDto> createdRows = typedRowQueries.findRows(table, createdIds);
+        for (int i = 0, created = 0; i < createItems.size(); i++) {
+            if (createItems.get(i) != null) {
+                result.add(createItems.get(i));
+                continue;
+            }
+            Long id = createdIds.get(created);
+            histories.add(typedHistory(table, id, CREATE, null, toJson(createdRows.get(id).getData()), now));
+            result.add(new BulkRowResult.Item(CREATE, createIndexes.get(created), id, BulkRowResult.OK, null));
+            created++;
+        }
+
+        // 2. Lecture verrouillée des lignes à remplacer ou supprimer ; current suit leur contenu au fil des entrées
+        Map<Long, String> current = new HashMap<>();
+        typedRowQueries.lockRows(table, targetIds(request)).forEach((id, row) -> current.put(id, toJson(row.getData())));
+
+        // 3. Remplacements : le dernier remplacement d'une même ligne l'emporte (ordre du lot)
+        List<RowEntityDto> updates = new ArrayList<>();
+        forEach(request.getUpdates(), (index, dto) -> {
+            if (dto == null || dto.getId() == null || dto.getData() == null) {
+                result.add(invalid(UPDATE, index, dto == null ? null : dto.getId(), "id et data sont obligatoires."));
+            } else if (!current.containsKey(dto.getId())) {
+                result.add(notFound(UPDATE, index, dto.getId(), table.sheetId()));
+            } else {
+                updates.add(dto);
+                result.add(new BulkRowResult.Item(UPDATE, index, dto.getId(), BulkRowResult.OK, null));
+            }
+        });
+        Set<Long> deletes = new LinkedHashSet<>();
+        forEach(request.getDeletes(), (index, id) -> {
+            if (id == null) {
+                result.add(invalid(DELETE, index, null, "id est obligatoire."));
+            } else if (!current.containsKey(id) || !deletes.add(id)) {
+                result.add(notFound(DELETE, index, id, table.sheetId()));
+            } else {
+                result.add(new BulkRowResult.Item(DELETE, index, id, BulkRowResult.OK, null));
+            }
+        });
+
+        // Agrégats : les lignes touchées sortent avec leur contenu actuel, les lignes remplacées et conservées
+        // y reviennent avec leur contenu final
+        Set<Long> changed = new LinkedHashSet<>(deletes);
+        updates.forEach(dto -> changed.add(dto.getId()));
+        aggregateService.applyTypedRowChanges(table, changed, -1);
+
+        typedRowQueries.updateRows(table, updates);
+        // Une entrée d'historique par remplacement ; pour une ligne remplacée plusieurs fois, les versions
+        // intermédiaires sont celles du lot, la dernière est relue dans la table
+        Set<Long> updatedIds = updates.stream().map(RowEntityDto::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, RowEntityDto> updatedRows = typedRowQueries.findRows(table, updatedIds);
+        Map<Long, Integer> lastUpdate = new HashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            lastUpdate.put(updates.get(i).getId(), i);
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            Long id = updates.get(i).getId();
+            String newJson = lastUpdate.get(id) == i
+                    ? toJson(updatedRows.get(id).getData())
+                    : toJson(updates.get(i).getData());
+            histories.add(typedHistory(table, id, UPDATE, current.put(id, newJson), newJson, now));
+        }
+
+        // 4. Suppressions
+        typedRowQueries.deleteRows(table, deletes);
+        for (Long id : deletes) {
+            histories.add(typedHistory(table, id, DELETE, current.remove(id), null, now));
+        }
+
+        updatedIds.removeAll(deletes);
+        aggregateService.applyTypedRowChanges(table, updatedIds, 1);
+        modificationHistoryService.saveHistories(histories);
+        return result;
+    }
+
+    private List<Long> insertJsonRows(Long sheetId, List<String> jsons, LocalDateTime createdAt) {
+        if (jsons.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                        "INSERT INTO row_entities (data_json, sheet_id, created_at) VALUES (?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        statement.setString(1, jsons.get(i));
+                        statement.setLong(2, sheetId);
+                        statement.setTimestamp(3, Timestamp.valueOf(createdAt));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return jsons.size();
+                    }
+                }, keyHolder);
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .collect(Collectors.toList());
+    }
+
+    // Contenu des lignes de la feuille parmi les ids donnés, verrouillées jusqu'à la fin de la transaction
+    private Map<Long, String> lockJsonRows(Long sheetId, List<Long> ids) {
+        Map<Long, String> rows = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(sheetId);
+            args.addAll(chunk);
+            jdbcTemplate.query("SELECT id, data_json FROM row_entities WHERE sheet_id = ? AND id IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY id FOR UPDATE",
+                    rs -> {
+                        rows.put(rs.getLong("id"), rs.getString("data_json"));
+                    }, args.toArray());
+        }
+        return rows;
+    }
+
+    private static ModificationHistory typedHistory(TypedSheetTable table, Long id, String operation,
+                                                    String oldJson, String newJson, LocalDateTime now) {
+        ModificationHistory history = new ModificationHistory(null, id, operation, oldJson, newJson, now);
+        history.setTypedSheetId(table.sheetId());
+        return history;
+    }
+
+    private static List<Long> targetIds(BulkRowRequest request) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (request.getUpdates() != null) {
+            request.getUpdates().stream().filter(dto -> dto != null && dto.getId() != null)
+                    .forEach(dto -> ids.add(dto.getId()));
+        }
+        if (request.getDeletes() != null) {
+            request.getDeletes().stream().filter(id -> id != null).forEach(ids::add);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error during JSON serialization", e);
+        }
+    }
+
+    private static BulkRowResult.Item invalid(String operation, int index, Long id, String message) {
+        return new BulkRowResult.Item(operation, index, id, BulkRowResult.INVALID, message);
+    }
+
+    private static BulkRowResult.Item notFound(String operation, int index, Long id, Long sheetId) {
+        return new BulkRowResult.Item(operation, index, id, BulkRowResult.NOT_FOUND,
+                "Entity not found with ID: " + id + " in sheet " + sheetId);
+    }
+
+    private static <T> void forEach(List<T> items, IndexedConsumer<T> consumer) {
+        if (items == null) {
+            return;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            consumer.accept(i, items.get(i));
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexedConsumer<T> {
+        void accept(int index, T item);
+    }
+}
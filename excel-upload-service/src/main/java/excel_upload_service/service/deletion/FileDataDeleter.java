@@ -0,0 +1,90 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/deletion/FileDataDeleter.java
+package excel_upload_service.service.deletion;
+
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.SchemaManagerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Suppression des données d'un fichier par tranches, sans transaction englobante.
+ *
+ * Chaque tranche de files.deletion.chunk-rows lignes est une instruction validée aussitôt : l'historique
+ * des lignes de la tranche (jointure sur row_entities, sans liste d'ids), puis les lignes elles-mêmes.
+ * L'historique des lignes en table typée (typed_sheet_id) est supprimé par tranches de la même taille.
+ * Les verrous ne portent que sur une tranche à la fois et le journal d'annulation reste borné.
+ * Les tables dynamiques du fichier sont ensuite supprimées (DROP TABLE), puis les feuilles et le fichier.
+ * Une suppression interrompue peut être relancée : chaque étape ignore ce qui a déjà été supprimé.
+ */
+@Component
+public class FileDataDeleter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileDataDeleter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SheetEntityRepository sheetRepository;
+    private final SchemaManagerService schemaManagerService;
+
+    @Value("${files.deletion.chunk-rows:5000}")
+    private int chunkRows;
+
+    public FileDataDeleter(JdbcTemplate jdbcTemplate,
+                           SheetEntityRepository sheetRepository,
+                           SchemaManagerService schemaManagerService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sheetRepository = sheetRepository;
+        this.schemaManagerService = schemaManagerService;
+    }
+
+    public void deleteFileData(Long fileId) {
+        long start = System.currentTimeMillis();
+        List<SheetEntity> sheets = sheetRepository.findByFileIdOrderBySheetIndexAsc(fileId);
+
+        long deletedRows = 0;
+        for (SheetEntity sheet : sheets) {
+            deletedRows += deleteSheetRows(sheet.getId());
+            deleteTypedRowHistory(sheet.getId());
+        }
+
+        Set<String> tables = new LinkedHashSet<>(schemaManagerService.findTablesForFile(fileId));
+        sheets.stream().map(SheetEntity::getStorageTable).filter(table -> table != null).forEach(tables::add);
+        tables.forEach(schemaManagerService::dropTable);
+
+        jdbcTemplate.update("DELETE FROM sheets WHERE file_id = ?", fileId);
+        jdbcTemplate.update("DELETE FROM files WHERE id = ?", fileId);
+        logger.info("Fichier {} supprimé : {} lignes JSON, {} tables dynamiques, en {} ms.",
+                fileId, deletedRows, tables.size(), System.currentTimeMillis() - start);
+    }
+
+    private long deleteSheetRows(Long sheetId) {
+        long deleted = 0;
+        while (true) {
+            // Borne haute de la prochaine tranche : parcours d'intervalle de idx_sheet_id (sheet_id, id)
+            Long upperId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM (SELECT id FROM row_entities WHERE sheet_id = ? ORDER BY id LIMIT ?) chunk",
+                    Long.class, sheetId, chunkRows);
+            if (upperId == null) {
+                return deleted;
+            }
+            jdbcTemplate.update(
+                    "DELETE mh FROM modification_history mh JOIN row_entities r ON r.id = mh.row_entity_id " +
+                    "WHERE mh.typed_sheet_id IS NULL AND r.sheet_id = ? AND r.id <= ?",
+                    sheetId, upperId);
+            deleted += jdbcTemplate.update("DELETE FROM row_entities WHERE sheet_id = ? AND id <= ?", sheetId, upperId);
+        }
+    }
+
+    private void deleteTypedRowHistory(Long sheetId) {
+        while (jdbcTemplate.update("DELETE FROM modification_history WHERE typed_sheet_id = ? LIMIT ?", sheetId, chunkRows) > 0) {
+            // Tranche suivante
+        }
+    }
+}
@@ -0,0 +1,184 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/ArrowSheetExporter.java
+package excel_upload_service.service.export;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Export colonnaire Arrow IPC (format stream), lisible directement par pandas/pyarrow, Polars, DuckDB ou Spark.
+ *
+ * Les colonnes sont typées d'après la table dynamique de la feuille : entiers en Int64, décimaux en Float64,
+ * le reste en Utf8. Sans table dynamique, toutes les colonnes sont en Utf8. Les lignes sont écrites par
+ * lots (record batches) de export.batch-rows lignes : la mémoire est bornée par la taille d'un lot.
+ *
+ * Sur JDK 17, Arrow exige l'ouverture de java.base/java.nio : attribut Add-Opens du manifeste pour java -jar,
+ * jvmArguments de spring-boot-maven-plugin pour spring-boot:run (voir pom.xml). L'allocateur est créé dans
+ * open(), avant l'envoi des en-têtes HTTP : une JVM mal configurée donne une erreur propre, pas un flux tronqué.
+ */
+@Component
+public class ArrowSheetExporter implements SheetExporter {
+
+    private static final Set<String> INTEGER_TYPES = Set.of("tinyint", "smallint", "mediumint", "int", "integer", "bigint");
+    private static final Set<String> FLOATING_TYPES = Set.of("decimal", "numeric", "float", "double", "real");
+
+    @Override
+    public String getFormat() {
+        return "arrow";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/vnd.apache.arrow.stream";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "arrows";
+    }
+
+    @Override
+    public SheetExportWriter open(OutputStream outputStream, SheetExportContext context) throws IOException {
+        List<Field> fields = new ArrayList<>(context.headers().size());
+        for (int i = 0; i < context.headers().size(); i++) {
+            String columnType = context.columnTypes() != null ? context.columnTypes().get(i) : null;
+            fields.add(new Field(context.headers().get(i), FieldType.nullable(toArrowType(columnType)), null));
+        }
+
+        BufferAllocator allocator = new RootAllocator();
+        VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator);
+        ArrowStreamWriter streamWriter = new ArrowStreamWriter(root, null, Channels.newChannel(outputStream));
+        try {
+            streamWriter.start();
+        } catch (IOException | RuntimeException e) {
+            root.close();
+            allocator.close();
+            throw e;
+        }
+        root.allocateNew();
+
+        return new SheetExportWriter() {
+            private int rowCount = 0;
+
+            @Override
+            public void writeRow(List<Object> values) throws IOException {
+                List<FieldVector> vectors = root.getFieldVectors();
+                for (int i = 0; i < vectors.size(); i++) {
+                    setValue(vectors.get(i), rowCount, values.get(i));
+                }
+                rowCount++;
+                if (rowCount >= context.batchRows()) {
+                    writeBatch();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    if (rowCount > 0) {
+                        writeBatch();
+                    }
+                    streamWriter.end();
+                } finally {
+                    // Ferme aussi le canal, donc le flux de sortie
+                    streamWriter.close();
+                    root.close();
+                    allocator.close();
+                }
+            }
+
+            private void writeBatch() throws IOException {
+                root.setRowCount(rowCount);
+                streamWriter.writeBatch();
+                // allocateNew libère les tampons du lot précédent avant d'en allouer de nouveaux
+                root.allocateNew();
+                rowCount = 0;
+            }
+        };
+    }
+
+    private static ArrowType toArrowType(String columnType) {
+        if (columnType != null && INTEGER_TYPES.contains(columnType)) {
+            return new ArrowType.Int(64, true);
+        }
+        if (columnType != null && FLOATING_TYPES.contains(columnType)) {
+            return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+        }
+        return ArrowType.Utf8.INSTANCE;
+    }
+
+    private static void setValue(FieldVector vector, int index, Object value) {
+        if (vector instanceof BigIntVector bigInt) {
+            Long number = toLong(value);
+            if (number == null) {
+                bigInt.setNull(index);
+            } else {
+                bigInt.setSafe(index, number);
+            }
+        } else if (vector instanceof Float8Vector float8) {
+            Double number = toDouble(value);
+            if (number == null) {
+                float8.setNull(index);
+            } else {
+                float8.setSafe(index, number);
+            }
+        } else {
+            VarCharVector varChar = (VarCharVector) vector;
+            if (value == null) {
+                varChar.setNull(index);
+            } else {
+                String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+                varChar.setSafe(index, text.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // Une valeur non convertible (cellule texte dans une colonne numérique) est exportée comme null
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return new BigDecimal(text.trim()).longValue();
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
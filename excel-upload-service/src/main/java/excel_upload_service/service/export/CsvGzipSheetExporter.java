@@ -0,0 +1,88 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/CsvGzipSheetExporter.java
+package excel_upload_service.service.export;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export CSV (RFC 4180, UTF-8, fins de ligne CRLF) compressé en gzip à la volée.
+ * Aucune mise en forme : le contenu part au fil de l'eau, par blocs compressés.
+ */
+@Component
+public class CsvGzipSheetExporter implements SheetExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public String getFormat() {
+        return "csv";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/gzip";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "csv.gz";
+    }
+
+    @Override
+    public SheetExportWriter open(OutputStream outputStream, SheetExportContext context) throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(new GZIPOutputStream(outputStream, BUFFER_SIZE), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        writeLine(writer, List.copyOf(context.headers()));
+
+        return new SheetExportWriter() {
+            @Override
+            public void writeRow(List<Object> values) throws IOException {
+                writeLine(writer, values);
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Ferme le flux gzip, qui écrit son bloc final
+                writer.close();
+            }
+        };
+    }
+
+    private static void writeLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writeField(writer, value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeField(Writer writer, String text) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,62 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/NdjsonSheetExporter.java
+package excel_upload_service.service.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Export NDJSON : un objet JSON par ligne, réduit aux en-têtes de la feuille et dans leur ordre.
+ */
+@Component
+public class NdjsonSheetExporter implements SheetExporter {
+
+    private final ObjectMapper objectMapper;
+
+    public NdjsonSheetExporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getFormat() {
+        return "ndjson";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/x-ndjson";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "ndjson";
+    }
+
+    @Override
+    public SheetExportWriter open(OutputStream outputStream, SheetExportContext context) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        List<String> headers = context.headers();
+
+        return new SheetExportWriter() {
+            @Override
+            public void writeRow(List<Object> values) throws IOException {
+                generator.writeStartObject();
+                for (int i = 0; i < headers.size(); i++) {
+                    generator.writeFieldName(headers.get(i));
+                    generator.writeObject(values.get(i));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+
+            @Override
+            public void close() throws IOException {
+                generator.close();
+            }
+        };
+    }
+}
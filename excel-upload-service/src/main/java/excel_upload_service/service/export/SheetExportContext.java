@@ -0,0 +1,15 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/SheetExportContext.java
+package excel_upload_service.service.export;
+
+import java.util.List;
+
+/**
+ * Description de la feuille exportée.
+ *
+ * @param sheetName   nom de la feuille
+ * @param headers     en-têtes issus de SheetEntity.headersJson, dans l'ordre des colonnes
+ * @param columnTypes type MySQL de chaque en-tête dans la table dynamique (minuscules), ou null si inconnu
+ * @param batchRows   nombre de lignes accumulées avant chaque écriture pour les formats par lots
+ */
+public record SheetExportContext(String sheetName, List<String> headers, List<String> columnTypes, int batchRows) {
+}
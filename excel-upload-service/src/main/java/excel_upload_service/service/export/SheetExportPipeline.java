@@ -0,0 +1,150 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/SheetExportPipeline.java
+package excel_upload_service.service.export;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.service.SchemaManagerService;
+import excel_upload_service.service.storage.RowDecoder;
+import excel_upload_service.service.storage.TypedRowQueries;
+import excel_upload_service.service.storage.TypedSheetTable;
+import excel_upload_service.service.storage.TypedSheetTables;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Chaîne d'export commune au téléchargement direct et aux tâches d'export : choix du format, préparation du
+ * contexte (en-têtes, types des colonnes) et écriture des lignes lues en flux vers un {@link SheetExporter}.
+ * Une feuille stockée dans une table typée est lue colonne par colonne, sans passer par le JSON.
+ */
+@Component
+public class SheetExportPipeline {
+
+    public static final String DEFAULT_FORMAT = "xlsx";
+
+    private final ObjectMapper objectMapper;
+    private final SheetRowStreamer sheetRowStreamer;
+    private final SchemaManagerService schemaManagerService;
+    private final TypedSheetTables typedSheetTables;
+    private final TypedRowQueries typedRowQueries;
+    private final RowDecoder rowDecoder;
+    private final Map<String, SheetExporter> exporters = new LinkedHashMap<>();
+
+    // Lignes accumulées avant chaque écriture pour les formats par lots (XLSX, Arrow)
+    @Value("${export.batch-rows:1000}")
+    private int batchRows;
+
+    public SheetExportPipeline(ObjectMapper objectMapper, SheetRowStreamer sheetRowStreamer,
+                               SchemaManagerService schemaManagerService, TypedSheetTables typedSheetTables,
+                               TypedRowQueries typedRowQueries, RowDecoder rowDecoder,
+                               List<SheetExporter> exporters) {
+        this.objectMapper = objectMapper;
+        this.sheetRowStreamer = sheetRowStreamer;
+        this.schemaManagerService = schemaManagerService;
+        this.typedSheetTables = typedSheetTables;
+        this.typedRowQueries = typedRowQueries;
+        this.rowDecoder = rowDecoder;
+        exporters.forEach(exporter -> this.exporters.put(exporter.getFormat(), exporter));
+    }
+
+    /**
+     * Format normalisé (minuscules, xlsx par défaut) ; IllegalArgumentException si le format est inconnu.
+     */
+    public SheetExporter resolveExporter(String format) {
+        String key = format == null || format.isBlank() ? DEFAULT_FORMAT : format.trim().toLowerCase(Locale.ROOT);
+        SheetExporter exporter = exporters.get(key);
+        if (exporter == null) {
+            throw new IllegalArgumentException("Format d'export non supporté : " + format + " (formats : " + exporters.keySet() + ")");
+        }
+        return exporter;
+    }
+
+    public boolean hasRows(SheetEntity sheet, String keyword) {
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheet);
+        return typedTable.isPresent()
+                ? typedRowQueries.hasRows(typedTable.get(), keyword)
+                : sheetRowStreamer.hasRows(sheet.getId(), keyword);
+    }
+
+    /**
+     * Écrit toutes les lignes de la feuille correspondant au mot-clé, puis ferme le flux.
+     * @return le nombre de lignes écrites
+     */
+    public long export(SheetEntity sheet, String keyword, SheetExporter exporter, OutputStream outputStream) throws IOException {
+        return export(sheet, keyword, exporter, outputStream, () -> {
+        });
+    }
+
+    /**
+     * Comme {@link #export(SheetEntity, String, SheetExporter, OutputStream)}, onOpened étant appelé une fois
+     * l'écrivain ouvert (ressources du format allouées), avant la première ligne : le téléchargement direct
+     * n'envoie ses en-têtes HTTP qu'à ce moment, une erreur d'ouverture reste donc une réponse d'erreur complète.
+     */
+    public long export(SheetEntity sheet, String keyword, SheetExporter exporter, OutputStream outputStream,
+                       ExportOpenedCallback onOpened) throws IOException {
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheet);
+        if (typedTable.isPresent()) {
+            TypedSheetTable table = typedTable.get();
+            SheetExportContext context = new SheetExportContext(sheet.getSheetName(), table.headers(), table.dataTypes(), batchRows);
+            return writeRows(exporter, outputStream, context, onOpened, consumer -> typedRowQueries.streamRows(table, keyword, consumer));
+        }
+
+        List<String> headers = objectMapper.readValue(sheet.getHeadersJson(), new TypeReference<>() {});
+        SheetExportContext context = new SheetExportContext(
+                sheet.getSheetName(), headers, resolveColumnTypes(sheet, headers), batchRows);
+        // Seules les clés des en-têtes sont décodées, directement dans l'ordre des colonnes
+        RowDecoder.Projection projection = rowDecoder.projection(headers);
+        return writeRows(exporter, outputStream, context, onOpened, consumer ->
+                sheetRowStreamer.streamRows(sheet.getId(), keyword,
+                        dataJson -> consumer.accept(Arrays.asList(rowDecoder.decode(dataJson, projection)))));
+    }
+
+    private long writeRows(SheetExporter exporter, OutputStream outputStream, SheetExportContext context,
+                           ExportOpenedCallback onOpened, Consumer<Consumer<List<Object>>> rowSource) throws IOException {
+        long[] rowCount = {0};
+        try (SheetExportWriter writer = exporter.open(outputStream, context)) {
+            onOpened.opened();
+            rowSource.accept(values -> {
+                try {
+                    writer.writeRow(values);
+                    rowCount[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rowCount[0];
+    }
+
+    @FunctionalInterface
+    public interface ExportOpenedCallback {
+        void opened() throws IOException;
+    }
+
+    /**
+     * Types des colonnes dans la table dynamique de la feuille, alignés sur les en-têtes
+     * (null pour une colonne absente). Sans table dynamique, la liste ne contient que des null.
+     */
+    private List<String> resolveColumnTypes(SheetEntity sheet, List<String> headers) {
+        Map<String, String> columnTypes = schemaManagerService.getColumnTypes(sheet.getFile().getId(), sheet.getSheetName());
+        List<String> types = new ArrayList<>(headers.size());
+        for (String header : headers) {
+            types.add(columnTypes.get(TypedSheetTable.columnName(header).toLowerCase()));
+        }
+        return types;
+    }
+}
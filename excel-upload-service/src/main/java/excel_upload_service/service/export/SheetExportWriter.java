@@ -0,0 +1,15 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/SheetExportWriter.java
+package excel_upload_service.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Écrivain d'export ouvert par un {@link SheetExporter}. Les valeurs d'une ligne suivent l'ordre des en-têtes ;
+ * une valeur absente vaut null.
+ */
+public interface SheetExportWriter extends Closeable {
+
+    void writeRow(List<Object> values) throws IOException;
+}
@@ -0,0 +1,30 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/SheetExporter.java
+package excel_upload_service.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Format d'export d'une feuille (xlsx, csv.gz, ndjson, arrow...).
+ * Chaque implémentation est un composant Spring, sélectionné par {@link #getFormat()}.
+ */
+public interface SheetExporter {
+
+    /**
+     * Identifiant du format, tel que passé dans le paramètre "format" du téléchargement.
+     */
+    String getFormat();
+
+    String getContentType();
+
+    /**
+     * Extension du fichier téléchargé, sans le point initial.
+     */
+    String getFileExtension();
+
+    /**
+     * Ouvre un écrivain sur le flux de sortie. Les lignes sont alignées sur {@link SheetExportContext#headers()}.
+     * Fermer l'écrivain finalise le format et ferme le flux.
+     */
+    SheetExportWriter open(OutputStream outputStream, SheetExportContext context) throws IOException;
+}
@@ -0,0 +1,64 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/SheetRowStreamer.java
+package excel_upload_service.service.export;
+
+import excel_upload_service.service.search.FullTextSearchSupport;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lecture des lignes d'une feuille en flux, dans l'ordre des id, avec le même filtre par mot-clé que la
+ * liste des lignes.
+ *
+ * Le curseur est forward-only et en lecture seule avec fetchSize = Integer.MIN_VALUE : le pilote MySQL
+ * transmet alors les lignes une par une au lieu de charger tout le résultat en mémoire. La connexion reste
+ * occupée jusqu'à la fin du parcours ; aucune autre requête ne doit passer par elle pendant ce temps.
+ */
+@Component
+public class SheetRowStreamer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FullTextSearchSupport fullTextSearchSupport;
+
+    public SheetRowStreamer(JdbcTemplate jdbcTemplate, FullTextSearchSupport fullTextSearchSupport) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fullTextSearchSupport = fullTextSearchSupport;
+    }
+
+    /**
+     * Indique si au moins une ligne correspond, sans rien lire d'autre.
+     */
+    public boolean hasRows(Long sheetId, String keyword) {
+        List<Object> args = new ArrayList<>();
+        args.add(sheetId);
+        String condition = fullTextSearchSupport.keywordCondition("r", keyword, args);
+        return !jdbcTemplate.queryForList("SELECT 1 FROM row_entities r WHERE r.sheet_id = ?" + condition + " LIMIT 1",
+                Integer.class, args.toArray()).isEmpty();
+    }
+
+    /**
+     * Transmet le JSON de chaque ligne au consommateur, au fil de la lecture.
+     */
+    public void streamRows(Long sheetId, String keyword, Consumer<String> dataJsonConsumer) {
+        List<Object> args = new ArrayList<>();
+        args.add(sheetId);
+        String sql = "SELECT r.data_json FROM row_entities r WHERE r.sheet_id = ?"
+                + fullTextSearchSupport.keywordCondition("r", keyword, args) + " ORDER BY r.id";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, rs -> {
+            dataJsonConsumer.accept(rs.getString(1));
+        });
+    }
+}
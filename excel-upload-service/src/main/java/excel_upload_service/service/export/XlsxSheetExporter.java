@@ -0,0 +1,70 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/export/XlsxSheetExporter.java
+package excel_upload_service.service.export;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.alibaba.excel.write.style.column.LongestMatchColumnWidthStyleStrategy;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Export XLSX via EasyExcel. EasyExcel écrit en SXSSF (seules quelques centaines de lignes restent en mémoire,
+ * le reste part dans un fichier temporaire) : la mémoire est bornée par la taille d'un lot.
+ * Le format est une archive ZIP finalisée à la fermeture : le contenu n'arrive qu'à la fin de l'écriture.
+ */
+@Component
+public class XlsxSheetExporter implements SheetExporter {
+
+    @Override
+    public String getFormat() {
+        return "xlsx";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "xlsx";
+    }
+
+    @Override
+    public SheetExportWriter open(OutputStream outputStream, SheetExportContext context) {
+        List<List<String>> excelHeaders = new ArrayList<>();
+        context.headers().forEach(header -> excelHeaders.add(List.of(header)));
+
+        ExcelWriter excelWriter = EasyExcel.write(outputStream)
+                .head(excelHeaders)
+                .registerWriteHandler(new LongestMatchColumnWidthStyleStrategy())
+                .build();
+        WriteSheet writeSheet = EasyExcel.writerSheet(context.sheetName()).build();
+        List<List<Object>> batch = new ArrayList<>(context.batchRows());
+
+        return new SheetExportWriter() {
+            @Override
+            public void writeRow(List<Object> values) {
+                batch.add(values);
+                if (batch.size() >= context.batchRows()) {
+                    excelWriter.write(batch, writeSheet);
+                    batch.clear();
+                }
+            }
+
+            @Override
+            public void close() {
+                try {
+                    // Toujours écrire au moins une fois : la feuille et ses en-têtes sont créées à la première écriture
+                    excelWriter.write(batch, writeSheet);
+                } finally {
+                    excelWriter.finish();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,11 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/graph/CategoryMeasures.java
+package excel_upload_service.service.graph;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Une catégorie et ses mesures, dans l'ordre des colonnes de valeur demandées.
+ */
+public record CategoryMeasures(String category, List<BigDecimal> values) {
+}
@@ -0,0 +1,185 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/graph/GraphResultCache.java
+package excel_upload_service.service.graph;
+
+import excel_upload_service.dto.GraphRequestDto;
+import excel_upload_service.repository.SheetEntityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache des résultats de graphiques, par feuille et requête normalisée.
+ *
+ * Éviction LRU au-delà de graph.cache.max-entries et expiration après graph.cache.ttl-seconds.
+ * Chaque feuille porte un numéro de version incrémenté à chaque invalidation : un calcul commencé
+ * avant une modification n'est pas mis en cache s'il se termine après, ce qui évite de réintroduire
+ * un résultat périmé. Dans une transaction, l'invalidation est répétée après le commit.
+ */
+@Component
+public class GraphResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphResultCache.class);
+    private static final Set<String> MEASURE_FUNCTIONS = Set.of("SUM", "AVG", "MIN", "MAX");
+
+    private final SheetEntityRepository sheetRepository;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final LinkedHashMap<CacheKey, CacheEntry> entries;
+    private final Map<Long, AtomicLong> sheetVersions = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public GraphResultCache(SheetEntityRepository sheetRepository,
+                            @Value("${graph.cache.max-entries:500}") int maxEntries,
+                            @Value("${graph.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.sheetRepository = sheetRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                boolean evict = size() > GraphResultCache.this.maxEntries;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Renvoie le résultat en cache ou le calcule. Le calcul s'exécute hors verrou :
+     * deux requêtes identiques simultanées peuvent calculer toutes les deux.
+     */
+    public Map<String, Object> get(Long sheetId, GraphRequestDto request, Supplier<Map<String, Object>> loader) {
+        if (maxEntries <= 0) {
+            return loader.get();
+        }
+        CacheKey key = new CacheKey(sheetId, normalize(request));
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+
+        long version = versionOf(sheetId).get();
+        Map<String, Object> value = loader.get();
+        synchronized (entries) {
+            // Une invalidation pendant le calcul rend le résultat douteux : on le renvoie sans le garder
+            if (versionOf(sheetId).get() == version) {
+                entries.put(key, new CacheEntry(Collections.unmodifiableMap(value), System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return value;
+    }
+
+    public void invalidateSheet(Long sheetId) {
+        if (sheetId == null) {
+            return;
+        }
+        evictSheet(sheetId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictSheet(sheetId);
+                }
+            });
+        }
+    }
+
+    public void invalidateFile(Long fileId) {
+        sheetRepository.findByFileIdOrderBySheetIndexAsc(fileId)
+                .forEach(sheet -> invalidateSheet(sheet.getId()));
+    }
+
+    public void invalidateAll() {
+        sheetVersions.values().forEach(AtomicLong::incrementAndGet);
+        synchronized (entries) {
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+        logger.info("Cache des graphiques vidé.");
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0d : (double) hitCount / (hitCount + missCount));
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private void evictSheet(Long sheetId) {
+        versionOf(sheetId).incrementAndGet();
+        synchronized (entries) {
+            Iterator<CacheKey> it = entries.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().sheetId.equals(sheetId)) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private AtomicLong versionOf(Long sheetId) {
+        return sheetVersions.computeIfAbsent(sheetId, id -> new AtomicLong());
+    }
+
+    /**
+     * Forme canonique de la requête : seuls les champs utilisés par le type de graphique comptent,
+     * avec les mêmes valeurs par défaut et la même insensibilité à la casse que GraphServiceImpl.
+     */
+    private static String normalize(GraphRequestDto request) {
+        String chartType = request.getChartType() == null ? "" : request.getChartType().trim().toLowerCase();
+        String grouping = request.getGroupingColumn() == null || request.getGroupingColumn().isBlank()
+                ? null : request.getGroupingColumn();
+        int limit = request.getLimit() == null ? 100 : request.getLimit();
+        StringBuilder key = new StringBuilder(chartType).append('|').append(request.getCategoryColumn()).append('|').append(limit);
+        if ("bar".equals(chartType)) {
+            if (grouping != null) {
+                key.append("|group=").append(grouping);
+            } else if (request.getAggregationType() != null
+                    && MEASURE_FUNCTIONS.contains(request.getAggregationType().toUpperCase())) {
+                key.append('|').append(request.getAggregationType().toUpperCase()).append('=').append(request.getValueColumns());
+            }
+        }
+        return key.toString();
+    }
+
+    private record CacheKey(Long sheetId, String request) {
+    }
+
+    private record CacheEntry(Map<String, Object> value, long expiresAt) {
+    }
+}
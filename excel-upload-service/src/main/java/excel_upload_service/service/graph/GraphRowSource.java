@@ -0,0 +1,23 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/graph/GraphRowSource.java
+package excel_upload_service.service.graph;
+
+import excel_upload_service.service.storage.TypedSheetTable;
+
+/**
+ * Lignes d'une feuille sur lesquelles portent les requêtes de graphiques, sous l'alias r :
+ * row_entities filtrée sur la feuille, ou la table typée de la feuille.
+ *
+ * @param from      clause FROM (table et alias r)
+ * @param condition condition de sélection des lignes de la feuille
+ * @param args      paramètres de la condition
+ */
+public record GraphRowSource(String from, String condition, Object[] args) {
+
+    public static GraphRowSource jsonRows(Long sheetId) {
+        return new GraphRowSource("row_entities r", "r.sheet_id = ?", new Object[]{sheetId});
+    }
+
+    public static GraphRowSource typedTable(TypedSheetTable table) {
+        return new GraphRowSource(table.tableName() + " r", "1 = 1", new Object[0]);
+    }
+}
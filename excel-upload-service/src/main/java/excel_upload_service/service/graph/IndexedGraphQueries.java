@@ -0,0 +1,104 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/graph/IndexedGraphQueries.java
+package excel_upload_service.service.graph;
+
+import excel_upload_service.dto.GraphResult;
+import excel_upload_service.dto.GroupedGraphResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Variantes des requêtes de graphiques de RowEntityRepository qui lisent des expressions de colonne
+ * fournies par l'appelant : colonne de la table typée de la feuille, colonne générée indexée quand elle existe,
+ * extraction JSON sinon. Avec une colonne indexée, le GROUP BY parcourt l'index (sheet_id, colonne)
+ * sans lire data_json ; avec une table typée, il lit directement la colonne.
+ *
+ * Les expressions proviennent exclusivement de {@link excel_upload_service.service.indexing.JsonKeyPaths},
+ * du registre des colonnes générées ou des colonnes de la table typée ; elles ne contiennent jamais
+ * de saisie non échappée.
+ */
+@Component
+public class IndexedGraphQueries {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IndexedGraphQueries(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<GraphResult> getCategoryCounts(GraphRowSource source, String categoryExpr, int limit) {
+        String sql = "SELECT " + categoryExpr + " AS category, COUNT(*) AS count " +
+                "FROM " + source.from() + " WHERE " + source.condition() + " AND " + categoryExpr + " IS NOT NULL " +
+                "GROUP BY category ORDER BY count DESC LIMIT ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) ->
+                new CategoryValue(rs.getString("category"), rs.getBigDecimal("count")), args(source, limit));
+    }
+
+    /**
+     * Toutes les mesures en un seul parcours de la feuille : une agrégation par colonne de valeur,
+     * les catégories retenues étant les premières selon la première mesure.
+     *
+     * @param function SUM, AVG, MIN ou MAX (validé par l'appelant)
+     */
+    public List<CategoryMeasures> getCategoryMeasures(GraphRowSource source, String categoryExpr, List<String> valueExprs,
+                                                      String function, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(categoryExpr).append(" AS category");
+        for (int i = 0; i < valueExprs.size(); i++) {
+            sql.append(", ").append(function).append("(CAST(").append(valueExprs.get(i)).append(" AS DECIMAL(18, 4))) AS m").append(i);
+        }
+        sql.append(" FROM ").append(source.from()).append(" WHERE ").append(source.condition())
+                .append(" AND ").append(categoryExpr).append(" IS NOT NULL")
+                .append(" GROUP BY category ORDER BY m0 DESC LIMIT ?");
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            List<BigDecimal> values = new ArrayList<>(valueExprs.size());
+            for (int i = 0; i < valueExprs.size(); i++) {
+                values.add(rs.getBigDecimal("m" + i));
+            }
+            return new CategoryMeasures(rs.getString("category"), values);
+        }, args(source, limit));
+    }
+
+    public List<GroupedGraphResult> getGroupedCategoryCounts(GraphRowSource source, String primaryExpr, String secondaryExpr, int limit) {
+        String sql = "WITH TopPrimaryCategories AS (" +
+                "  SELECT " + primaryExpr + " AS p_category, COUNT(*) AS total_count " +
+                "  FROM " + source.from() + " WHERE " + source.condition() + " GROUP BY p_category ORDER BY total_count DESC LIMIT ?" +
+                ") " +
+                "SELECT " + primaryExpr + " AS primaryCategory, " + secondaryExpr + " AS secondaryCategory, COUNT(*) AS value " +
+                "FROM " + source.from() + " JOIN TopPrimaryCategories tpc ON " + primaryExpr + " = tpc.p_category " +
+                "WHERE " + source.condition() + " AND " + secondaryExpr + " IS NOT NULL " +
+                "GROUP BY primaryCategory, secondaryCategory " +
+                "ORDER BY primaryCategory, secondaryCategory";
+        List<Object> args = new ArrayList<>(Arrays.asList(source.args()));
+        args.add(limit);
+        args.addAll(Arrays.asList(source.args()));
+        return jdbcTemplate.query(sql, (rs, rowNum) ->
+                new GroupedValue(rs.getString("primaryCategory"), rs.getString("secondaryCategory"), rs.getBigDecimal("value")),
+                args.toArray());
+    }
+
+    private static Object[] args(GraphRowSource source, int limit) {
+        Object[] args = Arrays.copyOf(source.args(), source.args().length + 1);
+        args[source.args().length] = limit;
+        return args;
+    }
+
+    private record CategoryValue(String category, BigDecimal count) implements GraphResult {
+        @Override
+        public String getCategory() { return category; }
+        @Override
+        public BigDecimal getCount() { return count; }
+    }
+
+    private record GroupedValue(String primaryCategory, String secondaryCategory, BigDecimal value) implements GroupedGraphResult {
+        @Override
+        public String getPrimaryCategory() { return primaryCategory; }
+        @Override
+        public String getSecondaryCategory() { return secondaryCategory; }
+        @Override
+        public BigDecimal getValue() { return value; }
+    }
+}
@@ -0,0 +1,388 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/history/AsyncHistoryWriter.java
+package excel_upload_service.service.history;
+
+import excel_upload_service.model.ModificationHistory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Écriture de l'historique des modifications hors du chemin des requêtes.
+ *
+ * En mode "async" (par défaut), chaque entrée est placée, après le commit de la modification, dans une file
+ * bornée (history.writer.queue-capacity) vidée par un thread unique qui insère par lots JDBC
+ * (history.writer.batch-size). File pleine : l'appelant attend qu'une place se libère (la requête ralentit,
+ * rien n'est perdu) ; une attente de plus de history.writer.enqueue-timeout-ms est comptée dans
+ * excel.history.enqueue.blocked. Les entrées sont écrites dans l'ordre de la file, ce qu'exigent les deltas
+ * (voir HistoryEncoder). Chaque lot est écrit dans sa propre transaction : un lot en échec est annulé puis
+ * réécrit entrée par entrée, si bien que seule une entrée refusée même seule est perdue (comptée dans
+ * excel.history.failed et journalisée) ; l'entrée suivante de sa ligne est alors écrite en données complètes
+ * (nouvelle base), la chaîne de deltas ne pouvant plus passer par la version perdue. À l'arrêt de l'application,
+ * la file est vidée avant la fermeture du pool de connexions ; seul un arrêt brutal peut perdre
+ * les entrées en attente. La réinitialisation de la base écarte les entrées en attente (voir discardDuring).
+ *
+ * En mode "sync", l'entrée est écrite dans la transaction de la modification :
+ * l'historique est alors aussi durable que la donnée, au prix d'un INSERT de plus par requête.
+ */
+@Component
+public class AsyncHistoryWriter implements SmartLifecycle, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncHistoryWriter.class);
+    private static final String INSERT_SQL = "INSERT INTO modification_history " +
+            "(row_entity_id, typed_sheet_id, operation_type, old_data, new_data, patch, version_hash, `timestamp`) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final ParameterizedPreparedStatementSetter<ModificationHistory> HISTORY_SETTER = (ps, history) -> {
+        ps.setObject(1, history.getRowEntityId());
+        ps.setObject(2, history.getTypedSheetId());
+        ps.setString(3, history.getOperationType());
+        ps.setString(4, history.getOldData());
+        ps.setString(5, history.getNewData());
+        ps.setString(6, history.getPatch());
+        ps.setString(7, history.getVersionHash());
+        ps.setTimestamp(8, Timestamp.valueOf(history.getTimestamp()));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final HistoryEncoder historyEncoder;
+    private final boolean async;
+    private final int batchSize;
+    private final long enqueueTimeoutMillis;
+    private final long flushIntervalMillis;
+    private final long shutdownTimeoutMillis;
+    private final BlockingQueue<ModificationHistory> queue;
+
+    // Entrées acceptées et entrées traitées (écrites ou en échec) : flush() attend que les secondes rattrapent les premières
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong blockedEnqueues = new AtomicLong();
+    private final Object progress = new Object();
+
+    // Lignes dont la dernière entrée a été perdue : leur prochaine entrée est une base (voir HistoryEncoder)
+    private final Set<HistoryRowKey> brokenRows = ConcurrentHashMap.newKeySet();
+
+    // Tenu pendant l'écriture d'un lot et pendant une réinitialisation (discardDuring) ; generation change à
+    // chaque réinitialisation, un lot lu dans la file avant elle est alors écarté
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile long generation;
+    private volatile boolean discarding;
+
+    private volatile boolean running;
+    private Thread drainThread;
+
+    public AsyncHistoryWriter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              HistoryEncoder historyEncoder,
+                              @Value("${history.writer.mode:async}") String mode,
+                              @Value("${history.writer.queue-capacity:10000}") int queueCapacity,
+                              @Value("${history.writer.batch-size:500}") int batchSize,
+                              @Value("${history.writer.enqueue-timeout-ms:50}") long enqueueTimeoutMillis,
+                              @Value("${history.writer.flush-interval-ms:200}") long flushIntervalMillis,
+                              @Value("${history.writer.shutdown-timeout-seconds:30}") long shutdownTimeoutSeconds) {
+        if (!"async".equalsIgnoreCase(mode) && !"sync".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("history.writer.mode doit valoir async ou sync : " + mode);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        // Hors de toute transaction de l'appelant (y compris depuis afterCommit)
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.historyEncoder = historyEncoder;
+        this.async = "async".equalsIgnoreCase(mode);
+        this.batchSize = batchSize;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.shutdownTimeoutMillis = TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * @param typedSheetId feuille d'une ligne stockée en table typée, null pour une ligne de row_entities
+     */
+    public void record(Long typedSheetId, Long rowId, String operationType, String oldData, String newData) {
+        ModificationHistory history = new ModificationHistory(null, rowId, operationType, oldData, newData, LocalDateTime.now());
+        history.setTypedSheetId(typedSheetId);
+        if (!async) {
+            insert(List.of(history));
+            return;
+        }
+        afterCommit(() -> enqueue(history));
+    }
+
+    /**
+     * Entrées d'une même modification en masse. En mode "sync", un seul INSERT par lots dans la transaction
+     * de l'appelant ; en mode "async", toutes les entrées sont mises en file après le commit.
+     */
+    public void recordAll(List<ModificationHistory> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (!async) {
+            insert(entries);
+            return;
+        }
+        List<ModificationHistory> pending = List.copyOf(entries);
+        afterCommit(() -> pending.forEach(this::enqueue));
+    }
+
+    // Une modification annulée ne doit pas laisser d'historique : mise en file après le commit
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Attend que les entrées acceptées avant l'appel soient écrites (au plus timeoutMillis) :
+     * les lectures de l'historique voient ainsi les modifications qui les précèdent.
+     */
+    public void flush(long timeoutMillis) {
+        long target = accepted.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            while (processed.get() < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !running) {
+                    return;
+                }
+                try {
+                    progress.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Exécute action (réinitialisation de la base) sans qu'aucune entrée d'historique ne soit écrite pendant ou
+     * après elle : le lot en cours d'écriture est terminé, les entrées en file et celles enregistrées pendant
+     * l'action sont écartées (excel.history.discarded).
+     */
+    public void discardDuring(Runnable action) {
+        discarding = true;
+        writeLock.lock();
+        try {
+            generation++;
+            brokenRows.clear();
+            discardQueued();
+            action.run();
+            discardQueued();
+        } finally {
+            discarding = false;
+            writeLock.unlock();
+        }
+    }
+
+    private void discardQueued() {
+        List<ModificationHistory> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        if (!pending.isEmpty()) {
+            logger.info("Réinitialisation : {} entrées d'historique en attente écartées.", pending.size());
+            discarded.addAndGet(pending.size());
+            markProcessed(pending.size());
+        }
+    }
+
+    private void enqueue(ModificationHistory history) {
+        if (discarding) {
+            discarded.incrementAndGet();
+            return;
+        }
+        if (running) {
+            accepted.incrementAndGet();
+            try {
+                if (queue.offer(history, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                // File pleine : l'appelant attend, pour garder l'ordre des entrées d'une même ligne
+                blockedEnqueues.incrementAndGet();
+                queue.put(history);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            accepted.decrementAndGet();
+        }
+        // Écrivain arrêté (ou attente interrompue) : l'entrée est écrite par l'appelant
+        writeLocked(List.of(history), generation);
+    }
+
+    private void drainLoop() {
+        List<ModificationHistory> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                long polledGeneration = generation;
+                ModificationHistory first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeLocked(batch, polledGeneration);
+                markProcessed(batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Arrêt demandé : la boucle finit de vider la file
+                Thread.interrupted();
+            }
+        }
+    }
+
+    // Encodage puis insertion, dans la transaction de l'appelant s'il y en a une
+    private void insert(List<ModificationHistory> entries) {
+        historyEncoder.encode(entries, brokenRows);
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, batchSize, HISTORY_SETTER);
+    }
+
+    // Lot lu dans la file à la génération polledGeneration : écarté si une réinitialisation a eu lieu depuis
+    private void writeLocked(List<ModificationHistory> batch, long polledGeneration) {
+        writeLock.lock();
+        try {
+            if (polledGeneration != generation) {
+                discarded.addAndGet(batch.size());
+                return;
+            }
+            writeBatch(batch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeBatch(List<ModificationHistory> batch) {
+        // L'encodage modifie les entrées : contenu d'origine conservé pour les réécrire une par une
+        List<String[]> originals = new ArrayList<>(batch.size());
+        batch.forEach(entry -> originals.add(new String[]{entry.getOldData(), entry.getNewData(), entry.getPatch()}));
+        try {
+            batchTransaction.executeWithoutResult(status -> insert(batch));
+            written.addAndGet(batch.size());
+            batch.forEach(entry -> brokenRows.remove(HistoryRowKey.of(entry)));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed.incrementAndGet();
+                brokenRows.add(HistoryRowKey.of(batch.get(0)));
+                logger.error("Échec de l'écriture de l'entrée d'historique {} de la ligne {} : entrée perdue.",
+                        batch.get(0).getOperationType(), batch.get(0).getRowEntityId(), e);
+                return;
+            }
+            logger.warn("Échec de l'écriture d'un lot de {} entrées d'historique : nouvel essai entrée par entrée.",
+                    batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                ModificationHistory entry = batch.get(i);
+                entry.setOldData(originals.get(i)[0]);
+                entry.setNewData(originals.get(i)[1]);
+                entry.setPatch(originals.get(i)[2]);
+                writeBatch(List.of(entry));
+            }
+        }
+    }
+
+    private void markProcessed(int count) {
+        processed.addAndGet(count);
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!async) {
+            return;
+        }
+        running = true;
+        drainThread = new Thread(this::drainLoop, "history-writer");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        drainThread.interrupt();
+        try {
+            drainThread.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Entrées arrivées après la sortie du thread (ou délai dépassé) : écrites ici
+        List<ModificationHistory> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.info("Écriture de {} entrées d'historique restantes à l'arrêt.", remaining.size());
+            writeLocked(remaining, generation);
+            markProcessed(remaining.size());
+        } else {
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Arrêté après le serveur web (les requêtes en cours ont fini d'écrire) et avant la fermeture du pool de connexions
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("excel.history.queue.size", queue, BlockingQueue::size)
+                .description("Entrées d'historique en attente d'écriture")
+                .register(registry);
+        FunctionCounter.builder("excel.history.written", written, AtomicLong::get)
+                .description("Entrées d'historique écrites")
+                .register(registry);
+        FunctionCounter.builder("excel.history.failed", failed, AtomicLong::get)
+                .description("Entrées d'historique perdues : écriture refusée même entrée par entrée")
+                .register(registry);
+        FunctionCounter.builder("excel.history.discarded", discarded, AtomicLong::get)
+                .description("Entrées d'historique écartées par une réinitialisation de la base")
+                .register(registry);
+        FunctionCounter.builder("excel.history.enqueue.blocked", blockedEnqueues, AtomicLong::get)
+                .description("Mises en file ayant attendu une place (file pleine)")
+                .register(registry);
+    }
+}
@@ -0,0 +1,175 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/history/HistoryEncoder.java
+package excel_upload_service.service.history;
+
+import excel_upload_service.model.ModificationHistory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Forme compacte des entrées d'historique, appliquée juste avant leur écriture.
+ *
+ * Chaque ligne (voir HistoryRowKey) a une chaîne d'entrées dans l'ordre des id : une entrée de base (données complètes) puis des deltas.
+ * <ul>
+ *   <li>CREATE : newData complet, c'est la base de la chaîne ;</li>
+ *   <li>UPDATE : JSON Patch depuis la version précédente (patch), sans oldData ni newData. Toutes les
+ *       history.snapshot-interval entrées, ou quand le patch n'est pas plus court que la ligne, newData complet
+ *       (instantané) ; la reconstruction d'une version part alors de cet instantané ;</li>
+ *   <li>DELETE : rien, la version supprimée étant la dernière de la chaîne.</li>
+ * </ul>
+ * Une ligne sans entrée de base (ligne importée puis modifiée pour la première fois) garde oldData et newData
+ * complets, comme avant. Les entrées déjà en base ne sont jamais réécrites : celles au format complet restent
+ * des bases valides.
+ *
+ * Chaque entrée porte l'empreinte de la version qu'elle produit (versionHash). Une entrée n'est écrite en delta
+ * que si son oldData a l'empreinte de la dernière version enregistrée de la ligne : sinon (entrée précédente
+ * perdue, entrées arrivées dans le désordre, entrée antérieure sans empreinte) elle garde oldData et newData
+ * complets et devient une nouvelle base. Il en va de même pour les lignes passées dans brokenRows par
+ * l'appelant (dernière écriture en échec).
+ *
+ * Les entrées doivent être écrites dans l'ordre où elles sont encodées (voir AsyncHistoryWriter).
+ */
+@Component
+public class HistoryEncoder {
+
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonRowPatch jsonRowPatch;
+
+    @Value("${history.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    public HistoryEncoder(JdbcTemplate jdbcTemplate, JsonRowPatch jsonRowPatch) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonRowPatch = jsonRowPatch;
+    }
+
+    /**
+     * @param brokenRows lignes dont la chaîne enregistrée est incomplète : leur première entrée devient une base
+     */
+    public void encode(List<ModificationHistory> entries, Set<HistoryRowKey> brokenRows) {
+        Set<HistoryRowKey> rows = new LinkedHashSet<>();
+        for (ModificationHistory entry : entries) {
+            if (!"CREATE".equals(entry.getOperationType()) && entry.getRowEntityId() != null
+                    && !brokenRows.contains(HistoryRowKey.of(entry))) {
+                rows.add(HistoryRowKey.of(entry));
+            }
+        }
+        // Chaîne enregistrée de chaque ligne depuis sa dernière base ; une ligne absente n'a pas de base utilisable
+        Map<HistoryRowKey, Chain> chains = loadChains(rows);
+
+        for (ModificationHistory entry : entries) {
+            HistoryRowKey row = HistoryRowKey.of(entry);
+            Chain chain = chains.get(row);
+            boolean continuous = chain != null && entry.getOldData() != null
+                    && hash(entry.getOldData()).equals(chain.lastHash());
+            switch (entry.getOperationType()) {
+                case "CREATE" -> {
+                    entry.setVersionHash(hash(entry.getNewData()));
+                    chains.put(row, new Chain(0, entry.getVersionHash()));
+                }
+                case "UPDATE" -> {
+                    entry.setVersionHash(hash(entry.getNewData()));
+                    int deltas = continuous ? encodeUpdate(entry, chain.deltasSinceBase()) : 0;
+                    chains.put(row, new Chain(deltas, entry.getVersionHash()));
+                }
+                case "DELETE" -> {
+                    if (continuous) {
+                        entry.setOldData(null);
+                    }
+                    chains.remove(row);
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Entrée qui suit la dernière version enregistrée de la ligne.
+     * @return le nombre de deltas depuis la base de la ligne, après cette entrée
+     */
+    private int encodeUpdate(ModificationHistory entry, int deltasSinceBase) {
+        if (entry.getNewData() == null) {
+            return 0;
+        }
+        if (deltasSinceBase + 1 < snapshotInterval) {
+            String patch = jsonRowPatch.diff(entry.getOldData(), entry.getNewData());
+            if (patch != null && patch.length() < entry.getNewData().length()) {
+                entry.setPatch(patch);
+                entry.setOldData(null);
+                entry.setNewData(null);
+                return deltasSinceBase + 1;
+            }
+        }
+        // Instantané : la version précédente se reconstruit depuis la chaîne
+        entry.setOldData(null);
+        return 0;
+    }
+
+    static String hash(String json) {
+        return json == null ? null : DigestUtils.md5DigestAsHex(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<HistoryRowKey, Chain> loadChains(Set<HistoryRowKey> rows) {
+        Map<HistoryRowKey, Integer> deltas = new HashMap<>();
+        Map<HistoryRowKey, String> lastHashes = new HashMap<>();
+        // Une requête par source de lignes (row_entities, ou table typée d'une feuille), par tranche d'ids
+        Map<Long, List<Long>> rowIdsBySheet = new HashMap<>();
+        rows.forEach(row -> rowIdsBySheet.computeIfAbsent(row.typedSheetId(), sheetId -> new ArrayList<>()).add(row.rowId()));
+        rowIdsBySheet.forEach((typedSheetId, rowIds) -> {
+            String source = typedSheetId == null ? "typed_sheet_id IS NULL" : "typed_sheet_id = " + typedSheetId;
+            for (int from = 0; from < rowIds.size(); from += ID_CHUNK_SIZE) {
+                List<Long> chunk = rowIds.subList(from, Math.min(from + ID_CHUNK_SIZE, rowIds.size()));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                jdbcTemplate.query(
+                        "SELECT b.row_entity_id, COUNT(h.id) AS deltas FROM (" +
+                        "  SELECT row_entity_id, MAX(id) AS base_id FROM modification_history" +
+                        "  WHERE " + source + " AND row_entity_id IN (" + placeholders + ")" +
+                        "  AND (new_data IS NOT NULL OR old_data IS NOT NULL)" +
+                        "  GROUP BY row_entity_id) b" +
+                        " LEFT JOIN modification_history h ON h.row_entity_id = b.row_entity_id AND h.id > b.base_id" +
+                        " AND h." + source +
+                        " GROUP BY b.row_entity_id",
+                        rs -> {
+                            deltas.put(new HistoryRowKey(typedSheetId, rs.getLong("row_entity_id")), rs.getInt("deltas"));
+                        }, chunk.toArray());
+                // Empreinte de la dernière entrée de chaque ligne
+                jdbcTemplate.query(
+                        "SELECT m.row_entity_id, m.version_hash FROM modification_history m JOIN (" +
+                        "  SELECT MAX(id) AS id FROM modification_history" +
+                        "  WHERE " + source + " AND row_entity_id IN (" + placeholders + ")" +
+                        "  GROUP BY row_entity_id) l ON l.id = m.id",
+                        rs -> {
+                            lastHashes.put(new HistoryRowKey(typedSheetId, rs.getLong("row_entity_id")), rs.getString("version_hash"));
+                        }, chunk.toArray());
+            }
+        });
+        Map<HistoryRowKey, Chain> chains = new HashMap<>();
+        deltas.forEach((row, count) -> {
+            String lastHash = lastHashes.get(row);
+            if (lastHash != null) {
+                chains.put(row, new Chain(count, lastHash));
+            }
+        });
+        return chains;
+    }
+
+    /**
+     * @param deltasSinceBase deltas enregistrés depuis la dernière base
+     * @param lastHash        empreinte de la dernière version enregistrée
+     */
+    private record Chain(int deltasSinceBase, String lastHash) {
+    }
+}
@@ -0,0 +1,15 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/history/HistoryRowKey.java
+package excel_upload_service.service.history;
+
+import excel_upload_service.model.ModificationHistory;
+
+/**
+ * Ligne à laquelle se rapporte une entrée d'historique : une ligne de row_entities (typedSheetId null), ou une
+ * ligne de la table typée de la feuille typedSheetId, dont l'id n'est unique que dans cette feuille.
+ */
+public record HistoryRowKey(Long typedSheetId, Long rowId) {
+
+    public static HistoryRowKey of(ModificationHistory entry) {
+        return new HistoryRowKey(entry.getTypedSheetId(), entry.getRowEntityId());
+    }
+}
@@ -0,0 +1,87 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/history/HistoryVersions.java
+package excel_upload_service.service.history;
+
+import excel_upload_service.model.ModificationHistory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Relecture des chaînes d'historique écrites par HistoryEncoder : chaque entrée est rejouée sur la version
+ * précédente de la ligne pour retrouver son contenu avant et après l'entrée.
+ */
+@Component
+public class HistoryVersions {
+
+    private final JsonRowPatch jsonRowPatch;
+
+    public HistoryVersions(JsonRowPatch jsonRowPatch) {
+        this.jsonRowPatch = jsonRowPatch;
+    }
+
+    /**
+     * Contenu de la ligne avant et après une entrée ; after est null pour une suppression.
+     */
+    public record Step(ModificationHistory entry, String before, String after) {
+
+        // Copie détachée au format complet (oldData, newData), telle que renvoyée par l'API d'historique
+        public ModificationHistory expanded() {
+            ModificationHistory copy = new ModificationHistory(entry.getId(), entry.getRowEntityId(),
+                    entry.getOperationType(), before, after, entry.getTimestamp());
+            copy.setTypedSheetId(entry.getTypedSheetId());
+            copy.setPatch(entry.getPatch());
+            return copy;
+        }
+    }
+
+    /**
+     * Rejoue une chaîne d'une même ligne, dans l'ordre des id, à partir d'une entrée de base.
+     * Une version qui ne peut être reconstruite (chaîne incomplète) vaut null.
+     */
+    public List<Step> replay(List<ModificationHistory> chain) {
+        List<Step> steps = new ArrayList<>(chain.size());
+        String state = null;
+        for (ModificationHistory entry : chain) {
+            String before = entry.getOldData() != null ? entry.getOldData() : state;
+            String after;
+            switch (entry.getOperationType()) {
+                case "CREATE" -> after = entry.getNewData();
+                case "DELETE" -> after = null;
+                default -> {
+                    if (entry.getNewData() != null) {
+                        after = entry.getNewData();
+                    } else if (entry.getPatch() != null && before != null) {
+                        after = jsonRowPatch.apply(before, entry.getPatch());
+                    } else {
+                        after = null;
+                    }
+                }
+            }
+            steps.add(new Step(entry, before, after));
+            state = after;
+        }
+        return steps;
+    }
+
+    /**
+     * Entrées de plusieurs lignes au format complet, dans l'ordre d'origine. Chaque ligne doit y figurer
+     * avec une chaîne complète (de sa base à sa dernière entrée).
+     */
+    public List<ModificationHistory> expandAll(List<ModificationHistory> entries) {
+        Map<HistoryRowKey, List<ModificationHistory>> byRow = new LinkedHashMap<>();
+        for (ModificationHistory entry : entries) {
+            byRow.computeIfAbsent(HistoryRowKey.of(entry), row -> new ArrayList<>()).add(entry);
+        }
+        Map<Long, ModificationHistory> expanded = new LinkedHashMap<>();
+        for (List<ModificationHistory> chain : byRow.values()) {
+            chain.sort(Comparator.comparing(ModificationHistory::getId));
+            replay(chain).forEach(step -> expanded.put(step.entry().getId(), step.expanded()));
+        }
+        return entries.stream().map(entry -> expanded.get(entry.getId())).collect(Collectors.toList());
+    }
+}
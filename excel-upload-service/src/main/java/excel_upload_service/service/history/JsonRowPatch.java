@@ -0,0 +1,117 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/history/JsonRowPatch.java
+package excel_upload_service.service.history;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * JSON Patch (RFC 6902) entre deux versions d'une ligne. Les lignes sont des objets plats (en-tête -> valeur) :
+ * le patch ne contient que des opérations add, remove et replace sur les membres de premier niveau
+ * ("/en-tête", échappé selon RFC 6901), chaque valeur étant remplacée en entier.
+ *
+ * Une version rebâtie par apply doit être identique, octet pour octet, au texte enregistré (versionHash) :
+ * les décimaux sont lus en BigDecimal exacts (1.5000 reste 1.5000), et diff ne renvoie un patch que si son
+ * application redonne exactement newJson. Sinon (ordre des membres changé par un ajout, écriture différente
+ * d'un nombre...), pas de patch : l'entrée est écrite en instantané.
+ */
+@Component
+public class JsonRowPatch {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonRowPatch(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy()
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .configure(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES, false);
+    }
+
+    /**
+     * @return le patch qui transforme oldJson en newJson, ou null si l'une des deux versions n'est pas un objet JSON
+     * ou si apply ne redonnerait pas newJson à l'identique
+     */
+    public String diff(String oldJson, String newJson) {
+        JsonNode oldNode = read(oldJson);
+        JsonNode newNode = read(newJson);
+        if (!(oldNode instanceof ObjectNode) || !(newNode instanceof ObjectNode)) {
+            return null;
+        }
+        ArrayNode operations = objectMapper.createArrayNode();
+        for (Iterator<String> names = oldNode.fieldNames(); names.hasNext(); ) {
+            String name = names.next();
+            if (!newNode.has(name)) {
+                operations.addObject().put("op", "remove").put("path", pointer(name));
+            }
+        }
+        for (Map.Entry<String, JsonNode> field : newNode.properties()) {
+            JsonNode previous = oldNode.get(field.getKey());
+            if (previous == null) {
+                operations.addObject().put("op", "add").put("path", pointer(field.getKey())).set("value", field.getValue());
+            } else if (!sameText(previous, field.getValue())) {
+                operations.addObject().put("op", "replace").put("path", pointer(field.getKey())).set("value", field.getValue());
+            }
+        }
+        String patch = write(operations);
+        return Objects.equals(apply(oldJson, patch), newJson) ? patch : null;
+    }
+
+    /**
+     * Applique à json un patch produit par diff.
+     */
+    public String apply(String json, String patch) {
+        JsonNode node = read(json);
+        if (!(node instanceof ObjectNode row)) {
+            throw new IllegalStateException("Version de ligne illisible : un objet JSON est attendu.");
+        }
+        for (JsonNode operation : read(patch)) {
+            String name = memberName(operation.path("path").asText());
+            switch (operation.path("op").asText()) {
+                case "add", "replace" -> row.set(name, operation.get("value"));
+                case "remove" -> row.remove(name);
+                default -> throw new IllegalStateException("Opération de patch non prise en charge : " + operation);
+            }
+        }
+        return write(row);
+    }
+
+    // equals compare les décimaux par valeur (0.10 = 0.1) : l'écriture doit aussi être la même
+    private static boolean sameText(JsonNode previous, JsonNode value) {
+        return previous.equals(value) && (!previous.isNumber() || previous.toString().equals(value.toString()));
+    }
+
+    private static String pointer(String name) {
+        return "/" + name.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static String memberName(String pointer) {
+        if (!pointer.startsWith("/") || pointer.indexOf('/', 1) >= 0) {
+            throw new IllegalStateException("Chemin de patch non pris en charge : " + pointer);
+        }
+        return pointer.substring(1).replace("~1", "/").replace("~0", "~");
+    }
+
+    private JsonNode read(String json) {
+        try {
+            return json == null ? null : objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error during JSON deserialization", e);
+        }
+    }
+
+    private String write(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error during JSON serialization", e);
+        }
+    }
+}
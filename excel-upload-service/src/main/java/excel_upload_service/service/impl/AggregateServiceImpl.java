@@ -0,0 +1,456 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/impl/AggregateServiceImpl.java
+package excel_upload_service.service.impl;
+
+import excel_upload_service.dto.GraphResult;
+import excel_upload_service.model.AggregateDefinition;
+import excel_upload_service.repository.AggregateDefinitionRepository;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.AggregateService;
+import excel_upload_service.service.graph.CategoryMeasures;
+import excel_upload_service.service.indexing.JsonKeyPaths;
+import excel_upload_service.service.storage.TypedSheetTable;
+import excel_upload_service.service.storage.TypedSheetTables;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Agrégats matérialisés par feuille, maintenus par deltas.
+ *
+ * Les catégories et valeurs sont extraites par MySQL (JSON_EXTRACT, CAST en DECIMAL(18, 4)), avec les
+ * mêmes règles que les requêtes de graphiques : un agrégat donne exactement le résultat du calcul
+ * sur les lignes. Les JSON modifiés sont envoyés par tranches (une requête par tranche et par catégorie,
+ * UNION ALL des JSON), et non un par un. Les deltas sont d'abord lus par un SELECT puis appliqués par INSERT ... ON DUPLICATE KEY
+ * UPDATE : un CAST invalide n'est qu'un avertissement dans un SELECT, mais une erreur dans un INSERT
+ * en mode strict.
+ *
+ * Feuille en table typée : catégories et valeurs sont lues dans ses colonnes (texte tronqué, CAST en
+ * DECIMAL(18, 4)), à la construction comme pour les deltas, qui relisent les lignes modifiées avant et après
+ * leur écriture (voir applyTypedRowChanges).
+ *
+ * Construction : dans une transaction, la définition est insérée puis les lignes de la feuille sont lues
+ * avec FOR SHARE. Une modification concurrente attend la fin de la construction et voit alors la
+ * définition ; une modification validée avant est lue par la construction.
+ */
+@Service
+public class AggregateServiceImpl implements AggregateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregateServiceImpl.class);
+
+    private static final Set<String> MAINTAINED_FUNCTIONS = Set.of("SUM", "AVG");
+    // Nombre d'ids par clause IN
+    private static final int ID_CHUNK_SIZE = 1000;
+    // Nombre de JSON de lignes par requête d'extraction des deltas
+    private static final int JSON_CHUNK_SIZE = 500;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO aggregate_values (definition_id, category_hash, category, row_count, value_sum) " +
+            "VALUES (?, UNHEX(MD5(?)), ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE row_count = row_count + VALUES(row_count), value_sum = value_sum + VALUES(value_sum)";
+
+    // Même troncature que les colonnes indexées et le repli sur data_json
+    private static final String CATEGORY_SQL = JsonKeyPaths.truncateCategory("JSON_UNQUOTE(JSON_EXTRACT(r.data_json, ?))");
+
+    private final AggregateDefinitionRepository definitionRepository;
+    private final SheetEntityRepository sheetRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor buildExecutor;
+    private final TypedSheetTables typedSheetTables;
+
+    private final Set<String> scheduledBuilds = ConcurrentHashMap.newKeySet();
+
+    // Construit à la demande les agrégats manquants lors d'une requête de graphique
+    @Value("${aggregates.auto-build:true}")
+    private boolean autoBuild;
+
+    public AggregateServiceImpl(AggregateDefinitionRepository definitionRepository,
+                                SheetEntityRepository sheetRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Qualifier("aggregateBuildExecutor") ThreadPoolTaskExecutor buildExecutor,
+                                TypedSheetTables typedSheetTables) {
+        this.definitionRepository = definitionRepository;
+        this.sheetRepository = sheetRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buildExecutor = buildExecutor;
+        this.typedSheetTables = typedSheetTables;
+    }
+
+    @Override
+    public void applyRowChange(Long sheetId, String oldJson, String newJson) {
+        applyRowChanges(sheetId, List.of(new RowChange(oldJson, newJson)));
+    }
+
+    @Override
+    public void applyRowChanges(Long sheetId, List<RowChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<AggregateDefinition> definitions = definitionRepository.findBySheetId(sheetId);
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        // Chaque changement retire l'ancien JSON (-1) et ajoute le nouveau (+1)
+        List<Object[]> signedJsons = new ArrayList<>();
+        for (RowChange change : changes) {
+            if (change.oldJson() != null) {
+                signedJsons.add(new Object[]{change.oldJson(), -1});
+            }
+            if (change.newJson() != null) {
+                signedJsons.add(new Object[]{change.newJson(), 1});
+            }
+        }
+        List<Object[]> deltas = new ArrayList<>();
+        Map<String, List<AggregateDefinition>> byCategory = definitions.stream()
+                .collect(Collectors.groupingBy(AggregateDefinition::getCategoryKey));
+        byCategory.forEach((categoryKey, categoryDefinitions) ->
+                collectDeltas(signedJsons, categoryKey, categoryDefinitions, deltas));
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas);
+
+        if (changes.stream().anyMatch(change -> change.oldJson() != null)) {
+            // Catégories devenues vides
+            String ids = definitions.stream().map(d -> String.valueOf(d.getId())).collect(Collectors.joining(", "));
+            jdbcTemplate.update("DELETE FROM aggregate_values WHERE definition_id IN (" + ids + ") AND row_count <= 0");
+        }
+    }
+
+    @Override
+    public void applyTypedRowChanges(TypedSheetTable table, Collection<Long> rowIds, int sign) {
+        if (rowIds.isEmpty()) {
+            return;
+        }
+        List<AggregateDefinition> definitions = definitionRepository.findBySheetId(table.sheetId());
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> deltas = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(rowIds));
+        Map<String, List<AggregateDefinition>> byCategory = definitions.stream()
+                .collect(Collectors.groupingBy(AggregateDefinition::getCategoryKey));
+        byCategory.forEach((categoryKey, categoryDefinitions) -> {
+            Optional<TypedSheetTable.Column> category = table.column(categoryKey);
+            if (category.isEmpty()) {
+                return;
+            }
+            List<AggregateDefinition> valueDefinitions = categoryDefinitions.stream()
+                    .filter(d -> !d.isCount() && table.column(d.getValueKey()).isPresent())
+                    .collect(Collectors.toList());
+            StringBuilder select = new StringBuilder("SELECT ").append(category.get().categorySql("r")).append(" AS category");
+            for (int i = 0; i < valueDefinitions.size(); i++) {
+                select.append(", ").append(table.requireColumn(valueDefinitions.get(i).getValueKey()).decimalSql("r"))
+                        .append(" AS v").append(i);
+            }
+            select.append(" FROM ").append(table.tableName()).append(" r WHERE r.id IN (");
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+                jdbcTemplate.query(select + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                        rs -> {
+                            addDeltas(rs, categoryDefinitions, valueDefinitions, sign, deltas);
+                        }, chunk.toArray());
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas);
+        if (sign < 0) {
+            String definitionIds = definitions.stream().map(d -> String.valueOf(d.getId())).collect(Collectors.joining(", "));
+            jdbcTemplate.update("DELETE FROM aggregate_values WHERE definition_id IN (" + definitionIds + ") AND row_count <= 0");
+        }
+    }
+
+    @Override
+    public Optional<List<GraphResult>> findCategoryCounts(Long sheetId, String categoryKey, int limit) {
+        Optional<AggregateDefinition> definition = definitionRepository
+                .findBySheetIdAndCategoryKeyAndValueKey(sheetId, categoryKey, AggregateDefinition.COUNT_KEY);
+        if (definition.isEmpty()) {
+            scheduleBuild(sheetId, categoryKey, List.of(AggregateDefinition.COUNT_KEY));
+            return Optional.empty();
+        }
+        List<GraphResult> results = jdbcTemplate.query(
+                "SELECT category, row_count FROM aggregate_values WHERE definition_id = ? ORDER BY row_count DESC LIMIT ?",
+                (rs, rowNum) -> new AggregatedCount(rs.getString("category"), rs.getBigDecimal("row_count")),
+                definition.get().getId(), limit);
+        return Optional.of(results);
+    }
+
+    @Override
+    public Optional<List<CategoryMeasures>> findCategoryMeasures(Long sheetId, String categoryKey, List<String> valueKeys,
+                                                                 String function, int limit) {
+        if (!MAINTAINED_FUNCTIONS.contains(function)) {
+            return Optional.empty();
+        }
+        Map<String, AggregateDefinition> byValueKey = definitionRepository.findBySheetId(sheetId).stream()
+                .filter(d -> d.getCategoryKey().equals(categoryKey))
+                .collect(Collectors.toMap(AggregateDefinition::getValueKey, d -> d));
+        List<String> required = new ArrayList<>();
+        required.add(AggregateDefinition.COUNT_KEY);
+        required.addAll(valueKeys);
+        List<String> missing = required.stream().filter(key -> !byValueKey.containsKey(key)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            scheduleBuild(sheetId, categoryKey, missing);
+            return Optional.empty();
+        }
+
+        // Catégories de l'agrégat de comptage, mesures jointes (NULL si aucune valeur, comme SUM/AVG)
+        StringBuilder sql = new StringBuilder("SELECT c.category");
+        StringBuilder joins = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < valueKeys.size(); i++) {
+            String alias = "v" + i;
+            sql.append(", ").append("AVG".equals(function)
+                    ? alias + ".value_sum / " + alias + ".row_count"
+                    : alias + ".value_sum").append(" AS m").append(i);
+            joins.append(" LEFT JOIN aggregate_values ").append(alias).append(" ON ").append(alias)
+                    .append(".definition_id = ? AND ").append(alias).append(".category_hash = c.category_hash");
+            args.add(byValueKey.get(valueKeys.get(i)).getId());
+        }
+        sql.append(" FROM aggregate_values c").append(joins)
+                .append(" WHERE c.definition_id = ? ORDER BY m0 DESC LIMIT ?");
+        args.add(byValueKey.get(AggregateDefinition.COUNT_KEY).getId());
+        args.add(limit);
+
+        List<CategoryMeasures> results = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            List<BigDecimal> values = new ArrayList<>(valueKeys.size());
+            for (int i = 0; i < valueKeys.size(); i++) {
+                values.add(rs.getBigDecimal("m" + i));
+            }
+            return new CategoryMeasures(rs.getString("category"), values);
+        }, args.toArray());
+        return Optional.of(results);
+    }
+
+    @Override
+    public synchronized AggregateDefinition register(Long sheetId, String categoryKey, String valueKey) {
+        if (categoryKey == null || categoryKey.isBlank()) {
+            throw new IllegalArgumentException("La colonne de catégorie est requise.");
+        }
+        if (!sheetRepository.existsById(sheetId)) {
+            throw new EntityNotFoundException("Sheet not found with ID: " + sheetId);
+        }
+        String normalizedValueKey = valueKey == null || valueKey.isBlank() ? AggregateDefinition.COUNT_KEY : valueKey;
+        Optional<AggregateDefinition> existing = definitionRepository
+                .findBySheetIdAndCategoryKeyAndValueKey(sheetId, categoryKey, normalizedValueKey);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            AggregateDefinition definition = transactionTemplate.execute(status -> build(sheetId, categoryKey, normalizedValueKey));
+            logger.info("Agrégat {} ({} / '{}') de la feuille {} construit en {} ms.", definition.getId(), categoryKey,
+                    normalizedValueKey, sheetId, System.currentTimeMillis() - start);
+            return definition;
+        } catch (DataIntegrityViolationException e) {
+            // Construit entre-temps par une autre instance
+            return definitionRepository.findBySheetIdAndCategoryKeyAndValueKey(sheetId, categoryKey, normalizedValueKey)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    @Override
+    public List<AggregateDefinition> listForSheet(Long sheetId) {
+        return definitionRepository.findBySheetId(sheetId);
+    }
+
+    @Override
+    public void drop(Long definitionId) {
+        AggregateDefinition definition = definitionRepository.findById(definitionId)
+                .orElseThrow(() -> new EntityNotFoundException("Aggregate not found with ID: " + definitionId));
+        deleteDefinitions(List.of(definition));
+    }
+
+    @Override
+    public void dropForSheets(List<Long> sheetIds) {
+        List<AggregateDefinition> definitions = new ArrayList<>();
+        sheetIds.forEach(sheetId -> definitions.addAll(definitionRepository.findBySheetId(sheetId)));
+        deleteDefinitions(definitions);
+    }
+
+    /**
+     * TRUNCATE (validation implicite) : à appeler hors transaction, comme la réinitialisation complète.
+     */
+    @Override
+    public void dropAll() {
+        jdbcTemplate.execute("TRUNCATE TABLE aggregate_values");
+        jdbcTemplate.execute("TRUNCATE TABLE aggregate_definitions");
+    }
+
+    private AggregateDefinition build(Long sheetId, String categoryKey, String valueKey) {
+        AggregateDefinition definition = definitionRepository.saveAndFlush(new AggregateDefinition(sheetId, categoryKey, valueKey));
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetId);
+        List<Object[]> rows;
+        if (typedTable.isPresent()) {
+            rows = buildFromTypedTable(definition, typedTable.get());
+        } else if (definition.isCount()) {
+            rows = jdbcTemplate.query(
+                    "SELECT " + CATEGORY_SQL + " AS category, COUNT(*) AS row_count " +
+                    "FROM row_entities r WHERE r.sheet_id = ? GROUP BY category HAVING category IS NOT NULL FOR SHARE",
+                    (rs, rowNum) -> valuesRow(definition.getId(), rs.getString("category"), rs.getLong("row_count"), BigDecimal.ZERO),
+                    JsonKeyPaths.jsonPath(categoryKey), sheetId);
+        } else {
+            String value = "CAST(JSON_UNQUOTE(JSON_EXTRACT(r.data_json, ?)) AS DECIMAL(18, 4))";
+            String valuePath = JsonKeyPaths.jsonPath(valueKey);
+            rows = jdbcTemplate.query(
+                    "SELECT " + CATEGORY_SQL + " AS category, " +
+                    "COUNT(" + value + ") AS row_count, SUM(" + value + ") AS value_sum " +
+                    "FROM row_entities r WHERE r.sheet_id = ? GROUP BY category " +
+                    "HAVING category IS NOT NULL AND row_count > 0 FOR SHARE",
+                    (rs, rowNum) -> valuesRow(definition.getId(), rs.getString("category"), rs.getLong("row_count"), rs.getBigDecimal("value_sum")),
+                    JsonKeyPaths.jsonPath(categoryKey), valuePath, valuePath, sheetId);
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+        return definition;
+    }
+
+    // Mêmes expressions que applyTypedRowChanges ; une colonne inconnue annule la construction (IllegalArgumentException)
+    private List<Object[]> buildFromTypedTable(AggregateDefinition definition, TypedSheetTable table) {
+        String category = table.requireColumn(definition.getCategoryKey()).categorySql("r");
+        if (definition.isCount()) {
+            return jdbcTemplate.query(
+                    "SELECT " + category + " AS category, COUNT(*) AS row_count FROM " + table.tableName() + " r " +
+                    "GROUP BY category HAVING category IS NOT NULL FOR SHARE",
+                    (rs, rowNum) -> valuesRow(definition.getId(), rs.getString("category"), rs.getLong("row_count"), BigDecimal.ZERO));
+        }
+        String value = table.requireColumn(definition.getValueKey()).decimalSql("r");
+        return jdbcTemplate.query(
+                "SELECT " + category + " AS category, COUNT(" + value + ") AS row_count, SUM(" + value + ") AS value_sum " +
+                "FROM " + table.tableName() + " r GROUP BY category HAVING category IS NOT NULL AND row_count > 0 FOR SHARE",
+                (rs, rowNum) -> valuesRow(definition.getId(), rs.getString("category"), rs.getLong("row_count"), rs.getBigDecimal("value_sum")));
+    }
+
+    /**
+     * Extrait catégorie et valeurs de JSON de lignes ({json, signe}), pour toutes les définitions d'une même
+     * catégorie : une requête par tranche de JSON_CHUNK_SIZE JSON, chacun lié une seule fois.
+     */
+    private void collectDeltas(List<Object[]> signedJsons, String categoryKey, List<AggregateDefinition> definitions,
+                               List<Object[]> deltas) {
+        List<AggregateDefinition> valueDefinitions = definitions.stream().filter(d -> !d.isCount()).collect(Collectors.toList());
+        StringBuilder select = new StringBuilder("SELECT ")
+                .append(JsonKeyPaths.truncateCategory("JSON_UNQUOTE(JSON_EXTRACT(j.doc, ?))")).append(" AS category");
+        List<Object> paths = new ArrayList<>(List.of(JsonKeyPaths.jsonPath(categoryKey)));
+        for (int i = 0; i < valueDefinitions.size(); i++) {
+            select.append(", CAST(JSON_UNQUOTE(JSON_EXTRACT(j.doc, ?)) AS DECIMAL(18, 4)) AS v").append(i);
+            paths.add(JsonKeyPaths.jsonPath(valueDefinitions.get(i).getValueKey()));
+        }
+        select.append(", j.sign FROM (SELECT ? AS doc, ? AS sign");
+
+        for (int from = 0; from < signedJsons.size(); from += JSON_CHUNK_SIZE) {
+            List<Object[]> chunk = signedJsons.subList(from, Math.min(from + JSON_CHUNK_SIZE, signedJsons.size()));
+            List<Object> args = new ArrayList<>(paths);
+            chunk.forEach(signedJson -> args.addAll(Arrays.asList(signedJson)));
+            String sql = select + " UNION ALL SELECT ?, ?".repeat(chunk.size() - 1) + ") j";
+            jdbcTemplate.query(sql, rs -> {
+                addDeltas(rs, definitions, valueDefinitions, rs.getInt("sign"), deltas);
+            }, args.toArray());
+        }
+    }
+
+    // Ligne courante : colonne category, puis v0, v1... alignées sur valueDefinitions
+    private static void addDeltas(ResultSet rs, List<AggregateDefinition> definitions, List<AggregateDefinition> valueDefinitions,
+                                  int sign, List<Object[]> deltas) throws SQLException {
+        String category = rs.getString("category");
+        if (category == null) {
+            return;
+        }
+        for (AggregateDefinition definition : definitions) {
+            if (definition.isCount()) {
+                deltas.add(valuesRow(definition.getId(), category, sign, BigDecimal.ZERO));
+            }
+        }
+        for (int i = 0; i < valueDefinitions.size(); i++) {
+            BigDecimal value = rs.getBigDecimal("v" + i);
+            if (value != null) {
+                deltas.add(valuesRow(valueDefinitions.get(i).getId(), category, sign,
+                        sign < 0 ? value.negate() : value));
+            }
+        }
+    }
+
+    private static Object[] valuesRow(Long definitionId, String category, long rowCount, BigDecimal valueSum) {
+        return new Object[]{definitionId, category, category, rowCount, valueSum};
+    }
+
+    private void deleteDefinitions(List<AggregateDefinition> definitions) {
+        if (definitions.isEmpty()) {
+            return;
+        }
+        String ids = definitions.stream().map(d -> String.valueOf(d.getId())).collect(Collectors.joining(", "));
+        jdbcTemplate.update("DELETE FROM aggregate_values WHERE definition_id IN (" + ids + ")");
+        definitionRepository.deleteAllInBatch(definitions);
+    }
+
+    private void scheduleBuild(Long sheetId, String categoryKey, List<String> valueKeys) {
+        if (!autoBuild) {
+            return;
+        }
+        for (String valueKey : valueKeys) {
+            String buildKey = sheetId + "|" + categoryKey + "|" + valueKey;
+            if (!scheduledBuilds.add(buildKey)) {
+                continue;
+            }
+            try {
+                buildExecutor.execute(() -> {
+                    try {
+                        register(sheetId, categoryKey, valueKey);
+                    } catch (Exception e) {
+                        logger.warn("Construction de l'agrégat {} impossible : {}", buildKey, e.getMessage());
+                    } finally {
+                        scheduledBuilds.remove(buildKey);
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                scheduledBuilds.remove(buildKey);
+            }
+        }
+    }
+
+    /**
+     * Créée au démarrage et non à la demande : un CREATE TABLE provoque un commit implicite
+     * et ne doit jamais s'exécuter dans la transaction d'une modification de ligne.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createValuesTable() {
+        // Clé primaire sur l'empreinte MD5 de la catégorie (déjà tronquée à JsonKeyPaths.CATEGORY_LENGTH)
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS aggregate_values (" +
+                "definition_id BIGINT NOT NULL, " +
+                "category_hash BINARY(16) NOT NULL, " +
+                "category LONGTEXT NOT NULL, " +
+                "row_count BIGINT NOT NULL, " +
+                "value_sum DECIMAL(38, 4) NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (definition_id, category_hash), " +
+                "KEY idx_aggregate_values_count (definition_id, row_count))");
+    }
+
+    private record AggregatedCount(String category, BigDecimal count) implements GraphResult {
+        @Override
+        public String getCategory() { return category; }
+        @Override
+        public BigDecimal getCount() { return count; }
+    }
+}
@@ -1,24 +1,42 @@
 // CHEMIN: excel-upload-service/src/main/java/excel_upload_service/service/impl/DataPersistenceServiceImpl.java
 package excel_upload_service.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import excel_upload_service.dto.python.ColumnSchema;
 import excel_upload_service.dto.python.ExcelProcessingResponse;
 import excel_upload_service.dto.python.SheetData;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import excel_upload_service.model.FileEntity;
+import excel_upload_service.model.SheetEntity;
 import excel_upload_service.repository.FileEntityRepository;
+import excel_upload_service.repository.SheetEntityRepository;
 import excel_upload_service.service.DataPersistenceService;
 import excel_upload_service.service.SchemaManagerService;
+import excel_upload_service.service.SheetRowWriter;
+import excel_upload_service.service.graph.GraphResultCache;
+import excel_upload_service.service.ingestion.BatchWriterMetrics;
+import excel_upload_service.service.ingestion.JdbcBatchWriter;
+import excel_upload_service.service.ingestion.JdbcBatchWriterFactory;
+import excel_upload_service.service.ingestion.LoadDataSheetRowWriter;
+import excel_upload_service.service.ingestion.SheetPersistenceCoordinator;
+import excel_upload_service.service.observability.PipelineObservations;
+import excel_upload_service.service.storage.TypedSheetTable;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,73 +45,323 @@ public class DataPersistenceServiceImpl implements DataPersistenceService {
     private static final Logger logger = LoggerFactory.getLogger(DataPersistenceServiceImpl.class);
 
     private final FileEntityRepository fileRepository;
+    private final SheetEntityRepository sheetRepository;
     private final SchemaManagerService schemaManagerService; // NOTRE NOUVEL ARCHITECTE
-    private final JdbcTemplate jdbcTemplate; // POUR LES INSERTIONS DYNAMIQUES
+    private final JdbcBatchWriterFactory batchWriterFactory; // POUR LES INSERTIONS DYNAMIQUES
     private final ObjectMapper objectMapper;
+    private final SheetPersistenceCoordinator sheetPersistenceCoordinator;
+    private final ObjectReader frameReader;
+    private final DataSource dataSource;
+    private final BatchWriterMetrics batchWriterMetrics;
+    private final GraphResultCache graphResultCache;
+    private final PipelineObservations observations;
+
+    // Passe à vrai dès que le serveur refuse LOAD DATA LOCAL INFILE : on ne retente plus
+    private final AtomicBoolean bulkLoadUnavailable = new AtomicBoolean(false);
+
+    // Seuil (lignes annoncées par la feuille) à partir duquel on charge en masse ; 0 = désactivé
+    @Value("${ingestion.bulk-load.row-threshold:0}")
+    private long bulkLoadRowThreshold;
+
+    @Value("${ingestion.bulk-load.chunk-rows:50000}")
+    private int bulkLoadChunkRows;
 
     // Mise à jour du constructeur pour injecter les nouveaux services
     public DataPersistenceServiceImpl(FileEntityRepository fileRepository,
+                                      SheetEntityRepository sheetRepository,
                                       SchemaManagerService schemaManagerService,
-                                      JdbcTemplate jdbcTemplate,
-                                      ObjectMapper objectMapper) {
+                                      JdbcBatchWriterFactory batchWriterFactory,
+                                      ObjectMapper objectMapper,
+                                      SheetPersistenceCoordinator sheetPersistenceCoordinator,
+                                      DataSource dataSource,
+                                      BatchWriterMetrics batchWriterMetrics,
+                                      GraphResultCache graphResultCache,
+                                      PipelineObservations observations) {
         this.fileRepository = fileRepository;
+        this.sheetRepository = sheetRepository;
         this.schemaManagerService = schemaManagerService;
-        this.jdbcTemplate = jdbcTemplate;
+        this.batchWriterFactory = batchWriterFactory;
         this.objectMapper = objectMapper;
+        this.sheetPersistenceCoordinator = sheetPersistenceCoordinator;
+        this.dataSource = dataSource;
+        this.batchWriterMetrics = batchWriterMetrics;
+        this.graphResultCache = graphResultCache;
+        this.observations = observations;
+        this.frameReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {});
     }
 
     @Override
-    @Transactional
     public void saveProcessedData(Long fileId, ExcelProcessingResponse processedData) {
+        observations.observe(observations.stage(PipelineObservations.PERSISTENCE).lowCardinalityKeyValue("mode", "batch"),
+                fileId, () -> persistProcessedData(fileId, processedData));
+    }
+
+    private void persistProcessedData(Long fileId, ExcelProcessingResponse processedData) {
         FileEntity fileEntity = fileRepository.findById(fileId)
                 .orElseThrow(() -> new EntityNotFoundException("Fichier avec ID " + fileId + " non trouvé."));
 
         logger.info("Début de la sauvegarde dynamique pour le fichier : {}", fileEntity.getFileName());
 
+        List<SheetData> sheets = processedData.getSheets();
+        for (int i = 0; i < sheets.size(); i++) {
+            if (sheets.get(i).getSheetIndex() == null) {
+                sheets.get(i).setSheetIndex(i);
+            }
+        }
+
         try {
-            for (SheetData sheetData : processedData.getSheets()) {
+            // Une transaction pour tout le classeur, ou une par feuille en mode parallèle
+            sheetPersistenceCoordinator.persistSheets(fileId, sheets, sheetData -> {
                 // 1. Créer la table dynamiquement à partir du schéma
-                String tableName = schemaManagerService.createTableFromSchema(fileId, sheetData);
-
-                // 2. Préparer et exécuter l'insertion des données en batch
-                if (sheetData.getData() != null && !sheetData.getData().isEmpty()) {
-                    insertDataIntoDynamicTable(tableName, sheetData.getSchema(), sheetData.getData());
+                // 2. Insérer les données par lots de taille bornée
+                SheetRowWriter writer = openSheetWriter(fileId, sheetData);
+                try (writer) {
+                    if (sheetData.getData() != null) {
+                        sheetData.getData().forEach(writer::write);
+                    }
                 }
-            }
+                return writer.getWrittenRows();
+            });
+            markCompleted(fileId);
+            graphResultCache.invalidateFile(fileId);
             logger.info("Sauvegarde dynamique pour le fichier {} terminée.", fileEntity.getFileName());
 
         } catch (Exception e) {
             logger.error("Erreur critique lors de la sauvegarde dynamique pour le fichier {}.", fileId, e);
-            // On pourrait vouloir mettre le statut du fichier en "ERREUR" ici
+            markFailed(fileId);
             throw new RuntimeException("Erreur lors de la sauvegarde dynamique.", e);
         }
     }
 
     /**
-     * Insère les données dans la table dynamique nouvellement créée.
+     * Consomme un flux NDJSON trame par trame. Format attendu :
+     * <pre>
+     * {"type":"sheet","sheet_name":"Feuil1","schema":[{"name":"col","type":"INTEGER"}],"total_rows":2}
+     * {"type":"row","data":{"col":1}}
+     * {"type":"row","data":{"col":2}}
+     * {"type":"end"}
+     * </pre>
+     * Seul le lot en cours est conservé en mémoire (plus, en mode parallèle, la file bornée de chaque feuille).
+     * Les feuilles passent par le {@link SheetPersistenceCoordinator}, comme en mode lot : une transaction pour
+     * tout le flux, ou une par feuille en mode parallèle. La trame "end" est obligatoire : sans elle, le flux est
+     * considéré comme tronqué et la feuille en cours (tout le flux en mode séquentiel) est annulée.
+     */
+    @Override
+    public long saveProcessedDataStream(Long fileId, InputStream ndjsonStream) {
+        return observations.observe(observations.stage(PipelineObservations.PERSISTENCE).lowCardinalityKeyValue("mode", "stream"),
+                fileId, () -> persistProcessedDataStream(fileId, ndjsonStream));
+    }
+
+    private long persistProcessedDataStream(Long fileId, InputStream ndjsonStream) {
+        FileEntity fileEntity = fileRepository.findById(fileId)
+                .orElseThrow(() -> new EntityNotFoundException("Fichier avec ID " + fileId + " non trouvé."));
+
+        logger.info("Début de la sauvegarde en flux pour le fichier : {}", fileEntity.getFileName());
+
+        // En cas d'échec, les feuilles non validées sont annulées et l'appelant marque l'échec
+        long totalRows = sheetPersistenceCoordinator.persistStreamedSheets(fileId,
+                (SheetData sheetData) -> openSheetWriter(fileId, sheetData),
+                sheets -> readFrames(fileId, ndjsonStream, sheets));
+        markCompleted(fileId);
+
+        graphResultCache.invalidateFile(fileId);
+        logger.info("Sauvegarde en flux pour le fichier {} terminée : {} lignes.", fileEntity.getFileName(), totalRows);
+        return totalRows;
+    }
+
+    private void readFrames(Long fileId, InputStream ndjsonStream, SheetPersistenceCoordinator.SheetStream<SheetData> sheets) {
+        int sheetCount = 0;
+        boolean started = false;
+        boolean endReceived = false;
+
+        try (MappingIterator<Map<String, Object>> frames = frameReader.readValues(ndjsonStream)) {
+            while (frames.hasNextValue()) {
+                Map<String, Object> frame = frames.nextValue();
+                String type = String.valueOf(frame.get("type"));
+
+                switch (type) {
+                    case "sheet" -> {
+                        SheetData sheetData = objectMapper.convertValue(frame, SheetData.class);
+                        if (sheetData.getSheetIndex() == null) {
+                            sheetData.setSheetIndex(sheetCount);
+                        }
+                        sheetCount++;
+                        started = true;
+                        sheets.startSheet(sheetData);
+                    }
+                    case "row" -> {
+                        if (!started) {
+                            throw new IllegalStateException("Trame 'row' reçue avant toute trame 'sheet'.");
+                        }
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> row = (Map<String, Object>) frame.get("data");
+                        sheets.write(row);
+                    }
+                    case "end" -> endReceived = true;
+                    default -> throw new IllegalArgumentException("Type de trame inconnu : " + type);
+                }
+
+                if (endReceived) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Erreur de lecture du flux pour le fichier {}.", fileId, e);
+            throw new RuntimeException("Erreur lors de la lecture du flux de données.", e);
+        }
+
+        if (!endReceived) {
+            throw new IllegalStateException("Flux interrompu : la trame 'end' n'a pas été reçue.");
+        }
+    }
+
+    /**
+     * Les feuilles annoncées avec au moins ingestion.bulk-load.row-threshold lignes passent par
+     * LOAD DATA LOCAL INFILE ; les autres, ou toutes si le serveur a déjà refusé LOCAL INFILE,
+     * par des INSERT par lots.
+     *
+     * La feuille est enregistrée dans "sheets" avec sa table typée (storageTable) : les lectures, recherches,
+     * graphiques et exports de la feuille portent ensuite directement sur cette table.
+     */
+    @Override
+    public SheetRowWriter openSheetWriter(Long fileId, SheetData sheetData) {
+        // L'index de la feuille entre dans le nom de sa table : fixé avant sa création
+        if (sheetData.getSheetIndex() == null) {
+            sheetData.setSheetIndex((int) sheetRepository.countByFileId(fileId));
+        }
+        String tableName = schemaManagerService.createTableFromSchema(fileId, sheetData);
+        if (sheetRepository.existsByStorageTable(tableName)) {
+            throw new IllegalStateException("La table " + tableName + " est déjà celle d'une autre feuille.");
+        }
+        List<ColumnSchema> schema = sheetData.getSchema();
+        SheetEntity sheet = registerSheet(fileId, sheetData, tableName);
+        return new RegisteredSheetWriter(sheet, openTableWriter(tableName, schema, sheetData.getTotalRows()));
+    }
+
+    @Override
+    public void markCompleted(Long fileId) {
+        fileRepository.updateStatus(fileId, FileEntity.Status.COMPLETED, LocalDateTime.now());
+    }
+
+    @Override
+    public void markFailed(Long fileId) {
+        fileRepository.markFailed(fileId, LocalDateTime.now());
+    }
+
+    private SheetRowWriter openTableWriter(String tableName, List<ColumnSchema> schema, long announcedRows) {
+        boolean useBulkLoad = bulkLoadRowThreshold > 0
+                && announcedRows >= bulkLoadRowThreshold
+                && !bulkLoadUnavailable.get();
+        if (useBulkLoad) {
+            logger.info("Chargement en masse de la table {} ({} lignes annoncées).", tableName, announcedRows);
+            return new LoadDataSheetRowWriter(dataSource, batchWriterMetrics, tableName, buildColumnList(schema), schema,
+                    bulkLoadChunkRows,
+                    () -> new BatchingSheetRowWriter(tableName, schema),
+                    () -> bulkLoadUnavailable.set(true));
+        }
+        return new BatchingSheetRowWriter(tableName, schema);
+    }
+
+    private SheetEntity registerSheet(Long fileId, SheetData sheetData, String tableName) {
+        SheetEntity sheet = new SheetEntity();
+        sheet.setFile(fileRepository.getReferenceById(fileId));
+        sheet.setSheetName(sheetData.getSheetName());
+        sheet.setSheetIndex(sheetData.getSheetIndex());
+        sheet.setStorageTable(tableName);
+        try {
+            sheet.setHeadersJson(objectMapper.writeValueAsString(
+                    sheetData.getSchema().stream().map(ColumnSchema::getName).collect(Collectors.toList())));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error during JSON serialization", e);
+        }
+        return sheetRepository.save(sheet);
+    }
+
+    /**
+     * Construit la liste des colonnes : `col1`, `col2`
      */
-    private void insertDataIntoDynamicTable(String tableName, List<ColumnSchema> schema, List<Map<String, Object>> data) {
-        // Construit la requête INSERT : INSERT INTO `table_name` (`col1`, `col2`) VALUES (?, ?)
-        String columns = schema.stream()
-                .map(col -> "`" + col.getName().replaceAll("[^a-zA-Z0-9_]", "") + "`")
+    private String buildColumnList(List<ColumnSchema> schema) {
+        return schema.stream()
+                .map(col -> "`" + TypedSheetTable.columnName(col.getName()) + "`")
                 .collect(Collectors.joining(", "));
+    }
 
+    /**
+     * Construit la requête INSERT : INSERT INTO `table_name` (`col1`, `col2`) VALUES (?, ?)
+     */
+    private String buildInsertSql(String tableName, List<ColumnSchema> schema) {
         String placeholders = schema.stream()
                 .map(col -> "?")
                 .collect(Collectors.joining(", "));
 
-        String sql = "INSERT INTO " + tableName + " (" + columns + ") VALUES (" + placeholders + ")";
+        return "INSERT INTO " + tableName + " (" + buildColumnList(schema) + ") VALUES (" + placeholders + ")";
+    }
 
-        // Prépare les données pour une insertion en batch (plus performant)
-        List<Object[]> batchArgs = data.stream()
-                .map(row -> schema.stream()
-                        .map(col -> row.get(col.getName()))
-                        .toArray())
-                .collect(Collectors.toList());
+    /**
+     * Enregistre le nombre de lignes écrites sur la feuille à la fermeture de l'écrivain.
+     */
+    private class RegisteredSheetWriter implements SheetRowWriter {
 
-        logger.info("Insertion de {} lignes dans la table {}.", batchArgs.size(), tableName);
+        private final SheetEntity sheet;
+        private final SheetRowWriter delegate;
 
-        // Exécute l'insertion en batch
-        jdbcTemplate.batchUpdate(sql, batchArgs);
+        RegisteredSheetWriter(SheetEntity sheet, SheetRowWriter delegate) {
+            this.sheet = sheet;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(Map<String, Object> row) {
+            delegate.write(row);
+        }
+
+        @Override
+        public long getWrittenRows() {
+            return delegate.getWrittenRows();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+            sheet.setTotalRows(delegate.getWrittenRows());
+            sheetRepository.save(sheet);
+        }
+    }
+
+    /**
+     * Convertit chaque ligne dans l'ordre du schéma et la confie au {@link JdbcBatchWriter},
+     * qui exécute les lots en pipeline (ingestion.batch-size lignes par lot).
+     */
+    private class BatchingSheetRowWriter implements SheetRowWriter {
+
+        private final String tableName;
+        private final List<ColumnSchema> schema;
+        private final JdbcBatchWriter batchWriter;
+
+        BatchingSheetRowWriter(String tableName, List<ColumnSchema> schema) {
+            this.tableName = tableName;
+            this.schema = schema;
+            this.batchWriter = batchWriterFactory.open(buildInsertSql(tableName, schema));
+        }
+
+        @Override
+        public void write(Map<String, Object> row) {
+            Object[] args = new Object[schema.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = row.get(schema.get(i).getName());
+            }
+            batchWriter.add(args);
+        }
+
+        @Override
+        public long getWrittenRows() {
+            return batchWriter.getWrittenRows();
+        }
+
+        @Override
+        public void close() {
+            batchWriter.close();
+            logger.info("Insertion de {} lignes dans la table {} terminée.", batchWriter.getWrittenRows(), tableName);
+        }
     }
-}
\ No newline at end of file
+}
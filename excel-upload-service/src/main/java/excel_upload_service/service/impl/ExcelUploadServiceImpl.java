@@ -9,6 +9,7 @@ import excel_upload_service.repository.FileEntityRepository;
 import excel_upload_service.service.AuditClientService;
 import excel_upload_service.service.ExcelUploadService;
 import excel_upload_service.service.FileStorageService;
+import excel_upload_service.service.observability.PipelineObservations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -29,26 +30,35 @@ public class ExcelUploadServiceImpl implements ExcelUploadService {
     private final ObjectMapper objectMapper;
 
     private final AuditClientService auditClientService;
+    private final PipelineObservations observations;
 
-    public ExcelUploadServiceImpl(FileStorageService fileStorageService, FileEntityRepository fileRepository, RabbitTemplate rabbitTemplate, ObjectMapper objectMapper,  AuditClientService auditClientService) {
+    public ExcelUploadServiceImpl(FileStorageService fileStorageService, FileEntityRepository fileRepository, RabbitTemplate rabbitTemplate, ObjectMapper objectMapper,  AuditClientService auditClientService,
+                                  PipelineObservations observations) {
         this.fileStorageService = fileStorageService;
         this.fileRepository = fileRepository;
         this.rabbitTemplate = rabbitTemplate;
         this.objectMapper = objectMapper;
         this.auditClientService = auditClientService;
+        this.observations = observations;
     }
 
     @Override
     public UploadResponse processAndSave(MultipartFile file) {
+        return observations.observe(PipelineObservations.UPLOAD, null, () -> storeAndEnqueue(file));
+    }
+
+    private UploadResponse storeAndEnqueue(MultipartFile file) {
         // 1. Sauvegarder le fichier sur le disque
-        String storedFileName = fileStorageService.store(file);
+        observations.recordUploadSize(file.getSize());
+        String storedFileName = observations.observe(PipelineObservations.STORAGE, null, () -> fileStorageService.store(file));
         logger.info("Fichier {} stocké temporairement sous {}.", file.getOriginalFilename(), storedFileName);
 
         // 2. Créer une entrée dans la base de données pour ce fichier
         FileEntity fileEntity = new FileEntity();
         fileEntity.setFileName(file.getOriginalFilename());
-        // On pourrait ajouter un statut "EN_ATTENTE" ici
+        fileEntity.setStatus(FileEntity.Status.PENDING);
         fileRepository.save(fileEntity);
+        observations.attachFile(fileEntity.getId());
 
         // 3. Préparer le message à envoyer dans la file d'attente
         try {
@@ -59,7 +69,8 @@ public class ExcelUploadServiceImpl implements ExcelUploadService {
             );
             String jsonMessage = objectMapper.writeValueAsString(message);
 
-            rabbitTemplate.convertAndSend(RabbitMQConfig.QUEUE_NAME, jsonMessage);
+            observations.observe(PipelineObservations.QUEUE_PUBLISH, fileEntity.getId(),
+                    () -> rabbitTemplate.convertAndSend(RabbitMQConfig.QUEUE_NAME, jsonMessage));
             logger.info("Tâche pour le fichier {} envoyée à la file de traitement.", file.getOriginalFilename());
 
             // --- DÉBUT DE L'AJOUT DE L'AUDIT ---
@@ -88,6 +99,8 @@ public class ExcelUploadServiceImpl implements ExcelUploadService {
         }
 
         // 5. Répondre immédiatement à l'utilisateur
-        return new UploadResponse(true, "Le fichier a été reçu et est en cours de traitement.", null, 0);
+        UploadResponse response = new UploadResponse(true, "Le fichier a été reçu et est en cours de traitement.", null, 0);
+        response.setFileId(fileEntity.getId());
+        return response;
     }
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/impl/ExportJobServiceImpl.java
+package excel_upload_service.service.impl;
+
+import excel_upload_service.model.ExportJob;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.repository.ExportJobRepository;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.ExportJobService;
+import excel_upload_service.service.export.SheetExportPipeline;
+import excel_upload_service.service.export.SheetExporter;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tâches d'export produites en arrière-plan dans file-storage/exports.
+ *
+ * Le fichier est d'abord écrit sous un nom temporaire (.part) puis renommé à la fin : un fichier présent
+ * sous son nom final est toujours complet et peut être servi par plages (HTTP Range).
+ * Les tâches plus anciennes que export.jobs.retention-hours sont purgées à chaque demande et au démarrage.
+ */
+@Service
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobServiceImpl.class);
+    private static final String PART_SUFFIX = ".part";
+    private static final EnumSet<ExportJob.Status> REUSABLE_STATUSES =
+            EnumSet.of(ExportJob.Status.PENDING, ExportJob.Status.RUNNING, ExportJob.Status.COMPLETED);
+
+    private final ExportJobRepository jobRepository;
+    private final SheetEntityRepository sheetRepository;
+    private final SheetExportPipeline exportPipeline;
+    private final ThreadPoolTaskExecutor exportExecutor;
+    private final Path exportDirectory;
+
+    @Value("${export.jobs.retention-hours:24}")
+    private long retentionHours;
+
+    public ExportJobServiceImpl(ExportJobRepository jobRepository,
+                                SheetEntityRepository sheetRepository,
+                                SheetExportPipeline exportPipeline,
+                                @Qualifier("exportExecutor") ThreadPoolTaskExecutor exportExecutor,
+                                @Value("${export.jobs.directory:file-storage/exports}") String exportDirectory) {
+        this.jobRepository = jobRepository;
+        this.sheetRepository = sheetRepository;
+        this.exportPipeline = exportPipeline;
+        this.exportExecutor = exportExecutor;
+        this.exportDirectory = Paths.get(exportDirectory).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.exportDirectory);
+        } catch (IOException e) {
+            throw new RuntimeException("Impossible d'initialiser le dossier des exports", e);
+        }
+    }
+
+    // synchronized : deux demandes identiques simultanées ne doivent créer qu'une seule tâche
+    @Override
+    public synchronized ExportJob submit(Long sheetId, String keyword, String format) {
+        SheetExporter exporter = exportPipeline.resolveExporter(format);
+        SheetEntity sheet = sheetRepository.findById(sheetId)
+                .orElseThrow(() -> new EntityNotFoundException("Sheet not found with ID: " + sheetId));
+        String normalizedKeyword = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        String fingerprint = fingerprint(sheetId, sheet.getDataVersion(), exporter.getFormat(), normalizedKeyword);
+
+        purgeExpiredJobs();
+        for (ExportJob existing : jobRepository.findByFingerprintAndStatusInOrderByIdDesc(fingerprint, REUSABLE_STATUSES)) {
+            if (existing.getStatus() != ExportJob.Status.COMPLETED || Files.exists(resolveFile(existing))) {
+                logger.debug("Export de la feuille {} déjà demandé : tâche {} réutilisée.", sheetId, existing.getId());
+                return existing;
+            }
+        }
+
+        ExportJob job = new ExportJob();
+        job.setSheetId(sheetId);
+        job.setFormat(exporter.getFormat());
+        job.setKeyword(normalizedKeyword);
+        job.setSheetDataVersion(sheet.getDataVersion());
+        job.setFingerprint(fingerprint);
+        job.setFileName(sheet.getSheetName() + "." + exporter.getFileExtension());
+        job.setContentType(exporter.getContentType());
+        ExportJob saved = jobRepository.save(job);
+
+        try {
+            exportExecutor.execute(() -> runJob(saved.getId()));
+        } catch (TaskRejectedException e) {
+            saved.setStatus(ExportJob.Status.FAILED);
+            saved.setErrorMessage("File des exports pleine, réessayez plus tard.");
+            saved.setCompletedAt(LocalDateTime.now());
+            return jobRepository.save(saved);
+        }
+        return saved;
+    }
+
+    @Override
+    public ExportJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Export job not found with ID: " + jobId));
+    }
+
+    @Override
+    public List<ExportJob> listForSheet(Long sheetId) {
+        return jobRepository.findBySheetIdOrderByIdDesc(sheetId);
+    }
+
+    @Override
+    public Path resolveFile(ExportJob job) {
+        if (job.getStatus() != ExportJob.Status.COMPLETED || job.getStoredFilename() == null) {
+            throw new IllegalStateException("L'export " + job.getId() + " n'est pas terminé (statut : " + job.getStatus() + ").");
+        }
+        return exportDirectory.resolve(job.getStoredFilename()).normalize();
+    }
+
+    @Override
+    public void delete(Long jobId) {
+        jobRepository.findById(jobId).ifPresent(this::deleteJob);
+    }
+
+    @Override
+    public void deleteForSheets(Collection<Long> sheetIds) {
+        if (sheetIds == null || sheetIds.isEmpty()) {
+            return;
+        }
+        jobRepository.findBySheetIdIn(sheetIds).forEach(this::deleteJob);
+    }
+
+    @Override
+    public void deleteAll() {
+        jobRepository.findAll().forEach(this::deleteJob);
+    }
+
+    /**
+     * Tâches interrompues par un arrêt de l'application : marquées en échec, fichiers partiels supprimés.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        List<ExportJob> interrupted = jobRepository.findByStatusIn(EnumSet.of(ExportJob.Status.PENDING, ExportJob.Status.RUNNING));
+        for (ExportJob job : interrupted) {
+            job.setStatus(ExportJob.Status.FAILED);
+            job.setErrorMessage("Export interrompu par un redémarrage de l'application.");
+            job.setCompletedAt(LocalDateTime.now());
+        }
+        jobRepository.saveAll(interrupted);
+        try (Stream<Path> files = Files.list(exportDirectory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(PART_SUFFIX)).forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            logger.warn("Impossible de nettoyer le dossier des exports : {}", e.getMessage());
+        }
+        purgeExpiredJobs();
+    }
+
+    private void runJob(Long jobId) {
+        ExportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(ExportJob.Status.RUNNING);
+        job = jobRepository.save(job);
+
+        SheetExporter exporter = exportPipeline.resolveExporter(job.getFormat());
+        String storedFilename = "export_" + jobId + "." + exporter.getFileExtension();
+        Path partFile = exportDirectory.resolve(storedFilename + PART_SUFFIX);
+        long start = System.currentTimeMillis();
+        try {
+            Long sheetId = job.getSheetId();
+            SheetEntity sheet = sheetRepository.findById(sheetId)
+                    .orElseThrow(() -> new EntityNotFoundException("Sheet not found with ID: " + sheetId));
+            long rowCount;
+            try (OutputStream outputStream = Files.newOutputStream(partFile)) {
+                rowCount = exportPipeline.export(sheet, job.getKeyword(), exporter, outputStream);
+            }
+            Path target = exportDirectory.resolve(storedFilename);
+            Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.setStoredFilename(storedFilename);
+            job.setRowCount(rowCount);
+            job.setSizeBytes(Files.size(target));
+            job.setStatus(ExportJob.Status.COMPLETED);
+            job.setCompletedAt(LocalDateTime.now());
+            logger.info("Export {} terminé : {} lignes, {} octets en {} ms.",
+                    jobId, rowCount, job.getSizeBytes(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Échec de l'export {} (feuille {}).", jobId, job.getSheetId(), e);
+            deleteQuietly(partFile);
+            job.setStatus(ExportJob.Status.FAILED);
+            job.setErrorMessage(truncate(e.getMessage()));
+            job.setCompletedAt(LocalDateTime.now());
+        }
+
+        // La tâche a pu être supprimée pendant l'export (suppression du fichier Excel, réinitialisation)
+        if (!jobRepository.existsById(jobId)) {
+            deleteQuietly(exportDirectory.resolve(storedFilename));
+            return;
+        }
+        jobRepository.save(job);
+    }
+
+    private void purgeExpiredJobs() {
+        jobRepository.findByCreatedAtBefore(LocalDateTime.now().minusHours(retentionHours)).stream()
+                .filter(job -> job.getStatus() == ExportJob.Status.COMPLETED || job.getStatus() == ExportJob.Status.FAILED)
+                .forEach(this::deleteJob);
+    }
+
+    private void deleteJob(ExportJob job) {
+        if (job.getStoredFilename() != null) {
+            deleteQuietly(exportDirectory.resolve(job.getStoredFilename()));
+        }
+        jobRepository.delete(job);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Impossible de supprimer le fichier d'export {} : {}", path, e.getMessage());
+        }
+    }
+
+    private static String fingerprint(Long sheetId, long dataVersion, String format, String keyword) {
+        String source = sheetId + "|" + dataVersion + "|" + format + "|" + (keyword == null ? "" : keyword);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -2,42 +2,69 @@
 package excel_upload_service.service.impl;
 
 import excel_upload_service.model.FileEntity;
-import excel_upload_service.model.RowEntity;
 import excel_upload_service.repository.FileEntityRepository;
-import excel_upload_service.repository.ModificationHistoryRepository;
-import excel_upload_service.repository.RowEntityRepository;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.service.AggregateService;
+import excel_upload_service.service.ExportJobService;
 import excel_upload_service.service.FileService;
+import excel_upload_service.service.deletion.FileDataDeleter;
+import excel_upload_service.service.graph.GraphResultCache;
+import excel_upload_service.service.storage.TypedSheetTables;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 @Service
 public class FileServiceImpl implements FileService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileServiceImpl.class);
+
     private final FileEntityRepository fileRepository;
-    private final RowEntityRepository rowRepository;
-    private final ModificationHistoryRepository historyRepository;
+    private final SheetEntityRepository sheetRepository;
+    private final GraphResultCache graphResultCache;
+    private final AggregateService aggregateService;
+    private final ExportJobService exportJobService;
+    private final TypedSheetTables typedSheetTables;
+    private final FileDataDeleter fileDataDeleter;
+    private final ThreadPoolTaskExecutor fileDeletionExecutor;
 
-    public FileServiceImpl(FileEntityRepository fileRepository, 
-                           RowEntityRepository rowRepository, 
-                           ModificationHistoryRepository historyRepository) {
+    public FileServiceImpl(FileEntityRepository fileRepository,
+                           SheetEntityRepository sheetRepository,
+                           GraphResultCache graphResultCache,
+                           AggregateService aggregateService,
+                           ExportJobService exportJobService,
+                           TypedSheetTables typedSheetTables,
+                           FileDataDeleter fileDataDeleter,
+                           @Qualifier("fileDeletionExecutor") ThreadPoolTaskExecutor fileDeletionExecutor) {
         this.fileRepository = fileRepository;
-        this.rowRepository = rowRepository;
-        this.historyRepository = historyRepository;
+        this.sheetRepository = sheetRepository;
+        this.graphResultCache = graphResultCache;
+        this.aggregateService = aggregateService;
+        this.exportJobService = exportJobService;
+        this.typedSheetTables = typedSheetTables;
+        this.fileDataDeleter = fileDataDeleter;
+        this.fileDeletionExecutor = fileDeletionExecutor;
     }
 
     @Override
     public Page<FileEntity> getFiles(String searchKeyword, Pageable pageable) {
+        // Les fichiers en cours de suppression n'apparaissent plus
         if (searchKeyword != null && !searchKeyword.trim().isEmpty()) {
-            return fileRepository.findByFileNameContainingIgnoreCase(searchKeyword, pageable);
+            return fileRepository.findVisibleByFileName(searchKeyword, pageable);
         } else {
-            return fileRepository.findAll(pageable);
+            return fileRepository.findVisible(pageable);
         }
     }
     
@@ -47,25 +74,45 @@ public class FileServiceImpl implements FileService {
                 .orElseThrow(() -> new EntityNotFoundException("File not found with id: " + id));
     }
 
+    /**
+     * Marque le fichier DELETING et rend la main : la suppression des données s'exécute en arrière-plan.
+     * Sans effet si le fichier n'existe pas ou si sa suppression est déjà en cours.
+     */
     @Override
-    @Transactional
     public void deleteFile(Long id) {
-        if (!fileRepository.existsById(id)) {
-            return; 
+        if (fileRepository.markDeleting(id) == 0) {
+            return;
         }
+        graphResultCache.invalidateFile(id);
+        fileDeletionExecutor.execute(() -> runDeletion(id));
+    }
 
-        // CORRECTION : On utilise la nouvelle méthode pour trouver les lignes
-        List<Long> rowIdsToDelete = rowRepository.findBySheetFileId(id)
-                                                 .stream()
-                                                 .map(RowEntity::getId)
-                                                 .collect(Collectors.toList());
-        
-        if (!rowIdsToDelete.isEmpty()) {
-            historyRepository.deleteByRowEntityIds(rowIdsToDelete);
+    /**
+     * Suppressions interrompues par un arrêt de l'application : relancées (chaque étape est rejouable).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedDeletions() {
+        for (FileEntity file : fileRepository.findByStatus(FileEntity.Status.DELETING)) {
+            logger.info("Reprise de la suppression du fichier {}.", file.getId());
+            fileDeletionExecutor.execute(() -> runDeletion(file.getId()));
         }
+    }
 
-        rowRepository.deleteByFileId(id);
+    private void runDeletion(Long id) {
+        try {
+            List<Long> sheetIds = sheetRepository.findByFileIdOrderBySheetIndexAsc(id).stream()
+                    .map(SheetEntity::getId)
+                    .collect(Collectors.toList());
+            aggregateService.dropForSheets(sheetIds);
+            exportJobService.deleteForSheets(sheetIds);
+            typedSheetTables.evict(sheetIds);
 
-        fileRepository.deleteById(id);
+            fileDataDeleter.deleteFileData(id);
+            // Des graphiques ont pu être recalculés et mis en cache pendant la suppression
+            sheetIds.forEach(graphResultCache::invalidateSheet);
+        } catch (Exception e) {
+            // Le fichier reste DELETING : la suppression reprendra au prochain démarrage
+            logger.error("Échec de la suppression du fichier {}.", id, e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -45,4 +45,9 @@ public class FileStorageServiceImpl implements FileStorageService {
             throw new RuntimeException("Erreur lors du stockage du fichier.", e);
         }
     }
+
+    @Override
+    public Path load(String storedFilename) {
+        return this.rootLocation.resolve(storedFilename).normalize().toAbsolutePath();
+    }
 }
\ No newline at end of file
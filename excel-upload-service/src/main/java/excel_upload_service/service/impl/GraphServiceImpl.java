@@ -6,7 +6,18 @@ import excel_upload_service.dto.GraphRequestDto;
 import excel_upload_service.dto.GraphResult;
 import excel_upload_service.dto.GroupedGraphResult;
 import excel_upload_service.repository.RowEntityRepository;
+import excel_upload_service.service.AggregateService;
 import excel_upload_service.service.GraphService;
+import excel_upload_service.service.JsonIndexService;
+import excel_upload_service.service.graph.CategoryMeasures;
+import excel_upload_service.service.graph.GraphRowSource;
+import excel_upload_service.service.graph.GraphResultCache;
+import excel_upload_service.service.graph.IndexedGraphQueries;
+import excel_upload_service.service.indexing.JsonKeyPaths;
+import excel_upload_service.service.observability.PipelineObservations;
+import excel_upload_service.service.storage.TypedColumnIndexes;
+import excel_upload_service.service.storage.TypedSheetTable;
+import excel_upload_service.service.storage.TypedSheetTables;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -17,48 +28,105 @@ import java.util.stream.Collectors;
 @Service
 public class GraphServiceImpl implements GraphService {
 
+    // Agrégations numériques calculées en une passe ; tout autre type retombe sur un comptage
+    private static final Set<String> MEASURE_FUNCTIONS = Set.of("SUM", "AVG", "MIN", "MAX");
+
     private final RowEntityRepository rowRepository;
     private final ObjectMapper objectMapper;
+    private final JsonIndexService jsonIndexService;
+    private final IndexedGraphQueries indexedGraphQueries;
+    private final GraphResultCache graphResultCache;
+    private final AggregateService aggregateService;
+    private final TypedSheetTables typedSheetTables;
+    private final TypedColumnIndexes typedColumnIndexes;
+    private final PipelineObservations observations;
 
-    public GraphServiceImpl(RowEntityRepository rowRepository, ObjectMapper objectMapper) {
+    public GraphServiceImpl(RowEntityRepository rowRepository, ObjectMapper objectMapper,
+                            JsonIndexService jsonIndexService, IndexedGraphQueries indexedGraphQueries,
+                            GraphResultCache graphResultCache, AggregateService aggregateService,
+                            TypedSheetTables typedSheetTables, TypedColumnIndexes typedColumnIndexes,
+                            PipelineObservations observations) {
         this.rowRepository = rowRepository;
         this.objectMapper = objectMapper;
+        this.jsonIndexService = jsonIndexService;
+        this.indexedGraphQueries = indexedGraphQueries;
+        this.graphResultCache = graphResultCache;
+        this.aggregateService = aggregateService;
+        this.typedSheetTables = typedSheetTables;
+        this.typedColumnIndexes = typedColumnIndexes;
+        this.observations = observations;
     }
 
     // CORRECTION : Le paramètre est maintenant sheetId
     @Override
     public Map<String, Object> generateChartData(Long sheetId, GraphRequestDto request) throws IOException {
+        // Seuls les calculs sont mesurés : les réponses servies par le cache n'interrogent pas la base
+        return graphResultCache.get(sheetId, request, () -> observations.observe(
+                observations.stage(PipelineObservations.GRAPH_QUERY)
+                        .lowCardinalityKeyValue("chart.type", chartTypeTag(request.getChartType()))
+                        .highCardinalityKeyValue("sheet.id", String.valueOf(sheetId)),
+                null, () -> computeChartData(sheetId, request)));
+    }
+
+    private static String chartTypeTag(String chartType) {
+        return "bar".equalsIgnoreCase(chartType) || "pie".equalsIgnoreCase(chartType) ? chartType.toLowerCase() : "other";
+    }
+
+    private Map<String, Object> computeChartData(Long sheetId, GraphRequestDto request) {
         String chartType = request.getChartType();
         String aggregationType = request.getAggregationType();
         String groupingColumn = request.getGroupingColumn();
         Integer limit = request.getLimit() == null ? 100 : request.getLimit();
+        // Feuille stockée dans une table typée : les requêtes lisent directement ses colonnes
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetId);
 
         if ("bar".equalsIgnoreCase(chartType) && groupingColumn != null && !groupingColumn.isBlank()) {
-            return generateGroupedBarChartData(sheetId, request.getCategoryColumn(), groupingColumn, limit);
+            return generateGroupedBarChartData(sheetId, typedTable, request.getCategoryColumn(), groupingColumn, limit);
         }
 
         if ("pie".equalsIgnoreCase(chartType)) {
-            return generateCategoryCountData(sheetId, request.getCategoryColumn(), limit);
+            return generateCategoryCountData(sheetId, typedTable, request.getCategoryColumn(), limit);
         }
 
         if ("bar".equalsIgnoreCase(chartType)) {
-            if ("SUM".equalsIgnoreCase(aggregationType)) {
-                return generateBarChartSumData(sheetId, request.getCategoryColumn(), request.getValueColumns(), limit);
+            if (aggregationType != null && MEASURE_FUNCTIONS.contains(aggregationType.toUpperCase())) {
+                return generateBarChartMeasureData(sheetId, typedTable, request.getCategoryColumn(), request.getValueColumns(),
+                        aggregationType.toUpperCase(), limit);
             } else {
-                return generateCategoryCountData(sheetId, request.getCategoryColumn(), limit);
+                return generateCategoryCountData(sheetId, typedTable, request.getCategoryColumn(), limit);
             }
         }
 
         throw new IllegalArgumentException("Unsupported chart type: " + chartType);
     }
 
-    private Map<String, Object> generateCategoryCountData(Long sheetId, String categoryColumn, Integer limit) {
+    private Map<String, Object> generateCategoryCountData(Long sheetId, Optional<TypedSheetTable> typedTable,
+                                                          String categoryColumn, Integer limit) {
         if (categoryColumn == null || categoryColumn.isBlank()) {
             throw new IllegalArgumentException("La colonne de catégorie est requise.");
         }
-        String jsonPath = "$." + categoryColumn;
-        // CORRECTION : On passe sheetId au repository
-        List<GraphResult> results = rowRepository.getCategoryCountsForGraph(sheetId, jsonPath, limit == null ? 1000 : limit);
+        int effectiveLimit = limit == null ? 1000 : limit;
+        List<GraphResult> results;
+        if (typedTable.isPresent()) {
+            // Table typée : agrégat matérialisé en priorité, sinon GROUP BY directement sur la colonne
+            // (indexée après usage répété, voir TypedColumnIndexes)
+            String categoryExpr = typedTable.get().requireColumn(categoryColumn).categorySql("r");
+            results = aggregateService.findCategoryCounts(sheetId, categoryColumn, effectiveLimit)
+                    .orElseGet(() -> {
+                        typedColumnIndexes.recordUsage(typedTable.get(), categoryColumn);
+                        return indexedGraphQueries.getCategoryCounts(GraphRowSource.typedTable(typedTable.get()),
+                                categoryExpr, effectiveLimit);
+                    });
+        } else {
+            // Agrégat matérialisé en priorité (O(catégories)), puis colonne indexée, puis data_json
+            results = aggregateService.findCategoryCounts(sheetId, categoryColumn, effectiveLimit)
+                    .orElseGet(() -> {
+                        Optional<String> indexedCategory = indexedExpression(sheetId, categoryColumn);
+                        return indexedCategory.isPresent()
+                                ? indexedGraphQueries.getCategoryCounts(GraphRowSource.jsonRows(sheetId), indexedCategory.get(), effectiveLimit)
+                                : rowRepository.getCategoryCountsForGraph(sheetId, JsonKeyPaths.jsonPath(categoryColumn), effectiveLimit);
+                    });
+        }
 
         List<String> labels = results.stream().map(GraphResult::getCategory).collect(Collectors.toList());
         List<BigDecimal> data = results.stream().map(GraphResult::getCount).collect(Collectors.toList());
@@ -69,13 +137,36 @@ public class GraphServiceImpl implements GraphService {
         return chartData;
     }
 
-    private Map<String, Object> generateGroupedBarChartData(Long sheetId, String primaryCategoryColumn, String secondaryCategoryColumn, Integer limit) {
-        String primaryPath = "$." + primaryCategoryColumn;
-        String secondaryPath = "$." + secondaryCategoryColumn;
-        // CORRECTION : On passe sheetId au repository
-        List<GroupedGraphResult> results = rowRepository.getGroupedCategoryCounts(sheetId, primaryPath, secondaryPath, limit == null ? 100 : limit);
+    private Map<String, Object> generateGroupedBarChartData(Long sheetId, Optional<TypedSheetTable> typedTable,
+                                                            String primaryCategoryColumn, String secondaryCategoryColumn, Integer limit) {
+        List<GroupedGraphResult> results;
+        if (typedTable.isPresent()) {
+            TypedSheetTable table = typedTable.get();
+            typedColumnIndexes.recordUsage(table, primaryCategoryColumn);
+            typedColumnIndexes.recordUsage(table, secondaryCategoryColumn);
+            results = indexedGraphQueries.getGroupedCategoryCounts(GraphRowSource.typedTable(table),
+                    table.requireColumn(primaryCategoryColumn).categorySql("r"),
+                    table.requireColumn(secondaryCategoryColumn).categorySql("r"),
+                    limit == null ? 100 : limit);
+            return toGroupedChartData(results);
+        }
 
-        // ... Le reste de la logique de cette méthode est inchangé ...
+        Optional<String> indexedPrimary = indexedExpression(sheetId, primaryCategoryColumn);
+        Optional<String> indexedSecondary = indexedExpression(sheetId, secondaryCategoryColumn);
+        if (indexedPrimary.isPresent() || indexedSecondary.isPresent()) {
+            results = indexedGraphQueries.getGroupedCategoryCounts(GraphRowSource.jsonRows(sheetId),
+                    indexedPrimary.orElseGet(() -> JsonKeyPaths.categoryExpression("r", primaryCategoryColumn)),
+                    indexedSecondary.orElseGet(() -> JsonKeyPaths.categoryExpression("r", secondaryCategoryColumn)),
+                    limit == null ? 100 : limit);
+        } else {
+            String primaryPath = JsonKeyPaths.jsonPath(primaryCategoryColumn);
+            String secondaryPath = JsonKeyPaths.jsonPath(secondaryCategoryColumn);
+            results = rowRepository.getGroupedCategoryCounts(sheetId, primaryPath, secondaryPath, limit == null ? 100 : limit);
+        }
+        return toGroupedChartData(results);
+    }
+
+    private Map<String, Object> toGroupedChartData(List<GroupedGraphResult> results) {
         List<String> primaryLabels = results.stream().map(GroupedGraphResult::getPrimaryCategory).distinct().sorted().collect(Collectors.toList());
         List<String> secondaryLabels = results.stream().map(GroupedGraphResult::getSecondaryCategory).distinct().sorted().collect(Collectors.toList());
         Map<String, Map<String, Object>> datasetsMap = new LinkedHashMap<>();
@@ -100,24 +191,55 @@ public class GraphServiceImpl implements GraphService {
         return chartData;
     }
 
-    private Map<String, Object> generateBarChartSumData(Long sheetId, String categoryColumn, List<String> valueColumns, Integer limit) {
+    /**
+     * Graphique en barres à plusieurs mesures (SUM, AVG, MIN, MAX) : une seule requête calcule
+     * toutes les colonnes de valeur, le temps de réponse ne dépend plus du nombre de séries.
+     */
+    private Map<String, Object> generateBarChartMeasureData(Long sheetId, Optional<TypedSheetTable> typedTable,
+                                                            String categoryColumn, List<String> valueColumns,
+                                                            String function, Integer limit) {
         if (categoryColumn == null || categoryColumn.isBlank()) throw new IllegalArgumentException("La colonne de catégorie est requise.");
-        if (valueColumns == null || valueColumns.isEmpty()) throw new IllegalArgumentException("Au moins une colonne de valeur est requise pour une somme.");
-        
-        String categoryJsonPath = "$." + categoryColumn;
-        // CORRECTION : On passe sheetId au repository
-        List<GraphResult> initialResults = rowRepository.getCategorySumsForGraph(sheetId, categoryJsonPath, "$." + valueColumns.get(0), limit == null ? 1000 : limit);
-        List<String> labels = initialResults.stream().map(GraphResult::getCategory).sorted().collect(Collectors.toList());
-        
+        if (valueColumns == null || valueColumns.isEmpty()) throw new IllegalArgumentException("Au moins une colonne de valeur est requise pour une agrégation.");
+
+        int effectiveLimit = limit == null ? 1000 : limit;
+        List<CategoryMeasures> results;
+        if (typedTable.isPresent()) {
+            TypedSheetTable table = typedTable.get();
+            String categoryExpr = table.requireColumn(categoryColumn).categorySql("r");
+            List<String> valueExprs = valueColumns.stream()
+                    .map(valueCol -> table.requireColumn(valueCol).sql("r"))
+                    .collect(Collectors.toList());
+            results = aggregateService
+                    .findCategoryMeasures(sheetId, categoryColumn, valueColumns, function, effectiveLimit)
+                    .orElseGet(() -> {
+                        typedColumnIndexes.recordUsage(table, categoryColumn);
+                        return indexedGraphQueries.getCategoryMeasures(GraphRowSource.typedTable(table),
+                                categoryExpr, valueExprs, function, effectiveLimit);
+                    });
+        } else {
+            results = aggregateService
+                    .findCategoryMeasures(sheetId, categoryColumn, valueColumns, function, effectiveLimit)
+                    .orElseGet(() -> {
+                        String categoryExpr = indexedExpression(sheetId, categoryColumn)
+                                .orElseGet(() -> JsonKeyPaths.categoryExpression("r", categoryColumn));
+                        List<String> valueExprs = valueColumns.stream()
+                                .map(valueCol -> JsonKeyPaths.extractExpression("r", valueCol))
+                                .collect(Collectors.toList());
+                        return indexedGraphQueries.getCategoryMeasures(GraphRowSource.jsonRows(sheetId), categoryExpr, valueExprs,
+                                function, effectiveLimit);
+                    });
+        }
+        results = results.stream().sorted(Comparator.comparing(CategoryMeasures::category)).collect(Collectors.toList());
+
+        List<String> labels = results.stream().map(CategoryMeasures::category).collect(Collectors.toList());
         List<Map<String, Object>> datasets = new ArrayList<>();
-        for (String valueCol : valueColumns) {
-            String valueJsonPath = "$." + valueCol;
-            // CORRECTION : On passe sheetId au repository
-            List<GraphResult> results = rowRepository.getCategorySumsForGraph(sheetId, categoryJsonPath, valueJsonPath, limit == null ? 1000 : limit);
-            Map<String, BigDecimal> resultMap = results.stream().collect(Collectors.toMap(GraphResult::getCategory, GraphResult::getCount, (v1, v2) -> v1));
-            List<BigDecimal> dataPoints = labels.stream().map(label -> resultMap.getOrDefault(label, BigDecimal.ZERO)).collect(Collectors.toList());
+        for (int i = 0; i < valueColumns.size(); i++) {
+            int measure = i;
+            List<BigDecimal> dataPoints = results.stream()
+                    .map(result -> Objects.requireNonNullElse(result.values().get(measure), BigDecimal.ZERO))
+                    .collect(Collectors.toList());
             Map<String, Object> dataset = new LinkedHashMap<>();
-            dataset.put("label", valueCol);
+            dataset.put("label", valueColumns.get(i));
             dataset.put("data", dataPoints);
             datasets.add(dataset);
         }
@@ -127,4 +249,11 @@ public class GraphServiceImpl implements GraphService {
         chartData.put("datasets", datasets);
         return chartData;
     }
-}
\ No newline at end of file
+
+    /**
+     * Colonne générée indexée de la clé (voir JsonIndexService), sous forme d'expression SQL sur l'alias r.
+     */
+    private Optional<String> indexedExpression(Long sheetId, String jsonKey) {
+        return jsonIndexService.resolveColumn(sheetId, jsonKey).map(column -> "r.`" + column + "`");
+    }
+}
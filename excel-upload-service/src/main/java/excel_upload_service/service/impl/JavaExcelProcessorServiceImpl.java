@@ -0,0 +1,95 @@
+// CHEMIN: excel-upload-service/src/main/java/excel_upload_service/service/impl/JavaExcelProcessorServiceImpl.java
+package excel_upload_service.service.impl;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelReader;
+import com.alibaba.excel.read.metadata.ReadSheet;
+import excel_upload_service.dto.python.SheetData;
+import excel_upload_service.service.DataPersistenceService;
+import excel_upload_service.service.JavaExcelProcessorService;
+import excel_upload_service.service.SheetRowWriter;
+import excel_upload_service.service.graph.GraphResultCache;
+import excel_upload_service.service.ingestion.SheetAnalysisListener;
+import excel_upload_service.service.ingestion.SheetPersistenceCoordinator;
+import excel_upload_service.service.ingestion.SheetRowStreamingListener;
+import excel_upload_service.service.observability.PipelineObservations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Service
+public class JavaExcelProcessorServiceImpl implements JavaExcelProcessorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JavaExcelProcessorServiceImpl.class);
+
+    private final DataPersistenceService dataPersistenceService;
+    private final SheetPersistenceCoordinator sheetPersistenceCoordinator;
+    private final GraphResultCache graphResultCache;
+    private final PipelineObservations observations;
+
+    public JavaExcelProcessorServiceImpl(DataPersistenceService dataPersistenceService,
+                                         SheetPersistenceCoordinator sheetPersistenceCoordinator,
+                                         GraphResultCache graphResultCache,
+                                         PipelineObservations observations) {
+        this.dataPersistenceService = dataPersistenceService;
+        this.sheetPersistenceCoordinator = sheetPersistenceCoordinator;
+        this.graphResultCache = graphResultCache;
+        this.observations = observations;
+    }
+
+    @Override
+    public long processStoredFile(Long fileId, Path file) {
+        return observations.observe(observations.stage(PipelineObservations.PERSISTENCE).lowCardinalityKeyValue("mode", "java"),
+                fileId, () -> readAndPersist(fileId, file));
+    }
+
+    private long readAndPersist(Long fileId, Path file) {
+        List<ReadSheet> sheets;
+        try (ExcelReader reader = EasyExcel.read(file.toFile()).build()) {
+            sheets = reader.excelExecutor().sheetList();
+        }
+
+        // Chaque feuille est lue indépendamment : elles peuvent être persistées en parallèle
+        long totalRows;
+        try {
+            totalRows = sheetPersistenceCoordinator.persistSheets(fileId, sheets, sheet -> processSheet(fileId, file, sheet));
+        } catch (RuntimeException e) {
+            dataPersistenceService.markFailed(fileId);
+            throw e;
+        }
+        dataPersistenceService.markCompleted(fileId);
+        graphResultCache.invalidateFile(fileId);
+
+        logger.info("Traitement Java du fichier {} terminé : {} lignes insérées.", fileId, totalRows);
+        return totalRows;
+    }
+
+    private long processSheet(Long fileId, Path file, ReadSheet sheet) {
+        // 1. Première passe : en-tête et types, sans rien garder des lignes
+        SheetAnalysisListener analysis = new SheetAnalysisListener();
+        EasyExcel.read(file.toFile(), analysis).sheet(sheet.getSheetNo()).headRowNumber(0).doRead();
+
+        // Si aucune donnée n'est trouvée dans la feuille, on passe à la suivante.
+        if (!analysis.hasData()) {
+            logger.info("Feuille '{}' ignorée : aucune donnée détectée.", sheet.getSheetName());
+            return 0;
+        }
+
+        SheetData sheetData = new SheetData();
+        sheetData.setSheetName(sheet.getSheetName());
+        sheetData.setSheetIndex(sheet.getSheetNo());
+        sheetData.setSchema(analysis.getSchema());
+        sheetData.setTotalRows((int) analysis.getDataRows());
+
+        // 2. Seconde passe : les lignes vont directement dans la table dynamique
+        SheetRowWriter writer = dataPersistenceService.openSheetWriter(fileId, sheetData);
+        try (writer) {
+            SheetRowStreamingListener rows = new SheetRowStreamingListener(analysis.getHeaderRowIndex(), sheetData.getSchema(), writer);
+            EasyExcel.read(file.toFile(), rows).sheet(sheet.getSheetNo()).headRowNumber(0).doRead();
+        }
+        return writer.getWrittenRows();
+    }
+}
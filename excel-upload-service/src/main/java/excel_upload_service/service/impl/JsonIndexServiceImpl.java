@@ -0,0 +1,209 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/impl/JsonIndexServiceImpl.java
+package excel_upload_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.model.JsonKeyIndex;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.repository.JsonKeyIndexRepository;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.JsonIndexService;
+import excel_upload_service.service.indexing.JsonKeyPaths;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Matérialise des clés JSON de row_entities en colonnes générées VIRTUAL, indexées avec sheet_id.
+ *
+ * Une colonne virtuelle n'occupe aucune place dans les lignes : seul l'index (sheet_id, colonne)
+ * est stocké, et InnoDB le maintient à chaque INSERT/UPDATE. Les valeurs sont tronquées à
+ * 255 caractères pour rester indexables.
+ *
+ * Ne concerne que les feuilles stockées dans row_entities (feuilles JSON historiques) : les tables typées
+ * reçoivent des index sur leurs propres colonnes (voir TypedColumnIndexes).
+ */
+@Service
+public class JsonIndexServiceImpl implements JsonIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonIndexServiceImpl.class);
+
+    private final JsonKeyIndexRepository indexRepository;
+    private final SheetEntityRepository sheetRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor indexExecutor;
+
+    // Clé JSON -> colonne générée, chargé depuis le registre au premier accès
+    private final Map<String, String> columnsByKey = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> observedKeys = new ConcurrentHashMap<>();
+    private final Set<String> scheduledKeys = ConcurrentHashMap.newKeySet();
+    private volatile boolean registryLoaded = false;
+
+    // Nombre de graphiques utilisant une clé avant sa création automatique (0 = jamais)
+    @Value("${indexing.json-keys.auto-create-after:20}")
+    private int autoCreateAfter;
+
+    // MySQL limite une table à 64 index : on en réserve une partie à row_entities
+    @Value("${indexing.json-keys.max-columns:32}")
+    private int maxColumns;
+
+    public JsonIndexServiceImpl(JsonKeyIndexRepository indexRepository,
+                                SheetEntityRepository sheetRepository,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                @Qualifier("jsonIndexExecutor") ThreadPoolTaskExecutor indexExecutor) {
+        this.indexRepository = indexRepository;
+        this.sheetRepository = sheetRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.indexExecutor = indexExecutor;
+    }
+
+    @Override
+    public Optional<String> resolveColumn(Long sheetId, String jsonKey) {
+        if (jsonKey == null || jsonKey.isBlank()) {
+            return Optional.empty();
+        }
+        loadRegistry();
+        String column = columnsByKey.get(jsonKey);
+        if (column != null) {
+            return Optional.of(column);
+        }
+        int hits = observedKeys.computeIfAbsent(jsonKey, k -> new AtomicInteger()).incrementAndGet();
+        if (autoCreateAfter > 0 && hits >= autoCreateAfter && scheduledKeys.add(jsonKey)) {
+            scheduleCreation(jsonKey, sheetId);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized JsonKeyIndex createIndex(String jsonKey, String source, Long sheetId) {
+        if (jsonKey == null || jsonKey.isBlank()) {
+            throw new IllegalArgumentException("La clé JSON est requise.");
+        }
+        loadRegistry();
+        Optional<JsonKeyIndex> existing = indexRepository.findByJsonKey(jsonKey);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        if (indexRepository.count() >= maxColumns) {
+            throw new IllegalStateException("Nombre maximal de clés indexées atteint (" + maxColumns + ").");
+        }
+
+        String columnName = JsonKeyPaths.columnName(jsonKey);
+        String indexName = JsonKeyPaths.indexName(columnName);
+        if (!columnExists(columnName)) {
+            long start = System.currentTimeMillis();
+            // Colonne virtuelle : ajout instantané ; l'index est construit en ligne (lectures et écritures continuent)
+            jdbcTemplate.execute("ALTER TABLE row_entities ADD COLUMN `" + columnName + "` VARCHAR(255) " +
+                    "GENERATED ALWAYS AS (" + JsonKeyPaths.categoryExpression("row_entities", jsonKey) + ") VIRTUAL");
+            jdbcTemplate.execute("ALTER TABLE row_entities ADD INDEX `" + indexName + "` (sheet_id, `" + columnName + "`), " +
+                    "ALGORITHM=INPLACE, LOCK=NONE");
+            logger.info("Clé JSON '{}' indexée dans la colonne {} en {} ms.", jsonKey, columnName, System.currentTimeMillis() - start);
+        }
+
+        JsonKeyIndex index = indexRepository.save(new JsonKeyIndex(jsonKey, columnName, indexName, source, sheetId));
+        columnsByKey.put(jsonKey, columnName);
+        observedKeys.remove(jsonKey);
+        return index;
+    }
+
+    @Override
+    public List<JsonKeyIndex> indexSheetHeaders(Long sheetId) {
+        SheetEntity sheet = sheetRepository.findById(sheetId)
+                .orElseThrow(() -> new EntityNotFoundException("Sheet not found with ID: " + sheetId));
+        List<String> headers;
+        try {
+            headers = objectMapper.readValue(sheet.getHeadersJson(), new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("JSON deserialization error", e);
+        }
+
+        List<JsonKeyIndex> indexes = new ArrayList<>();
+        for (String header : headers) {
+            if (header == null || header.isBlank()) {
+                continue;
+            }
+            if (!columnsByKey.containsKey(header) && indexRepository.count() >= maxColumns) {
+                logger.warn("Limite de {} clés indexées atteinte : en-têtes restants de la feuille {} ignorés.", maxColumns, sheetId);
+                break;
+            }
+            indexes.add(createIndex(header, "HEADERS", sheetId));
+        }
+        return indexes;
+    }
+
+    @Override
+    public List<JsonKeyIndex> listIndexes() {
+        return indexRepository.findAll();
+    }
+
+    @Override
+    public synchronized void dropIndex(Long id) {
+        JsonKeyIndex index = indexRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Index not found with ID: " + id));
+        // On retire d'abord la route pour que les graphiques repassent par data_json
+        columnsByKey.remove(index.getJsonKey());
+        scheduledKeys.remove(index.getJsonKey());
+        if (columnExists(index.getColumnName())) {
+            jdbcTemplate.execute("ALTER TABLE row_entities DROP INDEX `" + index.getIndexName() + "`, " +
+                    "DROP COLUMN `" + index.getColumnName() + "`");
+        }
+        indexRepository.delete(index);
+        logger.info("Index de la clé JSON '{}' supprimé.", index.getJsonKey());
+    }
+
+    @Override
+    public Map<String, Integer> getObservedKeys() {
+        Map<String, Integer> snapshot = new TreeMap<>();
+        observedKeys.forEach((key, hits) -> snapshot.put(key, hits.get()));
+        return snapshot;
+    }
+
+    private void scheduleCreation(String jsonKey, Long sheetId) {
+        try {
+            indexExecutor.execute(() -> {
+                try {
+                    createIndex(jsonKey, "OBSERVED", sheetId);
+                } catch (Exception e) {
+                    logger.warn("Création automatique de l'index pour la clé '{}' impossible : {}", jsonKey, e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // File pleine : une prochaine utilisation retentera
+            scheduledKeys.remove(jsonKey);
+        }
+    }
+
+    private void loadRegistry() {
+        if (registryLoaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!registryLoaded) {
+                indexRepository.findAll().forEach(index -> columnsByKey.put(index.getJsonKey(), index.getColumnName()));
+                registryLoaded = true;
+            }
+        }
+    }
+
+    private boolean columnExists(String columnName) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'row_entities' AND COLUMN_NAME = ?",
+                Integer.class, columnName);
+        return count != null && count > 0;
+    }
+}
@@ -1,46 +1,132 @@
 // CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/impl/ModificationHistoryServiceImpl.java
 package excel_upload_service.service.impl;
 
+import excel_upload_service.dto.RowVersion;
 import excel_upload_service.model.ModificationHistory;
 import excel_upload_service.repository.ModificationHistoryRepository;
 import excel_upload_service.service.ModificationHistoryService;
+import excel_upload_service.service.history.AsyncHistoryWriter;
+import excel_upload_service.service.history.HistoryRowKey;
+import excel_upload_service.service.history.HistoryVersions;
+import excel_upload_service.service.storage.RowDecoder;
+import excel_upload_service.service.storage.TypedSheetTables;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+/**
+ * L'historique est stocké en deltas (voir HistoryEncoder) ; les lectures le renvoient au format complet
+ * (oldData, newData), reconstruit depuis l'instantané le plus proche de chaque entrée.
+ *
+ * Les lignes d'une feuille en table typée ont leurs propres id : leurs entrées portent typedSheetId, et la
+ * lecture de l'historique d'une ligne demande toujours sa feuille.
+ */
 @Service
 public class ModificationHistoryServiceImpl implements ModificationHistoryService {
 
+    // Attente maximale des écritures en file avant une lecture de l'historique
+    private static final long READ_FLUSH_TIMEOUT_MS = 1000;
+
     private final ModificationHistoryRepository repository;
+    private final AsyncHistoryWriter historyWriter;
+    private final HistoryVersions historyVersions;
+    private final RowDecoder rowDecoder;
+    private final TypedSheetTables typedSheetTables;
 
-    public ModificationHistoryServiceImpl(ModificationHistoryRepository repository) {
+    public ModificationHistoryServiceImpl(ModificationHistoryRepository repository,
+                                          AsyncHistoryWriter historyWriter,
+                                          HistoryVersions historyVersions,
+                                          RowDecoder rowDecoder,
+                                          TypedSheetTables typedSheetTables) {
         this.repository = repository;
+        this.historyWriter = historyWriter;
+        this.historyVersions = historyVersions;
+        this.rowDecoder = rowDecoder;
+        this.typedSheetTables = typedSheetTables;
     }
 
+    // Hors de la requête (voir AsyncHistoryWriter), sauf avec history.writer.mode=sync
     @Override
     public void saveHistory(Long rowId, String operationType, String oldData, String newData) {
-        ModificationHistory history = new ModificationHistory(
-                null, rowId, operationType, oldData, newData, LocalDateTime.now()
-        );
-        repository.save(history);
+        historyWriter.record(null, rowId, operationType, oldData, newData);
+    }
+
+    @Override
+    public void saveTypedRowHistory(Long sheetId, Long rowId, String operationType, String oldData, String newData) {
+        historyWriter.record(sheetId, rowId, operationType, oldData, newData);
+    }
+
+    @Override
+    public void saveHistories(List<ModificationHistory> entries) {
+        historyWriter.recordAll(entries);
     }
 
     @Override
-    public List<ModificationHistory> getHistoryForRow(Long rowId) {
-        return repository.findByRowEntityIdOrderByTimestampDesc(rowId);
+    public List<ModificationHistory> getHistoryForRow(Long sheetId, Long rowId) {
+        historyWriter.flush(READ_FLUSH_TIMEOUT_MS);
+        // Toute la chaîne de la ligne est lue : chaque entrée est reconstruite en une passe
+        return historyVersions.expandAll(repository.findRowHistory(typedSheetId(sheetId), rowId));
     }
     
     @Override
     public List<ModificationHistory> getAllHistories() {
-        return repository.findAllByOrderByTimestampDesc();
+        historyWriter.flush(READ_FLUSH_TIMEOUT_MS);
+        return historyVersions.expandAll(repository.findAllByOrderByTimestampDesc());
     }
     
     // NOUVELLE MÉTHODE
     @Override
     public Page<ModificationHistory> getHistoryForSheet(Long sheetId, Pageable pageable) {
-        return repository.findHistoryForSheet(sheetId, pageable);
+        historyWriter.flush(READ_FLUSH_TIMEOUT_MS);
+        Page<ModificationHistory> page = repository.findHistoryForSheet(sheetId, pageable);
+
+        // Pour chaque ligne de la page : sa chaîne depuis la base qui précède sa plus ancienne entrée de la page
+        Map<HistoryRowKey, List<ModificationHistory>> byRow = page.getContent().stream()
+                .collect(Collectors.groupingBy(HistoryRowKey::of, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, ModificationHistory> expanded = new HashMap<>();
+        byRow.forEach((row, entries) -> {
+            long minId = entries.stream().mapToLong(ModificationHistory::getId).min().orElseThrow();
+            long maxId = entries.stream().mapToLong(ModificationHistory::getId).max().orElseThrow();
+            historyVersions.replay(repository.findChain(row.typedSheetId(), row.rowId(), minId - 1, maxId))
+                    .forEach(step -> expanded.put(step.entry().getId(), step.expanded()));
+        });
+        List<ModificationHistory> content = page.getContent().stream()
+                .map(entry -> expanded.get(entry.getId()))
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, page.getTotalElements());
+    }
+
+    @Override
+    public RowVersion getRowVersion(Long sheetId, Long rowId, Long historyId) {
+        historyWriter.flush(READ_FLUSH_TIMEOUT_MS);
+        List<HistoryVersions.Step> steps = historyVersions.replay(
+                repository.findChain(typedSheetId(sheetId), rowId, historyId, historyId));
+        HistoryVersions.Step last = steps.stream().max(Comparator.comparing(step -> step.entry().getId()))
+                .filter(step -> step.entry().getId().equals(historyId))
+                .orElseThrow(() -> new EntityNotFoundException(
+                        "History entry not found with ID: " + historyId + " for row " + rowId));
+
+        boolean deleted = "DELETE".equals(last.entry().getOperationType());
+        String json = deleted ? last.before() : last.after();
+        if (json == null) {
+            throw new IllegalStateException("La version " + historyId + " de la ligne " + rowId
+                    + " ne peut pas être reconstruite : historique incomplet.");
+        }
+        return new RowVersion(rowId, historyId, last.entry().getOperationType(), last.entry().getTimestamp(),
+                deleted, rowDecoder.decode(json));
+    }
+
+    // Les entrées d'une ligne en table typée sont rangées sous sa feuille ; celles de row_entities sous null
+    private Long typedSheetId(Long sheetId) {
+        return typedSheetTables.find(sheetId).isPresent() ? sheetId : null;
     }
-}
\ No newline at end of file
+}
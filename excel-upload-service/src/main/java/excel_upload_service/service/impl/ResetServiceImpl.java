@@ -1,29 +1,90 @@
 package excel_upload_service.service.impl;
 
-import excel_upload_service.repository.RowEntityRepository;
-import excel_upload_service.repository.ModificationHistoryRepository;
+import excel_upload_service.service.AggregateService;
+import excel_upload_service.service.ExportJobService;
 import excel_upload_service.service.ResetService;
-import jakarta.transaction.Transactional;
-import org.springframework.data.domain.Pageable;
+import excel_upload_service.service.SchemaManagerService;
+import excel_upload_service.service.graph.GraphResultCache;
+import excel_upload_service.service.history.AsyncHistoryWriter;
+import excel_upload_service.service.storage.TypedSheetTables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Réinitialisation complète par TRUNCATE TABLE : sous InnoDB, la table est recréée vide au lieu d'être vidée
+ * ligne par ligne, sans journal d'annulation, en un temps indépendant du volume. Les index (FULLTEXT, colonnes
+ * générées des clés JSON) sont conservés ; les compteurs AUTO_INCREMENT repartent de 1.
+ *
+ * TRUNCATE valide implicitement la transaction en cours : la réinitialisation n'est pas transactionnelle,
+ * elle peut simplement être relancée si elle s'interrompt.
+ */
 @Service
 public class ResetServiceImpl implements ResetService {
 
-    private final RowEntityRepository rowRepository;
-    private final ModificationHistoryRepository historyRepository;
+    private static final Logger logger = LoggerFactory.getLogger(ResetServiceImpl.class);
+
+    // Tables filles d'abord ; les contrôles de clés étrangères sont suspendus pendant les TRUNCATE
+    private static final List<String> TRUNCATED_TABLES = List.of(
+            "modification_history", "row_entities", "sheets", "files");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaManagerService schemaManagerService;
+    private final GraphResultCache graphResultCache;
+    private final AggregateService aggregateService;
+    private final ExportJobService exportJobService;
+    private final TypedSheetTables typedSheetTables;
+    private final AsyncHistoryWriter historyWriter;
 
-    public ResetServiceImpl(RowEntityRepository rowRepository, ModificationHistoryRepository historyRepository) {
-        this.rowRepository = rowRepository;
-        this.historyRepository = historyRepository;
+    public ResetServiceImpl(JdbcTemplate jdbcTemplate, SchemaManagerService schemaManagerService,
+                            GraphResultCache graphResultCache, AggregateService aggregateService,
+                            ExportJobService exportJobService,
+                            TypedSheetTables typedSheetTables, AsyncHistoryWriter historyWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaManagerService = schemaManagerService;
+        this.graphResultCache = graphResultCache;
+        this.aggregateService = aggregateService;
+        this.exportJobService = exportJobService;
+        this.typedSheetTables = typedSheetTables;
+        this.historyWriter = historyWriter;
     }
 
     @Override
-    @Transactional
     public void resetAll() {
-        /*historyRepository.deleteAll();
-        rowRepository.deleteAll();*/
-        historyRepository.deleteAllFast();
-        rowRepository.deleteAllFast();
+        long start = System.currentTimeMillis();
+        // Les fichiers d'export sont sur disque : supprimés avec leurs tâches
+        exportJobService.deleteAll();
+
+        List<String> dynamicTables = schemaManagerService.findAllDynamicTables();
+        // L'historique en file ou enregistré pendant la réinitialisation serait écrit après le TRUNCATE : écarté
+        historyWriter.discardDuring(() -> {
+            dynamicTables.forEach(schemaManagerService::dropTable);
+
+            // FOREIGN_KEY_CHECKS est une variable de session : tous les TRUNCATE passent par la même connexion
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+                    try {
+                        for (String table : TRUNCATED_TABLES) {
+                            statement.execute("TRUNCATE TABLE " + table);
+                        }
+                    } finally {
+                        statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+                    }
+                }
+                return null;
+            });
+        });
+
+        aggregateService.dropAll();
+        typedSheetTables.evictAll();
+        graphResultCache.invalidateAll();
+        logger.info("Réinitialisation terminée en {} ms : {} tables vidées, {} tables dynamiques supprimées.",
+                System.currentTimeMillis() - start, TRUNCATED_TABLES.size(), dynamicTables.size());
     }
 }
@@ -2,151 +2,174 @@
 package excel_upload_service.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.dto.BulkRowRequest;
+import excel_upload_service.dto.BulkRowResult;
+import excel_upload_service.dto.RowCursorPage;
 import excel_upload_service.dto.RowEntityDto;
 import excel_upload_service.model.RowEntity;
 import excel_upload_service.model.SheetEntity;
 import excel_upload_service.repository.RowEntityRepository;
 import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.AggregateService;
 import excel_upload_service.service.ModificationHistoryService;
 import excel_upload_service.service.RowEntityService;
+import excel_upload_service.service.bulk.BulkRowMutations;
+import excel_upload_service.service.graph.GraphResultCache;
+import excel_upload_service.service.observability.PipelineObservations;
+import excel_upload_service.service.search.RowCursor;
+import excel_upload_service.service.search.RowSearchQuery;
+import excel_upload_service.service.storage.RowDecoder;
+import excel_upload_service.service.storage.TypedRowQueries;
+import excel_upload_service.service.storage.TypedSheetTable;
+import excel_upload_service.service.storage.TypedSheetTables;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class RowEntityServiceImpl implements RowEntityService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final RowEntityRepository repository;
     private final SheetEntityRepository sheetRepository;
     private final ModificationHistoryService modificationHistoryService;
     private final ObjectMapper objectMapper;
+    private final GraphResultCache graphResultCache;
+    private final AggregateService aggregateService;
+    private final RowSearchQuery rowSearchQuery;
+    private final TypedSheetTables typedSheetTables;
+    private final TypedRowQueries typedRowQueries;
+    private final RowDecoder rowDecoder;
+    private final PipelineObservations observations;
+    private final BulkRowMutations bulkRowMutations;
 
     public RowEntityServiceImpl(RowEntityRepository repository,
                                 SheetEntityRepository sheetRepository,
                                 ModificationHistoryService modificationHistoryService,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                GraphResultCache graphResultCache,
+                                AggregateService aggregateService,
+                                RowSearchQuery rowSearchQuery,
+                                TypedSheetTables typedSheetTables,
+                                TypedRowQueries typedRowQueries,
+                                RowDecoder rowDecoder,
+                                PipelineObservations observations,
+                                BulkRowMutations bulkRowMutations) {
         this.repository = repository;
         this.sheetRepository = sheetRepository;
         this.modificationHistoryService = modificationHistoryService;
         this.objectMapper = objectMapper;
+        this.graphResultCache = graphResultCache;
+        this.aggregateService = aggregateService;
+        this.rowSearchQuery = rowSearchQuery;
+        this.typedSheetTables = typedSheetTables;
+        this.typedRowQueries = typedRowQueries;
+        this.rowDecoder = rowDecoder;
+        this.observations = observations;
+        this.bulkRowMutations = bulkRowMutations;
     }
     
     @Override
-    public Page<RowEntityDto> searchBySheetId(Long sheetId, String keyword, Pageable pageable) {
-        // CORRECTION 1 : On ne peut pas utiliser "Sort.and(Sort.Order)".
-        // On doit collecter les "Order" dans des listes séparées.
-        List<Sort.Order> dbOrders = new ArrayList<>();
-        List<Sort.Order> jsonOrders = new ArrayList<>();
-
-        for (Sort.Order order : pageable.getSort()) {
-            if (order.getProperty().startsWith("data.")) {
-                jsonOrders.add(order);
-            } else {
-                dbOrders.add(order);
-            }
-        }
+    public Page<RowEntityDto> searchBySheetId(Long sheetId, String keyword, Map<String, String> filters, Pageable pageable) {
+        return observeSearch("sheet", sheetId, () -> searchSheet(sheetId, keyword, filters, pageable));
+    }
 
-        // On crée les objets Sort à partir des listes d'ordres.
-        Sort dbSort = Sort.by(dbOrders);
-        Sort jsonSort = Sort.by(jsonOrders);
-
-        // 1. On interroge la base de données avec la pagination et le tri qu'elle peut gérer.
-        Pageable dbPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), dbSort);
-        Page<RowEntity> page = repository.searchBySheetIdAndKeyword(sheetId, keyword, dbPageable);
-        
-        // 2. On transforme les entités en DTOs.
-        List<RowEntityDto> dtos = page.getContent().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
-
-        // 3. Si un tri sur un champ JSON a été demandé, on l'effectue en mémoire ici.
-        if (jsonSort.isSorted()) {
-            Comparator<RowEntityDto> finalComparator = buildJsonComparator(jsonSort);
-            if (finalComparator != null) {
-                dtos.sort(finalComparator);
-            }
+    private Page<RowEntityDto> searchSheet(Long sheetId, String keyword, Map<String, String> filters, Pageable pageable) {
+        // Feuille ingérée dans une table typée : lecture directe des colonnes, sans JSON
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetId);
+        if (typedTable.isPresent()) {
+            return typedRowQueries.search(typedTable.get(), keyword, filters, pageable);
         }
-        
-        // 4. On retourne la page avec les données triées.
-        return new PageImpl<>(dtos, pageable, page.getTotalElements());
-    }
-
-    /**
-     * Construit un comparateur composite pour trier une liste de RowEntityDto
-     * en fonction des ordres de tri spécifiés pour les champs JSON.
-     */
-    private Comparator<RowEntityDto> buildJsonComparator(Sort jsonSort) {
-        Comparator<RowEntityDto> finalComparator = null;
-
-        for (Sort.Order order : jsonSort) {
-            String jsonKey = order.getProperty().substring(5); // Enlève "data."
-
-            // CORRECTION 2 : On crée un comparateur qui gère explicitement les types mixtes (nombres et textes).
-            Comparator<RowEntityDto> currentComparator = (dto1, dto2) -> {
-                Object value1 = dto1.getData().get(jsonKey);
-                Object value2 = dto2.getData().get(jsonKey);
-
-                // Gestion des nuls
-                if (value1 == null && value2 == null) return 0;
-                if (value1 == null) return 1; // Les nuls sont placés à la fin
-                if (value2 == null) return -1;
-
-                // Tentative de comparaison numérique
-                try {
-                    Double num1 = Double.parseDouble(value1.toString().replace(',', '.'));
-                    Double num2 = Double.parseDouble(value2.toString().replace(',', '.'));
-                    return num1.compareTo(num2);
-                } catch (NumberFormatException e) {
-                    // Si ce ne sont pas des nombres, on compare comme des chaînes de caractères
-                    return value1.toString().compareTo(value2.toString());
-                }
-            };
-            
-            if (order.isDescending()) {
-                currentComparator = currentComparator.reversed();
-            }
-
-            if (finalComparator == null) {
-                finalComparator = currentComparator;
-            } else {
-                finalComparator = finalComparator.thenComparing(currentComparator);
-            }
+
+        // Sans mot-clé, filtre ni tri sur un champ JSON, la requête JPA suffit
+        if ((keyword == null || keyword.isBlank()) && filters.isEmpty() && !RowSearchQuery.hasJsonOrder(pageable.getSort())) {
+            return repository.searchBySheetIdAndKeyword(sheetId, null, pageable).map(this::mapToDto);
         }
-        return finalComparator;
+
+        // Recherche plein texte, filtres par colonne et tri sur des champs JSON ("data.clé") : exécutés par la base
+        SheetEntity sheet = sheetRepository.findById(sheetId)
+                .orElseThrow(() -> new EntityNotFoundException("Sheet not found with ID: " + sheetId));
+        return rowSearchQuery.searchSheet(sheet, keyword, filters, pageable).map(this::mapToDto);
     }
 
-    private RowEntityDto mapToDto(RowEntity entity) {
-        try {
-            RowEntityDto dto = new RowEntityDto();
-            dto.setId(entity.getId());
-            dto.setSheetIndex(entity.getSheet().getSheetIndex());
-            dto.setData(objectMapper.readValue(entity.getDataJson(), new TypeReference<Map<String, Object>>() {}));
-            return dto;
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("JSON deserialization error", e);
+    @Override
+    public RowCursorPage browseBySheetId(Long sheetId, String keyword, String cursor, int size, boolean descending) {
+        return observeSearch("browse", sheetId, () -> browseSheet(sheetId, keyword, cursor, size, descending));
+    }
+
+    private RowCursorPage browseSheet(Long sheetId, String keyword, String cursor, int size, boolean descending) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        String effectiveKeyword = keyword == null || keyword.isBlank() ? null : keyword;
+        Long lastId = cursor == null || cursor.isBlank() ? null : RowCursor.decode(cursor, sheetId, descending);
+
+        // Une ligne de plus que la page : sa présence indique qu'il existe une page suivante
+        List<RowEntityDto> dtos;
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetId);
+        if (typedTable.isPresent()) {
+            dtos = typedRowQueries.findPage(typedTable.get(), lastId, effectiveKeyword, descending, pageSize + 1);
+        } else {
+            Pageable limit = PageRequest.of(0, pageSize + 1);
+            List<RowEntity> rows = descending
+                    ? repository.findSheetRowsBefore(sheetId, lastId == null ? Long.MAX_VALUE : lastId, effectiveKeyword, limit)
+                    : repository.findSheetRowsAfter(sheetId, lastId == null ? 0L : lastId, effectiveKeyword, limit);
+            dtos = rows.stream().map(this::mapToDto).collect(Collectors.toList());
+        }
+
+        boolean hasNext = dtos.size() > pageSize;
+        if (hasNext) {
+            dtos = dtos.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? RowCursor.encode(sheetId, dtos.get(dtos.size() - 1).getId(), descending) : null;
+
+        Long approximateTotal = null;
+        if (lastId == null && effectiveKeyword == null) {
+            approximateTotal = sheetRepository.findById(sheetId).map(SheetEntity::getTotalRows).orElse(null);
         }
+        return new RowCursorPage(dtos, nextCursor, hasNext, approximateTotal);
     }
-    
-    // Le reste du fichier est inchangé
-    @Override
-    public RowEntityDto getById(Long id) {
-        RowEntity entity = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Entity not found with ID: " + id));
-        return mapToDto(entity);
+
+    private <T> T observeSearch(String operation, Long sheetId, Supplier<T> search) {
+        return observations.observe(observations.stage(PipelineObservations.SEARCH_QUERY)
+                        .lowCardinalityKeyValue("operation", operation)
+                        .highCardinalityKeyValue("sheet.id", String.valueOf(sheetId)),
+                null, search);
+    }
+
+    private RowEntityDto mapToDto(RowEntity entity) {
+        RowEntityDto dto = new RowEntityDto();
+        dto.setId(entity.getId());
+        dto.setSheetId(entity.getSheet().getId());
+        dto.setSheetIndex(entity.getSheet().getSheetIndex());
+        dto.setData(rowDecoder.decode(entity.getDataJson()));
+        return dto;
     }
     
+    // Les agrégats matérialisés sont mis à jour dans la même transaction que la ligne
     @Override
+    @Transactional
     public RowEntityDto create(Long sheetId, RowEntityDto dto) {
         SheetEntity sheetEntity = sheetRepository.findById(sheetId)
                 .orElseThrow(() -> new EntityNotFoundException("Sheet not found with ID: " + sheetId));
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetEntity);
+        if (typedTable.isPresent()) {
+            TypedSheetTable table = typedTable.get();
+            Long id = typedRowQueries.insertRow(table, dto.getData());
+            aggregateService.applyTypedRowChanges(table, List.of(id), 1);
+            RowEntityDto created = typedRowQueries.findRow(table, id)
+                    .orElseThrow(() -> new EntityNotFoundException("Entity not found with ID: " + id));
+            modificationHistoryService.saveTypedRowHistory(sheetId, id, "CREATE", null, toJson(created.getData()));
+            afterTypedRowChange(sheetId);
+            return created;
+        }
         try {
             String json = objectMapper.writeValueAsString(dto.getData());
             RowEntity entity = new RowEntity();
@@ -154,38 +177,142 @@ public class RowEntityServiceImpl implements RowEntityService {
             entity.setSheet(sheetEntity);
             RowEntity saved = repository.save(entity);
             modificationHistoryService.saveHistory(saved.getId(), "CREATE", null, json);
+            aggregateService.applyRowChange(sheetId, null, json);
+            sheetRepository.incrementDataVersion(sheetId);
+            graphResultCache.invalidateSheet(sheetId);
             return mapToDto(saved);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error during JSON serialization", e);
         }
     }
 
-    @Override
-    public RowEntityDto update(Long id, RowEntityDto dto) {
+    private RowEntityDto updateJsonRow(RowEntity entity, RowEntityDto dto) {
+        Long id = entity.getId();
         try {
-            RowEntity entity = repository.findById(id)
-                    .orElseThrow(() -> new EntityNotFoundException("Entity not found with ID: " + id));
             String oldJson = entity.getDataJson();
             String newJson = objectMapper.writeValueAsString(dto.getData());
             entity.setDataJson(newJson);
-            RowEntity updated = repository.save(entity);
+            // Écriture immédiate : la ligne est verrouillée avant la lecture des définitions d'agrégats
+            RowEntity updated = repository.saveAndFlush(entity);
             modificationHistoryService.saveHistory(id, "UPDATE", oldJson, newJson);
+            aggregateService.applyRowChange(entity.getSheet().getId(), oldJson, newJson);
+            sheetRepository.incrementDataVersion(entity.getSheet().getId());
+            graphResultCache.invalidateSheet(entity.getSheet().getId());
             return mapToDto(updated);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error during JSON serialization", e);
         }
     }
 
-    @Override
-    public void delete(Long id) {
-        RowEntity entity = repository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Entity not found with ID: " + id));
+    private void deleteJsonRow(RowEntity entity) {
+        Long id = entity.getId();
         modificationHistoryService.saveHistory(id, "DELETE", entity.getDataJson(), null);
         repository.deleteById(id);
+        repository.flush();
+        aggregateService.applyRowChange(entity.getSheet().getId(), entity.getDataJson(), null);
+        sheetRepository.incrementDataVersion(entity.getSheet().getId());
+        graphResultCache.invalidateSheet(entity.getSheet().getId());
     }
     
+    @Override
+    public RowEntityDto getInSheet(Long sheetId, Long id) {
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetId);
+        if (typedTable.isPresent()) {
+            return typedRowQueries.findRow(typedTable.get(), id)
+                    .orElseThrow(() -> new EntityNotFoundException("Entity not found with ID: " + id));
+        }
+        return mapToDto(requireJsonRowInSheet(sheetId, id));
+    }
+
+    @Override
+    @Transactional
+    public RowEntityDto updateInSheet(Long sheetId, Long id, RowEntityDto dto) {
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetId);
+        if (typedTable.isEmpty()) {
+            return updateJsonRow(requireJsonRowInSheet(sheetId, id), dto);
+        }
+        TypedSheetTable table = typedTable.get();
+        RowEntityDto old = lockTypedRow(table, id);
+        aggregateService.applyTypedRowChanges(table, List.of(id), -1);
+        typedRowQueries.updateRow(table, id, dto.getData());
+        aggregateService.applyTypedRowChanges(table, List.of(id), 1);
+        // Relue après l'écriture : l'historique garde les valeurs converties par la base
+        RowEntityDto updated = typedRowQueries.findRow(table, id)
+                .orElseThrow(() -> new EntityNotFoundException("Entity not found with ID: " + id));
+        modificationHistoryService.saveTypedRowHistory(sheetId, id, "UPDATE", toJson(old.getData()), toJson(updated.getData()));
+        afterTypedRowChange(sheetId);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public void deleteInSheet(Long sheetId, Long id) {
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetId);
+        if (typedTable.isEmpty()) {
+            deleteJsonRow(requireJsonRowInSheet(sheetId, id));
+            return;
+        }
+        TypedSheetTable table = typedTable.get();
+        RowEntityDto old = lockTypedRow(table, id);
+        aggregateService.applyTypedRowChanges(table, List.of(id), -1);
+        typedRowQueries.deleteRow(table, id);
+        modificationHistoryService.saveTypedRowHistory(sheetId, id, "DELETE", toJson(old.getData()), null);
+        afterTypedRowChange(sheetId);
+    }
+
+    @Override
+    @Transactional
+    public BulkRowResult applyBulk(Long sheetId, BulkRowRequest request) {
+        bulkRowMutations.validate(request);
+        SheetEntity sheetEntity = sheetRepository.findById(sheetId)
+                .orElseThrow(() -> new EntityNotFoundException("Sheet not found with ID: " + sheetId));
+        Optional<TypedSheetTable> typedTable = typedSheetTables.find(sheetEntity);
+        BulkRowResult result = typedTable.isPresent()
+                ? bulkRowMutations.applyToTypedRows(typedTable.get(), request)
+                : bulkRowMutations.applyToJsonRows(sheetId, request);
+        // Une seule nouvelle version de la feuille pour tout le lot
+        if (result.getCreated() + result.getUpdated() + result.getDeleted() > 0) {
+            sheetRepository.incrementDataVersion(sheetId);
+            graphResultCache.invalidateSheet(sheetId);
+        }
+        return result;
+    }
+
+    private RowEntity requireJsonRowInSheet(Long sheetId, Long id) {
+        RowEntity entity = repository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Entity not found with ID: " + id));
+        if (!entity.getSheet().getId().equals(sheetId)) {
+            throw new EntityNotFoundException("Entity not found with ID: " + id + " in sheet " + sheetId);
+        }
+        return entity;
+    }
+
+    // Ligne verrouillée jusqu'à la fin de la transaction : les agrégats et l'historique partent de ce contenu
+    private RowEntityDto lockTypedRow(TypedSheetTable table, Long id) {
+        RowEntityDto row = typedRowQueries.lockRows(table, List.of(id)).get(id);
+        if (row == null) {
+            throw new EntityNotFoundException("Entity not found with ID: " + id);
+        }
+        return row;
+    }
+
+    private void afterTypedRowChange(Long sheetId) {
+        sheetRepository.incrementDataVersion(sheetId);
+        graphResultCache.invalidateSheet(sheetId);
+    }
+
+    // Contenu d'une ligne typée au format de data_json, pour l'historique
+    private String toJson(Map<String, Object> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error during JSON serialization", e);
+        }
+    }
+
     @Override
     public Page<RowEntityDto> search(String fileName, String keyword, Pageable pageable) {
-        return repository.searchWithFileAndKeyword(fileName, keyword, pageable).map(this::mapToDto);
+        return observations.observe(observations.stage(PipelineObservations.SEARCH_QUERY).lowCardinalityKeyValue("operation", "global"),
+                null, () -> rowSearchQuery.searchAll(fileName, keyword, pageable).map(this::mapToDto));
     }
 }
\ No newline at end of file
@@ -3,29 +3,54 @@ package excel_upload_service.service.impl;
 import excel_upload_service.dto.python.ColumnSchema;
 import excel_upload_service.dto.python.SheetData;
 import excel_upload_service.service.SchemaManagerService;
+import excel_upload_service.service.observability.PipelineObservations;
+import excel_upload_service.service.storage.TypedSheetTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class SchemaManagerServiceImpl implements SchemaManagerService {
 
     private static final Logger logger = LoggerFactory.getLogger(SchemaManagerServiceImpl.class);
+    private static final Pattern DYNAMIC_TABLE_NAME = Pattern.compile("dynamic_table_f\\d+_[a-z0-9_]*");
+    // Index FULLTEXT des colonnes texte (recherche par mot-clé, voir TypedRowQueries)
+    private static final String FULLTEXT_INDEX = "ft_keyword";
+    // Nombre maximal de colonnes d'un index InnoDB
+    private static final int MAX_INDEX_COLUMNS = 16;
+    // Longueur maximale d'un nom de table MySQL
+    private static final int MAX_TABLE_NAME_LENGTH = 64;
     private final JdbcTemplate jdbcTemplate;
+    private final PipelineObservations observations;
 
-    public SchemaManagerServiceImpl(JdbcTemplate jdbcTemplate) {
+    @Value("${search.fulltext.enabled:true}")
+    private boolean fullTextEnabled;
+
+    public SchemaManagerServiceImpl(JdbcTemplate jdbcTemplate, PipelineObservations observations) {
         this.jdbcTemplate = jdbcTemplate;
+        this.observations = observations;
     }
 
     @Override
     public String createTableFromSchema(Long fileId, SheetData sheetData) {
+        return observations.observe(PipelineObservations.SCHEMA_CREATE, fileId, () -> createTable(fileId, sheetData));
+    }
+
+    private String createTable(Long fileId, SheetData sheetData) {
         // 1. Générer un nom de table sécurisé et unique
-        String tableName = generateTableName(fileId, sheetData.getSheetName());
+        if (sheetData.getSheetIndex() == null) {
+            throw new IllegalArgumentException("Index de feuille requis pour créer sa table : " + sheetData.getSheetName());
+        }
+        String tableName = generateTableName(fileId, sheetData.getSheetIndex(), sheetData.getSheetName());
 
         // 2. Construire la requête CREATE TABLE
         // On commence par la définition d'une clé primaire
@@ -36,6 +61,18 @@ public class SchemaManagerServiceImpl implements SchemaManagerService {
                 .map(this::convertColumnSchemaToSql)
                 .collect(Collectors.joining(", "));
 
+        // Index FULLTEXT sur les colonnes texte, construit au fil des insertions : au-delà de 16 colonnes
+        // (limite InnoDB), pas d'index et la recherche par mot-clé reste en LIKE
+        List<String> textColumns = new ArrayList<>();
+        for (ColumnSchema column : sheetData.getSchema()) {
+            if (isText(column)) {
+                textColumns.add("`" + cleanColumnName(column) + "`");
+            }
+        }
+        if (fullTextEnabled && !textColumns.isEmpty() && textColumns.size() <= MAX_INDEX_COLUMNS) {
+            columnsSql += ", FULLTEXT INDEX " + FULLTEXT_INDEX + " (" + String.join(", ", textColumns) + ")";
+        }
+
         createTableSql += columnsSql + ");";
 
         logger.info("Exécution de la requête DDL : {}", createTableSql);
@@ -46,12 +83,76 @@ public class SchemaManagerServiceImpl implements SchemaManagerService {
         return tableName;
     }
 
+    @Override
+    public Map<String, String> getColumnTypes(Long fileId, String sheetName) {
+        return getColumnTypes(legacyTableName(fileId, sheetName));
+    }
+
+    @Override
+    public Map<String, String> getColumnTypes(String tableName) {
+        Map<String, String> types = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT COLUMN_NAME, DATA_TYPE FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION",
+                rs -> {
+                    types.put(rs.getString("COLUMN_NAME").toLowerCase(), rs.getString("DATA_TYPE").toLowerCase());
+                },
+                tableName);
+        return types;
+    }
+
+    @Override
+    public List<String> getFullTextColumns(String tableName) {
+        if (!fullTextEnabled) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT COLUMN_NAME FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ? ORDER BY SEQ_IN_INDEX",
+                String.class, tableName, FULLTEXT_INDEX);
+    }
+
+    @Override
+    public List<String> findTablesForFile(Long fileId) {
+        // "_" est un joker de LIKE : échappé pour que le fichier 1 ne corresponde pas aux fichiers 10, 11...
+        return jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME LIKE ?",
+                String.class,
+                "dynamic\\_table\\_f" + fileId + "\\_%");
+    }
+
+    @Override
+    public List<String> findAllDynamicTables() {
+        return jdbcTemplate.queryForList(
+                "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME LIKE ?",
+                String.class,
+                "dynamic\\_table\\_%");
+    }
+
+    @Override
+    public void dropTable(String tableName) {
+        // Nom interpolé dans le DDL : seules les tables dynamiques générées ici sont acceptées
+        if (!DYNAMIC_TABLE_NAME.matcher(tableName).matches()) {
+            throw new IllegalArgumentException("Nom de table dynamique invalide : " + tableName);
+        }
+        logger.info("Suppression de la table {}.", tableName);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + tableName);
+    }
+
     /**
-     * Génère un nom de table sûr en nettoyant les entrées.
+     * Génère un nom de table sûr en nettoyant les entrées. L'index de la feuille rend le nom unique dans le
+     * fichier, même quand deux noms de feuille se réduisent au même nom nettoyé ("2024" et "2024!", "Année" et
+     * "Anne", noms sans caractère ASCII) ; le nom nettoyé, tronqué à la longueur maximale, reste indicatif.
      */
-    private String generateTableName(Long fileId, String sheetName) {
+    private String generateTableName(Long fileId, int sheetIndex, String sheetName) {
+        String tableName = "dynamic_table_f" + fileId + "_s" + sheetIndex + "_" + TypedSheetTable.columnName(sheetName).toLowerCase();
+        return tableName.length() > MAX_TABLE_NAME_LENGTH ? tableName.substring(0, MAX_TABLE_NAME_LENGTH) : tableName;
+    }
+
+    // Nom des tables créées avant l'index de feuille (feuilles lues depuis row_entities)
+    private String legacyTableName(Long fileId, String sheetName) {
         // Nettoie le nom de la feuille pour le rendre compatible avec SQL
-        String cleanSheetName = sheetName.replaceAll("[^a-zA-Z0-9_]", "").toLowerCase();
+        String cleanSheetName = TypedSheetTable.columnName(sheetName).toLowerCase();
         return "dynamic_table_f" + fileId + "_" + cleanSheetName;
     }
 
@@ -60,7 +161,7 @@ public class SchemaManagerServiceImpl implements SchemaManagerService {
      * C'est une étape de sécurité cruciale pour éviter l'injection SQL.
      */
     private String convertColumnSchemaToSql(ColumnSchema column) {
-        String columnName = "`" + column.getName().replaceAll("[^a-zA-Z0-9_]", "") + "`"; // Nettoyage et échappement du nom
+        String columnName = "`" + cleanColumnName(column) + "`"; // Nettoyage et échappement du nom
         String columnType = switch (column.getType().toUpperCase()) {
             case "INTEGER" -> "BIGINT";
             case "DECIMAL(18, 4)" -> "DECIMAL(18, 4)";
@@ -70,5 +171,17 @@ public class SchemaManagerServiceImpl implements SchemaManagerService {
         return columnName + " " + columnType;
     }
 
+    private static String cleanColumnName(ColumnSchema column) {
+        return TypedSheetTable.columnName(column.getName());
+    }
+
+    // Colonnes créées en VARCHAR(255) par convertColumnSchemaToSql
+    private static boolean isText(ColumnSchema column) {
+        return switch (column.getType().toUpperCase()) {
+            case "INTEGER", "DECIMAL(18, 4)", "DATETIME" -> false;
+            default -> true;
+        };
+    }
+
     
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/indexing/JsonKeyPaths.java
+package excel_upload_service.service.indexing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Construction des expressions SQL d'accès à une clé de row_entities.data_json.
+ *
+ * Les clés viennent des en-têtes Excel (espaces, accents, guillemets...) : elles sont toujours
+ * écrites entre guillemets dans le chemin JSON ($."clé") puis échappées en littéral SQL,
+ * car les DDL de colonnes générées n'acceptent pas de paramètres liés.
+ */
+public final class JsonKeyPaths {
+
+    private static final int MAX_IDENTIFIER_LENGTH = 64;
+
+    /**
+     * Longueur des catégories de graphique : celle des colonnes générées indexées (VARCHAR(255)).
+     * Tous les chemins (colonne indexée, agrégats, data_json) tronquent à cette longueur,
+     * une même clé donne donc les mêmes catégories quel que soit le chemin emprunté.
+     */
+    public static final int CATEGORY_LENGTH = 255;
+
+    private JsonKeyPaths() {
+    }
+
+    /**
+     * Chemin JSON de la clé : $."clé", à passer en paramètre lié quand c'est possible.
+     */
+    public static String jsonPath(String jsonKey) {
+        return "$.\"" + jsonKey.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Littéral SQL du chemin JSON : '$."clé"'
+     */
+    public static String jsonPathLiteral(String jsonKey) {
+        return "'" + jsonPath(jsonKey).replace("\\", "\\\\").replace("'", "''") + "'";
+    }
+
+    /**
+     * Expression d'extraction texte, identique à celle des requêtes natives du dépôt.
+     */
+    public static String extractExpression(String tableAlias, String jsonKey) {
+        return "JSON_UNQUOTE(JSON_EXTRACT(" + tableAlias + ".data_json, " + jsonPathLiteral(jsonKey) + "))";
+    }
+
+    /**
+     * Expression de catégorie : extraction texte tronquée à CATEGORY_LENGTH.
+     */
+    public static String categoryExpression(String tableAlias, String jsonKey) {
+        return truncateCategory(extractExpression(tableAlias, jsonKey));
+    }
+
+    /**
+     * Tronque une expression texte quelconque (paramètre lié compris) à CATEGORY_LENGTH.
+     */
+    public static String truncateCategory(String textExpression) {
+        return "LEFT(" + textExpression + ", " + CATEGORY_LENGTH + ")";
+    }
+
+    /**
+     * Nom de colonne générée : jk_ + clé assainie + empreinte CRC32 (deux clés proches
+     * une fois assainies restent distinctes).
+     */
+    public static String columnName(String jsonKey) {
+        return "jk_" + sanitize(jsonKey, MAX_IDENTIFIER_LENGTH - 3 - 9 - 4) + "_" + checksum(jsonKey);
+    }
+
+    public static String indexName(String columnName) {
+        return "idx_" + columnName;
+    }
+
+    private static String sanitize(String jsonKey, int maxLength) {
+        String sanitized = jsonKey.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+        return sanitized.length() > maxLength ? sanitized.substring(0, maxLength) : sanitized;
+    }
+
+    private static String checksum(String jsonKey) {
+        CRC32 crc = new CRC32();
+        crc.update(jsonKey.getBytes(StandardCharsets.UTF_8));
+        return String.format("%08x", crc.getValue());
+    }
+}
@@ -0,0 +1,72 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/BatchWriterMetrics.java
+package excel_upload_service.service.ingestion;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs cumulés de tous les {@link JdbcBatchWriter} : lignes écrites, lots exécutés
+ * et temps passé dans executeBatch. Le débit est calculé sur le temps d'exécution des lots.
+ * Également publiés dans Micrometer (excel.ingestion.rows, excel.ingestion.batches).
+ */
+@Component
+public class BatchWriterMetrics implements MeterBinder {
+
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong totalBatchNanos = new AtomicLong();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+
+    public void recordBatch(int batchRows, long elapsedNanos) {
+        rows.addAndGet(batchRows);
+        batches.incrementAndGet();
+        totalBatchNanos.addAndGet(elapsedNanos);
+        maxBatchNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("excel.ingestion.rows", rows, AtomicLong::get)
+                .description("Lignes écrites dans les tables des feuilles")
+                .baseUnit("rows")
+                .register(registry);
+        FunctionTimer.builder("excel.ingestion.batches", this,
+                        metrics -> metrics.batches.get(), metrics -> metrics.totalBatchNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Lots d'insertion exécutés (INSERT par lots ou LOAD DATA)")
+                .register(registry);
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getTotalBatchNanos() {
+        return totalBatchNanos.get();
+    }
+
+    public Map<String, Object> snapshot() {
+        long rowCount = rows.get();
+        long batchCount = batches.get();
+        long nanos = totalBatchNanos.get();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("rows", rowCount);
+        snapshot.put("batches", batchCount);
+        snapshot.put("rowsPerSecond", nanos == 0 ? 0 : Math.round(rowCount * 1_000_000_000d / nanos));
+        snapshot.put("avgBatchLatencyMs", batchCount == 0 ? 0 : nanos / batchCount / 1_000_000d);
+        snapshot.put("maxBatchLatencyMs", maxBatchNanos.get() / 1_000_000d);
+        return snapshot;
+    }
+}
@@ -0,0 +1,101 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/CellValueParser.java
+package excel_upload_service.service.ingestion;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Conversion des valeurs textuelles lues par EasyExcel vers les types SQL
+ * utilisés par les tables dynamiques (INTEGER, DECIMAL(18, 4), DATETIME, VARCHAR(255)).
+ */
+public final class CellValueParser {
+
+    public static final String TYPE_INTEGER = "INTEGER";
+    public static final String TYPE_DECIMAL = "DECIMAL(18, 4)";
+    public static final String TYPE_DATETIME = "DATETIME";
+    public static final String TYPE_VARCHAR = "VARCHAR(255)";
+
+    // Formats de date rencontrés dans les cellules formatées par EasyExcel
+    private static final List<DateTimeFormatter> DATE_TIME_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy/M/d H:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy/M/d H:mm")
+    );
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+            DateTimeFormatter.ofPattern("yyyy/M/d"),
+            DateTimeFormatter.ofPattern("d/M/yyyy")
+    );
+
+    private CellValueParser() {}
+
+    public static BigDecimal parseNumber(String value) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static boolean isInteger(BigDecimal number) {
+        return number.signum() == 0 || number.stripTrailingZeros().scale() <= 0;
+    }
+
+    public static LocalDateTime parseDateTime(String value) {
+        String trimmed = value.trim();
+        for (DateTimeFormatter format : DATE_TIME_FORMATS) {
+            try {
+                return LocalDateTime.parse(trimmed, format);
+            } catch (DateTimeParseException ignored) {
+                // on essaie le format suivant
+            }
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(trimmed, format).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                // on essaie le format suivant
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Convertit une valeur textuelle dans le type SQL de sa colonne.
+     * Une valeur qui ne respecte pas le type est conservée telle quelle (texte).
+     */
+    public static Object convert(String value, String sqlType) {
+        if (value == null) {
+            return null;
+        }
+        switch (sqlType) {
+            case TYPE_INTEGER -> {
+                BigDecimal number = parseNumber(value);
+                if (number != null && isInteger(number)) {
+                    return number.longValue();
+                }
+            }
+            case TYPE_DECIMAL -> {
+                BigDecimal number = parseNumber(value);
+                if (number != null) {
+                    return number;
+                }
+            }
+            case TYPE_DATETIME -> {
+                LocalDateTime dateTime = parseDateTime(value);
+                if (dateTime != null) {
+                    return dateTime;
+                }
+            }
+            default -> {
+                return value;
+            }
+        }
+        return value;
+    }
+}
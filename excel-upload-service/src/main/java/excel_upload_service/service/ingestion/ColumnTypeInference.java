@@ -0,0 +1,53 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/ColumnTypeInference.java
+package excel_upload_service.service.ingestion;
+
+import java.math.BigDecimal;
+
+/**
+ * Équivalent incrémental de infer_data_type (worker.py) : au lieu d'analyser une colonne
+ * pandas complète, on observe les valeurs une à une et on ne garde que quelques indicateurs.
+ * Les valeurs nulles sont ignorées, comme avec series.dropna().
+ */
+public class ColumnTypeInference {
+
+    private long nonNullValues = 0;
+    private boolean allIntegers = true;
+    private boolean allNumbers = true;
+    private boolean allDates = true;
+
+    public void accept(String value) {
+        if (value == null) {
+            return;
+        }
+        nonNullValues++;
+
+        if (allNumbers) {
+            BigDecimal number = CellValueParser.parseNumber(value);
+            if (number == null) {
+                allNumbers = false;
+                allIntegers = false;
+            } else if (allIntegers && !CellValueParser.isInteger(number)) {
+                allIntegers = false;
+            }
+        }
+        if (allDates && CellValueParser.parseDateTime(value) == null) {
+            allDates = false;
+        }
+    }
+
+    public String resolveType() {
+        if (nonNullValues == 0) {
+            return CellValueParser.TYPE_VARCHAR; // Par défaut, si la colonne est vide
+        }
+        if (allIntegers) {
+            return CellValueParser.TYPE_INTEGER;
+        }
+        if (allNumbers) {
+            return CellValueParser.TYPE_DECIMAL;
+        }
+        if (allDates) {
+            return CellValueParser.TYPE_DATETIME;
+        }
+        return CellValueParser.TYPE_VARCHAR;
+    }
+}
@@ -0,0 +1,53 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/ForwardFillReadListener.java
+package excel_upload_service.service.ingestion;
+
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.read.listener.ReadListener;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Base des listeners EasyExcel de l'ingestion Java.
+ * Reproduit df.ffill() ligne par ligne : une cellule vide reprend la dernière valeur non vide
+ * de sa colonne, ce qui "remplit" les cellules fusionnées. Seule la ligne précédente est gardée en mémoire.
+ * Les lignes entièrement vides sont ignorées par EasyExcel (pandas les recopierait à l'identique).
+ */
+public abstract class ForwardFillReadListener implements ReadListener<Map<Integer, String>> {
+
+    private String[] lastValues = new String[0];
+
+    @Override
+    public void invoke(Map<Integer, String> data, AnalysisContext context) {
+        int width = lastValues.length;
+        for (Integer columnIndex : data.keySet()) {
+            width = Math.max(width, columnIndex + 1);
+        }
+        if (width > lastValues.length) {
+            lastValues = Arrays.copyOf(lastValues, width);
+        }
+
+        int nonNullCount = 0;
+        for (int i = 0; i < width; i++) {
+            String value = data.get(i);
+            if (value != null) {
+                lastValues[i] = value;
+            }
+            if (lastValues[i] != null) {
+                nonNullCount++;
+            }
+        }
+
+        onFilledRow(context.readRowHolder().getRowIndex(), lastValues, nonNullCount);
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {}
+
+    /**
+     * @param rowIndex L'index de la ligne dans la feuille (0 = première ligne).
+     * @param filledValues Les valeurs de la ligne après propagation ; le tableau est réutilisé, il ne doit pas être conservé.
+     * @param nonNullCount Le nombre de cellules non vides après propagation.
+     */
+    protected abstract void onFilledRow(int rowIndex, String[] filledValues, int nonNullCount);
+}
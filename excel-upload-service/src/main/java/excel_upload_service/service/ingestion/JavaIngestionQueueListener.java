@@ -0,0 +1,66 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/JavaIngestionQueueListener.java
+package excel_upload_service.service.ingestion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.config.rabbitmq.RabbitMQConfig;
+import excel_upload_service.service.FileStorageService;
+import excel_upload_service.service.JavaExcelProcessorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Consommateur Java de la file de traitement, actif uniquement avec ingestion.engine=java.
+ * Il remplace le worker Python (qui ne doit alors pas être déployé) : le fichier est lu
+ * par EasyExcel et les lignes sont écrites en base sans aller-retour JSON par HTTP.
+ */
+@Component
+@ConditionalOnProperty(name = "ingestion.engine", havingValue = "java")
+public class JavaIngestionQueueListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(JavaIngestionQueueListener.class);
+
+    private final JavaExcelProcessorService javaExcelProcessorService;
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper objectMapper;
+
+    public JavaIngestionQueueListener(JavaExcelProcessorService javaExcelProcessorService,
+                                      FileStorageService fileStorageService,
+                                      ObjectMapper objectMapper) {
+        this.javaExcelProcessorService = javaExcelProcessorService;
+        this.fileStorageService = fileStorageService;
+        this.objectMapper = objectMapper;
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.QUEUE_NAME)
+    public void onProcessingRequest(String message) {
+        Long fileId = null;
+        try {
+            JsonNode task = objectMapper.readTree(message);
+            fileId = task.get("fileId").asLong();
+            Path file = fileStorageService.load(task.get("storedFilename").asText());
+            logger.info("Traitement Java du fichier ID: {}, Nom: {}", fileId, file.getFileName());
+
+            javaExcelProcessorService.processStoredFile(fileId, file);
+
+            // Comme le worker Python, on supprime le fichier temporaire après succès
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Erreur lors de la suppression du fichier temporaire {}.", file, e);
+            }
+        } catch (Exception e) {
+            // Erreur critique : le message n'est pas remis dans la file (équivalent de basic_nack requeue=False)
+            logger.error("Erreur critique lors du traitement Java du fichier {}.", fileId, e);
+            throw new AmqpRejectAndDontRequeueException("Échec du traitement du fichier " + fileId, e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/JdbcBatchWriter.java
+package excel_upload_service.service.ingestion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Écrivain JDBC par lots, en pipeline : pendant qu'un lot s'exécute sur le pool d'écriture,
+ * le thread appelant prépare le suivant. Au plus un lot est en vol, la mémoire reste donc
+ * bornée à deux lots.
+ *
+ * La connexion est obtenue dans le thread appelant via {@link DataSourceUtils} : si une transaction
+ * Spring y est active, les lots y participent. Le thread d'écriture n'utilise la connexion
+ * que lorsque l'appelant n'y touche pas (l'appelant ne fait que convertir des lignes).
+ * Avec rewriteBatchedStatements=true, le pilote MySQL regroupe chaque lot en INSERT multi-lignes.
+ *
+ * Instances obtenues via {@link JdbcBatchWriterFactory} ; non thread-safe côté appelant.
+ */
+public class JdbcBatchWriter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+    private final DataSource dataSource;
+    private final Executor executor;
+    private final BatchWriterMetrics metrics;
+    private final String sql;
+    private final int chunkSize;
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final long startNanos = System.nanoTime();
+
+    private List<Object[]> currentChunk;
+    private CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+    private long writtenRows = 0;
+    private boolean closed = false;
+
+    JdbcBatchWriter(DataSource dataSource, Executor executor, BatchWriterMetrics metrics, String sql, int chunkSize) {
+        this.dataSource = dataSource;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.sql = sql;
+        this.chunkSize = chunkSize;
+        this.currentChunk = new ArrayList<>(chunkSize);
+        this.connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            this.statement = connection.prepareStatement(sql);
+        } catch (SQLException e) {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw new RuntimeException("Impossible de préparer la requête d'insertion : " + sql, e);
+        }
+    }
+
+    public void add(Object[] row) {
+        currentChunk.add(row);
+        if (currentChunk.size() >= chunkSize) {
+            submitCurrentChunk();
+        }
+    }
+
+    public long getWrittenRows() {
+        return writtenRows;
+    }
+
+    /**
+     * Envoie le dernier lot, attend la fin de l'exécution et libère la connexion.
+     * Propage la première erreur d'exécution rencontrée.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitCurrentChunk();
+            awaitInFlight();
+            double seconds = (System.nanoTime() - startNanos) / 1_000_000_000d;
+            logger.info("{} lignes écrites en {} s ({} lignes/s).", writtenRows, String.format("%.2f", seconds),
+                    seconds == 0 ? writtenRows : Math.round(writtenRows / seconds));
+        } finally {
+            // Le dernier lot éventuellement en erreur est terminé : la connexion est libre
+            inFlight.handle((ignored, error) -> null).join();
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.warn("Erreur lors de la fermeture de la requête d'insertion.", e);
+            }
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void submitCurrentChunk() {
+        if (currentChunk.isEmpty()) {
+            return;
+        }
+        // Un seul lot en vol : on attend le précédent avant d'envoyer celui-ci
+        awaitInFlight();
+        List<Object[]> chunk = currentChunk;
+        currentChunk = new ArrayList<>(chunkSize);
+        inFlight = CompletableFuture.runAsync(() -> executeChunk(chunk), executor);
+        writtenRows += chunk.size();
+    }
+
+    private void awaitInFlight() {
+        try {
+            inFlight.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    private void executeChunk(List<Object[]> chunk) {
+        long start = System.nanoTime();
+        try {
+            for (Object[] row : chunk) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (SQLException e) {
+            throw new RuntimeException("Erreur lors de l'insertion par lots : " + sql, e);
+        } finally {
+            try {
+                statement.clearBatch();
+            } catch (SQLException ignored) {
+                // la requête est de toute façon inutilisable après une erreur
+            }
+        }
+        metrics.recordBatch(chunk.size(), System.nanoTime() - start);
+    }
+}
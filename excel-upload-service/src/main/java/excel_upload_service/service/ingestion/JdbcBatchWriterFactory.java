@@ -0,0 +1,36 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/JdbcBatchWriterFactory.java
+package excel_upload_service.service.ingestion;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Fabrique des {@link JdbcBatchWriter} : partage la source de données, le pool d'exécution des lots
+ * et les métriques, et applique la taille de lot configurée (ingestion.batch-size).
+ */
+@Component
+public class JdbcBatchWriterFactory {
+
+    private final DataSource dataSource;
+    private final ThreadPoolTaskExecutor executor;
+    private final BatchWriterMetrics metrics;
+
+    @Value("${ingestion.batch-size:1000}")
+    private int batchSize;
+
+    public JdbcBatchWriterFactory(DataSource dataSource,
+                                  @Qualifier("batchWriterExecutor") ThreadPoolTaskExecutor executor,
+                                  BatchWriterMetrics metrics) {
+        this.dataSource = dataSource;
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    public JdbcBatchWriter open(String sql) {
+        return new JdbcBatchWriter(dataSource, executor, metrics, sql, batchSize);
+    }
+}
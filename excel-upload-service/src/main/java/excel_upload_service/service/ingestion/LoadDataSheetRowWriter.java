@@ -0,0 +1,229 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/LoadDataSheetRowWriter.java
+package excel_upload_service.service.ingestion;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.RuntimeProperty;
+import com.mysql.cj.exceptions.MysqlErrorNumbers;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcStatement;
+import excel_upload_service.dto.python.ColumnSchema;
+import excel_upload_service.service.SheetRowWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Chargement en masse d'une feuille via LOAD DATA LOCAL INFILE.
+ *
+ * Les lignes sont sérialisées en TSV dans un tampon mémoire borné (ingestion.bulk-load.chunk-rows lignes),
+ * transmis au pilote MySQL comme flux d'entrée : aucun fichier temporaire n'est créé.
+ * Si le serveur ou le client refuse LOCAL INFILE lors du premier envoi, les lignes en attente sont
+ * rejouées dans l'écrivain de repli (INSERT par lots) qui prend la suite pour le reste de la feuille.
+ * Ce premier envoi est limité à PROBE_ROWS lignes : seules celles-ci sont gardées pour le repli.
+ *
+ * LOAD DATA LOCAL agit comme avec IGNORE : une valeur invalide est convertie ou tronquée avec un simple
+ * avertissement, là où l'INSERT en mode strict échoue. Les avertissements sont donc lus après chaque envoi
+ * (SHOW WARNINGS) et font échouer la feuille comme le ferait l'INSERT : un même fichier donne les mêmes
+ * données quel que soit le chemin d'écriture.
+ *
+ * LOCAL INFILE laisse le serveur demander un fichier au client. Le pool n'active donc pas allowLoadLocalInfile :
+ * l'URL ne fixe qu'allowLoadLocalInfileInPath sur un répertoire vide, et allowLoadLocalInfile n'est activé que
+ * le temps de chaque envoi, sur sa connexion, où le pilote lit le flux fourni et jamais un fichier.
+ */
+public class LoadDataSheetRowWriter implements SheetRowWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDataSheetRowWriter.class);
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Taille du premier envoi, qui vérifie que LOCAL INFILE est accepté
+    private static final int PROBE_ROWS = 1000;
+    private static final int REPORTED_WARNINGS = 5;
+
+    private final DataSource dataSource;
+    private final BatchWriterMetrics metrics;
+    private final List<ColumnSchema> schema;
+    private final String loadSql;
+    private final int chunkRows;
+    private final Supplier<SheetRowWriter> fallbackWriterSupplier;
+    private final Runnable onBulkLoadUnavailable;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+    // Lignes du premier lot, conservées tant que LOCAL INFILE n'a pas été validé, pour un éventuel repli
+    private List<Map<String, Object>> pendingRows = new ArrayList<>();
+    private int bufferedRows = 0;
+    private long writtenRows = 0;
+    private boolean bulkLoadVerified = false;
+    private SheetRowWriter fallbackWriter;
+
+    public LoadDataSheetRowWriter(DataSource dataSource,
+                                  BatchWriterMetrics metrics,
+                                  String tableName,
+                                  String columnList,
+                                  List<ColumnSchema> schema,
+                                  int chunkRows,
+                                  Supplier<SheetRowWriter> fallbackWriterSupplier,
+                                  Runnable onBulkLoadUnavailable) {
+        this.dataSource = dataSource;
+        this.metrics = metrics;
+        this.schema = schema;
+        this.chunkRows = chunkRows;
+        this.fallbackWriterSupplier = fallbackWriterSupplier;
+        this.onBulkLoadUnavailable = onBulkLoadUnavailable;
+        // Le nom de fichier est ignoré : le pilote lit le flux fourni par setLocalInfileInputStream
+        this.loadSql = "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + tableName
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+                + " (" + columnList + ")";
+    }
+
+    @Override
+    public void write(Map<String, Object> row) {
+        if (fallbackWriter != null) {
+            fallbackWriter.write(row);
+            return;
+        }
+        if (!bulkLoadVerified) {
+            pendingRows.add(row);
+        }
+        appendTsvLine(row);
+        bufferedRows++;
+        if (bufferedRows >= (bulkLoadVerified ? chunkRows : Math.min(chunkRows, PROBE_ROWS))) {
+            flush();
+        }
+    }
+
+    @Override
+    public long getWrittenRows() {
+        return fallbackWriter != null ? writtenRows + fallbackWriter.getWrittenRows() : writtenRows;
+    }
+
+    @Override
+    public void close() {
+        if (fallbackWriter == null) {
+            flush();
+        }
+        if (fallbackWriter != null) {
+            fallbackWriter.close();
+        }
+    }
+
+    private void flush() {
+        if (bufferedRows == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        RuntimeProperty<Boolean> allowLocalInfile = null;
+        Boolean previousAllowLocalInfile = null;
+        try (Statement statement = connection.createStatement()) {
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+            allowLocalInfile = connection.unwrap(JdbcConnection.class).getPropertySet()
+                    .getBooleanProperty(PropertyKey.allowLoadLocalInfile);
+            previousAllowLocalInfile = allowLocalInfile.getValue();
+            allowLocalInfile.setValue(true);
+            statement.execute(loadSql);
+            failOnWarnings(statement);
+        } catch (SQLException e) {
+            if (!bulkLoadVerified && isLocalInfileRefused(e)) {
+                switchToFallback(e);
+                return;
+            }
+            throw new RuntimeException("Erreur lors du chargement en masse : " + loadSql, e);
+        } finally {
+            if (allowLocalInfile != null) {
+                allowLocalInfile.setValue(previousAllowLocalInfile);
+            }
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        metrics.recordBatch(bufferedRows, System.nanoTime() - start);
+        writtenRows += bufferedRows;
+        bufferedRows = 0;
+        buffer.reset();
+        bulkLoadVerified = true;
+        pendingRows = null;
+    }
+
+    private void failOnWarnings(Statement statement) throws SQLException {
+        List<String> warnings = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery("SHOW WARNINGS LIMIT " + REPORTED_WARNINGS)) {
+            while (rs.next()) {
+                warnings.add(rs.getString("Level") + " " + rs.getInt("Code") + " : " + rs.getString("Message"));
+            }
+        }
+        if (!warnings.isEmpty()) {
+            throw new IllegalStateException("Valeurs rejetées lors du chargement en masse (" + loadSql + ") : "
+                    + String.join(" ; ", warnings));
+        }
+    }
+
+    private void switchToFallback(SQLException cause) {
+        logger.warn("LOAD DATA LOCAL INFILE refusé ({}), repli sur les INSERT par lots.", cause.getMessage());
+        onBulkLoadUnavailable.run();
+        fallbackWriter = fallbackWriterSupplier.get();
+        pendingRows.forEach(fallbackWriter::write);
+        pendingRows = null;
+        buffer.reset();
+        bufferedRows = 0;
+    }
+
+    private static boolean isLocalInfileRefused(SQLException e) {
+        int code = e.getErrorCode();
+        return code == MysqlErrorNumbers.ER_CLIENT_LOCAL_FILES_DISABLED
+                || code == MysqlErrorNumbers.ER_NOT_ALLOWED_COMMAND
+                || (e.getMessage() != null && e.getMessage().contains("Loading local data is disabled"));
+    }
+
+    private void appendTsvLine(Map<String, Object> row) {
+        StringBuilder line = new StringBuilder(schema.size() * 16);
+        for (int i = 0; i < schema.size(); i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            appendTsvValue(line, row.get(schema.get(i).getName()));
+        }
+        line.append('\n');
+        buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendTsvValue(StringBuilder line, Object value) {
+        if (value == null) {
+            line.append("\\N");
+            return;
+        }
+        String text;
+        if (value instanceof BigDecimal decimal) {
+            text = decimal.toPlainString();
+        } else if (value instanceof LocalDateTime dateTime) {
+            text = dateTime.format(DATE_TIME_FORMAT);
+        } else if (value instanceof Boolean bool) {
+            text = bool ? "1" : "0";
+        } else {
+            text = value.toString();
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> line.append("\\\\");
+                case '\t' -> line.append("\\t");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\0' -> line.append("\\0");
+                default -> line.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/SheetAnalysisListener.java
+package excel_upload_service.service.ingestion;
+
+import excel_upload_service.dto.python.ColumnSchema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Première passe sur une feuille : détection de l'en-tête et inférence des types en une seule lecture.
+ *
+ * Reproduit find_header_and_data : l'en-tête est la première ligne ayant le plus de cellules
+ * non vides (au moins deux) après propagation. Comme la propagation rend ce nombre croissant,
+ * chaque nouveau maximum devient l'en-tête courant et les statistiques de type repartent de zéro :
+ * elles ne portent donc que sur les lignes situées après l'en-tête retenu.
+ */
+public class SheetAnalysisListener extends ForwardFillReadListener {
+
+    private int headerRowIndex = -1;
+    private int maxNonNullCount = 1;
+    private String[] headerValues;
+    private ColumnTypeInference[] inferences;
+    private long dataRows = 0;
+
+    @Override
+    protected void onFilledRow(int rowIndex, String[] filledValues, int nonNullCount) {
+        if (nonNullCount > maxNonNullCount) {
+            maxNonNullCount = nonNullCount;
+            headerRowIndex = rowIndex;
+            headerValues = Arrays.copyOf(filledValues, filledValues.length);
+            inferences = new ColumnTypeInference[filledValues.length];
+            for (int i = 0; i < inferences.length; i++) {
+                inferences[i] = new ColumnTypeInference();
+            }
+            dataRows = 0;
+            return;
+        }
+        if (headerRowIndex < 0) {
+            return;
+        }
+        for (int i = 0; i < inferences.length; i++) {
+            inferences[i].accept(i < filledValues.length ? filledValues[i] : null);
+        }
+        dataRows++;
+    }
+
+    public boolean hasData() {
+        return headerRowIndex >= 0 && dataRows > 0;
+    }
+
+    public int getHeaderRowIndex() {
+        return headerRowIndex;
+    }
+
+    public long getDataRows() {
+        return dataRows;
+    }
+
+    /**
+     * Noms des colonnes tels que pandas les produirait (astype(str) : une cellule vide devient "nan").
+     */
+    public List<String> getHeaders() {
+        List<String> headers = new ArrayList<>(headerValues.length);
+        for (String value : headerValues) {
+            headers.add(value == null ? "nan" : value);
+        }
+        return headers;
+    }
+
+    public List<ColumnSchema> getSchema() {
+        List<String> headers = getHeaders();
+        List<ColumnSchema> schema = new ArrayList<>(headers.size());
+        for (int i = 0; i < headers.size(); i++) {
+            ColumnSchema column = new ColumnSchema();
+            column.setName(headers.get(i));
+            column.setType(inferences[i].resolveType());
+            schema.add(column);
+        }
+        return schema;
+    }
+}
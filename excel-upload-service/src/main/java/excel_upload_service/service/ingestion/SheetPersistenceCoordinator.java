@@ -0,0 +1,379 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/SheetPersistenceCoordinator.java
+package excel_upload_service.service.ingestion;
+
+import excel_upload_service.service.SheetRowWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Orchestre la persistance des feuilles d'un classeur.
+ *
+ * Mode séquentiel (par défaut) : toutes les feuilles dans une seule transaction, comme auparavant.
+ * Mode parallèle (ingestion.parallel-sheets.enabled=true) : une transaction par feuille, exécutée sur
+ * le pool "sheetPersistenceExecutor", puis une barrière qui attend la fin de toutes les feuilles du fichier.
+ * En mode parallèle, une feuille en échec n'annule pas celles déjà validées ; l'erreur liste les feuilles concernées.
+ *
+ * Les feuilles d'un flux NDJSON (persistStreamedSheets) suivent les mêmes modes : en parallèle, les lignes de
+ * chaque feuille passent par une file bornée (ingestion.parallel-sheets.stream-buffer-rows) vers une tâche du pool,
+ * qui l'écrit dans sa propre transaction pendant que le flux continue avec la feuille suivante.
+ *
+ * Note : sous MySQL, le CREATE TABLE de chaque feuille provoque un commit implicite.
+ */
+@Component
+public class SheetPersistenceCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SheetPersistenceCoordinator.class);
+
+    // Marqueurs de fin de feuille dans la file d'une feuille en flux
+    private static final Object END_OF_SHEET = new Object();
+    private static final Object ABORT_SHEET = new Object();
+    private static final long HANDOFF_POLL_MS = 100;
+
+    private final ThreadPoolTaskExecutor executor;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ingestion.parallel-sheets.enabled:false}")
+    private boolean parallelSheets;
+
+    @Value("${ingestion.parallel-sheets.stream-buffer-rows:10000}")
+    private int streamBufferRows;
+
+    public SheetPersistenceCoordinator(@Qualifier("sheetPersistenceExecutor") ThreadPoolTaskExecutor executor,
+                                       PlatformTransactionManager transactionManager) {
+        this.executor = executor;
+        this.transactionManager = transactionManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Réception des feuilles d'un flux : le producteur annonce chaque feuille (startSheet) puis pousse ses lignes.
+     */
+    public interface SheetStream<S> {
+
+        void startSheet(S sheet);
+
+        void write(Map<String, Object> row);
+    }
+
+    /**
+     * @param fileId L'ID du fichier, pour les journaux.
+     * @param sheets Les feuilles à persister.
+     * @param sheetTask La persistance d'une feuille ; retourne le nombre de lignes insérées.
+     * @return Le nombre total de lignes insérées.
+     */
+    public <S> long persistSheets(Long fileId, List<S> sheets, ToLongFunction<S> sheetTask) {
+        if (!parallelSheets || sheets.size() < 2) {
+            Long total = transactionTemplate.execute(status -> {
+                long rows = 0;
+                for (S sheet : sheets) {
+                    rows += sheetTask.applyAsLong(sheet);
+                }
+                return rows;
+            });
+            return total == null ? 0 : total;
+        }
+
+        logger.info("Persistance parallèle de {} feuilles pour le fichier {}.", sheets.size(), fileId);
+        List<CompletableFuture<Long>> futures = new ArrayList<>(sheets.size());
+        for (S sheet : sheets) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> transactionTemplate.execute(status -> sheetTask.applyAsLong(sheet)), executor));
+        }
+
+        return awaitSheets(fileId, futures);
+    }
+
+    /**
+     * Variante de persistSheets pour des feuilles lues l'une après l'autre dans un flux.
+     *
+     * @param openWriter Crée la table de la feuille et son écrivain (appelé dans la transaction de la feuille).
+     * @param producer Lit le flux et le pousse dans le SheetStream ; une exception annule la feuille en cours.
+     * @return Le nombre total de lignes insérées.
+     */
+    public <S> long persistStreamedSheets(Long fileId, Function<S, SheetRowWriter> openWriter,
+                                          Consumer<SheetStream<S>> producer) {
+        if (!parallelSheets) {
+            Long total = transactionTemplate.execute(status -> {
+                InlineSheetStream<S> stream = new InlineSheetStream<>(openWriter);
+                producer.accept(stream);
+                return stream.finish();
+            });
+            return total == null ? 0 : total;
+        }
+
+        ParallelSheetStream<S> stream = new ParallelSheetStream<>(openWriter);
+        try {
+            producer.accept(stream);
+        } catch (RuntimeException e) {
+            stream.abort();
+            throw e;
+        }
+        return stream.finish(fileId);
+    }
+
+    // Barrière : on attend toutes les feuilles, même si l'une d'elles a échoué
+    private long awaitSheets(Long fileId, List<CompletableFuture<Long>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .handle((ignored, error) -> null)
+                .join();
+
+        long total = 0;
+        List<String> failures = new ArrayList<>();
+        RuntimeException firstError = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                total += futures.get(i).join();
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException re ? re : e;
+                failures.add("feuille #" + i + " : " + cause.getMessage());
+                if (firstError == null) {
+                    firstError = cause;
+                }
+            }
+        }
+        if (firstError != null) {
+            logger.error("Échec de {} feuille(s) sur {} pour le fichier {}.", failures.size(), futures.size(), fileId);
+            throw new RuntimeException("Erreur lors de la persistance parallèle : " + String.join(" ; ", failures), firstError);
+        }
+        return total;
+    }
+
+    /**
+     * Toutes les feuilles du flux dans la transaction de l'appelant, écrites dans le thread du flux.
+     */
+    private static class InlineSheetStream<S> implements SheetStream<S> {
+
+        private final Function<S, SheetRowWriter> openWriter;
+        private SheetRowWriter current;
+        private long total;
+
+        InlineSheetStream(Function<S, SheetRowWriter> openWriter) {
+            this.openWriter = openWriter;
+        }
+
+        @Override
+        public void startSheet(S sheet) {
+            closeCurrent();
+            current = openWriter.apply(sheet);
+        }
+
+        @Override
+        public void write(Map<String, Object> row) {
+            if (current == null) {
+                throw new IllegalStateException("Ligne reçue avant toute feuille.");
+            }
+            current.write(row);
+        }
+
+        long finish() {
+            closeCurrent();
+            return total;
+        }
+
+        private void closeCurrent() {
+            if (current != null) {
+                current.close();
+                total += current.getWrittenRows();
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * Une transaction par feuille. Chaque feuille est confiée à une tâche du pool par une file bornée ;
+     * si le pool est saturé (la tâche serait exécutée par le thread du flux, qui seul remplit la file),
+     * la feuille est écrite dans le thread du flux, dans sa propre transaction.
+     */
+    private class ParallelSheetStream<S> implements SheetStream<S> {
+
+        private final Function<S, SheetRowWriter> openWriter;
+        private final List<CompletableFuture<Long>> futures = new ArrayList<>();
+
+        // Feuille confiée au pool
+        private BlockingQueue<Object> queue;
+        private CompletableFuture<Long> pooled;
+
+        // Feuille écrite dans le thread du flux
+        private SheetRowWriter inlineWriter;
+        private TransactionStatus inlineTransaction;
+        private CompletableFuture<Long> inlineResult;
+
+        ParallelSheetStream(Function<S, SheetRowWriter> openWriter) {
+            this.openWriter = openWriter;
+        }
+
+        @Override
+        public void startSheet(S sheet) {
+            finishCurrent(END_OF_SHEET);
+
+            BlockingQueue<Object> sheetQueue = new ArrayBlockingQueue<>(streamBufferRows);
+            CompletableFuture<Long> result = new CompletableFuture<>();
+            Thread streamThread = Thread.currentThread();
+            AtomicBoolean ranInStreamThread = new AtomicBoolean(false);
+            executor.execute(() -> {
+                if (Thread.currentThread() == streamThread) {
+                    ranInStreamThread.set(true);
+                    return;
+                }
+                try {
+                    result.complete(transactionTemplate.execute(status -> drain(sheet, sheetQueue)));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            futures.add(result);
+
+            if (ranInStreamThread.get()) {
+                inlineResult = result;
+                inlineTransaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+                try {
+                    inlineWriter = openWriter.apply(sheet);
+                } catch (RuntimeException e) {
+                    failInline(e);
+                    throw e;
+                }
+            } else {
+                queue = sheetQueue;
+                pooled = result;
+            }
+        }
+
+        @Override
+        public void write(Map<String, Object> row) {
+            if (inlineWriter != null) {
+                try {
+                    inlineWriter.write(row);
+                } catch (RuntimeException e) {
+                    failInline(e);
+                    throw e;
+                }
+                return;
+            }
+            if (pooled == null) {
+                throw new IllegalStateException("Ligne reçue avant toute feuille.");
+            }
+            if (!handOff(row)) {
+                // La tâche de la feuille a échoué : inutile de lire la suite du flux
+                throw new IllegalStateException("Échec de la persistance de la feuille en cours.", failureOf(pooled));
+            }
+        }
+
+        long finish(Long fileId) {
+            finishCurrent(END_OF_SHEET);
+            return awaitSheets(fileId, futures);
+        }
+
+        void abort() {
+            finishCurrent(ABORT_SHEET);
+            // Les feuilles déjà transmises se terminent ; l'erreur du flux est propagée par l'appelant
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .handle((ignored, error) -> null)
+                    .join();
+        }
+
+        private long drain(S sheet, BlockingQueue<Object> sheetQueue) {
+            SheetRowWriter writer = openWriter.apply(sheet);
+            try (writer) {
+                while (true) {
+                    Object item = sheetQueue.take();
+                    if (item == END_OF_SHEET) {
+                        break;
+                    }
+                    if (item == ABORT_SHEET) {
+                        throw new IllegalStateException("Flux interrompu avant la fin de la feuille.");
+                    }
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> row = (Map<String, Object>) item;
+                    writer.write(row);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Persistance de la feuille interrompue.", e);
+            }
+            return writer.getWrittenRows();
+        }
+
+        private void finishCurrent(Object marker) {
+            if (pooled != null) {
+                handOff(marker);
+                pooled = null;
+                queue = null;
+            }
+            if (inlineWriter != null) {
+                if (marker == ABORT_SHEET) {
+                    failInline(new IllegalStateException("Flux interrompu avant la fin de la feuille."));
+                    return;
+                }
+                try {
+                    inlineWriter.close();
+                    long rows = inlineWriter.getWrittenRows();
+                    inlineWriter = null;
+                    transactionManager.commit(inlineTransaction);
+                    inlineTransaction = null;
+                    inlineResult.complete(rows);
+                } catch (RuntimeException e) {
+                    failInline(e);
+                }
+            }
+        }
+
+        // Ne bloque pas indéfiniment si la tâche de la feuille a échoué : false dans ce cas
+        private boolean handOff(Object item) {
+            try {
+                while (!queue.offer(item, HANDOFF_POLL_MS, TimeUnit.MILLISECONDS)) {
+                    if (pooled.isDone()) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Lecture du flux interrompue.", e);
+            }
+        }
+
+        private void failInline(RuntimeException error) {
+            inlineWriter = null;
+            if (inlineTransaction != null && !inlineTransaction.isCompleted()) {
+                transactionManager.rollback(inlineTransaction);
+            }
+            inlineTransaction = null;
+            inlineResult.completeExceptionally(error);
+        }
+
+        private Throwable failureOf(CompletableFuture<Long> future) {
+            try {
+                future.get();
+                return null;
+            } catch (ExecutionException e) {
+                return e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return e;
+            }
+        }
+    }
+}
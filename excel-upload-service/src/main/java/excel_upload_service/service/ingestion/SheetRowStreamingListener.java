@@ -0,0 +1,40 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/ingestion/SheetRowStreamingListener.java
+package excel_upload_service.service.ingestion;
+
+import excel_upload_service.dto.python.ColumnSchema;
+import excel_upload_service.service.SheetRowWriter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seconde passe sur une feuille : chaque ligne située après l'en-tête est propagée,
+ * convertie dans le type de sa colonne puis transmise directement à l'écrivain de la table dynamique.
+ */
+public class SheetRowStreamingListener extends ForwardFillReadListener {
+
+    private final int headerRowIndex;
+    private final List<ColumnSchema> schema;
+    private final SheetRowWriter writer;
+
+    public SheetRowStreamingListener(int headerRowIndex, List<ColumnSchema> schema, SheetRowWriter writer) {
+        this.headerRowIndex = headerRowIndex;
+        this.schema = schema;
+        this.writer = writer;
+    }
+
+    @Override
+    protected void onFilledRow(int rowIndex, String[] filledValues, int nonNullCount) {
+        if (rowIndex <= headerRowIndex) {
+            return;
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < schema.size(); i++) {
+            ColumnSchema column = schema.get(i);
+            String value = i < filledValues.length ? filledValues[i] : null;
+            row.put(column.getName(), CellValueParser.convert(value, column.getType()));
+        }
+        writer.write(row);
+    }
+}
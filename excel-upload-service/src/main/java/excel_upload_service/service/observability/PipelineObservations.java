@@ -0,0 +1,106 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/observability/PipelineObservations.java
+package excel_upload_service.service.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Observations Micrometer des étapes du pipeline téléversement → file → persistance, et des requêtes de lecture.
+ *
+ * Chaque observation produit à la fois un timer (excel.*, avec tag error), un long task timer (excel.*.active :
+ * opérations en cours) et un span. L'id du fichier est une valeur à forte cardinalité : portée par le span et
+ * placée dans le MDC (fileId) pour les journaux de l'étape, jamais en tag de métrique.
+ */
+@Component
+public class PipelineObservations {
+
+    public static final String UPLOAD = "excel.upload";
+    public static final String STORAGE = "excel.storage.store";
+    public static final String QUEUE_PUBLISH = "excel.queue.publish";
+    public static final String PERSISTENCE = "excel.persistence";
+    public static final String SCHEMA_CREATE = "excel.schema.create";
+    public static final String GRAPH_QUERY = "excel.graph.query";
+    public static final String SEARCH_QUERY = "excel.search.query";
+
+    private static final String FILE_ID_KEY = "file.id";
+    private static final String FILE_ID_MDC = "fileId";
+
+    private final ObservationRegistry observationRegistry;
+    private final DistributionSummary uploadBytes;
+
+    public PipelineObservations(ObservationRegistry observationRegistry, MeterRegistry meterRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.uploadBytes = DistributionSummary.builder("excel.upload.size")
+                .description("Taille des fichiers téléversés")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Observation d'une étape, à compléter éventuellement par des tags (faible cardinalité uniquement)
+     * avant {@link #observe(Observation, Long, Supplier)}.
+     */
+    public Observation stage(String name) {
+        return Observation.createNotStarted(name, observationRegistry);
+    }
+
+    public <T> T observe(String name, Long fileId, Supplier<T> action) {
+        return observe(stage(name), fileId, action);
+    }
+
+    public void observe(String name, Long fileId, Runnable action) {
+        observe(stage(name), fileId, action);
+    }
+
+    public void observe(Observation observation, Long fileId, Runnable action) {
+        observe(observation, fileId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T observe(Observation observation, Long fileId, Supplier<T> action) {
+        if (fileId != null) {
+            observation.highCardinalityKeyValue(FILE_ID_KEY, fileId.toString());
+        }
+        String previousFileId = MDC.get(FILE_ID_MDC);
+        if (fileId != null) {
+            MDC.put(FILE_ID_MDC, fileId.toString());
+        }
+        try {
+            return observation.observe(action);
+        } finally {
+            restoreFileId(previousFileId);
+        }
+    }
+
+    /**
+     * Rattache un fichier à l'observation en cours, quand son id n'est connu qu'en cours d'étape
+     * (téléversement : l'id est attribué après le stockage).
+     */
+    public void attachFile(Long fileId) {
+        Observation current = observationRegistry.getCurrentObservation();
+        if (current != null) {
+            current.highCardinalityKeyValue(FILE_ID_KEY, fileId.toString());
+        }
+        MDC.put(FILE_ID_MDC, fileId.toString());
+    }
+
+    public void recordUploadSize(long bytes) {
+        uploadBytes.record(bytes);
+    }
+
+    private static void restoreFileId(String previousFileId) {
+        if (previousFileId != null) {
+            MDC.put(FILE_ID_MDC, previousFileId);
+        } else {
+            MDC.remove(FILE_ID_MDC);
+        }
+    }
+}
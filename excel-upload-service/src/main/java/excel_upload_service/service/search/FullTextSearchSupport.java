@@ -0,0 +1,136 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/search/FullTextSearchSupport.java
+package excel_upload_service.service.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Index FULLTEXT InnoDB sur row_entities.data_json.
+ *
+ * S'il manque, il est créé après le démarrage sur le thread des DDL d'indexation (jsonIndexExecutor), jamais sur
+ * le thread de démarrage : ALGORITHM=INPLACE, LOCK=SHARED (InnoDB refuse LOCK=NONE pour un index FULLTEXT ;
+ * les lectures continuent, les écritures attendent la fin de la construction). Avec
+ * search.fulltext.create-index=false, l'index est laissé à une migration ou à l'administrateur.
+ * Tant que l'index n'est pas prêt, la recherche par mot-clé utilise LIKE.
+ *
+ * Un mot-clé est découpé comme le fait l'analyseur InnoDB (lettres, chiffres, _) puis traduit en requête
+ * booléenne où chaque terme est obligatoire et cherché en préfixe : "dupont mar" -> "+dupont* +mar*".
+ * Si un terme est plus court que innodb_ft_min_token_size, l'index ne peut pas le trouver : l'appelant
+ * repasse alors sur LIKE.
+ *
+ * Limite connue : l'index porte sur le JSON brut, les noms de colonnes y sont donc aussi indexés.
+ */
+@Component
+public class FullTextSearchSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(FullTextSearchSupport.class);
+    private static final String INDEX_NAME = "ft_row_entities_data_json";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolTaskExecutor indexExecutor;
+
+    @Value("${search.fulltext.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.fulltext.create-index:true}")
+    private boolean createIndex;
+
+    private volatile boolean available = false;
+    private volatile int minTokenSize = 3;
+
+    public FullTextSearchSupport(JdbcTemplate jdbcTemplate,
+                                 @Qualifier("jsonIndexExecutor") ThreadPoolTaskExecutor indexExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.indexExecutor = indexExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        if (enabled) {
+            indexExecutor.execute(this::prepareIndex);
+        }
+    }
+
+    private void prepareIndex() {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'row_entities' AND INDEX_NAME = ?",
+                    Integer.class, INDEX_NAME);
+            if (existing == null || existing == 0) {
+                if (!createIndex) {
+                    logger.info("Index FULLTEXT {} absent et création désactivée : la recherche par mot-clé utilisera LIKE.", INDEX_NAME);
+                    return;
+                }
+                long start = System.currentTimeMillis();
+                logger.info("Création de l'index FULLTEXT {} sur row_entities en arrière-plan (recherche via LIKE en attendant)...", INDEX_NAME);
+                jdbcTemplate.execute("ALTER TABLE row_entities ADD FULLTEXT INDEX " + INDEX_NAME + " (data_json), " +
+                        "ALGORITHM=INPLACE, LOCK=SHARED");
+                logger.info("Index FULLTEXT créé en {} ms.", System.currentTimeMillis() - start);
+            }
+            Integer tokenSize = jdbcTemplate.queryForObject("SELECT @@innodb_ft_min_token_size", Integer.class);
+            if (tokenSize != null) {
+                minTokenSize = tokenSize;
+            }
+            available = true;
+        } catch (Exception e) {
+            logger.warn("Recherche FULLTEXT indisponible, la recherche par mot-clé utilisera LIKE : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Condition SQL " AND ..." sur la colonne data_json de l'alias donné : MATCH ... AGAINST si l'index peut
+     * répondre, LIKE sinon. Vide sans mot-clé. Le paramètre est ajouté à args.
+     */
+    public String keywordCondition(String tableAlias, String keyword, List<Object> args) {
+        if (keyword == null || keyword.isBlank()) {
+            return "";
+        }
+        Optional<String> booleanQuery = toBooleanQuery(keyword);
+        if (booleanQuery.isPresent()) {
+            args.add(booleanQuery.get());
+            return " AND MATCH(" + tableAlias + ".data_json) AGAINST (? IN BOOLEAN MODE)";
+        }
+        args.add("%" + keyword + "%");
+        return " AND " + tableAlias + ".data_json LIKE ?";
+    }
+
+    /**
+     * Requête booléenne MATCH ... AGAINST pour ce mot-clé, ou Optional.empty() si l'index ne peut pas y répondre.
+     */
+    public Optional<String> toBooleanQuery(String keyword) {
+        if (!available) {
+            return Optional.empty();
+        }
+        return toBooleanTerms(keyword);
+    }
+
+    /**
+     * Même traduction, que l'index de row_entities soit prêt ou non : pour les index FULLTEXT des tables typées,
+     * créés avec la table (voir TypedRowQueries).
+     */
+    public Optional<String> toBooleanTerms(String keyword) {
+        if (!enabled || keyword == null) {
+            return Optional.empty();
+        }
+        List<String> terms = Arrays.stream(keyword.split("[^\\p{L}\\p{N}_]+"))
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.toList());
+        if (terms.isEmpty() || terms.stream().anyMatch(term -> term.length() < minTokenSize)) {
+            return Optional.empty();
+        }
+        return Optional.of(terms.stream().map(term -> "+" + term + "*").collect(Collectors.joining(" ")));
+    }
+}
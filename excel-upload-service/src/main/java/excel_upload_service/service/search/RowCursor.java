@@ -0,0 +1,37 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/search/RowCursor.java
+package excel_upload_service.service.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Curseur opaque de la navigation par feuille : feuille, dernier id renvoyé et sens de tri, encodés en Base64 URL.
+ */
+public final class RowCursor {
+
+    private RowCursor() {
+    }
+
+    public static String encode(Long sheetId, Long lastId, boolean descending) {
+        String raw = sheetId + ":" + lastId + ":" + (descending ? "d" : "a");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Le curseur n'est valable que pour la feuille et le sens de tri qui l'ont produit.
+     *
+     * @throws IllegalArgumentException si le curseur est illisible ou produit pour une autre feuille ou un autre sens
+     */
+    public static Long decode(String cursor, Long sheetId, boolean descending) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || !parts[0].equals(String.valueOf(sheetId)) || !parts[2].equals(descending ? "d" : "a")) {
+                throw new IllegalArgumentException("Curseur invalide pour cette feuille ou ce sens de tri.");
+            }
+            return Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException et erreurs Base64 comprises
+            throw new IllegalArgumentException("Curseur invalide : " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/search/RowSearchQuery.java
+package excel_upload_service.service.search;
+
+import excel_upload_service.model.RowEntity;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.service.JsonIndexService;
+import excel_upload_service.service.SchemaManagerService;
+import excel_upload_service.service.indexing.JsonKeyPaths;
+import excel_upload_service.service.storage.TypedRowQueries;
+import excel_upload_service.service.storage.TypedSheetTable;
+import excel_upload_service.service.storage.TypedSheetTables;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Recherche paginée des lignes en SQL natif : mot-clé via l'index FULLTEXT (voir {@link FullTextSearchSupport}),
+ * filtres par colonne et tri sur des clés JSON (propriétés "data.clé"), le tout exécuté par MySQL.
+ *
+ * Tri : les propriétés de l'entité (id, createdAt, dataJson, sheet.*) restent acceptées comme avec Spring Data ;
+ * une propriété inconnue est refusée (IllegalArgumentException, réponse 400).
+ * Le type de chaque clé vient du schéma inféré à l'ingestion (colonnes de la table dynamique de la feuille) :
+ * numérique -> CAST en DECIMAL, date -> CAST en DATETIME, texte -> chaîne. Sans table dynamique, le type est
+ * déduit d'un échantillon de lignes (JSON_TYPE). Pour une clé texte indexée (voir JsonIndexService), on trie
+ * sur la colonne générée, ce qui permet à MySQL de lire l'index (sheet_id, colonne) dans l'ordre.
+ * Les valeurs absentes ou nulles sont placées en dernier dans les deux sens (sauf sur une colonne indexée) ;
+ * l'id départage les égalités pour que les pages restent stables.
+ *
+ * Filtres par colonne : égalité sur la valeur texte de la clé, ou préfixe si la valeur se termine par "*".
+ * Ils utilisent la colonne générée indexée quand elle existe.
+ *
+ * Recherche globale : les lignes des feuilles en table typée y sont réunies (UNION ALL) à celles de
+ * row_entities, au même format (voir TypedRowQueries.selectAsRowEntities). Au-delà de
+ * search.global.max-typed-sheets feuilles typées concernées, la recherche est refusée (filtrer par fichier).
+ */
+@Component
+public class RowSearchQuery {
+
+    private static final String JSON_PREFIX = "data.";
+    private static final int TYPE_SAMPLE_ROWS = 1000;
+    private static final Set<String> NUMERIC_TYPES = Set.of("bigint", "int", "integer", "smallint", "tinyint", "mediumint",
+            "decimal", "double", "float");
+    private static final Set<String> DATE_TYPES = Set.of("datetime", "date", "timestamp");
+    private static final Set<String> JSON_NUMERIC_TYPES = Set.of("INTEGER", "UNSIGNED INTEGER", "DOUBLE", "DECIMAL");
+    // Propriétés de RowEntity triables auparavant via Spring Data (JPA), et leur colonne SQL
+    private static final Map<String, String> ENTITY_COLUMNS = Map.of(
+            "id", "r.id",
+            "createdAt", "r.created_at",
+            "dataJson", "r.data_json",
+            "sheet.id", "r.sheet_id");
+    // Propriétés de la feuille et du fichier : constantes dans une feuille, triables sur la recherche globale (jointures s et f)
+    private static final Map<String, String> PARENT_COLUMNS = Map.of(
+            "sheet.sheetIndex", "s.sheet_index",
+            "sheet.sheetName", "s.sheet_name",
+            "sheet.file.id", "s.file_id",
+            "sheet.file.fileName", "f.file_name",
+            "sheet.file.uploadTimestamp", "f.upload_timestamp");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchemaManagerService schemaManagerService;
+    private final JsonIndexService jsonIndexService;
+    private final FullTextSearchSupport fullTextSearchSupport;
+    private final TypedSheetTables typedSheetTables;
+    private final TypedRowQueries typedRowQueries;
+
+    @Value("${search.global.max-typed-sheets:20}")
+    private int maxTypedSheets;
+
+    public RowSearchQuery(JdbcTemplate jdbcTemplate, SchemaManagerService schemaManagerService,
+                          JsonIndexService jsonIndexService, FullTextSearchSupport fullTextSearchSupport,
+                          TypedSheetTables typedSheetTables, TypedRowQueries typedRowQueries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schemaManagerService = schemaManagerService;
+        this.jsonIndexService = jsonIndexService;
+        this.fullTextSearchSupport = fullTextSearchSupport;
+        this.typedSheetTables = typedSheetTables;
+        this.typedRowQueries = typedRowQueries;
+    }
+
+    /**
+     * Propriété de tri de la feuille ou de son fichier (sheet.id, sheet.sheetName...) : constante dans une feuille.
+     */
+    public static boolean isSheetProperty(String property) {
+        return "sheet.id".equals(property) || PARENT_COLUMNS.containsKey(property);
+    }
+
+    public static boolean hasJsonOrder(Sort sort) {
+        return sort.stream().anyMatch(order -> order.getProperty().startsWith(JSON_PREFIX));
+    }
+
+    public Page<RowEntity> searchSheet(SheetEntity sheet, String keyword, Map<String, String> filters, Pageable pageable) {
+        StringBuilder where = new StringBuilder(" FROM row_entities r WHERE r.sheet_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(sheet.getId());
+        appendKeyword(where, args, keyword);
+        filters.forEach((jsonKey, value) -> appendFilter(where, args, sheet.getId(), jsonKey, value));
+
+        String orderBy = buildOrderBy(sheet, pageable.getSort());
+        return queryPage("SELECT r.id, r.data_json", where.toString(), orderBy, args, pageable, (rs, rowNum) -> {
+            RowEntity row = new RowEntity(rs.getString("data_json"), sheet);
+            row.setId(rs.getLong("id"));
+            return row;
+        });
+    }
+
+    /**
+     * Recherche sur tous les fichiers (lignes JSON et lignes des tables typées), filtrée par nom de fichier.
+     * Les feuilles rattachées aux lignes ne portent que leur id et leur index.
+     */
+    public Page<RowEntity> searchAll(String fileName, String keyword, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        List<TypedSheetTable> typedTables = typedTablesOf(fileName);
+        StringBuilder where;
+        if (typedTables.isEmpty()) {
+            where = new StringBuilder(" FROM row_entities r JOIN sheets s ON s.id = r.sheet_id " +
+                    "JOIN files f ON f.id = s.file_id WHERE 1 = 1");
+            appendKeyword(where, args, keyword);
+        } else {
+            // Le filtre par fichier est appliqué dans la branche row_entities pour ne pas matérialiser toutes les lignes
+            StringBuilder rows = new StringBuilder("SELECT r.id, r.data_json, r.created_at, r.sheet_id FROM row_entities r WHERE 1 = 1");
+            appendFileFilter(rows, args, fileName);
+            appendKeyword(rows, args, keyword);
+            where = new StringBuilder(" FROM (").append(rows);
+            for (TypedSheetTable table : typedTables) {
+                where.append(" UNION ALL ").append(typedRowQueries.selectAsRowEntities(table, keyword, args));
+            }
+            where.append(") r JOIN sheets s ON s.id = r.sheet_id JOIN files f ON f.id = s.file_id WHERE 1 = 1");
+        }
+        if (fileName != null) {
+            where.append(" AND f.file_name LIKE ?");
+            args.add("%" + fileName + "%");
+        }
+
+        Map<Long, SheetEntity> sheets = new HashMap<>();
+        return queryPage("SELECT r.id, r.data_json, s.id AS sheet_id, s.sheet_index", where.toString(),
+                buildOrderBy(null, pageable.getSort()), args, pageable, (rs, rowNum) -> {
+                    SheetEntity sheet = sheets.computeIfAbsent(rs.getLong("sheet_id"), id -> new SheetEntity());
+                    sheet.setId(rs.getLong("sheet_id"));
+                    sheet.setSheetIndex(rs.getInt("sheet_index"));
+                    RowEntity row = new RowEntity(rs.getString("data_json"), sheet);
+                    row.setId(rs.getLong("id"));
+                    return row;
+                });
+    }
+
+    // Tables typées des feuilles des fichiers concernés ; refus au-delà de search.global.max-typed-sheets
+    private List<TypedSheetTable> typedTablesOf(String fileName) {
+        StringBuilder sql = new StringBuilder("SELECT s.id FROM sheets s JOIN files f ON f.id = s.file_id " +
+                "WHERE s.storage_table IS NOT NULL");
+        List<Object> args = new ArrayList<>();
+        if (fileName != null) {
+            sql.append(" AND f.file_name LIKE ?");
+            args.add("%" + fileName + "%");
+        }
+        sql.append(" ORDER BY s.id LIMIT ?");
+        args.add(maxTypedSheets + 1);
+        List<Long> sheetIds = jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+        if (sheetIds.size() > maxTypedSheets) {
+            throw new IllegalArgumentException("Recherche globale sur plus de " + maxTypedSheets
+                    + " feuilles en table typée : préciser le nom du fichier.");
+        }
+        List<TypedSheetTable> tables = new ArrayList<>();
+        sheetIds.forEach(sheetId -> typedSheetTables.find(sheetId).ifPresent(tables::add));
+        return tables;
+    }
+
+    private static void appendFileFilter(StringBuilder where, List<Object> args, String fileName) {
+        if (fileName != null) {
+            where.append(" AND r.sheet_id IN (SELECT s.id FROM sheets s JOIN files f ON f.id = s.file_id WHERE f.file_name LIKE ?)");
+            args.add("%" + fileName + "%");
+        }
+    }
+
+    private Page<RowEntity> queryPage(String select, String where, String orderBy, List<Object> args, Pageable pageable,
+                                      RowMapper<RowEntity> mapper) {
+        List<Object> pageArgs = new ArrayList<>(args);
+        pageArgs.add(pageable.getPageSize());
+        pageArgs.add(pageable.getOffset());
+        List<RowEntity> rows = jdbcTemplate.query(select + where + orderBy + " LIMIT ? OFFSET ?", mapper, pageArgs.toArray());
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*)" + where, Long.class, args.toArray());
+        return new PageImpl<>(rows, pageable, total == null ? 0 : total);
+    }
+
+    private void appendKeyword(StringBuilder where, List<Object> args, String keyword) {
+        where.append(fullTextSearchSupport.keywordCondition("r", keyword, args));
+    }
+
+    private void appendFilter(StringBuilder where, List<Object> args, Long sheetId, String jsonKey, String value) {
+        String column = jsonIndexService.resolveColumn(sheetId, jsonKey)
+                .map(c -> "r.`" + c + "`")
+                .orElseGet(() -> JsonKeyPaths.extractExpression("r", jsonKey));
+        if (value.endsWith("*")) {
+            String prefix = value.substring(0, value.length() - 1)
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            where.append(" AND ").append(column).append(" LIKE ?");
+            args.add(prefix + "%");
+        } else {
+            where.append(" AND ").append(column).append(" = ?");
+            args.add(value);
+        }
+    }
+
+    private String buildOrderBy(SheetEntity sheet, Sort sort) {
+        Map<String, String> columnTypes = null;
+        List<String> clauses = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String direction = order.isDescending() ? " DESC" : " ASC";
+            String property = order.getProperty();
+            if (!property.startsWith(JSON_PREFIX)) {
+                String column = ENTITY_COLUMNS.get(property);
+                if (column == null && PARENT_COLUMNS.containsKey(property)) {
+                    if (sheet != null) {
+                        // Même valeur pour toutes les lignes de la feuille : sans effet sur l'ordre
+                        continue;
+                    }
+                    column = PARENT_COLUMNS.get(property);
+                }
+                if (column == null) {
+                    throw new IllegalArgumentException("Tri non supporté sur la propriété : " + property);
+                }
+                clauses.add(column + direction);
+                continue;
+            }
+            String jsonKey = property.substring(JSON_PREFIX.length());
+            if (jsonKey.isEmpty()) {
+                throw new IllegalArgumentException("Tri non supporté sur la propriété : " + property);
+            }
+            if (sheet == null) {
+                // Recherche globale : pas de schéma commun aux feuilles, tri texte, valeurs nulles en dernier
+                clauses.add(nullsLast(jsonKey));
+                clauses.add(JsonKeyPaths.extractExpression("r", jsonKey) + direction);
+                continue;
+            }
+            if (columnTypes == null) {
+                columnTypes = schemaManagerService.getColumnTypes(sheet.getFile().getId(), sheet.getSheetName());
+            }
+            SortExpression expression = sortExpression(sheet, jsonKey, columnTypes);
+            if (!expression.indexed()) {
+                // Valeurs nulles en dernier quel que soit le sens
+                clauses.add(nullsLast(jsonKey));
+            }
+            clauses.add(expression.sql() + direction);
+        }
+        clauses.add("r.id" + (sort.stream().findFirst().map(Sort.Order::isDescending).orElse(false) ? " DESC" : " ASC"));
+        return " ORDER BY " + String.join(", ", clauses);
+    }
+
+    private static String nullsLast(String jsonKey) {
+        return "COALESCE(JSON_TYPE(JSON_EXTRACT(r.data_json, " + JsonKeyPaths.jsonPathLiteral(jsonKey) + ")), 'NULL') = 'NULL'";
+    }
+
+    private SortExpression sortExpression(SheetEntity sheet, String jsonKey, Map<String, String> columnTypes) {
+        String extraction = JsonKeyPaths.extractExpression("r", jsonKey);
+        String type = columnTypes.isEmpty()
+                ? sampleType(sheet.getId(), jsonKey)
+                : columnTypes.get(TypedSheetTable.columnName(jsonKey).toLowerCase());
+        if (type != null && NUMERIC_TYPES.contains(type)) {
+            return new SortExpression("CAST(" + extraction + " AS DECIMAL(38, 10))", false);
+        }
+        if (type != null && DATE_TYPES.contains(type)) {
+            return new SortExpression("CAST(" + extraction + " AS DATETIME)", false);
+        }
+        // Texte : la colonne générée (tronquée à 255 caractères) est indexée avec sheet_id. On trie sur la
+        // colonne seule pour que MySQL lise l'index dans l'ordre (NULL en tête en ASC, en fin en DESC).
+        return jsonIndexService.resolveColumn(sheet.getId(), jsonKey)
+                .map(column -> new SortExpression("r.`" + column + "`", true))
+                .orElseGet(() -> new SortExpression(extraction, false));
+    }
+
+    /**
+     * Sans schéma inféré : numérique si toutes les valeurs non nulles d'un échantillon sont des nombres JSON.
+     */
+    private String sampleType(Long sheetId, String jsonKey) {
+        List<String> jsonTypes = jdbcTemplate.queryForList(
+                "SELECT DISTINCT JSON_TYPE(JSON_EXTRACT(s.data_json, " + JsonKeyPaths.jsonPathLiteral(jsonKey) + ")) " +
+                "FROM (SELECT data_json FROM row_entities WHERE sheet_id = ? LIMIT " + TYPE_SAMPLE_ROWS + ") s",
+                String.class, sheetId);
+        boolean numeric = jsonTypes.stream()
+                .filter(t -> t != null && !"NULL".equals(t))
+                .allMatch(JSON_NUMERIC_TYPES::contains);
+        return numeric && jsonTypes.stream().anyMatch(JSON_NUMERIC_TYPES::contains) ? "decimal" : "varchar";
+    }
+
+    private record SortExpression(String sql, boolean indexed) {
+    }
+}
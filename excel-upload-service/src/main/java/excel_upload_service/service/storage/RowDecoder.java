@@ -0,0 +1,143 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/storage/RowDecoder.java
+package excel_upload_service.service.storage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Décodage des lignes JSON (row_entities.data_json).
+ *
+ * Les lecteurs Jackson sont construits une fois : plus de TypeReference ni de résolution de type à chaque ligne.
+ * Avec une {@link Projection}, seules les clés demandées sont décodées : un JsonParser parcourt l'objet,
+ * saute les autres valeurs sans les matérialiser et s'arrête dès que toutes les clés ont été lues.
+ * Les valeurs projetées ont les mêmes types que dans la Map complète (Integer/Long, Double ou BigDecimal
+ * selon la configuration de l'ObjectMapper, String, Boolean, Map/List pour les valeurs imbriquées).
+ */
+@Component
+public class RowDecoder {
+
+    private final JsonFactory jsonFactory;
+    private final ObjectReader mapReader;
+    private final ObjectReader valueReader;
+    private final boolean floatsAsBigDecimal;
+
+    public RowDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.mapReader = objectMapper.readerFor(new TypeReference<LinkedHashMap<String, Object>>() {});
+        this.valueReader = objectMapper.readerFor(Object.class);
+        this.floatsAsBigDecimal = objectMapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    }
+
+    /**
+     * Ligne complète, dans l'ordre des clés du JSON.
+     */
+    public Map<String, Object> decode(String json) {
+        try {
+            return mapReader.readValue(json);
+        } catch (IOException e) {
+            throw new RuntimeException("JSON deserialization error", e);
+        }
+    }
+
+    /**
+     * Projection réutilisable sur un ensemble de clés (à construire une fois, par exemple par export).
+     */
+    public Projection projection(List<String> keys) {
+        return new Projection(keys);
+    }
+
+    /**
+     * Valeurs des clés de la projection, dans l'ordre de la projection (null si la clé est absente).
+     */
+    public Object[] decode(String json, Projection projection) {
+        Object[] values = new Object[projection.size()];
+        if (projection.size() == 0) {
+            return values;
+        }
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Objet JSON attendu pour une ligne");
+            }
+            int remaining = projection.distinctKeys();
+            while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+                int[] indexes = projection.indexesOf(parser.currentName());
+                JsonToken token = parser.nextToken();
+                if (indexes == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                Object value = readValue(parser, token);
+                for (int index : indexes) {
+                    values[index] = value;
+                }
+                remaining--;
+            }
+            return values;
+        } catch (IOException e) {
+            throw new RuntimeException("JSON deserialization error", e);
+        }
+    }
+
+    private Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT -> parser.getNumberValue();
+            case VALUE_NUMBER_FLOAT -> floatsAsBigDecimal ? parser.getDecimalValue() : parser.getDoubleValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            // Objets et tableaux imbriqués : décodés comme dans la Map complète
+            default -> valueReader.readValue(parser);
+        };
+    }
+
+    /**
+     * Clés à extraire et leurs positions dans le tableau de valeurs. Une clé en double (en-têtes répétés)
+     * reçoit la même valeur à chacune de ses positions.
+     */
+    public static final class Projection {
+
+        private final List<String> keys;
+        private final Map<String, int[]> indexes;
+
+        private Projection(List<String> keys) {
+            this.keys = List.copyOf(keys);
+            this.indexes = new HashMap<>(keys.size() * 2);
+            for (int i = 0; i < keys.size(); i++) {
+                int[] previous = indexes.get(keys.get(i));
+                int[] positions = previous == null ? new int[1] : Arrays.copyOf(previous, previous.length + 1);
+                positions[positions.length - 1] = i;
+                indexes.put(keys.get(i), positions);
+            }
+        }
+
+        public List<String> keys() {
+            return keys;
+        }
+
+        public int size() {
+            return keys.size();
+        }
+
+        int distinctKeys() {
+            return indexes.size();
+        }
+
+        int[] indexesOf(String key) {
+            return indexes.get(key);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/storage/TypedColumnIndexes.java
+package excel_upload_service.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Index secondaires des tables typées, créés à l'usage : pendant de JsonIndexService pour les feuilles
+ * importées en table typée, dont les lignes ne passent jamais par row_entities.
+ *
+ * Chaque utilisation d'une colonne comme catégorie de graphique, filtre ou tri est comptée ; au seuil configuré,
+ * un index (colonne) est ajouté sur le thread des DDL d'indexation (jsonIndexExecutor), ALGORITHM=INPLACE,
+ * LOCK=NONE. Les colonnes sont déjà typées (VARCHAR(255) au plus) : aucune colonne générée n'est nécessaire.
+ * Les index disparaissent avec la table ; au redémarrage, les compteurs repartent de zéro et un index
+ * existant n'est pas recréé.
+ */
+@Component
+public class TypedColumnIndexes {
+
+    private static final Logger logger = LoggerFactory.getLogger(TypedColumnIndexes.class);
+    private static final String INDEX_PREFIX = "ix_";
+    private static final int MAX_IDENTIFIER_LENGTH = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolTaskExecutor indexExecutor;
+
+    // table.colonne -> nombre d'utilisations observées
+    private final Map<String, AtomicInteger> observedColumns = new ConcurrentHashMap<>();
+    private final Set<String> scheduledColumns = ConcurrentHashMap.newKeySet();
+
+    // Nombre d'utilisations d'une colonne avant création automatique de l'index (0 = jamais)
+    @Value("${indexing.typed-columns.auto-create-after:20}")
+    private int autoCreateAfter;
+
+    // Index créés automatiquement par table (MySQL limite une table à 64 index)
+    @Value("${indexing.typed-columns.max-indexes:16}")
+    private int maxIndexes;
+
+    public TypedColumnIndexes(JdbcTemplate jdbcTemplate,
+                              @Qualifier("jsonIndexExecutor") ThreadPoolTaskExecutor indexExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.indexExecutor = indexExecutor;
+    }
+
+    /**
+     * Compte une utilisation de la colonne de cet en-tête ; au seuil, l'index est créé en arrière-plan.
+     */
+    public void recordUsage(TypedSheetTable table, String header) {
+        if (autoCreateAfter <= 0) {
+            return;
+        }
+        String columnName = table.requireColumn(header).name();
+        String key = table.tableName() + "." + columnName;
+        if (scheduledColumns.contains(key)) {
+            return;
+        }
+        int hits = observedColumns.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        if (hits >= autoCreateAfter && scheduledColumns.add(key)) {
+            observedColumns.remove(key);
+            scheduleCreation(key, table.tableName(), columnName);
+        }
+    }
+
+    private void scheduleCreation(String key, String tableName, String columnName) {
+        try {
+            indexExecutor.execute(() -> {
+                try {
+                    createIndex(tableName, columnName);
+                } catch (Exception e) {
+                    logger.warn("Création automatique de l'index de {}.{} impossible : {}", tableName, columnName, e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // File pleine : une prochaine utilisation retentera
+            scheduledColumns.remove(key);
+        }
+    }
+
+    private void createIndex(String tableName, String columnName) {
+        Integer leading = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ? AND SEQ_IN_INDEX = 1 " +
+                "AND INDEX_TYPE <> 'FULLTEXT'",
+                Integer.class, tableName, columnName);
+        if (leading != null && leading > 0) {
+            return;
+        }
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT INDEX_NAME) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME LIKE 'ix\\_%'",
+                Integer.class, tableName);
+        if (created != null && created >= maxIndexes) {
+            logger.warn("Limite de {} index atteinte sur {} : colonne {} non indexée.", maxIndexes, tableName, columnName);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("ALTER TABLE " + tableName + " ADD INDEX `" + indexName(columnName) + "` (`" + columnName + "`), " +
+                "ALGORITHM=INPLACE, LOCK=NONE");
+        logger.info("Colonne {}.{} indexée en {} ms.", tableName, columnName, System.currentTimeMillis() - start);
+    }
+
+    // ix_ + colonne ; trop long, la fin est remplacée par une empreinte CRC32 pour rester unique dans la table
+    private static String indexName(String columnName) {
+        String name = INDEX_PREFIX + columnName;
+        if (name.length() <= MAX_IDENTIFIER_LENGTH) {
+            return name;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(columnName.getBytes(StandardCharsets.UTF_8));
+        String checksum = String.format("%08x", crc.getValue());
+        return name.substring(0, MAX_IDENTIFIER_LENGTH - checksum.length() - 1) + "_" + checksum;
+    }
+}
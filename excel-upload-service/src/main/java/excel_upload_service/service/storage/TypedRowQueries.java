@@ -0,0 +1,402 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/storage/TypedRowQueries.java
+package excel_upload_service.service.storage;
+
+import excel_upload_service.dto.RowEntityDto;
+import excel_upload_service.service.search.FullTextSearchSupport;
+import excel_upload_service.service.search.RowSearchQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Lecture des lignes d'une feuille depuis sa table typée : les valeurs arrivent déjà typées (BIGINT, DECIMAL,
+ * DATETIME, VARCHAR), sans analyse de JSON. Mêmes paramètres que les lectures sur row_entities :
+ * <ul>
+ *   <li>mot-clé : chaque mot doit apparaître dans au moins une colonne. Les mots contenant une lettre (qui ne
+ *       peuvent figurer que dans une colonne texte) sont cherchés en préfixe par l'index FULLTEXT des colonnes
+ *       texte (MATCH ... AGAINST, voir SchemaManagerService.getFullTextColumns) ; les autres, les mots trop
+ *       courts pour l'index et les tables sans index passent par LIKE sur toutes les colonnes ;</li>
+ *   <li>filtres : égalité sur la colonne, ou préfixe si la valeur se termine par "*" ;</li>
+ *   <li>tri : "id", "createdAt" (ordre d'insertion, donc id) ou "data.en-tête", sur la colonne typée,
+ *       valeurs nulles en dernier, l'id départageant les égalités. Les propriétés de la feuille (sheet.*),
+ *       constantes, sont ignorées ; toute autre propriété est refusée (IllegalArgumentException, réponse 400).</li>
+ * </ul>
+ * Les colonnes filtrées ou triées sont indexées après usage répété (voir TypedColumnIndexes).
+ * Les ids des lignes sont ceux de la table typée, propres à la feuille : les modifications passent donc
+ * toujours par la feuille (voir insertRow, updateRow, deleteRow).
+ */
+@Component
+public class TypedRowQueries {
+
+    private static final String JSON_PREFIX = "data.";
+    // Nombre d'ids par clause IN
+    private static final int ID_CHUNK_SIZE = 1000;
+    private static final Pattern LETTER = Pattern.compile("\\p{L}");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FullTextSearchSupport fullTextSearchSupport;
+    private final TypedColumnIndexes typedColumnIndexes;
+
+    public TypedRowQueries(JdbcTemplate jdbcTemplate, FullTextSearchSupport fullTextSearchSupport,
+                           TypedColumnIndexes typedColumnIndexes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fullTextSearchSupport = fullTextSearchSupport;
+        this.typedColumnIndexes = typedColumnIndexes;
+    }
+
+    public Page<RowEntityDto> search(TypedSheetTable table, String keyword, Map<String, String> filters,
+                                     Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        String where = " FROM " + table.tableName() + " r WHERE 1 = 1"
+                + keywordCondition(table, keyword, args)
+                + filterConditions(table, filters, args);
+        String orderBy = orderBy(table, pageable.getSort());
+        recordColumnUsage(table, filters, pageable.getSort());
+
+        List<Object> pageArgs = new ArrayList<>(args);
+        pageArgs.add(pageable.getPageSize());
+        pageArgs.add(pageable.getOffset());
+        List<RowEntityDto> rows = jdbcTemplate.query(
+                "SELECT r.id, " + table.selectList("r") + where + orderBy + " LIMIT ? OFFSET ?",
+                rowMapper(table), pageArgs.toArray());
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*)" + where, Long.class, args.toArray());
+        return new PageImpl<>(rows, pageable, total == null ? 0 : total);
+    }
+
+    /**
+     * Lignes strictement après (ou avant, en ordre décroissant) l'id donné, dans l'ordre des id.
+     */
+    public List<RowEntityDto> findPage(TypedSheetTable table, Long lastId, String keyword, boolean descending, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT r.id, ").append(table.selectList("r"))
+                .append(" FROM ").append(table.tableName()).append(" r WHERE 1 = 1");
+        if (lastId != null) {
+            sql.append(descending ? " AND r.id < ?" : " AND r.id > ?");
+            args.add(lastId);
+        }
+        sql.append(keywordCondition(table, keyword, args))
+                .append(descending ? " ORDER BY r.id DESC" : " ORDER BY r.id ASC")
+                .append(" LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), rowMapper(table), args.toArray());
+    }
+
+    public Optional<RowEntityDto> findRow(TypedSheetTable table, Long id) {
+        List<RowEntityDto> rows = jdbcTemplate.query(
+                "SELECT r.id, " + table.selectList("r") + " FROM " + table.tableName() + " r WHERE r.id = ?",
+                rowMapper(table), id);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Insère une ligne (en-tête -> valeur) ; les clés qui ne sont pas des en-têtes de la feuille sont ignorées.
+     * MySQL convertit les valeurs texte vers le type de la colonne.
+     * @return l'id de la ligne créée
+     */
+    public Long insertRow(TypedSheetTable table, Map<String, Object> data) {
+        String sql = "INSERT INTO " + table.tableName() + " (" + table.columnList() + ") VALUES ("
+                + String.join(", ", Collections.nCopies(table.columns().size(), "?")) + ")";
+        Object[] values = valuesInColumnOrder(table, data);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            return statement;
+        }, keyHolder);
+        Number key = keyHolder.getKey();
+        return key == null ? null : key.longValue();
+    }
+
+    /**
+     * Remplace toutes les valeurs de la ligne (une colonne absente de data devient NULL), comme le remplacement
+     * de data_json pour une ligne JSON.
+     * @return false si la ligne n'existe pas
+     */
+    public boolean updateRow(TypedSheetTable table, Long id, Map<String, Object> data) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table.tableName()).append(" SET ");
+        for (int i = 0; i < table.columns().size(); i++) {
+            sql.append(i > 0 ? ", " : "").append('`').append(table.columns().get(i).name()).append("` = ?");
+        }
+        sql.append(" WHERE id = ?");
+        Object[] values = valuesInColumnOrder(table, data);
+        Object[] args = Arrays.copyOf(values, values.length + 1);
+        args[values.length] = id;
+        return jdbcTemplate.update(sql.toString(), args) > 0;
+    }
+
+    /**
+     * @return false si la ligne n'existe pas
+     */
+    public boolean deleteRow(TypedSheetTable table, Long id) {
+        return jdbcTemplate.update("DELETE FROM " + table.tableName() + " WHERE id = ?", id) > 0;
+    }
+
+    /**
+     * Insertion par lots JDBC (modification en masse), mêmes règles que insertRow.
+     * @return les ids des lignes créées, dans l'ordre de rows
+     */
+    public List<Long> insertRows(TypedSheetTable table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        String sql = "INSERT INTO " + table.tableName() + " (" + table.columnList() + ") VALUES ("
+                + String.join(", ", Collections.nCopies(table.columns().size(), "?")) + ")";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Object[] values = valuesInColumnOrder(table, rows.get(i));
+                        for (int j = 0; j < values.length; j++) {
+                            statement.setObject(j + 1, values[j]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keyHolder);
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Remplacement par lots JDBC, mêmes règles que updateRow. Les lignes doivent exister (voir lockRows).
+     */
+    public void updateRows(TypedSheetTable table, List<RowEntityDto> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table.tableName()).append(" SET ");
+        for (int i = 0; i < table.columns().size(); i++) {
+            sql.append(i > 0 ? ", " : "").append('`').append(table.columns().get(i).name()).append("` = ?");
+        }
+        sql.append(" WHERE id = ?");
+        jdbcTemplate.batchUpdate(sql.toString(), rows.stream().map(row -> {
+            Object[] values = valuesInColumnOrder(table, row.getData());
+            Object[] args = Arrays.copyOf(values, values.length + 1);
+            args[values.length] = row.getId();
+            return args;
+        }).collect(Collectors.toList()));
+    }
+
+    public void deleteRows(TypedSheetTable table, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM " + table.tableName() + " WHERE id = ?",
+                ids.stream().map(id -> new Object[]{id}).collect(Collectors.toList()));
+    }
+
+    /**
+     * Lignes présentes dans la table parmi les ids donnés (id -> ligne), verrouillées jusqu'à la fin de la transaction.
+     */
+    public Map<Long, RowEntityDto> lockRows(TypedSheetTable table, Collection<Long> ids) {
+        return readRows(table, ids, " FOR UPDATE");
+    }
+
+    /**
+     * Lignes présentes dans la table parmi les ids donnés (id -> ligne), sans verrou.
+     */
+    public Map<Long, RowEntityDto> findRows(TypedSheetTable table, Collection<Long> ids) {
+        return readRows(table, ids, "");
+    }
+
+    private Map<Long, RowEntityDto> readRows(TypedSheetTable table, Collection<Long> ids, String lock) {
+        Map<Long, RowEntityDto> rows = new HashMap<>();
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        for (int from = 0; from < distinct.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + ID_CHUNK_SIZE, distinct.size()));
+            jdbcTemplate.query("SELECT r.id, " + table.selectList("r") + " FROM " + table.tableName() + " r WHERE r.id IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY r.id" + lock,
+                    rowMapper(table), chunk.toArray()).forEach(row -> rows.put(row.getId(), row));
+        }
+        return rows;
+    }
+
+    /**
+     * Lignes de la table filtrées par mot-clé, au format de row_entities (id, data_json, created_at, sheet_id) :
+     * branche d'une réunion avec row_entities (recherche globale). data_json est construit par JSON_OBJECT,
+     * created_at est NULL.
+     */
+    public String selectAsRowEntities(TypedSheetTable table, String keyword, List<Object> args) {
+        StringBuilder data = new StringBuilder("JSON_OBJECT(");
+        for (int i = 0; i < table.columns().size(); i++) {
+            TypedSheetTable.Column column = table.columns().get(i);
+            data.append(i > 0 ? ", " : "").append("?, ").append(column.sql("r"));
+            args.add(column.header());
+        }
+        data.append(")");
+        args.add(table.sheetId());
+        return "SELECT r.id, " + data + " AS data_json, CAST(NULL AS DATETIME) AS created_at, ? AS sheet_id FROM "
+                + table.tableName() + " r WHERE 1 = 1" + keywordCondition(table, keyword, args);
+    }
+
+    public boolean hasRows(TypedSheetTable table, String keyword) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT 1 FROM " + table.tableName() + " r WHERE 1 = 1" + keywordCondition(table, keyword, args) + " LIMIT 1";
+        return !jdbcTemplate.queryForList(sql, Integer.class, args.toArray()).isEmpty();
+    }
+
+    /**
+     * Transmet les valeurs de chaque ligne (dans l'ordre des en-têtes) au consommateur, au fil de la lecture.
+     * Même curseur en flux que {@link excel_upload_service.service.export.SheetRowStreamer}.
+     */
+    public void streamRows(TypedSheetTable table, String keyword, Consumer<List<Object>> valuesConsumer) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT " + table.selectList("r") + " FROM " + table.tableName() + " r WHERE 1 = 1"
+                + keywordCondition(table, keyword, args) + " ORDER BY r.id";
+        int columnCount = table.columns().size();
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, rs -> {
+            List<Object> values = new ArrayList<>(columnCount);
+            for (int i = 1; i <= columnCount; i++) {
+                values.add(rs.getObject(i));
+            }
+            valuesConsumer.accept(values);
+        });
+    }
+
+    private String keywordCondition(TypedSheetTable table, String keyword, List<Object> args) {
+        if (keyword == null || keyword.isBlank()) {
+            return "";
+        }
+        List<String> indexedTerms = new ArrayList<>();
+        List<String> likeTokens = new ArrayList<>();
+        for (String token : keyword.trim().split("\\s+")) {
+            Optional<String> terms = table.fullTextColumns().isEmpty() || !LETTER.matcher(token).find()
+                    ? Optional.empty()
+                    : fullTextSearchSupport.toBooleanTerms(token);
+            if (terms.isPresent()) {
+                indexedTerms.add(terms.get());
+            } else {
+                likeTokens.add(token);
+            }
+        }
+        StringBuilder condition = new StringBuilder();
+        if (!indexedTerms.isEmpty()) {
+            condition.append(" AND MATCH(").append(table.fullTextList("r")).append(") AGAINST (? IN BOOLEAN MODE)");
+            args.add(String.join(" ", indexedTerms));
+        }
+        // CONCAT_WS ignore les NULL et convertit les colonnes numériques et dates en texte
+        String concatenated = "CONCAT_WS(' ', " + table.selectList("r") + ")";
+        for (String token : likeTokens) {
+            condition.append(" AND ").append(concatenated).append(" LIKE ?");
+            args.add("%" + escapeLike(token) + "%");
+        }
+        return condition.toString();
+    }
+
+    private static String filterConditions(TypedSheetTable table, Map<String, String> filters, List<Object> args) {
+        StringBuilder condition = new StringBuilder();
+        filters.forEach((header, value) -> {
+            TypedSheetTable.Column column = table.requireColumn(header);
+            if (value.endsWith("*")) {
+                condition.append(" AND CAST(").append(column.sql("r")).append(" AS CHAR) LIKE ?");
+                args.add(escapeLike(value.substring(0, value.length() - 1)) + "%");
+            } else {
+                condition.append(" AND ").append(column.sql("r")).append(" = ?");
+                args.add(value);
+            }
+        });
+        return condition.toString();
+    }
+
+    // Colonnes filtrées et triées, comptées pour leur indexation (requête déjà validée par filterConditions et orderBy)
+    private void recordColumnUsage(TypedSheetTable table, Map<String, String> filters, Sort sort) {
+        filters.keySet().forEach(header -> typedColumnIndexes.recordUsage(table, header));
+        for (Sort.Order order : sort) {
+            if (order.getProperty().startsWith(JSON_PREFIX)) {
+                typedColumnIndexes.recordUsage(table, order.getProperty().substring(JSON_PREFIX.length()));
+            }
+        }
+    }
+
+    private static String orderBy(TypedSheetTable table, Sort sort) {
+        List<String> clauses = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String direction = order.isDescending() ? " DESC" : " ASC";
+            String property = order.getProperty();
+            if ("id".equals(property) || "createdAt".equals(property)) {
+                clauses.add("r.id" + direction);
+                continue;
+            }
+            if (RowSearchQuery.isSheetProperty(property)) {
+                // Même valeur pour toutes les lignes de la feuille : sans effet sur l'ordre
+                continue;
+            }
+            if (!property.startsWith(JSON_PREFIX)) {
+                throw new IllegalArgumentException("Tri non supporté sur la propriété : " + property);
+            }
+            String column = table.requireColumn(property.substring(JSON_PREFIX.length())).sql("r");
+            // Valeurs nulles en dernier quel que soit le sens
+            clauses.add(column + " IS NULL");
+            clauses.add(column + direction);
+        }
+        clauses.add("r.id" + (sort.stream().findFirst().map(Sort.Order::isDescending).orElse(false) ? " DESC" : " ASC"));
+        return " ORDER BY " + String.join(", ", clauses);
+    }
+
+    private static RowMapper<RowEntityDto> rowMapper(TypedSheetTable table) {
+        List<TypedSheetTable.Column> columns = table.columns();
+        return (rs, rowNum) -> new RowEntityDto(rs.getLong(1), table.sheetId(), table.sheetIndex(), readValues(rs, columns));
+    }
+
+    private static Map<String, Object> readValues(ResultSet rs, List<TypedSheetTable.Column> columns) throws SQLException {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            data.put(columns.get(i).header(), rs.getObject(i + 2));
+        }
+        return data;
+    }
+
+    private static Object[] valuesInColumnOrder(TypedSheetTable table, Map<String, Object> data) {
+        Object[] values = new Object[table.columns().size()];
+        if (data != null) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = data.get(table.columns().get(i).header());
+            }
+        }
+        return values;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
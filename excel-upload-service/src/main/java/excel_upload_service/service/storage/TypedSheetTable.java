@@ -0,0 +1,114 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/storage/TypedSheetTable.java
+package excel_upload_service.service.storage;
+
+import excel_upload_service.service.indexing.JsonKeyPaths;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Table typée d'une feuille (dynamic_table_*) : une colonne SQL par en-tête, dans l'ordre de SheetEntity.headersJson.
+ *
+ * @param sheetId    la feuille
+ * @param sheetIndex position de la feuille dans le classeur (renvoyée avec chaque ligne)
+ * @param tableName  nom de la table, déjà nettoyé à la création
+ * @param columns    colonnes alignées sur les en-têtes
+ * @param fullTextColumns noms des colonnes de l'index FULLTEXT de la table, dans son ordre ; vide sans index
+ */
+public record TypedSheetTable(Long sheetId, int sheetIndex, String tableName, List<Column> columns,
+                              List<String> fullTextColumns) {
+
+    private static final Set<String> NUMERIC_TYPES = Set.of("bigint", "int", "integer", "smallint", "tinyint", "mediumint",
+            "decimal", "numeric", "double", "float");
+
+    /**
+     * Nom de la colonne SQL créée pour un en-tête : seule règle de nettoyage, partagée par le DDL
+     * (SchemaManagerServiceImpl), l'écriture des lignes et les lectures.
+     */
+    public static String columnName(String header) {
+        return header.replaceAll("[^a-zA-Z0-9_]", "");
+    }
+
+    /**
+     * Colonne correspondant à un en-tête (ou à son nom de colonne nettoyé, sans tenir compte de la casse).
+     */
+    public Optional<Column> column(String header) {
+        if (header == null) {
+            return Optional.empty();
+        }
+        for (Column column : columns) {
+            if (column.header().equals(header)) {
+                return Optional.of(column);
+            }
+        }
+        String name = columnName(header);
+        return columns.stream().filter(column -> column.name().equalsIgnoreCase(name)).findFirst();
+    }
+
+    public Column requireColumn(String header) {
+        return column(header).orElseThrow(() ->
+                new IllegalArgumentException("Colonne inconnue pour cette feuille : " + header));
+    }
+
+    /**
+     * Liste des colonnes préfixées par l'alias : r.`col1`, r.`col2`
+     */
+    public String selectList(String alias) {
+        return columns.stream().map(column -> column.sql(alias)).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Colonnes de l'index FULLTEXT préfixées par l'alias, pour MATCH (même liste et même ordre que l'index)
+     */
+    public String fullTextList(String alias) {
+        return fullTextColumns.stream().map(name -> alias + ".`" + name + "`").collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Liste des colonnes sans alias, pour un INSERT : `col1`, `col2`
+     */
+    public String columnList() {
+        return columns.stream().map(column -> "`" + column.name() + "`").collect(Collectors.joining(", "));
+    }
+
+    public List<String> headers() {
+        return columns.stream().map(Column::header).collect(Collectors.toList());
+    }
+
+    public List<String> dataTypes() {
+        return columns.stream().map(Column::dataType).collect(Collectors.toList());
+    }
+
+    /**
+     * @param header   en-tête d'origine (clé des lignes JSON)
+     * @param name     nom de la colonne SQL
+     * @param dataType DATA_TYPE d'information_schema, en minuscules
+     */
+    public record Column(String header, String name, String dataType) {
+
+        public String sql(String alias) {
+            return alias + ".`" + name + "`";
+        }
+
+        /**
+         * Catégorie de graphique et d'agrégat : valeur convertie en texte par LEFT et tronquée comme sur row_entities
+         * (voir JsonKeyPaths).
+         */
+        public String categorySql(String alias) {
+            return JsonKeyPaths.truncateCategory(sql(alias));
+        }
+
+        /**
+         * Valeur numérique d'un agrégat matérialisé, même conversion que pour data_json.
+         */
+        public String decimalSql(String alias) {
+            return "CAST(" + sql(alias) + " AS DECIMAL(18, 4))";
+        }
+
+        public boolean isNumeric() {
+            return dataType != null && NUMERIC_TYPES.contains(dataType);
+        }
+    }
+}
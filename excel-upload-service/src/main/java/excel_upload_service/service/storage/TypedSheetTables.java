@@ -0,0 +1,89 @@
+// CHEMIN : excel-upload-service/src/main/java/excel_upload_service/service/storage/TypedSheetTables.java
+package excel_upload_service.service.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.model.SheetEntity;
+import excel_upload_service.repository.SheetEntityRepository;
+import excel_upload_service.service.SchemaManagerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Résout la table typée d'une feuille. Les feuilles ingérées depuis l'arrivée des tables typées portent leur table
+ * dans SheetEntity.storageTable ; les autres (storageTable null) restent lues depuis row_entities.data_json.
+ *
+ * La description (colonnes et types) est mise en cache par feuille : la table d'une feuille ne change pas
+ * après l'ingestion. Le cache est vidé à la suppression des feuilles et à la réinitialisation.
+ * Une table absente (supprimée à la main) fait retomber la feuille sur le stockage JSON.
+ */
+@Component
+public class TypedSheetTables {
+
+    private static final Logger logger = LoggerFactory.getLogger(TypedSheetTables.class);
+
+    private final SheetEntityRepository sheetRepository;
+    private final SchemaManagerService schemaManagerService;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Optional<TypedSheetTable>> cache = new ConcurrentHashMap<>();
+
+    public TypedSheetTables(SheetEntityRepository sheetRepository, SchemaManagerService schemaManagerService,
+                            ObjectMapper objectMapper) {
+        this.sheetRepository = sheetRepository;
+        this.schemaManagerService = schemaManagerService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<TypedSheetTable> find(Long sheetId) {
+        Optional<TypedSheetTable> cached = cache.get(sheetId);
+        if (cached != null) {
+            return cached;
+        }
+        return sheetRepository.findById(sheetId).flatMap(this::find);
+    }
+
+    public Optional<TypedSheetTable> find(SheetEntity sheet) {
+        return cache.computeIfAbsent(sheet.getId(), id -> describe(sheet));
+    }
+
+    public void evict(Collection<Long> sheetIds) {
+        sheetIds.forEach(cache::remove);
+    }
+
+    public void evictAll() {
+        cache.clear();
+    }
+
+    private Optional<TypedSheetTable> describe(SheetEntity sheet) {
+        if (sheet.getStorageTable() == null) {
+            return Optional.empty();
+        }
+        Map<String, String> columnTypes = schemaManagerService.getColumnTypes(sheet.getStorageTable());
+        if (columnTypes.isEmpty()) {
+            logger.warn("Table {} de la feuille {} introuvable : lecture depuis row_entities.", sheet.getStorageTable(), sheet.getId());
+            return Optional.empty();
+        }
+        List<String> headers;
+        try {
+            headers = objectMapper.readValue(sheet.getHeadersJson(), new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("JSON deserialization error", e);
+        }
+        List<TypedSheetTable.Column> columns = new ArrayList<>(headers.size());
+        for (String header : headers) {
+            String name = TypedSheetTable.columnName(header);
+            columns.add(new TypedSheetTable.Column(header, name, columnTypes.get(name.toLowerCase())));
+        }
+        return Optional.of(new TypedSheetTable(sheet.getId(), sheet.getSheetIndex(), sheet.getStorageTable(), List.copyOf(columns),
+                List.copyOf(schemaManagerService.getFullTextColumns(sheet.getStorageTable()))));
+    }
+}
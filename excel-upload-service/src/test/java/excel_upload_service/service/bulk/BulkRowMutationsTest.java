@@ -0,0 +1,134 @@
+package excel_upload_service.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import excel_upload_service.dto.BulkRowRequest;
+import excel_upload_service.dto.BulkRowResult;
+import excel_upload_service.dto.RowEntityDto;
+import excel_upload_service.model.ModificationHistory;
+import excel_upload_service.service.AggregateService;
+import excel_upload_service.service.AggregateService.RowChange;
+import excel_upload_service.service.ModificationHistoryService;
+import excel_upload_service.service.storage.TypedRowQueries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+// Lignes JSON (row_entities) sur H2 en mode MySQL ; historique et agrégats sont capturés
+class BulkRowMutationsTest {
+
+	private static final long SHEET_ID = 1L;
+	private static final long OTHER_SHEET_ID = 2L;
+
+	private JdbcTemplate jdbcTemplate;
+	private ModificationHistoryService historyService;
+	private AggregateService aggregateService;
+	private BulkRowMutations mutations;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:bulk;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+		jdbcTemplate.execute("CREATE TABLE row_entities (id BIGINT AUTO_INCREMENT PRIMARY KEY, data_json LONGTEXT, " +
+				"sheet_id BIGINT, created_at TIMESTAMP)");
+		historyService = mock(ModificationHistoryService.class);
+		aggregateService = mock(AggregateService.class);
+		mutations = new BulkRowMutations(jdbcTemplate, new ObjectMapper(), mock(TypedRowQueries.class),
+				historyService, aggregateService);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("DROP TABLE row_entities");
+	}
+
+	@Test
+	void reportsEachItem() {
+		long updated = insertRow(SHEET_ID, "{\"Nom\":\"A\"}");
+		long deleted = insertRow(SHEET_ID, "{\"Nom\":\"B\"}");
+		long otherSheet = insertRow(OTHER_SHEET_ID, "{\"Nom\":\"C\"}");
+
+		BulkRowRequest request = new BulkRowRequest(
+				Arrays.asList(row(null, "D"), new RowEntityDto()),
+				Arrays.asList(row(updated, "A2"), row(999L, "X"), row(null, "Y"), row(otherSheet, "C2")),
+				Arrays.asList(updated, updated, deleted, null, otherSheet));
+
+		BulkRowResult result = mutations.applyToJsonRows(SHEET_ID, request);
+
+		Map<String, String> statuses = result.getItems().stream().collect(Collectors.toMap(
+				item -> item.getOperation() + "#" + item.getIndex(), BulkRowResult.Item::getStatus));
+		assertEquals(Map.ofEntries(
+				Map.entry("CREATE#0", BulkRowResult.OK),
+				Map.entry("CREATE#1", BulkRowResult.INVALID),
+				Map.entry("UPDATE#0", BulkRowResult.OK),
+				Map.entry("UPDATE#1", BulkRowResult.NOT_FOUND),
+				Map.entry("UPDATE#2", BulkRowResult.INVALID),
+				Map.entry("UPDATE#3", BulkRowResult.NOT_FOUND),
+				// Mise à jour puis suppression de la même ligne, puis suppression en double
+				Map.entry("DELETE#0", BulkRowResult.OK),
+				Map.entry("DELETE#1", BulkRowResult.NOT_FOUND),
+				Map.entry("DELETE#2", BulkRowResult.OK),
+				Map.entry("DELETE#3", BulkRowResult.INVALID),
+				Map.entry("DELETE#4", BulkRowResult.NOT_FOUND)), statuses);
+		assertEquals(1, result.getCreated());
+		assertEquals(1, result.getUpdated());
+		assertEquals(2, result.getDeleted());
+		assertEquals(7, result.getFailed());
+
+		// Seules la ligne créée et la ligne de l'autre feuille restent, inchangée pour cette dernière
+		assertEquals(List.of("{\"Nom\":\"D\"}"), jdbcTemplate.queryForList(
+				"SELECT data_json FROM row_entities WHERE sheet_id = ?", String.class, SHEET_ID));
+		assertEquals("{\"Nom\":\"C\"}", jdbcTemplate.queryForObject(
+				"SELECT data_json FROM row_entities WHERE id = ?", String.class, otherSheet));
+	}
+
+	@Test
+	void updateThenDeleteRecordsBothVersions() {
+		long id = insertRow(SHEET_ID, "{\"Nom\":\"A\"}");
+
+		mutations.applyToJsonRows(SHEET_ID, new BulkRowRequest(
+				new ArrayList<>(), List.of(row(id, "A2")), List.of(id)));
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<ModificationHistory>> histories = ArgumentCaptor.forClass(List.class);
+		verify(historyService).saveHistories(histories.capture());
+		List<ModificationHistory> entries = histories.getValue();
+		assertEquals(2, entries.size());
+		assertEquals("UPDATE", entries.get(0).getOperationType());
+		assertEquals("{\"Nom\":\"A\"}", entries.get(0).getOldData());
+		assertEquals("{\"Nom\":\"A2\"}", entries.get(0).getNewData());
+		// La suppression part de la version remplacée dans le même lot
+		assertEquals("DELETE", entries.get(1).getOperationType());
+		assertEquals("{\"Nom\":\"A2\"}", entries.get(1).getOldData());
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<RowChange>> changes = ArgumentCaptor.forClass(List.class);
+		verify(aggregateService).applyRowChanges(eq(SHEET_ID), changes.capture());
+		assertEquals(List.of(new RowChange("{\"Nom\":\"A\"}", "{\"Nom\":\"A2\"}"), new RowChange("{\"Nom\":\"A2\"}", null)),
+				changes.getValue());
+	}
+
+	private long insertRow(long sheetId, String json) {
+		jdbcTemplate.update("INSERT INTO row_entities (data_json, sheet_id) VALUES (?, ?)", json, sheetId);
+		return jdbcTemplate.queryForObject("SELECT MAX(id) FROM row_entities", Long.class);
+	}
+
+	private static RowEntityDto row(Long id, String name) {
+		RowEntityDto dto = new RowEntityDto();
+		dto.setId(id);
+		dto.setData(Map.of("Nom", name));
+		return dto;
+	}
+}
@@ -0,0 +1,225 @@
+package excel_upload_service.service.history;
+
+import excel_upload_service.model.ModificationHistory;
+import excel_upload_service.repository.ModificationHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Chaînes d'historique écrites en mode sync (dans la transaction du test) puis relues comme le fait le service
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, JdbcTemplateAutoConfiguration.class})
+@Import({JsonRowPatch.class, HistoryEncoder.class, HistoryVersions.class, AsyncHistoryWriter.class})
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:history;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"history.writer.mode=sync",
+		"history.snapshot-interval=3"
+})
+class HistoryChainTest {
+
+	private static final long ROW_ID = 7L;
+
+	@Autowired
+	private AsyncHistoryWriter historyWriter;
+	@Autowired
+	private HistoryEncoder historyEncoder;
+	@Autowired
+	private HistoryVersions historyVersions;
+	@Autowired
+	private ModificationHistoryRepository repository;
+
+	@Test
+	void snapshotEveryIntervalEntries() {
+		List<String> versions = recordVersions(6);
+		List<ModificationHistory> chain = storedChain();
+
+		// CREATE, deux deltas, instantané (3e entrée depuis la base), deux deltas
+		assertEquals(versions.get(0), chain.get(0).getNewData());
+		assertDelta(chain.get(1));
+		assertDelta(chain.get(2));
+		assertNull(chain.get(3).getOldData());
+		assertEquals(versions.get(3), chain.get(3).getNewData());
+		assertNull(chain.get(3).getPatch());
+		assertDelta(chain.get(4));
+		assertDelta(chain.get(5));
+
+		List<HistoryVersions.Step> steps = historyVersions.replay(chain);
+		for (int i = 0; i < versions.size(); i++) {
+			assertEquals(versions.get(i), steps.get(i).after());
+			assertEquals(i == 0 ? null : versions.get(i - 1), steps.get(i).before());
+		}
+	}
+
+	@Test
+	void deleteAfterDeltasKeepsLastVersion() {
+		List<String> versions = recordVersions(3);
+		String last = versions.get(versions.size() - 1);
+		historyWriter.record(null, ROW_ID, "DELETE", last, null);
+
+		ModificationHistory delete = storedChain().get(3);
+		assertNull(delete.getOldData());
+		assertNull(delete.getNewData());
+		assertNull(delete.getVersionHash());
+
+		List<HistoryVersions.Step> steps = historyVersions.replay(
+				repository.findChain(null, ROW_ID, delete.getId(), delete.getId()));
+		HistoryVersions.Step step = steps.get(steps.size() - 1);
+		assertEquals(delete.getId(), step.entry().getId());
+		assertEquals(last, step.before());
+		assertNull(step.after());
+	}
+
+	@Test
+	void firstUpdateOfImportedRowIsFullBase() {
+		String imported = row(0);
+		historyWriter.record(null, ROW_ID, "UPDATE", imported, row(1));
+		historyWriter.record(null, ROW_ID, "UPDATE", row(1), row(2));
+
+		List<ModificationHistory> chain = storedChain();
+		assertEquals(imported, chain.get(0).getOldData());
+		assertEquals(row(1), chain.get(0).getNewData());
+		assertNull(chain.get(0).getPatch());
+		assertDelta(chain.get(1));
+
+		List<HistoryVersions.Step> steps = historyVersions.replay(chain);
+		assertEquals(imported, steps.get(0).before());
+		assertEquals(row(2), steps.get(1).after());
+	}
+
+	@Test
+	void findChainStartingMidPage() {
+		List<String> versions = recordVersions(6);
+		List<ModificationHistory> stored = storedChain();
+
+		// Page qui commence au 2e delta : la chaîne repart du CREATE
+		long minId = stored.get(2).getId();
+		long maxId = stored.get(5).getId();
+		List<HistoryVersions.Step> steps = historyVersions.replay(repository.findChain(null, ROW_ID, minId - 1, maxId));
+		assertEquals(stored.get(0).getId(), steps.get(0).entry().getId());
+		assertEquals(versions.get(1), stepOf(steps, stored.get(2)).before());
+		assertEquals(versions.get(2), stepOf(steps, stored.get(2)).after());
+		assertEquals(versions.get(5), stepOf(steps, stored.get(5)).after());
+
+		// Page qui commence après l'instantané : la chaîne repart de l'instantané
+		minId = stored.get(4).getId();
+		steps = historyVersions.replay(repository.findChain(null, ROW_ID, minId - 1, maxId));
+		assertEquals(stored.get(3).getId(), steps.get(0).entry().getId());
+		assertEquals(versions.get(3), stepOf(steps, stored.get(4)).before());
+		assertEquals(versions.get(4), stepOf(steps, stored.get(4)).after());
+		assertEquals(versions.get(5), stepOf(steps, stored.get(5)).after());
+	}
+
+	@Test
+	void entryNotFollowingStoredVersionIsFullBase() {
+		recordVersions(2);
+		// Version 2 perdue (écriture en échec, entrées dans le désordre) : la suivante part d'une version inconnue
+		historyWriter.record(null, ROW_ID, "UPDATE", row(2), row(3));
+		historyWriter.record(null, ROW_ID, "UPDATE", row(3), row(4));
+
+		List<ModificationHistory> chain = storedChain();
+		assertEquals(row(2), chain.get(2).getOldData());
+		assertEquals(row(3), chain.get(2).getNewData());
+		assertNull(chain.get(2).getPatch());
+		assertDelta(chain.get(3));
+
+		List<HistoryVersions.Step> steps = historyVersions.replay(chain);
+		assertEquals(row(2), steps.get(2).before());
+		assertEquals(row(4), steps.get(3).after());
+	}
+
+	@Test
+	void brokenRowNextEntryIsFullBase() {
+		recordVersions(2);
+		ModificationHistory next = new ModificationHistory(null, ROW_ID, "UPDATE", row(1), row(2), LocalDateTime.now());
+		ModificationHistory following = new ModificationHistory(null, ROW_ID, "UPDATE", row(2), row(3), LocalDateTime.now());
+		List<ModificationHistory> entries = new ArrayList<>(List.of(next, following));
+
+		historyEncoder.encode(entries, Set.of(new HistoryRowKey(null, ROW_ID)));
+
+		assertEquals(row(1), next.getOldData());
+		assertEquals(row(2), next.getNewData());
+		assertNull(next.getPatch());
+		assertDelta(following);
+	}
+
+	@Test
+	void rebuiltVersionsMatchStoredTextExactly() {
+		List<String> versions = List.of(
+				"{\"Nom\":\"Dupont\",\"Montant\":1.5000,\"Taux\":0.10,\"Ville\":\"Lyon\",\"Date\":\"2024-01-31 00:00:00\"}",
+				"{\"Nom\":\"Dupont\",\"Montant\":2.2500,\"Taux\":0.10,\"Ville\":\"Lyon\",\"Date\":\"2024-01-31 00:00:00\"}",
+				"{\"Nom\":\"Dupont\",\"Montant\":2.2500,\"Ville\":\"Lyon\",\"Date\":\"2024-01-31 00:00:00\"}",
+				// Membre rajouté au milieu : l'ordre d'origine est conservé
+				"{\"Nom\":\"Dupont\",\"Montant\":2.2500,\"Taux\":0.2000,\"Ville\":\"Lyon\",\"Date\":\"2024-01-31 00:00:00\"}");
+		historyWriter.record(null, ROW_ID, "CREATE", null, versions.get(0));
+		for (int i = 1; i < versions.size(); i++) {
+			historyWriter.record(null, ROW_ID, "UPDATE", versions.get(i - 1), versions.get(i));
+		}
+
+		List<ModificationHistory> chain = storedChain();
+		assertDelta(chain.get(1));
+		List<HistoryVersions.Step> steps = historyVersions.replay(chain);
+		for (int i = 0; i < versions.size(); i++) {
+			assertEquals(versions.get(i), steps.get(i).after());
+			assertEquals(chain.get(i).getVersionHash(), HistoryEncoder.hash(steps.get(i).after()));
+		}
+	}
+
+	// CREATE de la version 0 puis une modification par version
+	private List<String> recordVersions(int count) {
+		List<String> versions = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			versions.add(row(i));
+			if (i == 0) {
+				historyWriter.record(null, ROW_ID, "CREATE", null, row(0));
+			} else {
+				historyWriter.record(null, ROW_ID, "UPDATE", row(i - 1), row(i));
+			}
+		}
+		return versions;
+	}
+
+	// Une seule cellule change d'une version à l'autre : le patch est bien plus court que la ligne
+	private static String row(int version) {
+		return "{\"Nom\":\"Dupont\",\"Adresse\":\"12 rue de la République, 69002 Lyon\"," +
+				"\"Commentaire\":\"Client historique, relancé chaque trimestre\",\"Version\":\"v" + version + "\"}";
+	}
+
+	private List<ModificationHistory> storedChain() {
+		List<ModificationHistory> chain = new ArrayList<>(repository.findRowHistory(null, ROW_ID));
+		chain.sort(Comparator.comparing(ModificationHistory::getId));
+		return chain;
+	}
+
+	private static HistoryVersions.Step stepOf(List<HistoryVersions.Step> steps, ModificationHistory entry) {
+		return steps.stream().filter(step -> step.entry().getId().equals(entry.getId())).findFirst().orElseThrow();
+	}
+
+	private static void assertDelta(ModificationHistory entry) {
+		assertNull(entry.getOldData());
+		assertNull(entry.getNewData());
+		assertNotNull(entry.getPatch());
+		assertNotNull(entry.getVersionHash());
+	}
+}
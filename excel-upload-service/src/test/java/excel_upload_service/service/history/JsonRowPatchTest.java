@@ -0,0 +1,69 @@
+package excel_upload_service.service.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonRowPatchTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final JsonRowPatch jsonRowPatch = new JsonRowPatch(objectMapper);
+
+	@Test
+	void roundTripWithEscapedKeys() throws Exception {
+		String oldJson = "{\"a/b\":\"1\",\"c~d\":\"2\",\"~1\":\"3\",\"x~01/y\":\"4\",\"kept\":\"5\"}";
+		String newJson = "{\"a/b\":\"10\",\"~1\":\"3\",\"x~01/y\":\"40\",\"kept\":\"5\",\"e/~f\":\"6\"}";
+
+		String patch = jsonRowPatch.diff(oldJson, newJson);
+
+		assertTrue(patch.contains("\"/a~1b\""), patch);
+		assertTrue(patch.contains("\"/c~0d\""), patch);
+		assertTrue(patch.contains("\"/x~001~1y\""), patch);
+		assertTrue(patch.contains("\"/e~1~0f\""), patch);
+		assertEquals(objectMapper.readTree(newJson), objectMapper.readTree(jsonRowPatch.apply(oldJson, patch)));
+	}
+
+	@Test
+	void onlyChangedMembersArePatched() throws Exception {
+		String oldJson = "{\"Nom\":\"Dupont\",\"Ville\":\"Lyon\",\"Âge\":30}";
+		String newJson = "{\"Nom\":\"Dupont\",\"Ville\":\"Paris\",\"Âge\":30}";
+
+		String patch = jsonRowPatch.diff(oldJson, newJson);
+
+		assertEquals("[{\"op\":\"replace\",\"path\":\"/Ville\",\"value\":\"Paris\"}]", patch);
+		assertEquals(objectMapper.readTree(newJson), objectMapper.readTree(jsonRowPatch.apply(oldJson, patch)));
+		assertEquals("[]", jsonRowPatch.diff(oldJson, oldJson));
+	}
+
+	@Test
+	void keepsDecimalsAsWritten() {
+		String oldJson = "{\"Montant\":1.5000,\"Taux\":0.10,\"Nom\":\"A\"}";
+		String newJson = "{\"Montant\":1.5000,\"Taux\":0.1,\"Nom\":\"B\"}";
+
+		String patch = jsonRowPatch.diff(oldJson, newJson);
+
+		assertEquals(newJson, jsonRowPatch.apply(oldJson, patch));
+	}
+
+	@Test
+	void noPatchWhenMemberOrderWouldChange() {
+		// Membre retiré puis rajouté à sa place d'origine : apply le remettrait en fin d'objet
+		assertNull(jsonRowPatch.diff("{\"a\":1,\"c\":3}", "{\"a\":1,\"b\":2,\"c\":3}"));
+	}
+
+	@Test
+	void noPatchForNonObjectVersions() {
+		assertNull(jsonRowPatch.diff(null, "{\"a\":1}"));
+		assertNull(jsonRowPatch.diff("[1]", "{\"a\":1}"));
+	}
+
+	@Test
+	void rejectsNestedPaths() {
+		String patch = "[{\"op\":\"replace\",\"path\":\"/a/b\",\"value\":1}]";
+		assertThrows(IllegalStateException.class, () -> jsonRowPatch.apply("{\"a\":{}}", patch));
+	}
+}
@@ -0,0 +1,34 @@
+package excel_upload_service.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RowCursorTest {
+
+	@Test
+	void roundTrip() {
+		assertEquals(42L, RowCursor.decode(RowCursor.encode(7L, 42L, false), 7L, false));
+		assertEquals(Long.MAX_VALUE - 1, RowCursor.decode(RowCursor.encode(7L, Long.MAX_VALUE - 1, true), 7L, true));
+	}
+
+	@Test
+	void rejectsCursorFromAnotherSheet() {
+		String cursor = RowCursor.encode(7L, 42L, false);
+		assertThrows(IllegalArgumentException.class, () -> RowCursor.decode(cursor, 8L, false));
+	}
+
+	@Test
+	void rejectsCursorFromAnotherDirection() {
+		String cursor = RowCursor.encode(7L, 42L, false);
+		assertThrows(IllegalArgumentException.class, () -> RowCursor.decode(cursor, 7L, true));
+	}
+
+	@Test
+	void rejectsMalformedCursor() {
+		assertThrows(IllegalArgumentException.class, () -> RowCursor.decode("%%%", 7L, false));
+		assertThrows(IllegalArgumentException.class, () -> RowCursor.decode(RowCursor.encode(7L, null, false), 7L, false));
+		assertThrows(IllegalArgumentException.class, () -> RowCursor.decode("bm90LWEtY3Vyc29y", 7L, false));
+	}
+}
@@ -4,6 +4,8 @@ export interface FileEntity {
   id: number;
   fileName: string;
   uploadTimestamp: string;
+  status?: 'PENDING' | 'COMPLETED' | 'FAILED' | 'DELETING' | null;
+  processedAt?: string | null;
   sheets: SheetEntity[];
 }
 
@@ -12,6 +14,7 @@ export interface UploadResponse {
   message: string;
   errors: string[] | null;
   processedRows: number;
+  fileId?: number;
 }
 
 export interface PageResponse<T> {
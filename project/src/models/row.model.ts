@@ -1,5 +1,6 @@
 export interface RowEntity {
   id: number;
+  sheetId?: number; // Feuille de la ligne (ids propres à la feuille pour les tables typées)
   sheetIndex: number;
   data: { [key: string]: any };
   sheetName?: string; // Ajout pour identifier par sheetname
@@ -8,9 +9,44 @@ export interface RowEntity {
 export interface ModificationHistory {
   id: number;
   rowEntityId: number;
+  typedSheetId?: number | null; // Feuille de la ligne si elle est stockée en table typée (ids propres à la feuille)
   operationType: 'CREATE' | 'UPDATE' | 'DELETE';
   oldData: string | null;
   newData: string | null;
   timestamp: string;
   sheetName?: string; // Ajout pour identifier par sheetname
-}
\ No newline at end of file
+  patch?: string | null; // JSON Patch (RFC 6902) stocké ; oldData et newData sont reconstruits par le serveur
+}
+
+// Contenu d'une ligne après une entrée de son historique
+export interface RowVersion {
+  rowEntityId: number;
+  historyId: number;
+  operationType: 'CREATE' | 'UPDATE' | 'DELETE';
+  timestamp: string;
+  deleted: boolean;
+  data: { [key: string]: any };
+}
+
+// Modification en masse : créations, remplacements puis suppressions, en une seule transaction
+export interface BulkRowRequest {
+  creates?: Partial<RowEntity>[];
+  updates?: Partial<RowEntity>[];
+  deletes?: number[];
+}
+
+export interface BulkRowItemResult {
+  operation: 'CREATE' | 'UPDATE' | 'DELETE';
+  index: number; // position dans creates, updates ou deletes
+  id: number | null;
+  status: 'OK' | 'NOT_FOUND' | 'INVALID';
+  message: string | null;
+}
+
+export interface BulkRowResult {
+  created: number;
+  updated: number;
+  deleted: number;
+  failed: number;
+  items: BulkRowItemResult[];
+}
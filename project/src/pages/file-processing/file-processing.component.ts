@@ -472,7 +472,7 @@ export class FileProcessingComponent implements OnInit {
     if (!this.selectedSheet) return;
 
     const action = this.isEditMode && row.id
-      ? this.rowService.updateRow(row.id, row)
+      ? this.rowService.updateRow(row.id, row, this.selectedSheet.id)
       : this.rowService.createRow(this.selectedSheet.id, row);
 
     action.subscribe({
@@ -485,8 +485,9 @@ export class FileProcessingComponent implements OnInit {
   }
 
   deleteRow(rowId: number) {
+    if (!this.selectedSheet) return;
     if (confirm('Êtes-vous sûr de vouloir supprimer cette ligne ?')) {
-      this.rowService.deleteRow(rowId).subscribe({
+      this.rowService.deleteRow(rowId, this.selectedSheet.id).subscribe({
         next: () => {
           this.loadRowsForSelectedSheet();
         },
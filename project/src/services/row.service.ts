@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
 import { ApiService } from './api.service';
-import { RowEntity, ModificationHistory } from '../models/row.model';
+import { RowEntity, ModificationHistory, BulkRowRequest, BulkRowResult, RowVersion } from '../models/row.model';
 import { PageResponse } from '../models/file.model';
 import { HttpParams } from '@angular/common/http';
 
@@ -28,20 +28,26 @@ export class RowService {
     return this.api.get<PageResponse<RowEntity>>(`/rows/sheet/${sheetId}`, params);
   }
 
-  getRow(id: number): Observable<RowEntity> {
-    return this.api.get<RowEntity>(`/rows/${id}`);
+  // sheetId obligatoire : les ids de ligne des feuilles stockées en table typée sont propres à la feuille
+  getRow(id: number, sheetId: number): Observable<RowEntity> {
+    return this.api.get<RowEntity>(`/rows/${id}`, new HttpParams().set('sheetId', sheetId.toString()));
   }
 
   createRow(sheetId: number, row: Partial<RowEntity>): Observable<RowEntity> {
     return this.api.post<RowEntity>(`/rows/sheet/${sheetId}`, row);
   }
 
-  updateRow(id: number, row: Partial<RowEntity>): Observable<RowEntity> {
-    return this.api.put<RowEntity>(`/rows/${id}`, row);
+  updateRow(id: number, row: Partial<RowEntity>, sheetId: number): Observable<RowEntity> {
+    return this.api.put<RowEntity>(`/rows/${id}?sheetId=${sheetId}`, row);
   }
 
-  deleteRow(id: number): Observable<void> {
-    return this.api.delete<void>(`/rows/${id}`);
+  deleteRow(id: number, sheetId: number): Observable<void> {
+    return this.api.delete<void>(`/rows/${id}?sheetId=${sheetId}`);
+  }
+
+  // Un seul appel pour un collage de plusieurs cellules ou lignes
+  applyBulk(sheetId: number, request: BulkRowRequest): Observable<BulkRowResult> {
+    return this.api.post<BulkRowResult>(`/rows/sheet/${sheetId}/bulk`, request);
   }
 
   getHistoryForSheet(sheetId: number, page: number, size: number): Observable<PageResponse<ModificationHistory>> {
@@ -51,8 +57,14 @@ export class RowService {
     return this.api.get<PageResponse<ModificationHistory>>(`/history/sheet/${sheetId}`, params);
   }
 
-  getRowHistory(rowId: number): Observable<ModificationHistory[]> {
-    return this.api.get<ModificationHistory[]>(`/history/row/${rowId}`);
+  // sheetId obligatoire, comme pour getRow
+  getRowHistory(rowId: number, sheetId: number): Observable<ModificationHistory[]> {
+    return this.api.get<ModificationHistory[]>(`/history/row/${rowId}`, new HttpParams().set('sheetId', sheetId.toString()));
+  }
+
+  getRowVersion(rowId: number, historyId: number, sheetId: number): Observable<RowVersion> {
+    return this.api.get<RowVersion>(`/history/row/${rowId}/versions/${historyId}`,
+      new HttpParams().set('sheetId', sheetId.toString()));
   }
 
   getAllHistory(): Observable<ModificationHistory[]> {